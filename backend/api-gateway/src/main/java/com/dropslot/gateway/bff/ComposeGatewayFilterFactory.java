@@ -0,0 +1,290 @@
+package com.dropslot.gateway.bff;
+
+import com.dropslot.gateway.loadbalancer.InstanceLoadTracker;
+import com.dropslot.gateway.support.Routes;
+import com.dropslot.gateway.upstream.UpstreamClients;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.route.RouteLocator;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.UriComponentsBuilder;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+
+/**
+ * Answers a route itself by fetching several JSON parts from other routes' upstreams in parallel
+ * and returning them as one object, for clients where each round trip is expensive. Each part has
+ * its own timeout; a part that fails or times out is left out and reported under {@code errors}
+ * with the status it would have had, so the page can still render the rest. The response is 502
+ * only when every part failed.
+ *
+ * <pre>
+ * - id: drop-page
+ *   uri: no://op
+ *   predicates:
+ *     - Path=/api/bff/drop-page/{storeId}
+ *   filters:
+ *     - name: Compose
+ *       args:
+ *         timeout: 800ms
+ *         parts.user: user-service:/users/me
+ *         parts.store: store-service:/stores/{storeId}
+ * </pre>
+ *
+ * Parts are {@code <route id>:<path>}; path variables come from the route's {@code Path} predicate.
+ * Parts are fetched through the target route's URI and connection pool but not its filters, so
+ * limits for the composed page belong on this route. {@code Authorization}, {@code Accept-Language}
+ * and {@code X-Request-Id} are forwarded. Counts {@code gateway.compose.parts} per route and part
+ * with result ok, failed or timeout.
+ */
+@Component
+public class ComposeGatewayFilterFactory
+    extends AbstractGatewayFilterFactory<ComposeGatewayFilterFactory.Config> {
+  private static final List<String> FORWARDED_HEADERS =
+      List.of(HttpHeaders.AUTHORIZATION, HttpHeaders.ACCEPT_LANGUAGE, "X-Request-Id");
+
+  // the route locator is built from the filter factories, so it is looked up lazily
+  private final ObjectProvider<RouteLocator> routeLocator;
+  private final UpstreamClients upstreamClients;
+  private final HttpClient sharedClient;
+  private final LoadBalancerClientFactory loadBalancers;
+  private final InstanceLoadTracker loadTracker;
+  private final ObjectMapper objectMapper;
+  private final MeterRegistry meterRegistry;
+
+  public ComposeGatewayFilterFactory(
+      ObjectProvider<RouteLocator> routeLocator,
+      UpstreamClients upstreamClients,
+      HttpClient sharedClient,
+      LoadBalancerClientFactory loadBalancers,
+      InstanceLoadTracker loadTracker,
+      ObjectMapper objectMapper,
+      MeterRegistry meterRegistry) {
+    super(Config.class);
+    this.routeLocator = routeLocator;
+    this.upstreamClients = upstreamClients;
+    this.sharedClient = sharedClient;
+    this.loadBalancers = loadBalancers;
+    this.loadTracker = loadTracker;
+    this.objectMapper = objectMapper;
+    this.meterRegistry = meterRegistry;
+  }
+
+  @Override
+  public GatewayFilter apply(Config config) {
+    if (config.getParts().isEmpty()) {
+      throw new IllegalArgumentException("Compose needs at least one part");
+    }
+    Map<String, Part> parts = new LinkedHashMap<>();
+    config.getParts().forEach((name, spec) -> parts.put(name, Part.parse(name, spec)));
+    return (exchange, chain) -> compose(exchange, parts, config.getTimeout());
+  }
+
+  private record Part(String name, String routeId, String path) {
+    static Part parse(String name, String spec) {
+      int colon = spec.indexOf(':');
+      if (colon <= 0 || colon == spec.length() - 1) {
+        throw new IllegalArgumentException("Compose part must be <route>:<path>: " + spec);
+      }
+      return new Part(name, spec.substring(0, colon).trim(), spec.substring(colon + 1).trim());
+    }
+  }
+
+  /** A part's body, or the status reported for it when it failed. */
+  private record Fetched(String name, JsonNode body, int status) {}
+
+  private Mono<Void> compose(
+      ServerWebExchange exchange, Map<String, Part> parts, Duration timeout) {
+    String route = Routes.id(exchange);
+    Map<String, String> variables = ServerWebExchangeUtils.getUriTemplateVariables(exchange);
+    for (String value : variables.values()) {
+      // decoded from the client's path, e.g. ..%2Fadmin; must stay within one segment upstream
+      if (value.contains("/") || value.contains("\\") || value.contains("..")) {
+        return Mono.error(
+            new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid path variable"));
+      }
+    }
+    HttpHeaders forwarded = new HttpHeaders();
+    for (String name : FORWARDED_HEADERS) {
+      List<String> values = exchange.getRequest().getHeaders().get(name);
+      if (values != null) forwarded.put(name, values);
+    }
+    return Flux.fromIterable(parts.values())
+        .flatMap(
+            part ->
+                fetch(part, variables, forwarded)
+                    .timeout(timeout)
+                    .map(body -> new Fetched(part.name(), body, 200))
+                    .onErrorResume(e -> Mono.just(new Fetched(part.name(), null, statusOf(e))))
+                    .doOnNext(fetched -> count(route, fetched)))
+        .collectMap(Fetched::name)
+        .flatMap(fetched -> write(exchange.getResponse(), parts, fetched));
+  }
+
+  private Mono<JsonNode> fetch(Part part, Map<String, String> variables, HttpHeaders forwarded) {
+    return routeLocator
+        .getObject()
+        .getRoutes()
+        .filter(route -> route.getId().equals(part.routeId()))
+        .next()
+        .switchIfEmpty(
+            Mono.error(() -> new IllegalStateException("Unknown route: " + part.routeId())))
+        .flatMap(
+            route -> {
+              URI uri = route.getUri();
+              if (!"lb".equals(uri.getScheme())) {
+                return get(client(route), uri, part, variables, forwarded);
+              }
+              return Mono.from(loadBalancers.getInstance(uri.getHost()).choose())
+                  .flatMap(
+                      chosen -> {
+                        if (!chosen.hasServer()) {
+                          return Mono.error(
+                              new ResponseStatusException(
+                                  HttpStatus.SERVICE_UNAVAILABLE,
+                                  "No instances for " + uri.getHost()));
+                        }
+                        ServiceInstance instance = chosen.getServer();
+                        return loadTracker.track(
+                            instance,
+                            get(client(route), instance.getUri(), part, variables, forwarded));
+                      });
+            });
+  }
+
+  private Mono<JsonNode> get(
+      HttpClient client,
+      URI base,
+      Part part,
+      Map<String, String> variables,
+      HttpHeaders forwarded) {
+    return client
+        .headers(headers -> forwarded.forEach(headers::set))
+        .get()
+        .uri(
+            UriComponentsBuilder.fromUri(base)
+                .path(part.path())
+                // encodes the template first, so expanded values are encoded strictly
+                .encode()
+                .buildAndExpand(variables)
+                .toUri())
+        .responseSingle(
+            (response, body) -> {
+              int status = response.status().code();
+              if (status / 100 != 2) {
+                return Mono.error(new ResponseStatusException(status, null, null));
+              }
+              return body.asByteArray().map(this::readTree);
+            });
+  }
+
+  private HttpClient client(Route route) {
+    HttpClient client = upstreamClients.client(route);
+    return client != null ? client : sharedClient;
+  }
+
+  private JsonNode readTree(byte[] json) {
+    try {
+      return objectMapper.readTree(json);
+    } catch (IOException e) {
+      throw new ResponseStatusException(HttpStatus.BAD_GATEWAY, "Malformed part body", e);
+    }
+  }
+
+  private Mono<Void> write(
+      ServerHttpResponse response, Map<String, Part> parts, Map<String, Fetched> fetched) {
+    ObjectNode page = objectMapper.createObjectNode();
+    ObjectNode errors = objectMapper.createObjectNode();
+    for (String name : parts.keySet()) {
+      Fetched part = fetched.get(name);
+      if (part.body() != null) {
+        page.set(name, part.body());
+      } else {
+        page.putNull(name);
+        errors.putObject(name).put("status", part.status());
+      }
+    }
+    if (!errors.isEmpty()) page.set("errors", errors);
+
+    byte[] body;
+    try {
+      body = objectMapper.writeValueAsBytes(page);
+    } catch (JsonProcessingException e) {
+      return Mono.error(e);
+    }
+    response.setStatusCode(errors.size() == parts.size() ? HttpStatus.BAD_GATEWAY : HttpStatus.OK);
+    HttpHeaders headers = response.getHeaders();
+    headers.setContentType(MediaType.APPLICATION_JSON);
+    headers.setContentLength(body.length);
+    // parts may be per-user
+    headers.setCacheControl("private, no-store");
+    DataBuffer buffer = response.bufferFactory().wrap(body);
+    return response.writeWith(Mono.just(buffer));
+  }
+
+  private static int statusOf(Throwable error) {
+    if (error instanceof TimeoutException) return HttpStatus.GATEWAY_TIMEOUT.value();
+    if (error instanceof ResponseStatusException e) return e.getStatusCode().value();
+    return HttpStatus.BAD_GATEWAY.value();
+  }
+
+  private void count(String route, Fetched fetched) {
+    String result =
+        fetched.body() != null
+            ? "ok"
+            : fetched.status() == HttpStatus.GATEWAY_TIMEOUT.value() ? "timeout" : "failed";
+    Counter.builder("gateway.compose.parts")
+        .tag("route", route)
+        .tag("part", fetched.name())
+        .tag("result", result)
+        .register(meterRegistry)
+        .increment();
+  }
+
+  public static class Config {
+    private Map<String, String> parts = new LinkedHashMap<>();
+    private Duration timeout = Duration.ofSeconds(1);
+
+    public Map<String, String> getParts() {
+      return parts;
+    }
+
+    public void setParts(Map<String, String> parts) {
+      this.parts = parts;
+    }
+
+    public Duration getTimeout() {
+      return timeout;
+    }
+
+    public void setTimeout(Duration timeout) {
+      this.timeout = timeout;
+    }
+  }
+}
@@ -0,0 +1,60 @@
+package com.dropslot.gateway.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Least-recently-used map of cache key to response, capped at {@code maxEntries} and at {@code
+ * maxBytes} of response bodies held, whichever is reached first.
+ */
+final class BoundedResponseCache {
+  private final int maxEntries;
+  private final long maxBytes;
+  private final LinkedHashMap<String, CachedResponse> entries =
+      new LinkedHashMap<>(16, 0.75f, true);
+  // guarded by this
+  private long bytes;
+
+  BoundedResponseCache(int maxEntries, long maxBytes) {
+    this.maxEntries = maxEntries;
+    this.maxBytes = maxBytes;
+  }
+
+  synchronized CachedResponse get(String key) {
+    return entries.get(key);
+  }
+
+  synchronized void put(String key, CachedResponse response) {
+    if (weight(key, response) > maxBytes) {
+      remove(key);
+      return;
+    }
+    CachedResponse previous = entries.put(key, response);
+    if (previous != null) bytes -= weight(key, previous);
+    bytes += weight(key, response);
+    Iterator<Map.Entry<String, CachedResponse>> eldest = entries.entrySet().iterator();
+    while (entries.size() > maxEntries || bytes > maxBytes) {
+      Map.Entry<String, CachedResponse> e = eldest.next();
+      bytes -= weight(e.getKey(), e.getValue());
+      eldest.remove();
+    }
+  }
+
+  synchronized void remove(String key) {
+    CachedResponse removed = entries.remove(key);
+    if (removed != null) bytes -= weight(key, removed);
+  }
+
+  synchronized int size() {
+    return entries.size();
+  }
+
+  synchronized long bytes() {
+    return bytes;
+  }
+
+  private static long weight(String key, CachedResponse response) {
+    return response.body().length + 2L * key.length();
+  }
+}
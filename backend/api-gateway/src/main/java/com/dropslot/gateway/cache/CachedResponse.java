@@ -0,0 +1,119 @@
+package com.dropslot.gateway.cache;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Locale;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+
+/**
+ * An upstream response held by the gateway, with the freshness window worked out from its {@code
+ * Cache-Control} header when it was stored or last revalidated.
+ */
+record CachedResponse(
+    HttpStatusCode status,
+    HttpHeaders headers,
+    byte[] body,
+    Instant storedAt,
+    Instant freshUntil,
+    Instant staleUntil) {
+
+  enum State {
+    FRESH,
+    STALE,
+    EXPIRED
+  }
+
+  String etag() {
+    return headers.getETag();
+  }
+
+  State state(Instant now) {
+    if (now.isBefore(freshUntil)) return State.FRESH;
+    if (now.isBefore(staleUntil)) return State.STALE;
+    return State.EXPIRED;
+  }
+
+  /** Same body, new freshness: used when upstream answers our revalidation with 304. */
+  CachedResponse revalidated(HttpHeaders notModified, Instant now, Policy defaults) {
+    HttpHeaders merged = new HttpHeaders();
+    merged.putAll(headers);
+    // RFC 9111 4.3.4: headers in the 304 replace the stored ones
+    notModified.forEach(
+        (name, values) -> {
+          if (!HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) merged.put(name, values);
+        });
+    return stored(status, merged, body, now, defaults);
+  }
+
+  static CachedResponse stored(
+      HttpStatusCode status, HttpHeaders headers, byte[] body, Instant now, Policy defaults) {
+    Freshness f = Freshness.of(headers.getCacheControl(), defaults);
+    Instant freshUntil = now.plus(f.ttl());
+    return new CachedResponse(
+        status,
+        HttpHeaders.readOnlyHttpHeaders(headers),
+        body,
+        now,
+        freshUntil,
+        freshUntil.plus(f.staleWhileRevalidate()));
+  }
+
+  /**
+   * Whether a 200 from upstream may be kept in a cache shared by all users. Responses that are
+   * private, carry cookies or vary on request headers are only ever passed through.
+   */
+  static boolean storable(HttpStatusCode status, HttpHeaders headers, int bodyLength, Policy p) {
+    if (status.value() != 200 || bodyLength > p.maxBodyBytes()) return false;
+    if (headers.containsKey(HttpHeaders.SET_COOKIE) || headers.containsKey(HttpHeaders.VARY)) {
+      return false;
+    }
+    String cc = lower(headers.getCacheControl());
+    if (cc.contains("no-store") || cc.contains("private")) return false;
+    // without freshness information the only way to reuse the entry is revalidating its ETag
+    return headers.getETag() != null || !Freshness.of(headers.getCacheControl(), p).ttl().isZero();
+  }
+
+  /** Route-level defaults, applied when upstream does not say otherwise. */
+  record Policy(Duration defaultTtl, Duration staleWhileRevalidate, int maxBodyBytes) {}
+
+  record Freshness(Duration ttl, Duration staleWhileRevalidate) {
+    static Freshness of(String cacheControl, Policy defaults) {
+      if (cacheControl == null || cacheControl.isBlank()) {
+        return new Freshness(defaults.defaultTtl(), defaults.staleWhileRevalidate());
+      }
+      Long maxAge = null;
+      Long sharedMaxAge = null;
+      Long swr = null;
+      boolean mustRevalidate = false;
+      for (String directive : lower(cacheControl).split(",")) {
+        String d = directive.trim();
+        if (d.equals("no-cache")) return new Freshness(Duration.ZERO, Duration.ZERO);
+        if (d.equals("must-revalidate") || d.equals("proxy-revalidate")) mustRevalidate = true;
+        if (d.startsWith("s-maxage=")) sharedMaxAge = seconds(d);
+        else if (d.startsWith("max-age=")) maxAge = seconds(d);
+        else if (d.startsWith("stale-while-revalidate=")) swr = seconds(d);
+      }
+      Long ttl = sharedMaxAge != null ? sharedMaxAge : maxAge;
+      Duration fresh = ttl != null ? Duration.ofSeconds(ttl) : defaults.defaultTtl();
+      Duration stale =
+          mustRevalidate
+              ? Duration.ZERO
+              : swr != null ? Duration.ofSeconds(swr) : defaults.staleWhileRevalidate();
+      return new Freshness(fresh, stale);
+    }
+
+    private static Long seconds(String directive) {
+      String value = directive.substring(directive.indexOf('=') + 1).replace("\"", "").trim();
+      try {
+        return Math.max(0, Long.parseLong(value));
+      } catch (NumberFormatException e) {
+        return 0L;
+      }
+    }
+  }
+
+  private static String lower(String s) {
+    return s == null ? "" : s.toLowerCase(Locale.ROOT);
+  }
+}
@@ -0,0 +1,310 @@
+package com.dropslot.gateway.cache;
+
+import com.dropslot.gateway.support.CapturingResponse;
+import com.dropslot.gateway.support.FilterOrder;
+import com.dropslot.gateway.support.Routes;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MultiValueMap;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Route filter that keeps upstream GET responses in a bounded in-memory cache:
+ *
+ * <pre>
+ * filters:
+ *   - name: ResponseCache
+ *     args:
+ *       max-entries: 10000
+ *       max-bytes: 128MB
+ *       query-params: q,limit
+ *       stale-while-revalidate: 5s
+ * </pre>
+ *
+ * Freshness follows the upstream {@code Cache-Control} ({@code s-maxage}, {@code max-age}, {@code
+ * no-cache}, {@code stale-while-revalidate}); the route args only apply when upstream is silent.
+ * Expired entries with an ETag are revalidated with {@code If-None-Match}. Concurrent misses for
+ * the same path and query share a single upstream call, and stale entries are served while one
+ * background request refreshes them. Requests carrying {@code Authorization} bypass the cache.
+ *
+ * <p>Entries are keyed on the path and the {@code query-params} the route's upstream reads, in a
+ * fixed order; any other query parameter is left out of the key, so appending one cannot make a
+ * request miss. The cache holds at most {@code max-entries} responses and {@code max-bytes} of
+ * bodies, evicting the least recently used first.
+ *
+ * <p>Each request is counted in {@code gateway.cache.requests} tagged with the route and one of
+ * hit, stale, miss, revalidated, coalesced or bypass.
+ */
+@Component
+public class ResponseCacheGatewayFilterFactory
+    extends AbstractGatewayFilterFactory<ResponseCacheGatewayFilterFactory.Config> {
+  private static final Logger log =
+      LoggerFactory.getLogger(ResponseCacheGatewayFilterFactory.class);
+
+  private final MeterRegistry meterRegistry;
+  private final Clock clock = Clock.systemUTC();
+
+  public ResponseCacheGatewayFilterFactory(MeterRegistry meterRegistry) {
+    super(Config.class);
+    this.meterRegistry = meterRegistry;
+  }
+
+  @Override
+  public List<String> shortcutFieldOrder() {
+    return List.of("maxEntries", "staleWhileRevalidate");
+  }
+
+  @Override
+  public GatewayFilter apply(Config config) {
+    return new OrderedGatewayFilter(new ResponseCacheFilter(config), FilterOrder.RESPONSE_CACHE);
+  }
+
+  /** Outcome of one upstream call, shared by every request that joined it. */
+  private record Fetched(CachedResponse response, boolean shareable, boolean revalidated) {
+    static final Fetched PASSED_THROUGH = new Fetched(null, false, false);
+  }
+
+  private final class ResponseCacheFilter implements GatewayFilter {
+    private final BoundedResponseCache cache;
+    private final SingleFlight<String, Fetched> flights = new SingleFlight<>();
+    private final CachedResponse.Policy policy;
+    private final SortedSet<String> queryParams;
+
+    ResponseCacheFilter(Config config) {
+      this.cache = new BoundedResponseCache(config.getMaxEntries(), config.getMaxBytes().toBytes());
+      this.queryParams = new TreeSet<>(config.getQueryParams());
+      this.policy =
+          new CachedResponse.Policy(
+              config.getDefaultTtl(),
+              config.getStaleWhileRevalidate(),
+              (int) config.getMaxBodySize().toBytes());
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+      String route = Routes.id(exchange);
+      ServerHttpRequest request = exchange.getRequest();
+      if (request.getMethod() != HttpMethod.GET
+          || request.getHeaders().containsKey(HttpHeaders.AUTHORIZATION)) {
+        count(route, "bypass");
+        return chain.filter(exchange);
+      }
+      String key = cacheKey(request, queryParams);
+      CachedResponse cached = cache.get(key);
+      if (cached != null) {
+        switch (cached.state(clock.instant())) {
+          case FRESH -> {
+            count(route, "hit");
+            return write(exchange, cached);
+          }
+          case STALE -> {
+            count(route, "stale");
+            var refresh = flights.join(key, () -> fetch(exchange, chain, key, cached));
+            if (refresh.leader()) {
+              refresh
+                  .result()
+                  .subscribe(
+                      fetched -> {},
+                      e ->
+                          log.warn("Background revalidation failed key={}: {}", key, e.toString()));
+            }
+            return write(exchange, cached);
+          }
+          case EXPIRED -> {
+            // fall through to a (coalesced) upstream call
+          }
+        }
+      }
+
+      var flight = flights.join(key, () -> fetch(exchange, chain, key, cached));
+      if (!flight.leader()) {
+        count(route, "coalesced");
+        return flight
+            .result()
+            .flatMap(
+                fetched ->
+                    fetched.shareable()
+                        ? write(exchange, fetched.response())
+                        : chain.filter(exchange));
+      }
+      return flight
+          .result()
+          .flatMap(
+              fetched -> {
+                count(route, fetched.revalidated() ? "revalidated" : "miss");
+                return fetched.response() == null
+                    ? Mono.empty()
+                    : write(exchange, fetched.response());
+              });
+    }
+
+    private Mono<Fetched> fetch(
+        ServerWebExchange exchange, GatewayFilterChain chain, String key, CachedResponse previous) {
+      HttpHeaders headers = new HttpHeaders();
+      headers.putAll(exchange.getRequest().getHeaders());
+      // the client's validators are answered by us; upstream only sees our own
+      headers.remove(HttpHeaders.IF_NONE_MATCH);
+      headers.remove(HttpHeaders.IF_MODIFIED_SINCE);
+      if (previous != null && previous.etag() != null) headers.setIfNoneMatch(previous.etag());
+      HttpHeaders upstreamHeaders = HttpHeaders.readOnlyHttpHeaders(headers);
+      ServerHttpRequest upstream =
+          new ServerHttpRequestDecorator(exchange.getRequest()) {
+            @Override
+            public HttpHeaders getHeaders() {
+              return upstreamHeaders;
+            }
+
+            @Override
+            public Flux<DataBuffer> getBody() {
+              // a background refresh may outlive the client connection; GETs carry no body anyway
+              return Flux.empty();
+            }
+          };
+      CapturingResponse capture = new CapturingResponse(exchange.getResponse(), true);
+      return chain
+          .filter(exchange.mutate().request(upstream).response(capture).build())
+          .then(Mono.fromSupplier(() -> settle(key, previous, capture)));
+    }
+
+    private Fetched settle(String key, CachedResponse previous, CapturingResponse capture) {
+      if (capture.passedThrough()) return Fetched.PASSED_THROUGH;
+      Instant now = clock.instant();
+      if (previous != null && capture.status().value() == 304) {
+        CachedResponse refreshed = previous.revalidated(capture.headers(), now, policy);
+        cache.put(key, refreshed);
+        return new Fetched(refreshed, true, true);
+      }
+      byte[] body = capture.body();
+      CachedResponse response =
+          CachedResponse.stored(capture.status(), capture.headers(), body, now, policy);
+      if (CachedResponse.storable(capture.status(), capture.headers(), body.length, policy)) {
+        cache.put(key, response);
+        return new Fetched(response, true, false);
+      }
+      if (previous != null) cache.remove(key);
+      return new Fetched(response, false, false);
+    }
+
+    private Mono<Void> write(ServerWebExchange exchange, CachedResponse cached) {
+      ServerHttpResponse response = exchange.getResponse();
+      HttpHeaders headers = response.getHeaders();
+      headers.putAll(cached.headers());
+      headers.remove(HttpHeaders.TRANSFER_ENCODING);
+      long age = Duration.between(cached.storedAt(), clock.instant()).toSeconds();
+      headers.set(HttpHeaders.AGE, Long.toString(Math.max(0, age)));
+      if (cached.status().value() == 200
+          && cached.etag() != null
+          && exchange.checkNotModified(cached.etag())) {
+        headers.remove(HttpHeaders.CONTENT_LENGTH);
+        headers.remove(HttpHeaders.CONTENT_TYPE);
+        return response.setComplete();
+      }
+      response.setStatusCode(cached.status());
+      headers.setContentLength(cached.body().length);
+      return response.writeWith(
+          Mono.fromSupplier(() -> response.bufferFactory().wrap(cached.body())));
+    }
+  }
+
+  /** The raw path followed by the {@code kept} raw query parameters, sorted by name. */
+  static String cacheKey(ServerHttpRequest request, SortedSet<String> kept) {
+    StringBuilder key = new StringBuilder(request.getURI().getRawPath());
+    MultiValueMap<String, String> params = request.getQueryParams();
+    char separator = '?';
+    for (String name : kept) {
+      for (String value : params.getOrDefault(name, List.of())) {
+        key.append(separator).append(name);
+        if (value != null) key.append('=').append(value);
+        separator = '&';
+      }
+    }
+    return key.toString();
+  }
+
+  private void count(String route, String result) {
+    Counter.builder("gateway.cache.requests")
+        .tag("route", route)
+        .tag("result", result)
+        .register(meterRegistry)
+        .increment();
+  }
+
+  public static class Config {
+    private int maxEntries = 1000;
+    private Duration defaultTtl = Duration.ZERO;
+    private Duration staleWhileRevalidate = Duration.ZERO;
+    private DataSize maxBodySize = DataSize.ofKilobytes(512);
+    private DataSize maxBytes = DataSize.ofMegabytes(64);
+    private List<String> queryParams = List.of();
+
+    public int getMaxEntries() {
+      return maxEntries;
+    }
+
+    public void setMaxEntries(int maxEntries) {
+      this.maxEntries = maxEntries;
+    }
+
+    public Duration getDefaultTtl() {
+      return defaultTtl;
+    }
+
+    public void setDefaultTtl(Duration defaultTtl) {
+      this.defaultTtl = defaultTtl;
+    }
+
+    public Duration getStaleWhileRevalidate() {
+      return staleWhileRevalidate;
+    }
+
+    public void setStaleWhileRevalidate(Duration staleWhileRevalidate) {
+      this.staleWhileRevalidate = staleWhileRevalidate;
+    }
+
+    public DataSize getMaxBodySize() {
+      return maxBodySize;
+    }
+
+    public void setMaxBodySize(DataSize maxBodySize) {
+      this.maxBodySize = maxBodySize;
+    }
+
+    public DataSize getMaxBytes() {
+      return maxBytes;
+    }
+
+    public void setMaxBytes(DataSize maxBytes) {
+      this.maxBytes = maxBytes;
+    }
+
+    public List<String> getQueryParams() {
+      return queryParams;
+    }
+
+    public void setQueryParams(List<String> queryParams) {
+      this.queryParams = queryParams;
+    }
+  }
+}
@@ -0,0 +1,39 @@
+package com.dropslot.gateway.cache;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import reactor.core.publisher.Mono;
+
+/**
+ * Collapses concurrent loads of the same key into one subscription of the loader. Callers that
+ * arrive while a load is running get the same result; the entry is dropped as soon as the load
+ * terminates, so nothing is cached here beyond the lifetime of the call.
+ */
+final class SingleFlight<K, V> {
+  private final Map<K, Mono<V>> inFlight = new ConcurrentHashMap<>();
+
+  record Flight<V>(Mono<V> result, boolean leader) {}
+
+  Flight<V> join(K key, Supplier<Mono<V>> loader) {
+    boolean[] leader = new boolean[1];
+    Mono<V> result =
+        inFlight.computeIfAbsent(
+            key,
+            k -> {
+              leader[0] = true;
+              AtomicReference<Mono<V>> self = new AtomicReference<>();
+              // cache() keeps the load running even if the caller that started it goes away
+              Mono<V> shared =
+                  Mono.defer(loader).doFinally(signal -> inFlight.remove(k, self.get())).cache();
+              self.set(shared);
+              return shared;
+            });
+    return new Flight<>(result, leader[0]);
+  }
+
+  int size() {
+    return inFlight.size();
+  }
+}
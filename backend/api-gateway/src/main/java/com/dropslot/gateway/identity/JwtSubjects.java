@@ -0,0 +1,47 @@
+package com.dropslot.gateway.identity;
+
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reads the subject, the user id, of a user-service access token. The signature is checked with the
+ * shared {@code security.jwt.secret}; without it no subject is ever trusted.
+ */
+@Component
+public class JwtSubjects {
+  private static final Logger log = LoggerFactory.getLogger(JwtSubjects.class);
+  private static final String BEARER = "Bearer ";
+
+  private final JwtParser parser;
+
+  public JwtSubjects(@Value("${security.jwt.secret:}") String base64Secret) {
+    if (base64Secret == null || base64Secret.isBlank()) {
+      log.warn(
+          "security.jwt.secret is not set; no X-User-Id is forwarded and userKeyResolver keys"
+              + " every request by IP");
+      this.parser = null;
+    } else {
+      this.parser =
+          Jwts.parserBuilder()
+              .setSigningKey(Keys.hmacShaKeyFor(Decoders.BASE64.decode(base64Secret)))
+              .build();
+    }
+  }
+
+  /** The subject of a valid bearer token in {@code authorization}, or {@code null}. */
+  public String subject(String authorization) {
+    if (parser == null || authorization == null || !authorization.startsWith(BEARER)) return null;
+    try {
+      return parser.parseClaimsJws(authorization.substring(BEARER.length())).getBody().getSubject();
+    } catch (JwtException | IllegalArgumentException e) {
+      return null;
+    }
+  }
+}
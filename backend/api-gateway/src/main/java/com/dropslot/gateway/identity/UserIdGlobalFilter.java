@@ -0,0 +1,49 @@
+package com.dropslot.gateway.identity;
+
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * Replaces any {@code X-User-Id} a client sent with the subject of its verified access token, so
+ * services can take the header as the caller's identity. Requests without a valid token go on
+ * without one.
+ */
+@Component
+public class UserIdGlobalFilter implements GlobalFilter, Ordered {
+  public static final String HEADER = "X-User-Id";
+
+  private final JwtSubjects subjects;
+
+  public UserIdGlobalFilter(JwtSubjects subjects) {
+    this.subjects = subjects;
+  }
+
+  @Override
+  public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+    HttpHeaders inbound = exchange.getRequest().getHeaders();
+    String userId = subjects.subject(inbound.getFirst(HttpHeaders.AUTHORIZATION));
+    if (userId == null && !inbound.containsKey(HEADER)) return chain.filter(exchange);
+    return chain.filter(
+        exchange
+            .mutate()
+            .request(
+                r ->
+                    r.headers(
+                        headers -> {
+                          headers.remove(HEADER);
+                          if (userId != null) headers.set(HEADER, userId);
+                        }))
+            .build());
+  }
+
+  @Override
+  public int getOrder() {
+    // ahead of every route filter, which may read the header
+    return Ordered.HIGHEST_PRECEDENCE;
+  }
+}
@@ -0,0 +1,79 @@
+package com.dropslot.gateway.loadbalancer;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Instances from the A records of a headless Service ({@code clusterIP: None}), which lists one
+ * address per ready pod. Re-resolved every {@code refresh}; the JVM's own DNS cache must expire at
+ * least as often ({@code -Dsun.net.inetaddr.ttl}). A name that no longer resolves means no ready
+ * pods and yields an empty list; other lookup errors keep the previous list.
+ */
+public class DnsServiceInstanceListSupplier implements ServiceInstanceListSupplier {
+  private static final Logger log = LoggerFactory.getLogger(DnsServiceInstanceListSupplier.class);
+
+  private final String serviceId;
+  private final Flux<List<ServiceInstance>> instances;
+
+  public DnsServiceInstanceListSupplier(String serviceId, String host, int port, Duration refresh) {
+    this.serviceId = serviceId;
+    this.instances =
+        Flux.interval(Duration.ZERO, refresh)
+            .onBackpressureDrop()
+            .concatMap(
+                tick ->
+                    Mono.fromCallable(() -> resolve(host))
+                        .subscribeOn(Schedulers.boundedElastic())
+                        .onErrorResume(
+                            e -> {
+                              log.warn(
+                                  "Resolving {} for {} failed: {}", host, serviceId, e.toString());
+                              return Mono.empty();
+                            }))
+            .distinctUntilChanged()
+            .map(addresses -> toInstances(addresses, port))
+            .cache(1);
+  }
+
+  @Override
+  public String getServiceId() {
+    return serviceId;
+  }
+
+  @Override
+  public Flux<List<ServiceInstance>> get() {
+    return instances;
+  }
+
+  private static List<String> resolve(String host) throws UnknownHostException {
+    try {
+      return Arrays.stream(InetAddress.getAllByName(host))
+          .map(InetAddress::getHostAddress)
+          .sorted()
+          .toList();
+    } catch (UnknownHostException e) {
+      return List.of();
+    }
+  }
+
+  private List<ServiceInstance> toInstances(List<String> addresses, int port) {
+    return addresses.stream()
+        .map(
+            address ->
+                (ServiceInstance)
+                    new DefaultServiceInstance(
+                        serviceId + "-" + address + ":" + port, serviceId, address, port, false))
+        .toList();
+  }
+}
@@ -0,0 +1,130 @@
+package com.dropslot.gateway.loadbalancer;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.ReactiveLoadBalancerClientFilter;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * Tracks {@link InstanceStats} for every instance the load balancer picks. It runs right after
+ * {@link ReactiveLoadBalancerClientFilter} and counts the request until routing finishes, fails or
+ * is cancelled (e.g. the losing attempt of a hedged read); 5xx responses and errors count as
+ * failures. Exposes {@code gateway.lb.in_flight} and {@code gateway.lb.latency} per service and
+ * instance.
+ */
+@Component
+public class InstanceLoadTracker implements GlobalFilter, Ordered {
+  private final MeterRegistry meterRegistry;
+  private final Map<String, Map<String, InstanceStats>> services = new ConcurrentHashMap<>();
+  private final Map<String, List<Meter>> meters = new ConcurrentHashMap<>();
+
+  public InstanceLoadTracker(MeterRegistry meterRegistry) {
+    this.meterRegistry = meterRegistry;
+  }
+
+  @Override
+  public int getOrder() {
+    return ReactiveLoadBalancerClientFilter.LOAD_BALANCER_CLIENT_FILTER_ORDER + 1;
+  }
+
+  @Override
+  public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+    Response<ServiceInstance> chosen =
+        exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_LOADBALANCER_RESPONSE_ATTR);
+    if (chosen == null || !chosen.hasServer()) return chain.filter(exchange);
+    ServiceInstance instance = chosen.getServer();
+    InstanceStats stats = stats(instance.getServiceId(), instance);
+    return Mono.defer(
+        () -> {
+          long startedAt = stats.start(System.nanoTime());
+          boolean[] failed = {false};
+          return chain
+              .filter(exchange)
+              .doOnError(e -> failed[0] = true)
+              .doOnSuccess(
+                  v -> {
+                    HttpStatusCode status = exchange.getResponse().getStatusCode();
+                    failed[0] = status != null && status.is5xxServerError();
+                  })
+              .doFinally(signal -> stats.finish(startedAt, System.nanoTime(), failed[0]));
+        });
+  }
+
+  /**
+   * Counts {@code call} against {@code instance} for calls made outside the routing chain. Errors
+   * are failures unless they carry a 4xx status.
+   */
+  public <T> Mono<T> track(ServiceInstance instance, Mono<T> call) {
+    InstanceStats stats = stats(instance.getServiceId(), instance);
+    return Mono.defer(
+        () -> {
+          long startedAt = stats.start(System.nanoTime());
+          boolean[] failed = {false};
+          return call.doOnError(
+                  e ->
+                      failed[0] =
+                          !(e instanceof ResponseStatusException status
+                              && status.getStatusCode().is4xxClientError()))
+              .doFinally(signal -> stats.finish(startedAt, System.nanoTime(), failed[0]));
+        });
+  }
+
+  InstanceStats stats(String serviceId, ServiceInstance instance) {
+    return services
+        .computeIfAbsent(serviceId, id -> new ConcurrentHashMap<>())
+        .computeIfAbsent(key(instance), key -> register(serviceId, key));
+  }
+
+  /** Drops stats and meters of instances no longer in {@code current}. */
+  void retain(String serviceId, List<ServiceInstance> current) {
+    Map<String, InstanceStats> known = services.get(serviceId);
+    if (known == null) return;
+    Set<String> keys = new HashSet<>();
+    current.forEach(instance -> keys.add(key(instance)));
+    for (String key : new ArrayList<>(known.keySet())) {
+      if (!keys.contains(key)) {
+        known.remove(key);
+        List<Meter> removed = meters.remove(serviceId + "/" + key);
+        if (removed != null) removed.forEach(meterRegistry::remove);
+      }
+    }
+  }
+
+  private InstanceStats register(String serviceId, String key) {
+    InstanceStats stats = new InstanceStats(System.nanoTime());
+    meters.put(
+        serviceId + "/" + key,
+        List.of(
+            Gauge.builder("gateway.lb.in_flight", stats, InstanceStats::inFlight)
+                .tag("service", serviceId)
+                .tag("instance", key)
+                .register(meterRegistry),
+            Gauge.builder("gateway.lb.latency", stats, s -> s.latencyNanos(System.nanoTime()))
+                .tag("service", serviceId)
+                .tag("instance", key)
+                .baseUnit("nanoseconds")
+                .register(meterRegistry)));
+    return stats;
+  }
+
+  private static String key(ServiceInstance instance) {
+    return instance.getHost() + ":" + instance.getPort();
+  }
+}
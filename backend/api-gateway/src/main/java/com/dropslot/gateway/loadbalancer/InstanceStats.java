@@ -0,0 +1,62 @@
+package com.dropslot.gateway.loadbalancer;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Load of one service instance as seen from this gateway: requests in flight and a peak-sensitive
+ * moving average of response time. A slower response replaces the average at once while faster ones
+ * only pull it down gradually, so an instance stuck in a GC pause or a CPU-heavy request is avoided
+ * immediately. Without new samples the average decays back towards {@link #DEFAULT_RTT_NANOS}, with
+ * a time constant of 10 seconds, so an instance that is no longer chosen is tried again once its
+ * penalty has faded: a failure, counted as a {@link #FAILURE_PENALTY_NANOS} response, takes about
+ * 50 seconds.
+ */
+final class InstanceStats {
+  private static final double DECAY_NANOS = TimeUnit.SECONDS.toNanos(10);
+  static final long DEFAULT_RTT_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+  static final long FAILURE_PENALTY_NANOS = TimeUnit.SECONDS.toNanos(2);
+
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private double ewmaNanos = DEFAULT_RTT_NANOS;
+  private long updatedAt;
+
+  InstanceStats(long now) {
+    this.updatedAt = now;
+  }
+
+  /** Marks a request as started; pass the result to {@link #finish}. */
+  long start(long now) {
+    inFlight.incrementAndGet();
+    return now;
+  }
+
+  void finish(long startedAt, long now, boolean failed) {
+    inFlight.decrementAndGet();
+    record(failed ? FAILURE_PENALTY_NANOS : now - startedAt, now);
+  }
+
+  synchronized void record(long rttNanos, long now) {
+    if (rttNanos > ewmaNanos) {
+      ewmaNanos = rttNanos;
+    } else {
+      double weight = Math.exp(-Math.max(0, now - updatedAt) / DECAY_NANOS);
+      ewmaNanos = ewmaNanos * weight + rttNanos * (1 - weight);
+    }
+    updatedAt = now;
+  }
+
+  /** Expected wait for one more request: average response time times queued requests. */
+  double cost(long now) {
+    return latencyNanos(now) * (inFlight.get() + 1);
+  }
+
+  int inFlight() {
+    return inFlight.get();
+  }
+
+  synchronized double latencyNanos(long now) {
+    double weight = Math.exp(-Math.max(0, now - updatedAt) / DECAY_NANOS);
+    return ewmaNanos * weight + DEFAULT_RTT_NANOS * (1 - weight);
+  }
+}
@@ -0,0 +1,64 @@
+package com.dropslot.gateway.loadbalancer;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.DefaultResponse;
+import org.springframework.cloud.client.loadbalancer.EmptyResponse;
+import org.springframework.cloud.client.loadbalancer.Request;
+import org.springframework.cloud.client.loadbalancer.Response;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Mono;
+
+/**
+ * Power of two choices over {@link InstanceStats#cost(long)}: two random instances are compared and
+ * the one with the lower expected wait wins. Sampling two instead of scanning for the global
+ * minimum keeps gateways that share a stale view of the load from all piling onto the same "least
+ * loaded" instance.
+ */
+public class LeastLoadedLoadBalancer implements ReactorServiceInstanceLoadBalancer {
+  private final String serviceId;
+  private final ObjectProvider<ServiceInstanceListSupplier> suppliers;
+  private final InstanceLoadTracker tracker;
+  private volatile List<ServiceInstance> lastSeen = List.of();
+
+  public LeastLoadedLoadBalancer(
+      String serviceId,
+      ObjectProvider<ServiceInstanceListSupplier> suppliers,
+      InstanceLoadTracker tracker) {
+    this.serviceId = serviceId;
+    this.suppliers = suppliers;
+    this.tracker = tracker;
+  }
+
+  @Override
+  public Mono<Response<ServiceInstance>> choose(Request request) {
+    ServiceInstanceListSupplier supplier = suppliers.getIfAvailable();
+    if (supplier == null) return Mono.just(new EmptyResponse());
+    return supplier.get(request).next().map(this::choose);
+  }
+
+  Response<ServiceInstance> choose(List<ServiceInstance> instances) {
+    if (instances.isEmpty()) return new EmptyResponse();
+    if (instances != lastSeen) {
+      // suppliers cache their list, so this runs once per discovery refresh
+      lastSeen = instances;
+      tracker.retain(serviceId, instances);
+    }
+    int n = instances.size();
+    if (n == 1) return new DefaultResponse(instances.get(0));
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    int a = random.nextInt(n);
+    int b = random.nextInt(n - 1);
+    if (b >= a) b++;
+    ServiceInstance first = instances.get(a);
+    ServiceInstance second = instances.get(b);
+    long now = System.nanoTime();
+    return new DefaultResponse(
+        tracker.stats(serviceId, first).cost(now) <= tracker.stats(serviceId, second).cost(now)
+            ? first
+            : second);
+  }
+}
@@ -0,0 +1,57 @@
+package com.dropslot.gateway.loadbalancer;
+
+import java.time.Duration;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.loadbalancer.core.ReactorLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+
+/**
+ * Per-service load balancer beans, created in each service's child context (so deliberately not a
+ * scanned {@code @Configuration}). Instances come from {@code gateway.load-balancer.dns.<service>}
+ * ({@code host:port} of a headless Service) when set, otherwise from the discovery client, e.g.
+ * {@code spring.cloud.discovery.client.simple.instances.<service>[n].uri} static lists.
+ */
+public class LeastLoadedLoadBalancerConfiguration {
+
+  @Bean
+  public ServiceInstanceListSupplier serviceInstanceListSupplier(
+      ConfigurableApplicationContext context, Environment environment) {
+    String serviceId = environment.getProperty(LoadBalancerClientFactory.PROPERTY_NAME);
+    String dns = environment.getProperty("gateway.load-balancer.dns." + serviceId);
+    if (dns == null) {
+      return ServiceInstanceListSupplier.builder()
+          .withDiscoveryClient()
+          .withCaching()
+          .build(context);
+    }
+    int colon = dns.lastIndexOf(':');
+    if (colon <= 0) {
+      throw new IllegalArgumentException(
+          "gateway.load-balancer.dns." + serviceId + " must be host:port: " + dns);
+    }
+    // the Binder converts "5s"; the child context's plain Environment has no Duration converter
+    Duration refresh =
+        Binder.get(environment)
+            .bind("gateway.load-balancer.dns-refresh", Duration.class)
+            .orElse(Duration.ofSeconds(5));
+    return new DnsServiceInstanceListSupplier(
+        serviceId, dns.substring(0, colon), Integer.parseInt(dns.substring(colon + 1)), refresh);
+  }
+
+  @Bean
+  public ReactorLoadBalancer<ServiceInstance> reactorServiceInstanceLoadBalancer(
+      Environment environment,
+      LoadBalancerClientFactory clientFactory,
+      InstanceLoadTracker tracker) {
+    String serviceId = environment.getProperty(LoadBalancerClientFactory.PROPERTY_NAME);
+    return new LeastLoadedLoadBalancer(
+        serviceId,
+        clientFactory.getLazyProvider(serviceId, ServiceInstanceListSupplier.class),
+        tracker);
+  }
+}
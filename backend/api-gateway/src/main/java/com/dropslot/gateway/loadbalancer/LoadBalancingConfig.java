@@ -0,0 +1,9 @@
+package com.dropslot.gateway.loadbalancer;
+
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
+import org.springframework.context.annotation.Configuration;
+
+/** Least-loaded balancing for every {@code lb://} route. */
+@Configuration
+@LoadBalancerClients(defaultConfiguration = LeastLoadedLoadBalancerConfiguration.class)
+public class LoadBalancingConfig {}
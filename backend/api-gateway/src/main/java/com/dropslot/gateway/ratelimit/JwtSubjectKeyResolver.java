@@ -0,0 +1,29 @@
+package com.dropslot.gateway.ratelimit;
+
+import com.dropslot.gateway.identity.JwtSubjects;
+import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * Keys requests by the subject of the user-service access token. Only verified subjects count: an
+ * unverified one would let a client pick a fresh bucket per request. Requests without a valid token
+ * are keyed by {@code fallback}.
+ */
+class JwtSubjectKeyResolver implements KeyResolver {
+  private final JwtSubjects subjects;
+  private final KeyResolver fallback;
+
+  JwtSubjectKeyResolver(JwtSubjects subjects, KeyResolver fallback) {
+    this.subjects = subjects;
+    this.fallback = fallback;
+  }
+
+  @Override
+  public Mono<String> resolve(ServerWebExchange exchange) {
+    String subject =
+        subjects.subject(exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION));
+    return subject != null ? Mono.just("user:" + subject) : fallback.resolve(exchange);
+  }
+}
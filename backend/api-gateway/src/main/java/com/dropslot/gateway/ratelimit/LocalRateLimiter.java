@@ -0,0 +1,117 @@
+package com.dropslot.gateway.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.ratelimit.AbstractRateLimiter;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * In-memory replacement for {@code RedisRateLimiter}: one token bucket per route and resolved key,
+ * held in this gateway instance only. Limits are set per route on the {@code RequestRateLimiter}
+ * filter:
+ *
+ * <pre>
+ * - name: RequestRateLimiter
+ *   args:
+ *     rate-limiter: "#{@localRateLimiter}"
+ *     key-resolver: "#{@userKeyResolver}"
+ *     local-rate-limiter.replenish-rate: 20
+ *     local-rate-limiter.burst-capacity: 40
+ * </pre>
+ *
+ * With several gateway replicas every replica enforces the limit on its own share of traffic.
+ */
+@Component
+public class LocalRateLimiter extends AbstractRateLimiter<LocalRateLimiter.Config> {
+  public static final String CONFIGURATION_PROPERTY_NAME = "local-rate-limiter";
+  public static final String LIMIT_HEADER = "RateLimit-Limit";
+  public static final String REMAINING_HEADER = "RateLimit-Remaining";
+  public static final String RESET_HEADER = "RateLimit-Reset";
+
+  private static final Logger log = LoggerFactory.getLogger(LocalRateLimiter.class);
+
+  private final TokenBuckets buckets;
+  private final MeterRegistry meterRegistry;
+
+  public LocalRateLimiter(
+      ConfigurationService configurationService,
+      MeterRegistry meterRegistry,
+      @Value("${gateway.rate-limit.lock-stripes:64}") int lockStripes) {
+    super(Config.class, CONFIGURATION_PROPERTY_NAME, configurationService);
+    this.buckets = new TokenBuckets(lockStripes);
+    this.meterRegistry = meterRegistry;
+  }
+
+  @Override
+  public Mono<Response> isAllowed(String routeId, String id) {
+    Config config = getConfig().get(routeId);
+    if (config == null || config.getReplenishRate() <= 0 || config.getBurstCapacity() <= 0) {
+      throw new IllegalArgumentException("No valid rate limit configured for route " + routeId);
+    }
+    TokenBuckets.Result r =
+        buckets.tryConsume(
+            routeId + '|' + id,
+            config.getReplenishRate(),
+            config.getBurstCapacity(),
+            config.getRequestedTokens(),
+            System.nanoTime());
+    Map<String, String> headers = new LinkedHashMap<>();
+    headers.put(LIMIT_HEADER, Integer.toString(config.getBurstCapacity()));
+    headers.put(REMAINING_HEADER, Long.toString(r.remaining()));
+    headers.put(RESET_HEADER, Long.toString(r.resetSeconds()));
+    if (!r.allowed()) headers.put(HttpHeaders.RETRY_AFTER, Long.toString(r.retryAfterSeconds()));
+    Counter.builder("gateway.ratelimit.requests")
+        .tag("route", routeId)
+        .tag("result", r.allowed() ? "allowed" : "denied")
+        .register(meterRegistry)
+        .increment();
+    return Mono.just(new Response(r.allowed(), headers));
+  }
+
+  @Scheduled(fixedDelayString = "${gateway.rate-limit.eviction-interval-ms:30000}")
+  public void evictIdle() {
+    int evicted = buckets.evictIdle(System.nanoTime());
+    if (evicted > 0) {
+      log.debug("Evicted {} idle rate limit buckets, {} remain", evicted, buckets.size());
+    }
+  }
+
+  public static class Config {
+    private int replenishRate;
+    private int burstCapacity = 1;
+    private int requestedTokens = 1;
+
+    public int getReplenishRate() {
+      return replenishRate;
+    }
+
+    public void setReplenishRate(int replenishRate) {
+      this.replenishRate = replenishRate;
+    }
+
+    public int getBurstCapacity() {
+      return burstCapacity;
+    }
+
+    public void setBurstCapacity(int burstCapacity) {
+      this.burstCapacity = burstCapacity;
+    }
+
+    public int getRequestedTokens() {
+      return requestedTokens;
+    }
+
+    public void setRequestedTokens(int requestedTokens) {
+      this.requestedTokens = requestedTokens;
+    }
+  }
+}
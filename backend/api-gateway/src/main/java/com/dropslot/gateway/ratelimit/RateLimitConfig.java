@@ -0,0 +1,61 @@
+package com.dropslot.gateway.ratelimit;
+
+import com.dropslot.gateway.identity.JwtSubjects;
+import java.net.InetSocketAddress;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.cloud.gateway.support.ipresolver.RemoteAddressResolver;
+import org.springframework.cloud.gateway.support.ipresolver.XForwardedRemoteAddressResolver;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import reactor.core.publisher.Mono;
+
+/**
+ * Key resolvers for {@code RequestRateLimiter} and {@code RateLimit}, selected per route with
+ * {@code key-resolver: "#{@name}"}. The client IP resolver is the default.
+ */
+@Configuration
+@EnableScheduling
+public class RateLimitConfig {
+
+  /**
+   * Client address. With {@code gateway.rate-limit.trusted-proxies} > 0 the address is taken from
+   * {@code X-Forwarded-For}, skipping that many trusted hops; otherwise the socket peer is used.
+   */
+  @Bean
+  @Primary
+  public KeyResolver clientIpKeyResolver(
+      @Value("${gateway.rate-limit.trusted-proxies:0}") int trustedProxies) {
+    RemoteAddressResolver resolver =
+        trustedProxies > 0
+            ? XForwardedRemoteAddressResolver.maxTrustedIndex(trustedProxies)
+            : new RemoteAddressResolver() {};
+    return exchange -> Mono.justOrEmpty(resolver.resolve(exchange)).map(RateLimitConfig::ipKey);
+  }
+
+  /** Verified JWT subject, falling back to the client IP for anonymous or invalid tokens. */
+  @Bean
+  public KeyResolver userKeyResolver(JwtSubjects subjects, KeyResolver clientIpKeyResolver) {
+    return new JwtSubjectKeyResolver(subjects, clientIpKeyResolver);
+  }
+
+  /** One shared bucket per route, i.e. a global limit protecting the upstream. */
+  @Bean
+  public KeyResolver routeKeyResolver() {
+    return exchange -> {
+      Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+      return Mono.justOrEmpty(route).map(r -> "route:" + r.getId());
+    };
+  }
+
+  private static String ipKey(InetSocketAddress address) {
+    return "ip:"
+        + (address.getAddress() != null
+            ? address.getAddress().getHostAddress()
+            : address.getHostString());
+  }
+}
@@ -0,0 +1,26 @@
+package com.dropslot.gateway.ratelimit;
+
+import com.dropslot.gateway.support.FilterOrder;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.RequestRateLimiterGatewayFilterFactory;
+import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
+import org.springframework.stereotype.Component;
+
+/**
+ * {@code RequestRateLimiter} with a fixed order ahead of the bulkhead, retries and hedges, so each
+ * client request is charged once and a 429 from the limiter never competes with an upstream
+ * response. Takes the same args as {@code RequestRateLimiter}.
+ */
+@Component
+public class RateLimitGatewayFilterFactory extends RequestRateLimiterGatewayFilterFactory {
+
+  public RateLimitGatewayFilterFactory(LocalRateLimiter rateLimiter, KeyResolver keyResolver) {
+    super(rateLimiter, keyResolver);
+  }
+
+  @Override
+  public GatewayFilter apply(Config config) {
+    return new OrderedGatewayFilter(super.apply(config), FilterOrder.RATE_LIMIT);
+  }
+}
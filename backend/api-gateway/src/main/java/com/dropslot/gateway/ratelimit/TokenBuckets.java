@@ -0,0 +1,99 @@
+package com.dropslot.gateway.ratelimit;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token buckets for many keys. A key's bucket is only read or written while holding the lock of its
+ * stripe, so refill-and-take is atomic without a lock per bucket or a global lock. A bucket that
+ * has refilled to capacity is indistinguishable from a new one, which is what {@link #evictIdle}
+ * relies on to drop it.
+ */
+final class TokenBuckets {
+  private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+  private final Object[] stripes;
+  private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+
+  record Result(boolean allowed, long remaining, long retryAfterSeconds, long resetSeconds) {}
+
+  private static final class Bucket {
+    final double ratePerSecond;
+    final double ratePerNano;
+    final long capacity;
+    double tokens;
+    long updatedAt;
+
+    Bucket(double ratePerSecond, long capacity, long now) {
+      this.ratePerSecond = ratePerSecond;
+      this.ratePerNano = ratePerSecond / NANOS_PER_SECOND;
+      this.capacity = capacity;
+      this.tokens = capacity;
+      this.updatedAt = now;
+    }
+
+    void refill(long now) {
+      if (now > updatedAt) {
+        tokens = Math.min(capacity, tokens + (now - updatedAt) * ratePerNano);
+        updatedAt = now;
+      }
+    }
+
+    long secondsUntil(double wanted) {
+      double missing = wanted - tokens;
+      return missing <= 0 ? 0 : (long) Math.ceil(missing / ratePerSecond);
+    }
+  }
+
+  TokenBuckets(int stripeCount) {
+    int n = Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1;
+    this.stripes = new Object[n];
+    for (int i = 0; i < n; i++) stripes[i] = new Object();
+  }
+
+  Result tryConsume(String key, double ratePerSecond, long capacity, int requested, long now) {
+    synchronized (stripeFor(key)) {
+      Bucket b = buckets.get(key);
+      if (b == null || b.capacity != capacity || b.ratePerSecond != ratePerSecond) {
+        // new key, or the route's limits were changed since the bucket was created
+        b = new Bucket(ratePerSecond, capacity, now);
+        buckets.put(key, b);
+      }
+      b.refill(now);
+      boolean allowed = b.tokens >= requested;
+      if (allowed) b.tokens -= requested;
+      return new Result(
+          allowed,
+          (long) b.tokens,
+          allowed ? 0 : Math.max(1, b.secondsUntil(requested)),
+          b.secondsUntil(b.capacity));
+    }
+  }
+
+  /** Removes buckets that have refilled completely; returns how many were dropped. */
+  int evictIdle(long now) {
+    int evicted = 0;
+    for (String key : buckets.keySet()) {
+      synchronized (stripeFor(key)) {
+        Bucket b = buckets.get(key);
+        if (b == null) continue;
+        b.refill(now);
+        if (b.tokens >= b.capacity) {
+          buckets.remove(key);
+          evicted++;
+        }
+      }
+    }
+    return evicted;
+  }
+
+  int size() {
+    return buckets.size();
+  }
+
+  private Object stripeFor(String key) {
+    int h = key.hashCode();
+    return stripes[(h ^ (h >>> 16)) & (stripes.length - 1)];
+  }
+}
@@ -0,0 +1,205 @@
+package com.dropslot.gateway.resilience;
+
+import com.dropslot.gateway.support.CapturingResponse;
+import com.dropslot.gateway.support.FilterOrder;
+import com.dropslot.gateway.support.Routes;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeoutException;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * Retries idempotent requests on connection errors, upstream timeouts and the configured statuses,
+ * within two limits: a {@link RetryBudget} shared by the whole route ({@code budget-ratio} of
+ * recent requests, at least {@code min-retries-per-second}) and a per-request {@code deadline}
+ * covering all attempts. An open circuit breaker is never retried.
+ *
+ * <pre>
+ * - name: BudgetedRetry
+ *   args:
+ *     retries: 2
+ *     deadline: 3s
+ *     budget-ratio: 0.2
+ * </pre>
+ *
+ * Counts {@code gateway.retry.requests} per route with result retried or budget_exhausted.
+ */
+@Component
+public class BudgetedRetryGatewayFilterFactory
+    extends AbstractGatewayFilterFactory<BudgetedRetryGatewayFilterFactory.Config> {
+  // attempts are replayed without a request body
+  static final Set<HttpMethod> IDEMPOTENT = Set.of(HttpMethod.GET, HttpMethod.HEAD);
+
+  private final MeterRegistry meterRegistry;
+
+  public BudgetedRetryGatewayFilterFactory(MeterRegistry meterRegistry) {
+    super(Config.class);
+    this.meterRegistry = meterRegistry;
+  }
+
+  @Override
+  public List<String> shortcutFieldOrder() {
+    return List.of("retries");
+  }
+
+  @Override
+  public GatewayFilter apply(Config config) {
+    RetryBudget budget = new RetryBudget(config.getBudgetRatio(), config.getMinRetriesPerSecond());
+    return new OrderedGatewayFilter(new RetryFilter(config, budget), FilterOrder.RETRY);
+  }
+
+  /** One attempt's outcome: either a captured response or the error it failed with. */
+  private record Outcome(CapturingResponse response, Throwable error) {
+    Mono<CapturingResponse> toMono() {
+      return error != null ? Mono.error(error) : Mono.just(response);
+    }
+  }
+
+  private final class RetryFilter implements GatewayFilter {
+    private final Config config;
+    private final RetryBudget budget;
+
+    RetryFilter(Config config, RetryBudget budget) {
+      this.config = config;
+      this.budget = budget;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+      if (!IDEMPOTENT.contains(exchange.getRequest().getMethod())) {
+        return chain.filter(exchange);
+      }
+      long start = System.nanoTime();
+      budget.recordRequest(start);
+      long deadline = config.getDeadline().isZero() ? 0 : start + config.getDeadline().toNanos();
+      Mono<CapturingResponse> result = attempt(exchange, chain, 0, deadline);
+      if (deadline != 0) {
+        result =
+            result.timeout(
+                config.getDeadline(),
+                Mono.error(
+                    () ->
+                        new ResponseStatusException(
+                            HttpStatus.GATEWAY_TIMEOUT, "Retry deadline exceeded")));
+      }
+      return result.flatMap(response -> response.replayTo(exchange.getResponse()));
+    }
+
+    private Mono<CapturingResponse> attempt(
+        ServerWebExchange exchange, GatewayFilterChain chain, int retry, long deadline) {
+      return UpstreamAttempt.run(exchange, chain)
+          .map(response -> new Outcome(response, null))
+          .onErrorResume(e -> Mono.just(new Outcome(null, e)))
+          .flatMap(
+              outcome -> {
+                if (retry >= config.getRetries() || !retryable(outcome)) return outcome.toMono();
+                long now = System.nanoTime();
+                if (deadline != 0 && now + config.getBackoff().toNanos() >= deadline) {
+                  return outcome.toMono();
+                }
+                String route = Routes.id(exchange);
+                if (!budget.tryAcquire(now)) {
+                  count(route, "budget_exhausted");
+                  return outcome.toMono();
+                }
+                count(route, "retried");
+                Mono<CapturingResponse> next = attempt(exchange, chain, retry + 1, deadline);
+                return config.getBackoff().isZero()
+                    ? next
+                    : Mono.delay(config.getBackoff()).then(next);
+              });
+    }
+
+    private boolean retryable(Outcome outcome) {
+      if (outcome.error() == null) {
+        return config.getStatuses().contains(outcome.response().status().value());
+      }
+      boolean transientFailure = false;
+      for (Throwable t = outcome.error(); t != null; t = t.getCause()) {
+        if (t instanceof CallNotPermittedException) return false;
+        if (t instanceof IOException || t instanceof TimeoutException) transientFailure = true;
+        if (t.getCause() == t) break;
+      }
+      return transientFailure;
+    }
+  }
+
+  private void count(String route, String result) {
+    Counter.builder("gateway.retry.requests")
+        .tag("route", route)
+        .tag("result", result)
+        .register(meterRegistry)
+        .increment();
+  }
+
+  public static class Config {
+    private int retries = 1;
+    private Set<Integer> statuses = Set.of(502, 503, 504);
+    private Duration backoff = Duration.ofMillis(20);
+    private Duration deadline = Duration.ZERO;
+    private double budgetRatio = 0.2;
+    private int minRetriesPerSecond = 1;
+
+    public int getRetries() {
+      return retries;
+    }
+
+    public void setRetries(int retries) {
+      this.retries = retries;
+    }
+
+    public Set<Integer> getStatuses() {
+      return statuses;
+    }
+
+    public void setStatuses(Set<Integer> statuses) {
+      this.statuses = statuses;
+    }
+
+    public Duration getBackoff() {
+      return backoff;
+    }
+
+    public void setBackoff(Duration backoff) {
+      this.backoff = backoff;
+    }
+
+    public Duration getDeadline() {
+      return deadline;
+    }
+
+    public void setDeadline(Duration deadline) {
+      this.deadline = deadline;
+    }
+
+    public double getBudgetRatio() {
+      return budgetRatio;
+    }
+
+    public void setBudgetRatio(double budgetRatio) {
+      this.budgetRatio = budgetRatio;
+    }
+
+    public int getMinRetriesPerSecond() {
+      return minRetriesPerSecond;
+    }
+
+    public void setMinRetriesPerSecond(int minRetriesPerSecond) {
+      this.minRetriesPerSecond = minRetriesPerSecond;
+    }
+  }
+}
@@ -0,0 +1,84 @@
+package com.dropslot.gateway.resilience;
+
+import com.dropslot.gateway.support.FilterOrder;
+import com.dropslot.gateway.support.Routes;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * Caps the number of requests a route may have in flight upstream ({@code Bulkhead=200}). Requests
+ * over the cap are answered with 503 at once instead of queueing on the connection pool, so a slow
+ * service cannot hold every gateway connection. Exposes {@code gateway.bulkhead.in_flight} and
+ * {@code gateway.bulkhead.rejected} per route.
+ */
+@Component
+public class BulkheadGatewayFilterFactory
+    extends AbstractGatewayFilterFactory<BulkheadGatewayFilterFactory.Config> {
+  private final MeterRegistry meterRegistry;
+
+  public BulkheadGatewayFilterFactory(MeterRegistry meterRegistry) {
+    super(Config.class);
+    this.meterRegistry = meterRegistry;
+  }
+
+  @Override
+  public List<String> shortcutFieldOrder() {
+    return List.of("maxConcurrent");
+  }
+
+  @Override
+  public GatewayFilter apply(Config config) {
+    AtomicInteger inFlight = new AtomicInteger();
+    AtomicBoolean gaugeRegistered = new AtomicBoolean();
+    int max = config.getMaxConcurrent();
+    return new OrderedGatewayFilter(
+        (exchange, chain) -> {
+          String route = Routes.id(exchange);
+          if (gaugeRegistered.compareAndSet(false, true)) {
+            Gauge.builder("gateway.bulkhead.in_flight", inFlight, AtomicInteger::get)
+                .tag("route", route)
+                .register(meterRegistry);
+          }
+          if (inFlight.incrementAndGet() > max) {
+            inFlight.decrementAndGet();
+            Counter.builder("gateway.bulkhead.rejected")
+                .tag("route", route)
+                .register(meterRegistry)
+                .increment();
+            return reject(exchange);
+          }
+          return chain.filter(exchange).doFinally(signal -> inFlight.decrementAndGet());
+        },
+        FilterOrder.BULKHEAD);
+  }
+
+  private static Mono<Void> reject(ServerWebExchange exchange) {
+    exchange.getResponse().setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+    exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER, "1");
+    return exchange.getResponse().setComplete();
+  }
+
+  public static class Config {
+    private int maxConcurrent = 200;
+
+    public int getMaxConcurrent() {
+      return maxConcurrent;
+    }
+
+    public void setMaxConcurrent(int maxConcurrent) {
+      this.maxConcurrent = maxConcurrent;
+    }
+  }
+}
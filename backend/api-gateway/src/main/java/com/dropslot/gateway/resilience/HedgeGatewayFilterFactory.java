@@ -0,0 +1,186 @@
+package com.dropslot.gateway.resilience;
+
+import com.dropslot.gateway.support.CapturingResponse;
+import com.dropslot.gateway.support.FilterOrder;
+import com.dropslot.gateway.support.Routes;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * Hedged reads: when an idempotent request has not completed after the route's recent p95 latency
+ * (clamped to {@code min-delay}..{@code max-delay}), a second attempt is started and whichever
+ * finishes first is returned; the other is cancelled. The second attempt goes through the route's
+ * load balancer again, so on an {@code lb://} route it normally lands on another instance. Hedges
+ * draw on a {@link RetryBudget} so a slow service is never sent more than {@code budget-ratio}
+ * extra load. Not for streaming responses, which are buffered.
+ *
+ * <p>Counts {@code gateway.hedge.requests} per route with outcome not_hedged, primary_won,
+ * hedge_won or budget_exhausted, and exposes the current delay as {@code gateway.hedge.delay}.
+ */
+@Component
+public class HedgeGatewayFilterFactory
+    extends AbstractGatewayFilterFactory<HedgeGatewayFilterFactory.Config> {
+  private final MeterRegistry meterRegistry;
+
+  public HedgeGatewayFilterFactory(MeterRegistry meterRegistry) {
+    super(Config.class);
+    this.meterRegistry = meterRegistry;
+  }
+
+  @Override
+  public List<String> shortcutFieldOrder() {
+    return List.of("minDelay", "maxDelay");
+  }
+
+  @Override
+  public GatewayFilter apply(Config config) {
+    return new OrderedGatewayFilter(new HedgeFilter(config), FilterOrder.HEDGE);
+  }
+
+  private record Winner(CapturingResponse response, boolean hedge) {}
+
+  private final class HedgeFilter implements GatewayFilter {
+    private final Config config;
+    private final LatencyTracker latency;
+    private final RetryBudget budget;
+    private final AtomicBoolean gaugeRegistered = new AtomicBoolean();
+
+    HedgeFilter(Config config) {
+      this.config = config;
+      this.latency = new LatencyTracker(config.getPercentile());
+      this.budget = new RetryBudget(config.getBudgetRatio(), config.getMinHedgesPerSecond());
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+      if (!BudgetedRetryGatewayFilterFactory.IDEMPOTENT.contains(
+          exchange.getRequest().getMethod())) {
+        return chain.filter(exchange);
+      }
+      String route = Routes.id(exchange);
+      registerGauge(route);
+      long start = System.nanoTime();
+      budget.recordRequest(start);
+      AtomicReference<String> outcome = new AtomicReference<>("not_hedged");
+      AtomicReference<Throwable> firstError = new AtomicReference<>();
+
+      Mono<Winner> primary =
+          UpstreamAttempt.run(exchange, chain)
+              .doOnNext(r -> latency.record(System.nanoTime() - start))
+              // a primary cancelled because the hedge won took at least this long
+              .doOnCancel(() -> latency.record(System.nanoTime() - start))
+              .doOnError(e -> firstError.compareAndSet(null, e))
+              .map(r -> new Winner(r, false));
+      Mono<Winner> hedge =
+          Mono.delay(delay())
+              .flatMap(
+                  tick -> {
+                    if (!budget.tryAcquire(System.nanoTime())) {
+                      outcome.set("budget_exhausted");
+                      return Mono.empty();
+                    }
+                    outcome.set("hedged");
+                    return UpstreamAttempt.run(exchange, chain)
+                        .doOnError(e -> firstError.compareAndSet(null, e))
+                        .map(r -> new Winner(r, true));
+                  });
+
+      return Mono.firstWithValue(primary, hedge)
+          .onErrorMap(
+              NoSuchElementException.class, e -> firstError.get() != null ? firstError.get() : e)
+          .flatMap(
+              winner -> {
+                String result = outcome.get();
+                if ("hedged".equals(result)) result = winner.hedge() ? "hedge_won" : "primary_won";
+                count(route, result);
+                return winner.response().replayTo(exchange.getResponse());
+              });
+    }
+
+    private Duration delay() {
+      long p = latency.percentileNanos();
+      if (p < 0) return config.getMaxDelay();
+      long clamped =
+          Math.max(config.getMinDelay().toNanos(), Math.min(config.getMaxDelay().toNanos(), p));
+      return Duration.ofNanos(clamped);
+    }
+
+    private void registerGauge(String route) {
+      if (gaugeRegistered.compareAndSet(false, true)) {
+        Gauge.builder("gateway.hedge.delay", this, f -> f.delay().toNanos())
+            .tag("route", route)
+            .baseUnit("nanoseconds")
+            .register(meterRegistry);
+      }
+    }
+  }
+
+  private void count(String route, String outcome) {
+    Counter.builder("gateway.hedge.requests")
+        .tag("route", route)
+        .tag("outcome", outcome)
+        .register(meterRegistry)
+        .increment();
+  }
+
+  public static class Config {
+    private double percentile = 0.95;
+    private Duration minDelay = Duration.ofMillis(10);
+    private Duration maxDelay = Duration.ofSeconds(1);
+    private double budgetRatio = 0.05;
+    private int minHedgesPerSecond = 1;
+
+    public double getPercentile() {
+      return percentile;
+    }
+
+    public void setPercentile(double percentile) {
+      this.percentile = percentile;
+    }
+
+    public Duration getMinDelay() {
+      return minDelay;
+    }
+
+    public void setMinDelay(Duration minDelay) {
+      this.minDelay = minDelay;
+    }
+
+    public Duration getMaxDelay() {
+      return maxDelay;
+    }
+
+    public void setMaxDelay(Duration maxDelay) {
+      this.maxDelay = maxDelay;
+    }
+
+    public double getBudgetRatio() {
+      return budgetRatio;
+    }
+
+    public void setBudgetRatio(double budgetRatio) {
+      this.budgetRatio = budgetRatio;
+    }
+
+    public int getMinHedgesPerSecond() {
+      return minHedgesPerSecond;
+    }
+
+    public void setMinHedgesPerSecond(int minHedgesPerSecond) {
+      this.minHedgesPerSecond = minHedgesPerSecond;
+    }
+  }
+}
@@ -0,0 +1,41 @@
+package com.dropslot.gateway.resilience;
+
+import java.util.Arrays;
+
+/**
+ * Percentile of the most recent upstream latencies. The percentile is recomputed from a sorted copy
+ * every {@code RECOMPUTE_EVERY} samples, so reading it is a volatile load.
+ */
+final class LatencyTracker {
+  private static final int SAMPLES = 512;
+  private static final int MIN_SAMPLES = 32;
+  private static final int RECOMPUTE_EVERY = 32;
+
+  private final double percentile;
+  private final long[] samples = new long[SAMPLES];
+  private int next;
+  private int count;
+  private int sinceRecompute;
+  private volatile long current = -1;
+
+  LatencyTracker(double percentile) {
+    this.percentile = percentile;
+  }
+
+  synchronized void record(long nanos) {
+    samples[next] = nanos;
+    next = (next + 1) % SAMPLES;
+    if (count < SAMPLES) count++;
+    if (++sinceRecompute >= RECOMPUTE_EVERY && count >= MIN_SAMPLES) {
+      long[] sorted = Arrays.copyOf(samples, count);
+      Arrays.sort(sorted);
+      current = sorted[Math.min(count - 1, (int) Math.ceil(percentile * count) - 1)];
+      sinceRecompute = 0;
+    }
+  }
+
+  /** Nanoseconds, or -1 until enough samples have been seen. */
+  long percentileNanos() {
+    return current;
+  }
+}
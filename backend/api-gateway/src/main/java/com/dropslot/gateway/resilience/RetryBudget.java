@@ -0,0 +1,57 @@
+package com.dropslot.gateway.resilience;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caps extra upstream attempts (retries or hedges) at a fraction of recent traffic, plus a small
+ * floor so a quiet route can still retry. Counts are kept in one-second buckets over a sliding
+ * window; when a service degrades the budget runs out instead of multiplying its load.
+ */
+final class RetryBudget {
+  private static final int WINDOW_SECONDS = 10;
+
+  private final double ratio;
+  private final int minPerSecond;
+  private final long[] epochs = new long[WINDOW_SECONDS];
+  private final long[] requests = new long[WINDOW_SECONDS];
+  private final long[] retries = new long[WINDOW_SECONDS];
+
+  RetryBudget(double ratio, int minPerSecond) {
+    this.ratio = ratio;
+    this.minPerSecond = minPerSecond;
+  }
+
+  synchronized void recordRequest(long nanoTime) {
+    requests[slot(nanoTime)]++;
+  }
+
+  /** Takes one extra attempt from the budget; {@code false} when it is spent. */
+  synchronized boolean tryAcquire(long nanoTime) {
+    int slot = slot(nanoTime);
+    long second = epochs[slot];
+    long recentRequests = 0;
+    long recentRetries = 0;
+    for (int i = 0; i < WINDOW_SECONDS; i++) {
+      if (epochs[i] > second - WINDOW_SECONDS) {
+        recentRequests += requests[i];
+        recentRetries += retries[i];
+      }
+    }
+    if (recentRetries >= (long) (minPerSecond * WINDOW_SECONDS + ratio * recentRequests)) {
+      return false;
+    }
+    retries[slot]++;
+    return true;
+  }
+
+  private int slot(long nanoTime) {
+    long second = TimeUnit.NANOSECONDS.toSeconds(nanoTime);
+    int slot = (int) Math.floorMod(second, (long) WINDOW_SECONDS);
+    if (epochs[slot] != second) {
+      epochs[slot] = second;
+      requests[slot] = 0;
+      retries[slot] = 0;
+    }
+    return slot;
+  }
+}
@@ -0,0 +1,66 @@
+package com.dropslot.gateway.resilience;
+
+import com.dropslot.gateway.support.CapturingResponse;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.ServerWebExchangeDecorator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Runs the rest of the filter chain once, against a private copy of the exchange attributes and a
+ * {@link CapturingResponse}. Routing and load-balancing state lives in the attributes, so several
+ * attempts for one client request can be in flight at once (hedging) or run one after another
+ * (retries) without seeing each other. Only bodiless, idempotent requests may be attempted.
+ */
+final class UpstreamAttempt {
+  private UpstreamAttempt() {}
+
+  static Mono<CapturingResponse> run(ServerWebExchange exchange, GatewayFilterChain chain) {
+    return Mono.defer(
+        () -> {
+          CapturingResponse capture = new CapturingResponse(exchange.getResponse(), false);
+          return chain.filter(new Isolated(exchange, capture)).thenReturn(capture);
+        });
+  }
+
+  private static final class Isolated extends ServerWebExchangeDecorator {
+    private final Map<String, Object> attributes;
+    private final ServerHttpRequest request;
+    private final ServerHttpResponse response;
+
+    Isolated(ServerWebExchange delegate, ServerHttpResponse response) {
+      super(delegate);
+      this.attributes = new ConcurrentHashMap<>(delegate.getAttributes());
+      this.request =
+          new ServerHttpRequestDecorator(delegate.getRequest()) {
+            @Override
+            public Flux<DataBuffer> getBody() {
+              return Flux.empty();
+            }
+          };
+      this.response = response;
+    }
+
+    @Override
+    public Map<String, Object> getAttributes() {
+      return attributes;
+    }
+
+    @Override
+    public ServerHttpRequest getRequest() {
+      return request;
+    }
+
+    @Override
+    public ServerHttpResponse getResponse() {
+      return response;
+    }
+  }
+}
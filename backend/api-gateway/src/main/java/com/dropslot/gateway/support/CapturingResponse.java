@@ -0,0 +1,109 @@
+package com.dropslot.gateway.support;
+
+import org.reactivestreams.Publisher;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Collects the proxied upstream response in memory instead of writing it to the client, so an
+ * upstream answer can be shared, compared or dropped before anything reaches the client. Streaming
+ * bodies ({@code writeAndFlushWith}, e.g. SSE) are written straight through to the client when
+ * {@code passThroughStreams} is set, and buffered like any other body otherwise.
+ */
+public final class CapturingResponse extends ServerHttpResponseDecorator {
+  private final HttpHeaders headers = new HttpHeaders();
+  private final boolean passThroughStreams;
+  private HttpStatusCode status = HttpStatus.OK;
+  private byte[] body;
+  private boolean passedThrough;
+
+  public CapturingResponse(ServerHttpResponse delegate, boolean passThroughStreams) {
+    super(delegate);
+    this.passThroughStreams = passThroughStreams;
+  }
+
+  @Override
+  public HttpHeaders getHeaders() {
+    return headers;
+  }
+
+  @Override
+  public boolean setStatusCode(HttpStatusCode status) {
+    if (status != null) this.status = status;
+    return true;
+  }
+
+  @Override
+  public HttpStatusCode getStatusCode() {
+    return status;
+  }
+
+  @Override
+  public boolean isCommitted() {
+    return body != null || passedThrough;
+  }
+
+  @Override
+  public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+    return DataBufferUtils.join(Flux.from(body))
+        .map(
+            buffer -> {
+              byte[] bytes = new byte[buffer.readableByteCount()];
+              buffer.read(bytes);
+              DataBufferUtils.release(buffer);
+              return bytes;
+            })
+        .defaultIfEmpty(new byte[0])
+        .doOnNext(bytes -> this.body = bytes)
+        .then();
+  }
+
+  @Override
+  public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+    if (!passThroughStreams) return writeWith(Flux.from(body).concatMap(Flux::from));
+    passedThrough = true;
+    getDelegate().setStatusCode(status);
+    getDelegate().getHeaders().putAll(headers);
+    return getDelegate().writeAndFlushWith(body);
+  }
+
+  @Override
+  public Mono<Void> setComplete() {
+    if (body == null) body = new byte[0];
+    return Mono.empty();
+  }
+
+  /** {@code true} once the response went to the client directly and cannot be replayed. */
+  public boolean passedThrough() {
+    return passedThrough;
+  }
+
+  public HttpStatusCode status() {
+    return status;
+  }
+
+  public HttpHeaders headers() {
+    return headers;
+  }
+
+  public byte[] body() {
+    return body != null ? body : new byte[0];
+  }
+
+  /** Writes the captured status, headers and body to {@code target}. */
+  public Mono<Void> replayTo(ServerHttpResponse target) {
+    target.setStatusCode(status);
+    target.getHeaders().putAll(headers);
+    target.getHeaders().remove(HttpHeaders.TRANSFER_ENCODING);
+    byte[] bytes = body();
+    target.getHeaders().setContentLength(bytes.length);
+    return target.writeWith(Mono.fromSupplier(() -> target.bufferFactory().wrap(bytes)));
+  }
+}
@@ -0,0 +1,21 @@
+package com.dropslot.gateway.support;
+
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+
+/**
+ * Fixed orders for route filters that capture the upstream response. They have to run before {@link
+ * NettyWriteResponseFilter} so the body is written into their capture, and their relative order
+ * decides what wraps what: a cache hit is still counted as a view, but is neither charged nor takes
+ * a bulkhead permit, and a retry may be hedged. Plain route filters ({@code RequestRateLimiter},
+ * {@code CircuitBreaker}, ...) run inside all of these, once per upstream attempt.
+ */
+public final class FilterOrder {
+  public static final int VIEW_COUNT = NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 6;
+  public static final int RESPONSE_CACHE = NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 5;
+  public static final int RATE_LIMIT = NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 4;
+  public static final int BULKHEAD = NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 3;
+  public static final int RETRY = NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 2;
+  public static final int HEDGE = NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1;
+
+  private FilterOrder() {}
+}
@@ -0,0 +1,15 @@
+package com.dropslot.gateway.support;
+
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.web.server.ServerWebExchange;
+
+public final class Routes {
+  private Routes() {}
+
+  /** Id of the route handling {@code exchange}, for metric tags and bucket keys. */
+  public static String id(ServerWebExchange exchange) {
+    Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+    return route != null ? route.getId() : "unknown";
+  }
+}
@@ -0,0 +1,60 @@
+package com.dropslot.gateway.upstream;
+
+import io.netty.channel.ChannelOption;
+import java.util.List;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.NettyRoutingFilter;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.RouteMetadataUtils;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+
+/**
+ * Proxies routes that declare {@code upstream} metadata through their own {@link UpstreamClients}
+ * pool. It runs just before the standard {@link NettyRoutingFilter}, which then sees the exchange
+ * as routed; routes without the metadata and WebSocket upgrades are left to the standard filters.
+ */
+public class RoutePoolRoutingFilter extends NettyRoutingFilter {
+  private final UpstreamClients clients;
+
+  public RoutePoolRoutingFilter(
+      HttpClient httpClient,
+      ObjectProvider<List<HttpHeadersFilter>> headersFiltersProvider,
+      HttpClientProperties properties,
+      UpstreamClients clients) {
+    super(httpClient, headersFiltersProvider, properties);
+    this.clients = clients;
+  }
+
+  @Override
+  public int getOrder() {
+    return NettyRoutingFilter.ORDER - 1;
+  }
+
+  @Override
+  public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+    Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+    if (route == null
+        || route.getMetadata().get(UpstreamPool.METADATA_KEY) == null
+        || "websocket".equalsIgnoreCase(exchange.getRequest().getHeaders().getUpgrade())) {
+      return chain.filter(exchange);
+    }
+    return super.filter(exchange, chain);
+  }
+
+  @Override
+  protected HttpClient getHttpClient(Route route, ServerWebExchange exchange) {
+    HttpClient client = clients.client(route);
+    if (client == null) return super.getHttpClient(route, exchange);
+    Object connectTimeout = route.getMetadata().get(RouteMetadataUtils.CONNECT_TIMEOUT_ATTR);
+    return connectTimeout != null
+        ? client.option(
+            ChannelOption.CONNECT_TIMEOUT_MILLIS, Integer.parseInt(connectTimeout.toString()))
+        : client;
+  }
+}
@@ -0,0 +1,112 @@
+package com.dropslot.gateway.upstream;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.cloud.gateway.config.HttpClientCustomizer;
+import org.springframework.cloud.gateway.config.HttpClientFactory;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.config.HttpClientSslConfigurer;
+import org.springframework.cloud.gateway.route.Route;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.Http2AllocationStrategy;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * One {@link HttpClient} per route with {@code upstream} metadata, each with its own connection
+ * pool named {@code route-<id>}. Clients are otherwise configured like the gateway's shared client
+ * (decoder limits, proxy, SSL, wiretap, customizers). Pools publish the {@code
+ * reactor.netty.connection.provider.*} meters, including pending acquires and acquire time.
+ */
+public class UpstreamClients implements DisposableBean {
+  private record Pooled(UpstreamPool pool, ConnectionProvider provider, HttpClient client) {}
+
+  private final HttpClientProperties properties;
+  private final ServerProperties serverProperties;
+  private final HttpClientSslConfigurer sslConfigurer;
+  private final List<HttpClientCustomizer> customizers;
+  private final Map<String, Pooled> clients = new ConcurrentHashMap<>();
+
+  public UpstreamClients(
+      HttpClientProperties properties,
+      ServerProperties serverProperties,
+      HttpClientSslConfigurer sslConfigurer,
+      List<HttpClientCustomizer> customizers) {
+    this.properties = properties;
+    this.serverProperties = serverProperties;
+    this.sslConfigurer = sslConfigurer;
+    this.customizers = customizers;
+  }
+
+  /** Client for {@code route}, or {@code null} when it uses the gateway's shared pool. */
+  public HttpClient client(Route route) {
+    UpstreamPool pool = UpstreamPool.from(route.getMetadata());
+    if (pool == null) return null;
+    Pooled pooled = clients.get(route.getId());
+    if (pooled == null || !pooled.pool().equals(pool)) {
+      // route definitions were refreshed with new pool settings
+      pooled = clients.compute(route.getId(), (id, old) -> replace(id, old, pool));
+    }
+    return pooled.client();
+  }
+
+  private Pooled replace(String routeId, Pooled old, UpstreamPool pool) {
+    if (old != null && old.pool().equals(pool)) return old;
+    if (old != null) old.provider().disposeLater().subscribe();
+    ConnectionProvider provider = connectionProvider(routeId, pool);
+    HttpClient client = new RouteClientFactory(this, provider).create();
+    if (pool.h2c()) client = client.protocol(HttpProtocol.H2C);
+    return new Pooled(pool, provider, client);
+  }
+
+  private static ConnectionProvider connectionProvider(String routeId, UpstreamPool pool) {
+    ConnectionProvider.Builder builder =
+        ConnectionProvider.builder("route-" + routeId)
+            .maxConnections(pool.maxConnections())
+            .pendingAcquireMaxCount(pool.pendingAcquireMaxCount())
+            .pendingAcquireTimeout(pool.pendingAcquireTimeout())
+            .maxIdleTime(pool.maxIdleTime())
+            .maxLifeTime(pool.maxLifeTime())
+            .evictInBackground(pool.evictionInterval())
+            .metrics(true);
+    if (pool.h2c()) {
+      // must come after maxConnections, which would otherwise reset it
+      builder.allocationStrategy(
+          Http2AllocationStrategy.builder()
+              .minConnections(1)
+              .maxConnections(pool.maxConnections())
+              .maxConcurrentStreams(pool.maxStreams())
+              .build());
+    }
+    return builder.build();
+  }
+
+  @Override
+  public void destroy() {
+    clients.values().forEach(pooled -> pooled.provider().dispose());
+    clients.clear();
+  }
+
+  /** The gateway's client factory with the route's pool in place of the shared one. */
+  private static final class RouteClientFactory extends HttpClientFactory {
+    private final ConnectionProvider provider;
+
+    RouteClientFactory(UpstreamClients clients, ConnectionProvider provider) {
+      super(
+          clients.properties, clients.serverProperties, clients.sslConfigurer, clients.customizers);
+      this.provider = provider;
+    }
+
+    @Override
+    protected ConnectionProvider buildConnectionProvider(HttpClientProperties properties) {
+      return provider;
+    }
+
+    HttpClient create() {
+      return createInstance();
+    }
+  }
+}
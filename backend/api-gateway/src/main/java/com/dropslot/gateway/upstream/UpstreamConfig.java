@@ -0,0 +1,35 @@
+package com.dropslot.gateway.upstream;
+
+import java.util.List;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.cloud.gateway.config.HttpClientCustomizer;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.config.HttpClientSslConfigurer;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.netty.http.client.HttpClient;
+
+/** Per-route upstream pools; see {@link UpstreamPool} for the route metadata. */
+@Configuration
+public class UpstreamConfig {
+
+  @Bean
+  public UpstreamClients upstreamClients(
+      HttpClientProperties properties,
+      ServerProperties serverProperties,
+      HttpClientSslConfigurer sslConfigurer,
+      List<HttpClientCustomizer> customizers) {
+    return new UpstreamClients(properties, serverProperties, sslConfigurer, customizers);
+  }
+
+  @Bean
+  public RoutePoolRoutingFilter routePoolRoutingFilter(
+      HttpClient httpClient,
+      ObjectProvider<List<HttpHeadersFilter>> headersFilters,
+      HttpClientProperties properties,
+      UpstreamClients upstreamClients) {
+    return new RoutePoolRoutingFilter(httpClient, headersFilters, properties, upstreamClients);
+  }
+}
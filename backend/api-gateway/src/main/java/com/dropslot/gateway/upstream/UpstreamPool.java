@@ -0,0 +1,77 @@
+package com.dropslot.gateway.upstream;
+
+import java.time.Duration;
+import java.util.Map;
+import org.springframework.boot.convert.DurationStyle;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * Connection pool settings for one route, read from the route's {@code upstream} metadata:
+ *
+ * <pre>
+ * metadata:
+ *   upstream:
+ *     protocol: h2c            # or http1 (default)
+ *     max-connections: 4
+ *     max-streams: 100         # h2c only: concurrent streams per connection
+ *     pending-acquire-max-count: 1000
+ *     pending-acquire-timeout: 1s
+ *     max-idle-time: 30s
+ *     max-life-time: 5m
+ *     eviction-interval: 10s
+ * </pre>
+ *
+ * {@code max-life-time} also bounds how long a multiplexed connection stays pinned to one backend
+ * instance behind a Service address, so new instances get traffic after a scale-up.
+ */
+record UpstreamPool(
+    boolean h2c,
+    int maxConnections,
+    int maxStreams,
+    int pendingAcquireMaxCount,
+    Duration pendingAcquireTimeout,
+    Duration maxIdleTime,
+    Duration maxLifeTime,
+    Duration evictionInterval) {
+
+  static final String METADATA_KEY = "upstream";
+
+  /** Settings for the route, or {@code null} when it uses the gateway's shared pool. */
+  static UpstreamPool from(Map<String, Object> metadata) {
+    if (!(metadata.get(METADATA_KEY) instanceof Map<?, ?> upstream)) return null;
+    String protocol = string(upstream, "protocol", "http1");
+    boolean h2c =
+        switch (protocol) {
+          case "h2c" -> true;
+          case "http1" -> false;
+          default -> throw new IllegalArgumentException("Unknown upstream protocol: " + protocol);
+        };
+    int maxConnections =
+        integer(
+            upstream, "max-connections", h2c ? 4 : ConnectionProvider.DEFAULT_POOL_MAX_CONNECTIONS);
+    return new UpstreamPool(
+        h2c,
+        maxConnections,
+        integer(upstream, "max-streams", 100),
+        integer(upstream, "pending-acquire-max-count", 1000),
+        duration(upstream, "pending-acquire-timeout", Duration.ofSeconds(1)),
+        duration(upstream, "max-idle-time", Duration.ofSeconds(30)),
+        duration(upstream, "max-life-time", Duration.ofMinutes(5)),
+        duration(upstream, "eviction-interval", Duration.ofSeconds(10)));
+  }
+
+  private static String string(Map<?, ?> map, String key, String fallback) {
+    Object value = map.get(key);
+    return value != null ? value.toString().trim() : fallback;
+  }
+
+  private static int integer(Map<?, ?> map, String key, int fallback) {
+    Object value = map.get(key);
+    return value != null ? Integer.parseInt(value.toString().trim()) : fallback;
+  }
+
+  private static Duration duration(Map<?, ?> map, String key, Duration fallback) {
+    Object value = map.get(key);
+    return value != null ? DurationStyle.detectAndParse(value.toString().trim()) : fallback;
+  }
+}
@@ -0,0 +1,89 @@
+package com.dropslot.gateway.views;
+
+import com.dropslot.gateway.identity.UserIdGlobalFilter;
+import com.dropslot.gateway.support.FilterOrder;
+import java.net.URI;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+/**
+ * Counts views of the responses that name a key in {@code key-header}, and strips that header:
+ *
+ * <pre>
+ * filters:
+ *   - name: ViewCount
+ *     args:
+ *       key-header: X-Tenant-Key
+ *       report-uri: http://store-service:8092/stores/views
+ * </pre>
+ *
+ * It runs around {@code ResponseCache}, so fresh and stale cache hits and requests that joined
+ * another's upstream call count like the ones that reached upstream, and upstream counts nothing
+ * itself. Only 200s and 304s to GETs count; the viewer is the verified {@code X-User-Id}. {@link
+ * ViewReporter} sends the counts on.
+ */
+@Component
+public class ViewCountGatewayFilterFactory
+    extends AbstractGatewayFilterFactory<ViewCountGatewayFilterFactory.Config> {
+  private final ViewReporter reporter;
+
+  public ViewCountGatewayFilterFactory(ViewReporter reporter) {
+    super(Config.class);
+    this.reporter = reporter;
+  }
+
+  @Override
+  public GatewayFilter apply(Config config) {
+    if (config.getKeyHeader() == null || config.getReportUri() == null) {
+      throw new IllegalArgumentException("ViewCount needs key-header and report-uri");
+    }
+    String keyHeader = config.getKeyHeader();
+    URI reportUri = config.getReportUri();
+    return new OrderedGatewayFilter(
+        (exchange, chain) -> {
+          if (exchange.getRequest().getMethod() != HttpMethod.GET) return chain.filter(exchange);
+          String userId = exchange.getRequest().getHeaders().getFirst(UserIdGlobalFilter.HEADER);
+          ServerHttpResponse response = exchange.getResponse();
+          response.beforeCommit(
+              () -> {
+                String key = response.getHeaders().getFirst(keyHeader);
+                if (key == null) return Mono.empty();
+                response.getHeaders().remove(keyHeader);
+                HttpStatusCode status = response.getStatusCode();
+                if (status != null && (status.value() == 200 || status.value() == 304)) {
+                  reporter.record(reportUri, key, userId);
+                }
+                return Mono.empty();
+              });
+          return chain.filter(exchange);
+        },
+        FilterOrder.VIEW_COUNT);
+  }
+
+  public static class Config {
+    private String keyHeader;
+    private URI reportUri;
+
+    public String getKeyHeader() {
+      return keyHeader;
+    }
+
+    public void setKeyHeader(String keyHeader) {
+      this.keyHeader = keyHeader;
+    }
+
+    public URI getReportUri() {
+      return reportUri;
+    }
+
+    public void setReportUri(URI reportUri) {
+      this.reportUri = reportUri;
+    }
+  }
+}
@@ -0,0 +1,131 @@
+package com.dropslot.gateway.views;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.netty.ByteBufFlux;
+import reactor.netty.http.client.HttpClient;
+
+/**
+ * Collects the views counted by {@link ViewCountGatewayFilterFactory} and posts them to each
+ * route's {@code report-uri} every {@code gateway.views.report-interval-ms}, as a JSON array of
+ * {@code {"key", "views", "users"}}. A report that fails is kept and added to the next one.
+ */
+@Component
+public class ViewReporter {
+  private static final Logger log = LoggerFactory.getLogger(ViewReporter.class);
+  private static final Duration TIMEOUT = Duration.ofSeconds(5);
+  // distinct users kept per key and report; more views still count, only not their users
+  static final int MAX_USERS = 10_000;
+
+  record Target(URI uri, String key) {}
+
+  static final class Views {
+    long views;
+    final Set<String> users = new HashSet<>();
+
+    void add(long views, Set<String> users) {
+      this.views += views;
+      for (String user : users) {
+        if (this.users.size() == MAX_USERS) break;
+        this.users.add(user);
+      }
+    }
+  }
+
+  private final ConcurrentHashMap<Target, Views> pending = new ConcurrentHashMap<>();
+  private final HttpClient httpClient;
+  private final ObjectMapper objectMapper;
+
+  public ViewReporter(HttpClient httpClient, ObjectMapper objectMapper) {
+    this.httpClient = httpClient;
+    this.objectMapper = objectMapper;
+  }
+
+  /** Counts one view under {@code key}; {@code userId} may be {@code null}. */
+  void record(URI reportUri, String key, String userId) {
+    pending.compute(
+        new Target(reportUri, key),
+        (target, views) -> {
+          if (views == null) views = new Views();
+          views.add(1, userId != null ? Set.of(userId) : Set.of());
+          return views;
+        });
+  }
+
+  @Scheduled(fixedDelayString = "${gateway.views.report-interval-ms:10000}")
+  public void report() {
+    Map<URI, Map<Target, Views>> byUri = new LinkedHashMap<>();
+    for (Target target : pending.keySet()) {
+      Views views = pending.remove(target);
+      if (views != null) {
+        byUri.computeIfAbsent(target.uri(), u -> new LinkedHashMap<>()).put(target, views);
+      }
+    }
+    byUri.forEach(this::send);
+  }
+
+  @PreDestroy
+  void close() {
+    report();
+  }
+
+  private void send(URI uri, Map<Target, Views> counts) {
+    List<Map<String, Object>> body = new ArrayList<>();
+    counts.forEach(
+        (target, views) ->
+            body.add(Map.of("key", target.key(), "views", views.views, "users", views.users)));
+    try {
+      String json = objectMapper.writeValueAsString(body);
+      httpClient
+          .headers(h -> h.set(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE))
+          .post()
+          .uri(uri.toString())
+          .send(ByteBufFlux.fromString(Mono.just(json)))
+          .responseSingle(
+              (response, content) -> {
+                int status = response.status().code();
+                return status / 100 == 2
+                    ? content.then()
+                    : Mono.error(new IllegalStateException("status " + status));
+              })
+          .block(TIMEOUT);
+    } catch (RuntimeException | JsonProcessingException e) {
+      log.warn(
+          "View report to {} failed, keeping {} counts for the next one: {}",
+          uri,
+          counts.size(),
+          e.toString());
+      counts.forEach(
+          (target, views) ->
+              pending.merge(
+                  target,
+                  views,
+                  (newer, kept) -> {
+                    newer.add(kept.views, kept.users);
+                    return newer;
+                  }));
+    }
+  }
+
+  /** What is waiting for the next report, for tests. */
+  Map<Target, Views> pending() {
+    return pending;
+  }
+}
@@ -0,0 +1,100 @@
+package com.dropslot.gateway.waitingroom;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * FIFO admission at a fixed rate, kept as two counters instead of a list of waiting clients: every
+ * queued client holds a ticket number, and tickets up to {@code served} may enter. {@code served}
+ * advances as admission tokens accrue, so memory is constant however long the queue gets and a
+ * client's position is just {@code ticket - served}. While nobody is waiting, arrivals are admitted
+ * directly as long as tokens remain. Tickets of clients who gave up still use an admission slot
+ * when their turn comes.
+ *
+ * <p>A ticket enters once: a bitmap over the last {@code window} admitted tickets records which
+ * ones were redeemed, and tickets older than that can no longer be redeemed at all.
+ */
+final class AdmissionQueue {
+  /** {@code ticket} is 0 when the client was admitted, -1 when the queue is full. */
+  record Arrival(long ticket) {
+    boolean admitted() {
+      return ticket == 0;
+    }
+
+    boolean full() {
+      return ticket < 0;
+    }
+  }
+
+  private final double tokensPerNano;
+  private final double burst;
+  private final long capacity;
+  private final int window;
+  // bit (ticket % window) is set once a ticket in (served - window, served] was redeemed
+  private final long[] redeemed;
+  private long issued;
+  private long served;
+  private double tokens;
+  private long refilledAt;
+
+  AdmissionQueue(double admitPerSecond, int burst, long capacity, int window, long now) {
+    this.tokensPerNano = admitPerSecond / TimeUnit.SECONDS.toNanos(1);
+    this.burst = Math.max(1, burst);
+    this.capacity = capacity;
+    this.window = Math.max(1, window);
+    this.redeemed = new long[(this.window + 63) / 64];
+    this.tokens = this.burst;
+    this.refilledAt = now;
+  }
+
+  synchronized Arrival arrive(long now) {
+    refill(now);
+    if (served == issued && tokens >= 1) {
+      tokens -= 1;
+      return new Arrival(0);
+    }
+    if (issued - served >= capacity) return new Arrival(-1);
+    return new Arrival(++issued);
+  }
+
+  /** Clients ahead of {@code ticket}; 0 or less means it may enter. */
+  synchronized long position(long ticket, long now) {
+    refill(now);
+    return ticket - served;
+  }
+
+  /**
+   * Lets {@code ticket} enter if its turn has come, it is still within the window and it has not
+   * been redeemed before.
+   */
+  synchronized boolean redeem(long ticket, long now) {
+    refill(now);
+    if (ticket <= 0 || ticket > served || ticket <= served - window) return false;
+    int slot = (int) (ticket % window);
+    long bit = 1L << slot;
+    if ((redeemed[slot >>> 6] & bit) != 0) return false;
+    redeemed[slot >>> 6] |= bit;
+    return true;
+  }
+
+  synchronized long waiting(long now) {
+    refill(now);
+    return issued - served;
+  }
+
+  private void refill(long now) {
+    if (now > refilledAt) {
+      tokens = Math.min(burst, tokens + (now - refilledAt) * tokensPerNano);
+      refilledAt = now;
+    }
+    long admit = Math.min(issued - served, (long) tokens);
+    if (admit > 0) {
+      // the slots of the newly admitted tickets last belonged to ones that just left the window
+      for (long t = served + 1, end = served + Math.min(admit, window); t <= end; t++) {
+        int slot = (int) (t % window);
+        redeemed[slot >>> 6] &= ~(1L << slot);
+      }
+      served += admit;
+      tokens -= admit;
+    }
+  }
+}
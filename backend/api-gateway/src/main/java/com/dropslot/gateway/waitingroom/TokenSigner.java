@@ -0,0 +1,60 @@
+package com.dropslot.gateway.waitingroom;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Base64;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Appends a truncated HMAC-SHA256 to a short payload ({@code payload.signature}) so queue tickets
+ * and passes can be handed to clients and checked later without server-side state.
+ */
+final class TokenSigner {
+  private static final int SIGNATURE_BYTES = 16;
+  private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+  private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+  private final ThreadLocal<Mac> macs;
+
+  TokenSigner(byte[] key) {
+    SecretKeySpec spec = new SecretKeySpec(key, "HmacSHA256");
+    this.macs =
+        ThreadLocal.withInitial(
+            () -> {
+              try {
+                Mac mac = Mac.getInstance("HmacSHA256");
+                mac.init(spec);
+                return mac;
+              } catch (GeneralSecurityException e) {
+                throw new IllegalStateException(e);
+              }
+            });
+  }
+
+  String sign(String payload) {
+    return payload + "." + ENCODER.encodeToString(signature(payload));
+  }
+
+  /** The payload of a correctly signed token, or {@code null}. */
+  String verify(String token) {
+    if (token == null) return null;
+    int dot = token.lastIndexOf('.');
+    if (dot <= 0) return null;
+    String payload = token.substring(0, dot);
+    byte[] presented;
+    try {
+      presented = DECODER.decode(token.substring(dot + 1));
+    } catch (IllegalArgumentException e) {
+      return null;
+    }
+    return MessageDigest.isEqual(presented, signature(payload)) ? payload : null;
+  }
+
+  private byte[] signature(String payload) {
+    return Arrays.copyOf(
+        macs.get().doFinal(payload.getBytes(StandardCharsets.UTF_8)), SIGNATURE_BYTES);
+  }
+}
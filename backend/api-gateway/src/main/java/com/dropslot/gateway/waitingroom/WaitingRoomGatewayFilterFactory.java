@@ -0,0 +1,340 @@
+package com.dropslot.gateway.waitingroom;
+
+import com.dropslot.gateway.support.Routes;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.http.HttpCookie;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseCookie;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * Virtual waiting room for launch traffic. Clients holding a valid pass cookie go straight through;
+ * others are admitted at {@code admit-rate} per second (per gateway instance) in arrival order. A
+ * client that has to wait gets 429 with its position, an estimated wait, {@code Retry-After} and a
+ * signed queue ticket (cookie, or {@code X-Queue-Ticket} for API clients) to present on the next
+ * try. Once admitted it receives a pass valid for {@code pass-ttl}. A ticket is valid for {@code
+ * ticket-ttl} from when it was first issued and enters once, within {@code redeem-window} of its
+ * turn; a used, expired or lapsed ticket is treated as none and its holder queues again.
+ *
+ * <pre>
+ * - name: WaitingRoom
+ *   args:
+ *     admit-rate: 50
+ *     pass-ttl: 5m
+ * </pre>
+ *
+ * Passes and tickets are HMAC-signed with {@code gateway.waiting-room.secret}, so passes are
+ * accepted by every gateway instance; the queue itself is per instance, and a ticket shown to
+ * another instance is replaced by one at the back of that instance's queue. Exposes {@code
+ * gateway.waiting_room.queued} and {@code gateway.waiting_room.requests} per room.
+ */
+@Component
+public class WaitingRoomGatewayFilterFactory
+    extends AbstractGatewayFilterFactory<WaitingRoomGatewayFilterFactory.Config> {
+  private static final Logger log = LoggerFactory.getLogger(WaitingRoomGatewayFilterFactory.class);
+  static final String PASS_COOKIE = "dropslot_pass";
+  static final String TICKET_COOKIE = "dropslot_ticket";
+  static final String TICKET_HEADER = "X-Queue-Ticket";
+
+  private final MeterRegistry meterRegistry;
+  private final TokenSigner signer;
+  private final String node;
+  private final Map<String, AdmissionQueue> queues = new ConcurrentHashMap<>();
+
+  public WaitingRoomGatewayFilterFactory(
+      MeterRegistry meterRegistry, @Value("${gateway.waiting-room.secret:}") String secret) {
+    super(Config.class);
+    this.meterRegistry = meterRegistry;
+    SecureRandom random = new SecureRandom();
+    byte[] key;
+    if (secret.isBlank()) {
+      log.warn(
+          "gateway.waiting-room.secret is not set; passes are only valid on this gateway instance");
+      key = new byte[32];
+      random.nextBytes(key);
+    } else {
+      key = Base64.getDecoder().decode(secret);
+    }
+    this.signer = new TokenSigner(key);
+    this.node = Long.toString(random.nextLong() >>> 16, 36);
+  }
+
+  @Override
+  public List<String> shortcutFieldOrder() {
+    return List.of("admitRate");
+  }
+
+  @Override
+  public GatewayFilter apply(Config config) {
+    if (config.getAdmitRate() <= 0) {
+      throw new IllegalArgumentException("WaitingRoom admit-rate must be positive");
+    }
+    return (exchange, chain) -> {
+      String room = config.getName() != null ? config.getName() : Routes.id(exchange);
+      long nowNanos = System.nanoTime();
+      long nowSeconds = System.currentTimeMillis() / 1000;
+      if (hasPass(exchange, room, nowSeconds)) {
+        count(room, "pass");
+        return chain.filter(exchange);
+      }
+      AdmissionQueue queue = queue(room, config, nowNanos);
+      Ticket ticket = ticket(exchange, room, nowSeconds, config);
+      if (ticket != null) {
+        long position = queue.position(ticket.number(), nowNanos);
+        if (position > 0) return wait(exchange.getResponse(), room, ticket, position, config);
+        if (queue.redeem(ticket.number(), nowNanos)) {
+          return admit(exchange, chain, room, config, nowSeconds);
+        }
+        count(room, "ticket_rejected");
+      }
+      AdmissionQueue.Arrival arrival = queue.arrive(nowNanos);
+      if (arrival.admitted()) return admit(exchange, chain, room, config, nowSeconds);
+      if (arrival.full()) {
+        count(room, "full");
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, "30");
+        return response.setComplete();
+      }
+      long position = queue.position(arrival.ticket(), nowNanos);
+      return wait(
+          exchange.getResponse(), room, new Ticket(arrival.ticket(), nowSeconds), position, config);
+    };
+  }
+
+  private AdmissionQueue queue(String room, Config config, long now) {
+    return queues.computeIfAbsent(
+        room,
+        name -> {
+          AdmissionQueue queue =
+              new AdmissionQueue(
+                  config.getAdmitRate(),
+                  config.getBurst(),
+                  config.getCapacity(),
+                  (int)
+                      Math.min(
+                          Integer.MAX_VALUE,
+                          Math.ceil(config.getAdmitRate() * config.getRedeemWindow().toSeconds())
+                              + config.getBurst()),
+                  now);
+          Gauge.builder("gateway.waiting_room.queued", queue, q -> q.waiting(System.nanoTime()))
+              .tag("room", name)
+              .register(meterRegistry);
+          return queue;
+        });
+  }
+
+  private boolean hasPass(ServerWebExchange exchange, String room, long nowSeconds) {
+    HttpCookie cookie = exchange.getRequest().getCookies().getFirst(PASS_COOKIE);
+    String payload = cookie != null ? signer.verify(cookie.getValue()) : null;
+    if (payload == null) return false;
+    String prefix = "p." + room + ".";
+    return payload.startsWith(prefix)
+        && number(payload, prefix.length(), payload.length()) > nowSeconds;
+  }
+
+  /** A queue ticket: its number in this instance's queue and when it was first issued. */
+  private record Ticket(long number, long issuedAt) {}
+
+  /** Unexpired ticket issued to this client by this instance, or null. */
+  private Ticket ticket(ServerWebExchange exchange, String room, long nowSeconds, Config config) {
+    String token = exchange.getRequest().getHeaders().getFirst(TICKET_HEADER);
+    if (token == null) {
+      HttpCookie cookie = exchange.getRequest().getCookies().getFirst(TICKET_COOKIE);
+      token = cookie != null ? cookie.getValue() : null;
+    }
+    String payload = signer.verify(token);
+    if (payload == null) return null;
+    // tickets from other instances count as none: their numbers belong to another queue
+    String prefix = "t." + room + "." + node + ".";
+    if (!payload.startsWith(prefix)) return null;
+    int dot = payload.indexOf('.', prefix.length());
+    if (dot < 0) return null;
+    long number = number(payload, prefix.length(), dot);
+    long issuedAt = number(payload, dot + 1, payload.length());
+    if (number <= 0 || issuedAt < 0) return null;
+    if (issuedAt + config.getTicketTtl().toSeconds() <= nowSeconds) return null;
+    return new Ticket(number, issuedAt);
+  }
+
+  // another room whose name starts with this one's plus a dot can leave a non-number here
+  private static long number(String payload, int from, int to) {
+    try {
+      return Long.parseLong(payload, from, to, 10);
+    } catch (NumberFormatException e) {
+      return -1;
+    }
+  }
+
+  private Mono<Void> admit(
+      ServerWebExchange exchange,
+      GatewayFilterChain chain,
+      String room,
+      Config config,
+      long nowSeconds) {
+    count(room, "admitted");
+    long expires = nowSeconds + config.getPassTtl().toSeconds();
+    HttpHeaders headers = exchange.getResponse().getHeaders();
+    headers.add(
+        HttpHeaders.SET_COOKIE,
+        cookie(PASS_COOKIE, signer.sign("p." + room + "." + expires), config.getPassTtl(), config)
+            .toString());
+    if (exchange.getRequest().getCookies().containsKey(TICKET_COOKIE)) {
+      headers.add(
+          HttpHeaders.SET_COOKIE, cookie(TICKET_COOKIE, "", Duration.ZERO, config).toString());
+    }
+    return chain.filter(exchange);
+  }
+
+  private Mono<Void> wait(
+      ServerHttpResponse response, String room, Ticket ticket, long position, Config config) {
+    count(room, "queued");
+    String token =
+        signer.sign("t." + room + "." + node + "." + ticket.number() + "." + ticket.issuedAt());
+    long waitSeconds = (long) Math.ceil(position / config.getAdmitRate());
+    long retryAfter =
+        Math.max(1, Math.min(config.getMaxPollInterval().toSeconds(), waitSeconds / 2));
+    response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+    HttpHeaders headers = response.getHeaders();
+    headers.set(HttpHeaders.RETRY_AFTER, Long.toString(retryAfter));
+    headers.setCacheControl("no-store");
+    headers.setContentType(MediaType.APPLICATION_JSON);
+    headers.add(TICKET_HEADER, token);
+    headers.add(
+        HttpHeaders.SET_COOKIE,
+        cookie(TICKET_COOKIE, token, config.getTicketTtl(), config).toString());
+    byte[] body =
+        ("{\"position\":"
+                + position
+                + ",\"estimatedWaitSeconds\":"
+                + waitSeconds
+                + ",\"ticket\":\""
+                + token
+                + "\"}")
+            .getBytes(StandardCharsets.UTF_8);
+    headers.setContentLength(body.length);
+    return response.writeWith(Mono.just(response.bufferFactory().wrap(body)));
+  }
+
+  private static ResponseCookie cookie(String name, String value, Duration maxAge, Config config) {
+    return ResponseCookie.from(name, value)
+        .path("/")
+        .maxAge(maxAge)
+        .httpOnly(true)
+        .secure(config.isSecureCookies())
+        .sameSite("Lax")
+        .build();
+  }
+
+  private void count(String room, String result) {
+    Counter.builder("gateway.waiting_room.requests")
+        .tag("room", room)
+        .tag("result", result)
+        .register(meterRegistry)
+        .increment();
+  }
+
+  public static class Config {
+    private String name;
+    private double admitRate = 50;
+    private int burst = 50;
+    private long capacity = 1_000_000;
+    private Duration passTtl = Duration.ofMinutes(5);
+    private Duration ticketTtl = Duration.ofHours(2);
+    private Duration redeemWindow = Duration.ofMinutes(1);
+    private Duration maxPollInterval = Duration.ofSeconds(20);
+    private boolean secureCookies = true;
+
+    public String getName() {
+      return name;
+    }
+
+    public void setName(String name) {
+      this.name = name;
+    }
+
+    public double getAdmitRate() {
+      return admitRate;
+    }
+
+    public void setAdmitRate(double admitRate) {
+      this.admitRate = admitRate;
+    }
+
+    public int getBurst() {
+      return burst;
+    }
+
+    public void setBurst(int burst) {
+      this.burst = burst;
+    }
+
+    public long getCapacity() {
+      return capacity;
+    }
+
+    public void setCapacity(long capacity) {
+      this.capacity = capacity;
+    }
+
+    public Duration getPassTtl() {
+      return passTtl;
+    }
+
+    public void setPassTtl(Duration passTtl) {
+      this.passTtl = passTtl;
+    }
+
+    public Duration getTicketTtl() {
+      return ticketTtl;
+    }
+
+    public void setTicketTtl(Duration ticketTtl) {
+      this.ticketTtl = ticketTtl;
+    }
+
+    public Duration getRedeemWindow() {
+      return redeemWindow;
+    }
+
+    public void setRedeemWindow(Duration redeemWindow) {
+      this.redeemWindow = redeemWindow;
+    }
+
+    public Duration getMaxPollInterval() {
+      return maxPollInterval;
+    }
+
+    public void setMaxPollInterval(Duration maxPollInterval) {
+      this.maxPollInterval = maxPollInterval;
+    }
+
+    public boolean isSecureCookies() {
+      return secureCookies;
+    }
+
+    public void setSecureCookies(boolean secureCookies) {
+      this.secureCookies = secureCookies;
+    }
+  }
+}
@@ -0,0 +1,77 @@
+package com.dropslot.gateway;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import org.yaml.snakeyaml.Yaml;
+
+/**
+ * Checks the routes of the cluster ConfigMap against paths that services only serve on their
+ * internal ports; a route matching one would hand clients a way around reservation-service.
+ */
+class RouteExposureTest {
+  private static final Path CONFIG_MAP = Path.of("../../k8s/api-gateway-configmap.yaml");
+
+  private static List<PathPattern> routed;
+
+  @BeforeAll
+  @SuppressWarnings("unchecked")
+  static void loadRoutes() throws IOException {
+    Yaml yaml = new Yaml();
+    Map<String, Object> configMap = yaml.load(Files.readString(CONFIG_MAP));
+    Map<String, Object> data = (Map<String, Object>) configMap.get("data");
+    Map<String, Object> config = yaml.load((String) data.get("application.yml"));
+    Object gateway = at(config, "spring", "cloud", "gateway");
+    routed = new ArrayList<>();
+    for (Map<String, Object> route :
+        (List<Map<String, Object>>) ((Map<String, Object>) gateway).get("routes")) {
+      for (Object predicate : (List<Object>) route.get("predicates")) {
+        if (predicate instanceof String s && s.startsWith("Path=")) {
+          Arrays.stream(s.substring("Path=".length()).split(","))
+              .map(p -> PathPatternParser.defaultInstance.parse(p.trim()))
+              .forEach(routed::add);
+        }
+      }
+    }
+    assertFalse(routed.isEmpty());
+  }
+
+  @Test
+  void dropClaimsAreNotRouted() {
+    String slot =
+        "/api/drops/6f1c4a52-0000-4000-8000-000000000001/slots/6f1c4a52-0000-4000-8000-000000000002";
+    assertFalse(isRouted(slot + "/claims"));
+    assertFalse(isRouted(slot + "/claims:bulk"));
+    assertFalse(isRouted(slot + "/claims/6f1c4a52-0000-4000-8000-000000000003"));
+  }
+
+  @Test
+  void publicDropPathsAreRouted() {
+    assertTrue(isRouted("/api/drops"));
+    assertTrue(isRouted("/api/drops/6f1c4a52-0000-4000-8000-000000000001"));
+    assertTrue(isRouted("/api/drops/6f1c4a52-0000-4000-8000-000000000001/availability"));
+  }
+
+  private static boolean isRouted(String path) {
+    PathContainer container = PathContainer.parsePath(path);
+    return routed.stream().anyMatch(p -> p.matches(container));
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Object at(Map<String, Object> map, String... keys) {
+    Object node = map;
+    for (String key : keys) node = ((Map<String, Object>) node).get(key);
+    return node;
+  }
+}
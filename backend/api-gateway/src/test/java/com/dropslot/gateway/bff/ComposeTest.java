@@ -0,0 +1,162 @@
+package com.dropslot.gateway.bff;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.dropslot.gateway.loadbalancer.InstanceLoadTracker;
+import com.dropslot.gateway.upstream.UpstreamClients;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.net.URI;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.cloud.gateway.config.HttpClientProperties;
+import org.springframework.cloud.gateway.config.HttpClientSslConfigurer;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.route.RouteLocator;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServer;
+
+class ComposeTest {
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private DisposableServer upstream;
+  private ComposeGatewayFilterFactory factory;
+
+  @BeforeEach
+  void startUpstream() {
+    upstream =
+        HttpServer.create()
+            .port(0)
+            .route(
+                routes ->
+                    routes
+                        .get(
+                            "/stores/{id}",
+                            (req, res) ->
+                                res.header("Content-Type", "application/json")
+                                    .sendString(Mono.just("{\"id\":\"" + req.param("id") + "\"}")))
+                        .get(
+                            "/users/me",
+                            (req, res) ->
+                                res.sendString(Mono.just("{}").delayElement(Duration.ofSeconds(5))))
+                        .get("/missing", (req, res) -> res.status(404).send())
+                        .get(
+                            "/raw/{id}",
+                            (req, res) ->
+                                res.sendString(
+                                    Mono.just(
+                                        objectMapper
+                                            .createObjectNode()
+                                            .put("uri", req.uri())
+                                            .toString()))))
+            .bindNow();
+    URI uri = URI.create("http://localhost:" + upstream.port());
+    HttpClient client = HttpClient.create();
+    // start Netty's event loops so the part timeouts below only measure the parts
+    client.get().uri(uri.resolve("/missing")).response().block();
+    RouteLocator locator =
+        () ->
+            Flux.just(route("store-service", uri), route("user-service", uri), route("other", uri));
+    DefaultListableBeanFactory beans = new DefaultListableBeanFactory();
+    beans.registerSingleton("routeLocator", locator);
+    HttpClientProperties properties = new HttpClientProperties();
+    ServerProperties server = new ServerProperties();
+    factory =
+        new ComposeGatewayFilterFactory(
+            beans.getBeanProvider(RouteLocator.class),
+            new UpstreamClients(
+                properties,
+                server,
+                new HttpClientSslConfigurer(properties.getSsl(), server) {},
+                List.of()),
+            client,
+            null,
+            new InstanceLoadTracker(new SimpleMeterRegistry()),
+            objectMapper,
+            new SimpleMeterRegistry());
+  }
+
+  @AfterEach
+  void stopUpstream() {
+    upstream.disposeNow();
+  }
+
+  @Test
+  void slowAndFailedPartsAreReportedAlongsideTheRest() throws Exception {
+    ComposeGatewayFilterFactory.Config config = new ComposeGatewayFilterFactory.Config();
+    config.setTimeout(Duration.ofMillis(500));
+    config.setParts(
+        Map.of(
+            "store", "store-service:/stores/{storeId}",
+            "user", "user-service:/users/me",
+            "extra", "other:/missing"));
+    GatewayFilter filter = factory.apply(config);
+
+    MockServerWebExchange exchange =
+        MockServerWebExchange.from(MockServerHttpRequest.get("/api/bff/drop-page/42"));
+    ServerWebExchangeUtils.putUriTemplateVariables(exchange, Map.of("storeId", "42"));
+    long start = System.nanoTime();
+    filter.filter(exchange, e -> Mono.error(new AssertionError("not proxied"))).block();
+
+    assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() < 2000, "parts in parallel");
+    assertEquals(HttpStatus.OK, exchange.getResponse().getStatusCode());
+    JsonNode page = objectMapper.readTree(exchange.getResponse().getBodyAsString().block());
+    assertEquals("42", page.path("store").path("id").asText());
+    assertTrue(page.get("user").isNull());
+    assertEquals(504, page.path("errors").path("user").path("status").asInt());
+    assertEquals(404, page.path("errors").path("extra").path("status").asInt());
+  }
+
+  @Test
+  void pathVariablesCannotLeaveTheirSegment() {
+    ComposeGatewayFilterFactory.Config config = new ComposeGatewayFilterFactory.Config();
+    config.setParts(Map.of("store", "store-service:/stores/{storeId}"));
+    GatewayFilter filter = factory.apply(config);
+
+    for (String storeId : List.of("../admin/shards", "..", "a/b", "a\\b")) {
+      MockServerWebExchange exchange =
+          MockServerWebExchange.from(MockServerHttpRequest.get("/api/bff/drop-page/x"));
+      ServerWebExchangeUtils.putUriTemplateVariables(exchange, Map.of("storeId", storeId));
+      ResponseStatusException e =
+          assertThrows(
+              ResponseStatusException.class,
+              () -> filter.filter(exchange, ex -> Mono.empty()).block(),
+              storeId);
+      assertEquals(HttpStatus.BAD_REQUEST, e.getStatusCode());
+    }
+  }
+
+  @Test
+  void pathVariablesAreEncodedAsOneSegment() throws Exception {
+    ComposeGatewayFilterFactory.Config config = new ComposeGatewayFilterFactory.Config();
+    config.setParts(Map.of("raw", "other:/raw/{id}"));
+    GatewayFilter filter = factory.apply(config);
+
+    MockServerWebExchange exchange =
+        MockServerWebExchange.from(MockServerHttpRequest.get("/api/bff/raw/x"));
+    ServerWebExchangeUtils.putUriTemplateVariables(exchange, Map.of("id", "a b?c=%2F#d"));
+    filter.filter(exchange, e -> Mono.empty()).block();
+
+    JsonNode page = objectMapper.readTree(exchange.getResponse().getBodyAsString().block());
+    assertEquals("/raw/a%20b%3Fc%3D%252F%23d", page.path("raw").path("uri").asText());
+  }
+
+  private static Route route(String id, URI uri) {
+    return Route.async().id(id).uri(uri).predicate(exchange -> true).build();
+  }
+}
@@ -0,0 +1,137 @@
+package com.dropslot.gateway.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+class ResponseCacheTest {
+  private static final CachedResponse.Policy DEFAULTS =
+      new CachedResponse.Policy(Duration.ZERO, Duration.ofSeconds(30), 1024);
+  private static final Instant NOW = Instant.parse("2025-09-01T00:00:00Z");
+
+  @Test
+  void sharedMaxAgeAndStaleWhileRevalidateDriveTheWindows() {
+    CachedResponse r = stored("public, max-age=0, s-maxage=2, stale-while-revalidate=5", "\"a\"");
+    assertEquals(CachedResponse.State.FRESH, r.state(NOW.plusSeconds(1)));
+    assertEquals(CachedResponse.State.STALE, r.state(NOW.plusSeconds(6)));
+    assertEquals(CachedResponse.State.EXPIRED, r.state(NOW.plusSeconds(7)));
+  }
+
+  @Test
+  void noCacheAlwaysRevalidatesButIsKeptForItsEtag() {
+    CachedResponse r = stored("no-cache", "\"a\"");
+    assertEquals(CachedResponse.State.EXPIRED, r.state(NOW));
+    assertTrue(CachedResponse.storable(HttpStatus.OK, r.headers(), 2, DEFAULTS));
+  }
+
+  @Test
+  void privateOrUnvalidatableResponsesAreNotStored() {
+    assertFalse(
+        CachedResponse.storable(HttpStatus.OK, headers("private, max-age=60", null), 2, DEFAULTS));
+    assertFalse(CachedResponse.storable(HttpStatus.OK, headers("no-cache", null), 2, DEFAULTS));
+    assertFalse(
+        CachedResponse.storable(HttpStatus.NOT_FOUND, headers("max-age=60", null), 2, DEFAULTS));
+    assertFalse(
+        CachedResponse.storable(HttpStatus.OK, headers("max-age=60", null), 2048, DEFAULTS));
+  }
+
+  @Test
+  void revalidationKeepsBodyAndRestartsFreshness() {
+    CachedResponse r = stored("max-age=1", "\"a\"");
+    CachedResponse refreshed =
+        r.revalidated(headers("max-age=10", "\"a\""), NOW.plusSeconds(60), DEFAULTS);
+    assertArrayEquals(r.body(), refreshed.body());
+    assertEquals(CachedResponse.State.FRESH, refreshed.state(NOW.plusSeconds(65)));
+  }
+
+  @Test
+  void concurrentLoadsOfOneKeyShareOneCall() {
+    SingleFlight<String, String> flights = new SingleFlight<>();
+    AtomicInteger calls = new AtomicInteger();
+    Sinks.One<String> upstream = Sinks.one();
+    var first =
+        flights.join(
+            "k",
+            () ->
+                Mono.defer(
+                    () -> {
+                      calls.incrementAndGet();
+                      return upstream.asMono();
+                    }));
+    var second = flights.join("k", () -> Mono.error(new AssertionError("second load")));
+    assertTrue(first.leader());
+    assertFalse(second.leader());
+
+    first.result().subscribe();
+    upstream.tryEmitValue("body");
+    assertEquals("body", second.result().block(Duration.ofSeconds(1)));
+    assertEquals(1, calls.get());
+    assertEquals(0, flights.size());
+  }
+
+  @Test
+  void evictsLeastRecentlyUsedOnceBodiesExceedTheByteBudget() {
+    BoundedResponseCache cache = new BoundedResponseCache(100, 2000);
+    cache.put("/a", sized(800));
+    cache.put("/b", sized(800));
+    cache.get("/a");
+    cache.put("/c", sized(800));
+    assertNotNull(cache.get("/a"));
+    assertNull(cache.get("/b"));
+    assertNotNull(cache.get("/c"));
+    assertTrue(cache.bytes() <= 2000);
+
+    // too large to ever fit: not kept, and no other entry is given up for it
+    cache.put("/d", sized(4000));
+    assertNull(cache.get("/d"));
+    assertEquals(2, cache.size());
+    cache.remove("/a");
+    cache.remove("/c");
+    assertEquals(0, cache.bytes());
+  }
+
+  @Test
+  void keyKeepsOnlyTheRoutesQueryParametersInAFixedOrder() {
+    SortedSet<String> kept = new TreeSet<>(List.of("q", "limit"));
+    String key =
+        ResponseCacheGatewayFilterFactory.cacheKey(
+            MockServerHttpRequest.get("/api/stores/search?limit=5&x=123&q=a%26b").build(), kept);
+    assertEquals("/api/stores/search?limit=5&q=a%26b", key);
+    assertEquals(
+        key,
+        ResponseCacheGatewayFilterFactory.cacheKey(
+            MockServerHttpRequest.get("/api/stores/search?q=a%26b&limit=5").build(), kept));
+    assertEquals(
+        "/api/stores/1",
+        ResponseCacheGatewayFilterFactory.cacheKey(
+            MockServerHttpRequest.get("/api/stores/1?cb=98765").build(), kept));
+  }
+
+  private static CachedResponse sized(int bodyLength) {
+    return CachedResponse.stored(
+        HttpStatus.OK, headers("max-age=60", null), new byte[bodyLength], NOW, DEFAULTS);
+  }
+
+  private static CachedResponse stored(String cacheControl, String etag) {
+    return CachedResponse.stored(
+        HttpStatus.OK, headers(cacheControl, etag), new byte[] {1, 2}, NOW, DEFAULTS);
+  }
+
+  private static HttpHeaders headers(String cacheControl, String etag) {
+    HttpHeaders h = new HttpHeaders();
+    h.setCacheControl(cacheControl);
+    if (etag != null) h.setETag(etag);
+    return h;
+  }
+}
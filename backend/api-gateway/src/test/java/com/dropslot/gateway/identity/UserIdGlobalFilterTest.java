@@ -0,0 +1,70 @@
+package com.dropslot.gateway.identity;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Encoders;
+import io.jsonwebtoken.security.Keys;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.crypto.SecretKey;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+
+class UserIdGlobalFilterTest {
+  private static final SecretKey KEY =
+      Keys.hmacShaKeyFor(
+          "a-test-secret-that-is-long-enough-for-hs256".getBytes(StandardCharsets.UTF_8));
+  private final UserIdGlobalFilter filter =
+      new UserIdGlobalFilter(new JwtSubjects(Encoders.BASE64.encode(KEY.getEncoded())));
+
+  @Test
+  void forwardsTheVerifiedSubjectInPlaceOfTheClientsHeader() {
+    ServerHttpRequest forwarded =
+        forward(
+            MockServerHttpRequest.get("/api/stores/1")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token(KEY, "u1"))
+                .header(UserIdGlobalFilter.HEADER, "someone-else"));
+    assertEquals(List.of("u1"), forwarded.getHeaders().get(UserIdGlobalFilter.HEADER));
+  }
+
+  @Test
+  void dropsTheClientsHeaderWithoutAValidToken() {
+    SecretKey other =
+        Keys.hmacShaKeyFor(
+            "another-secret-that-is-long-enough-for-hs256".getBytes(StandardCharsets.UTF_8));
+    assertNull(
+        forward(MockServerHttpRequest.get("/api/stores/1").header(UserIdGlobalFilter.HEADER, "u1"))
+            .getHeaders()
+            .getFirst(UserIdGlobalFilter.HEADER));
+    assertNull(
+        forward(
+                MockServerHttpRequest.get("/api/stores/1")
+                    .header(HttpHeaders.AUTHORIZATION, "Bearer " + token(other, "u1"))
+                    .header(UserIdGlobalFilter.HEADER, "u1"))
+            .getHeaders()
+            .getFirst(UserIdGlobalFilter.HEADER));
+  }
+
+  private ServerHttpRequest forward(MockServerHttpRequest.BaseBuilder<?> request) {
+    AtomicReference<ServerHttpRequest> forwarded = new AtomicReference<>();
+    filter
+        .filter(
+            MockServerWebExchange.from(request),
+            exchange -> {
+              forwarded.set(exchange.getRequest());
+              return Mono.empty();
+            })
+        .block();
+    return forwarded.get();
+  }
+
+  private static String token(SecretKey key, String subject) {
+    return Jwts.builder().setSubject(subject).signWith(key).compact();
+  }
+}
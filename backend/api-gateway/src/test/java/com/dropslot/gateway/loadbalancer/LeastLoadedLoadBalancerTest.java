@@ -0,0 +1,71 @@
+package com.dropslot.gateway.loadbalancer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+
+class LeastLoadedLoadBalancerTest {
+  private static final long MS = TimeUnit.MILLISECONDS.toNanos(1);
+
+  private final ServiceInstance a = instance("10.0.0.1");
+  private final ServiceInstance b = instance("10.0.0.2");
+  private final InstanceLoadTracker tracker = new InstanceLoadTracker(new SimpleMeterRegistry());
+  private final LeastLoadedLoadBalancer balancer =
+      new LeastLoadedLoadBalancer("store-service", null, tracker);
+
+  @Test
+  void prefersInstanceWithFewerRequestsInFlight() {
+    InstanceStats busy = tracker.stats("store-service", a);
+    for (int i = 0; i < 3; i++) busy.start(0);
+    for (int i = 0; i < 20; i++) {
+      assertEquals(b, balancer.choose(List.of(a, b)).getServer());
+    }
+  }
+
+  @Test
+  void slowResponseIsPenalisedAtOnceAndForgivenGradually() {
+    InstanceStats stats = tracker.stats("store-service", a);
+    stats.record(500 * MS, 0);
+    assertEquals(500 * MS, stats.latencyNanos(0), 1);
+    stats.record(5 * MS, TimeUnit.SECONDS.toNanos(1));
+    assertTrue(stats.latencyNanos(TimeUnit.SECONDS.toNanos(1)) > 400 * MS);
+    for (int s = 2; s < 60; s++) stats.record(5 * MS, TimeUnit.SECONDS.toNanos(s));
+    assertTrue(stats.latencyNanos(TimeUnit.SECONDS.toNanos(59)) < 10 * MS);
+
+    // a failure counts as a very slow response
+    stats.finish(stats.start(0), 0, true);
+    assertEquals(InstanceStats.FAILURE_PENALTY_NANOS, stats.latencyNanos(0), 1);
+  }
+
+  @Test
+  void penaltyFadesWithoutNewSamples() {
+    InstanceStats failed = new InstanceStats(0);
+    failed.finish(failed.start(0), 0, true);
+    InstanceStats healthy = new InstanceStats(0);
+    healthy.record(20 * MS, 0);
+    assertTrue(failed.cost(0) > healthy.cost(0));
+
+    // no traffic reaches the failed instance, yet it becomes worth trying again
+    long later = TimeUnit.SECONDS.toNanos(60);
+    assertTrue(failed.latencyNanos(later) < 20 * MS);
+    assertTrue(failed.cost(later) < healthy.cost(later) * 2);
+    assertEquals(InstanceStats.DEFAULT_RTT_NANOS, failed.latencyNanos(Long.MAX_VALUE / 2), 1);
+  }
+
+  @Test
+  void forgetsInstancesThatLeftDiscovery() {
+    balancer.choose(List.of(a, b));
+    tracker.stats("store-service", a).start(0);
+    balancer.choose(List.of(b));
+    assertEquals(0, tracker.stats("store-service", a).inFlight());
+  }
+
+  private static ServiceInstance instance(String host) {
+    return new DefaultServiceInstance(host, "store-service", host, 8082, false);
+  }
+}
@@ -0,0 +1,39 @@
+package com.dropslot.gateway.ratelimit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class TokenBucketsTest {
+  private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+  @Test
+  void burstThenRefillAtReplenishRate() {
+    TokenBuckets buckets = new TokenBuckets(4);
+    for (int i = 0; i < 3; i++) {
+      assertTrue(buckets.tryConsume("k", 1, 3, 1, 0).allowed());
+    }
+    TokenBuckets.Result denied = buckets.tryConsume("k", 1, 3, 1, 0);
+    assertFalse(denied.allowed());
+    assertEquals(0, denied.remaining());
+    assertEquals(1, denied.retryAfterSeconds());
+    assertEquals(3, denied.resetSeconds());
+
+    assertTrue(buckets.tryConsume("k", 1, 3, 1, SECOND).allowed());
+    assertFalse(buckets.tryConsume("k", 1, 3, 1, SECOND).allowed());
+    // other keys are unaffected
+    assertTrue(buckets.tryConsume("other", 1, 3, 1, SECOND).allowed());
+  }
+
+  @Test
+  void onlyFullyRefilledBucketsAreEvicted() {
+    TokenBuckets buckets = new TokenBuckets(4);
+    buckets.tryConsume("a", 1, 2, 2, 0);
+    buckets.tryConsume("b", 1, 2, 1, 0);
+    assertEquals(1, buckets.evictIdle(SECOND));
+    assertEquals(1, buckets.size());
+    assertEquals(1, buckets.evictIdle(2 * SECOND));
+    assertEquals(0, buckets.size());
+  }
+}
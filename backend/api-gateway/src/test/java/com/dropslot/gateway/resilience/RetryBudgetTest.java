@@ -0,0 +1,38 @@
+package com.dropslot.gateway.resilience;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class RetryBudgetTest {
+  private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+  @Test
+  void retriesAreCappedAtRatioOfRecentRequestsPlusFloor() {
+    RetryBudget budget = new RetryBudget(0.1, 1);
+    long now = 100 * SECOND;
+    for (int i = 0; i < 100; i++) budget.recordRequest(now);
+    // floor of 1/s over the 10s window plus 10% of 100 requests
+    int granted = 0;
+    while (budget.tryAcquire(now)) granted++;
+    assertEquals(20, granted);
+
+    // once the window has moved on only the floor is left
+    long later = now + 11 * SECOND;
+    budget.recordRequest(later);
+    granted = 0;
+    while (budget.tryAcquire(later)) granted++;
+    assertEquals(10, granted);
+  }
+
+  @Test
+  void latencyPercentileNeedsEnoughSamples() {
+    LatencyTracker tracker = new LatencyTracker(0.95);
+    for (int i = 1; i <= 31; i++) tracker.record(i);
+    assertEquals(-1, tracker.percentileNanos());
+    for (int i = 32; i <= 100; i++) tracker.record(i);
+    // recomputed at 96 samples: ceil(0.95 * 96) = 92nd smallest
+    assertEquals(92, tracker.percentileNanos());
+  }
+}
@@ -0,0 +1,34 @@
+package com.dropslot.gateway.upstream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class UpstreamPoolTest {
+
+  @Test
+  void readsRouteMetadataWithDefaults() {
+    assertNull(UpstreamPool.from(Map.of("response-timeout", 2000)));
+
+    UpstreamPool pool =
+        UpstreamPool.from(
+            Map.of(
+                "upstream",
+                Map.of(
+                    "protocol", "h2c", "max-connections", 2, "pending-acquire-timeout", "250ms")));
+    assertTrue(pool.h2c());
+    assertEquals(2, pool.maxConnections());
+    assertEquals(100, pool.maxStreams());
+    assertEquals(Duration.ofMillis(250), pool.pendingAcquireTimeout());
+    assertEquals(Duration.ofMinutes(5), pool.maxLifeTime());
+  }
+
+  @Test
+  void rejectsUnknownProtocol() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> UpstreamPool.from(Map.of("upstream", Map.of("protocol", "h3"))));
+  }
+}
@@ -0,0 +1,122 @@
+package com.dropslot.gateway.views;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.dropslot.gateway.identity.UserIdGlobalFilter;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.net.URI;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServer;
+
+class ViewCountTest {
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final List<JsonNode> reports = new CopyOnWriteArrayList<>();
+  private final AtomicInteger failuresLeft = new AtomicInteger();
+  private DisposableServer server;
+  private URI reportUri;
+  private ViewReporter reporter;
+  private GatewayFilter filter;
+
+  @BeforeEach
+  void setUp() {
+    server =
+        HttpServer.create()
+            .port(0)
+            .handle(
+                (request, response) ->
+                    request
+                        .receive()
+                        .aggregate()
+                        .asString()
+                        .flatMap(
+                            body -> {
+                              if (failuresLeft.getAndDecrement() > 0) {
+                                return response.status(503).send();
+                              }
+                              reports.add(readTree(body));
+                              return response.status(204).send();
+                            }))
+            .bindNow();
+    reportUri = URI.create("http://localhost:" + server.port() + "/stores/views");
+    reporter = new ViewReporter(HttpClient.create(), objectMapper);
+    ViewCountGatewayFilterFactory.Config config = new ViewCountGatewayFilterFactory.Config();
+    config.setKeyHeader("X-Tenant-Key");
+    config.setReportUri(reportUri);
+    filter = new ViewCountGatewayFilterFactory(reporter).apply(config);
+  }
+
+  @AfterEach
+  void tearDown() {
+    server.disposeNow();
+  }
+
+  @Test
+  void countsKeyedResponsesAndStripsTheKey() {
+    MockServerWebExchange hit = view("u1", HttpStatus.OK, "acme");
+    assertNull(hit.getResponse().getHeaders().getFirst("X-Tenant-Key"));
+    view(null, HttpStatus.NOT_MODIFIED, "acme");
+    view("u2", HttpStatus.OK, "globex");
+    // not found, or not a store page
+    view("u3", HttpStatus.NOT_FOUND, "acme");
+    view("u3", HttpStatus.OK, null);
+
+    var acme = reporter.pending().get(new ViewReporter.Target(reportUri, "acme"));
+    assertEquals(2, acme.views);
+    assertEquals(Set.of("u1"), acme.users);
+    assertEquals(2, reporter.pending().size());
+  }
+
+  @Test
+  void failedReportsAreKeptForTheNextOne() {
+    view("u1", HttpStatus.OK, "acme");
+    failuresLeft.set(1);
+    reporter.report();
+    assertTrue(reports.isEmpty());
+
+    view("u2", HttpStatus.OK, "acme");
+    reporter.report();
+    assertEquals(1, reports.size());
+    JsonNode acme = reports.get(0).get(0);
+    assertEquals("acme", acme.get("key").asText());
+    assertEquals(2, acme.get("views").asLong());
+    assertEquals(2, acme.get("users").size());
+    assertTrue(reporter.pending().isEmpty());
+  }
+
+  private MockServerWebExchange view(String userId, HttpStatus status, String key) {
+    MockServerHttpRequest.BaseBuilder<?> request = MockServerHttpRequest.get("/api/stores/1");
+    if (userId != null) request.header(UserIdGlobalFilter.HEADER, userId);
+    MockServerWebExchange exchange = MockServerWebExchange.from(request);
+    filter
+        .filter(
+            exchange,
+            e -> {
+              e.getResponse().setStatusCode(status);
+              if (key != null) e.getResponse().getHeaders().set("X-Tenant-Key", key);
+              return e.getResponse().setComplete();
+            })
+        .block();
+    return exchange;
+  }
+
+  private JsonNode readTree(String json) {
+    try {
+      return objectMapper.readTree(json);
+    } catch (Exception e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
@@ -0,0 +1,137 @@
+package com.dropslot.gateway.waitingroom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.http.server.reactive.MockServerHttpResponse;
+import org.springframework.mock.web.server.MockServerWebExchange;
+
+class AdmissionQueueTest {
+  private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+  @Test
+  void admitsBurstThenQueuesInArrivalOrderAtTheRate() {
+    AdmissionQueue queue = new AdmissionQueue(2, 2, 100, 10, 0);
+    assertTrue(queue.arrive(0).admitted());
+    assertTrue(queue.arrive(0).admitted());
+    long first = queue.arrive(0).ticket();
+    long second = queue.arrive(0).ticket();
+    long third = queue.arrive(0).ticket();
+    assertEquals(1, queue.position(first, 0));
+    assertEquals(3, queue.position(third, 0));
+
+    // two admissions per second
+    assertTrue(queue.position(second, SECOND) <= 0);
+    assertEquals(1, queue.position(third, SECOND));
+    // tokens go to waiting clients before newcomers
+    assertFalse(queue.arrive(SECOND + SECOND / 2).admitted());
+    assertTrue(queue.position(third, SECOND + SECOND / 2) <= 0);
+  }
+
+  @Test
+  void rejectsArrivalsBeyondCapacity() {
+    AdmissionQueue queue = new AdmissionQueue(1, 1, 2, 10, 0);
+    assertTrue(queue.arrive(0).admitted());
+    assertFalse(queue.arrive(0).full());
+    assertFalse(queue.arrive(0).full());
+    assertTrue(queue.arrive(0).full());
+    assertEquals(2, queue.waiting(0));
+  }
+
+  @Test
+  void ticketsAreRedeemedOnceWithinTheWindow() {
+    AdmissionQueue queue = new AdmissionQueue(1, 1, 1000, 4, 0);
+    assertTrue(queue.arrive(0).admitted());
+    long first = queue.arrive(0).ticket();
+    long second = queue.arrive(0).ticket();
+    assertFalse(queue.redeem(first, 0), "not its turn yet");
+
+    assertTrue(queue.redeem(first, SECOND));
+    assertFalse(queue.redeem(first, SECOND), "second redemption");
+    assertTrue(queue.redeem(second, 2 * SECOND));
+
+    // once four later tickets were admitted the slots are reused, but old tickets stay refused
+    long[] later = new long[6];
+    for (int i = 0; i < later.length; i++) later[i] = queue.arrive(2 * SECOND).ticket();
+    for (int s = 3; s <= 8; s++) queue.waiting(s * SECOND);
+    assertEquals(0, queue.waiting(8 * SECOND));
+    assertFalse(queue.redeem(first, 8 * SECOND));
+    assertFalse(queue.redeem(later[0], 8 * SECOND), "lapsed");
+    assertTrue(queue.redeem(later[2], 8 * SECOND));
+    assertTrue(queue.redeem(later[5], 8 * SECOND));
+  }
+
+  @Test
+  void aQueueTicketLetsItsHolderInOnce() throws Exception {
+    WaitingRoomGatewayFilterFactory factory =
+        new WaitingRoomGatewayFilterFactory(new SimpleMeterRegistry(), "");
+    WaitingRoomGatewayFilterFactory.Config config = new WaitingRoomGatewayFilterFactory.Config();
+    config.setName("drops");
+    config.setAdmitRate(10);
+    config.setBurst(1);
+    GatewayFilter filter = factory.apply(config);
+
+    assertEquals(HttpStatus.OK, send(filter, null).getStatusCode());
+    MockServerHttpResponse queued = send(filter, null);
+    assertEquals(HttpStatus.TOO_MANY_REQUESTS, queued.getStatusCode());
+    String ticket = queued.getHeaders().getFirst(WaitingRoomGatewayFilterFactory.TICKET_HEADER);
+
+    Thread.sleep(200);
+    assertEquals(HttpStatus.OK, send(filter, ticket).getStatusCode());
+    // the admission token was spent on the ticket, so a replay has to queue again
+    MockServerHttpResponse replayed = send(filter, ticket);
+    assertEquals(HttpStatus.TOO_MANY_REQUESTS, replayed.getStatusCode());
+    assertNotEquals(
+        ticket, replayed.getHeaders().getFirst(WaitingRoomGatewayFilterFactory.TICKET_HEADER));
+  }
+
+  @Test
+  void expiredTicketsQueueAgain() {
+    WaitingRoomGatewayFilterFactory factory =
+        new WaitingRoomGatewayFilterFactory(new SimpleMeterRegistry(), "");
+    WaitingRoomGatewayFilterFactory.Config config = new WaitingRoomGatewayFilterFactory.Config();
+    config.setName("drops");
+    config.setAdmitRate(0.001);
+    config.setBurst(1);
+    config.setTicketTtl(Duration.ZERO);
+    GatewayFilter filter = factory.apply(config);
+
+    send(filter, null);
+    String ticket =
+        send(filter, null).getHeaders().getFirst(WaitingRoomGatewayFilterFactory.TICKET_HEADER);
+    MockServerHttpResponse again = send(filter, ticket);
+    assertEquals(HttpStatus.TOO_MANY_REQUESTS, again.getStatusCode());
+    assertTrue(again.getBodyAsString().block().contains("\"position\":2"));
+  }
+
+  private static MockServerHttpResponse send(GatewayFilter filter, String ticket) {
+    MockServerHttpRequest.BaseBuilder<?> request = MockServerHttpRequest.get("/api/drops/1");
+    if (ticket != null) request.header(WaitingRoomGatewayFilterFactory.TICKET_HEADER, ticket);
+    MockServerWebExchange exchange = MockServerWebExchange.from(request);
+    filter
+        .filter(
+            exchange,
+            e -> {
+              e.getResponse().setStatusCode(HttpStatus.OK);
+              return e.getResponse().setComplete();
+            })
+        .block();
+    return exchange.getResponse();
+  }
+
+  @Test
+  void signedTokensRejectTampering() {
+    TokenSigner signer = new TokenSigner(new byte[32]);
+    String token = signer.sign("p.drop-page.1700000000");
+    assertEquals("p.drop-page.1700000000", signer.verify(token));
+    assertNull(signer.verify(token.replace("1700000000", "1900000000")));
+    assertNull(signer.verify("p.drop-page.1700000000"));
+    assertNull(new TokenSigner(new byte[] {1}).verify(token));
+  }
+}
@@ -0,0 +1,45 @@
+package com.dropslot.common.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Servlet services {@code @Import} this and list the paths under {@code idempotency.paths}; their
+ * changelog has to create the {@code idempotency_keys} table.
+ */
+@Configuration(proxyBeanMethods = false)
+public class IdempotencyConfig {
+
+  @Bean
+  public IdempotencyStore idempotencyStore(
+      JdbcTemplate jdbcTemplate,
+      @Value("${idempotency.purge-interval:10m}") Duration purgeInterval) {
+    return new IdempotencyStore(jdbcTemplate, purgeInterval);
+  }
+
+  @Bean
+  public FilterRegistrationBean<IdempotencyFilter> idempotencyFilter(
+      IdempotencyStore store,
+      ObjectMapper objectMapper,
+      @Value("${idempotency.paths}") List<String> paths,
+      @Value("${idempotency.cache-size:10000}") int cacheSize,
+      @Value("${idempotency.ttl:24h}") Duration ttl,
+      @Value("${idempotency.lease:30s}") Duration lease,
+      @Value("${idempotency.max-body-bytes:1048576}") int maxBodyBytes) {
+    FilterRegistrationBean<IdempotencyFilter> reg = new FilterRegistrationBean<>();
+    reg.setFilter(
+        new IdempotencyFilter(
+            paths, store, objectMapper, cacheSize, ttl, lease, maxBodyBytes, Clock.systemUTC()));
+    reg.addUrlPatterns("/*");
+    // after Spring Security (-100), so only authenticated requests claim keys
+    reg.setOrder(0);
+    return reg;
+  }
+}
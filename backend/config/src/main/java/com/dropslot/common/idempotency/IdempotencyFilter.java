@@ -0,0 +1,345 @@
+package com.dropslot.common.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.Principal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+/**
+ * Makes {@code POST}s to the configured paths safe to retry when they carry an {@code
+ * Idempotency-Key} header. The first request with a key runs; its status, body, {@code
+ * Content-Type} and {@code Location} are kept for {@code ttl} and retries get them back with {@code
+ * Idempotent-Replayed: true} instead of running the handler again.
+ *
+ * <p>Keys are scoped to the caller and the path. The caller is the authenticated principal, or else
+ * the {@code X-User-Id} the gateway derives from the verified token, so a retry with a refreshed
+ * token is still the same caller. Requests that arrive while the first one is still running wait
+ * for it on this instance; on another instance they get 409 and should retry. A key reused with a
+ * different body gets 422. Server errors are not kept, so the retry runs again.
+ */
+public class IdempotencyFilter extends OncePerRequestFilter {
+  public static final String HEADER = "Idempotency-Key";
+  public static final String REPLAYED = "Idempotent-Replayed";
+  private static final int MAX_KEY_LENGTH = 255;
+
+  private final List<PathPattern> paths;
+  private final IdempotencyStore store;
+  private final ResponseCache cache;
+  private final ObjectMapper objectMapper;
+  private final Duration ttl;
+  private final Duration lease;
+  private final int maxBodyBytes;
+  private final Clock clock;
+  private final ConcurrentHashMap<String, CompletableFuture<StoredResponse>> inFlight =
+      new ConcurrentHashMap<>();
+
+  public IdempotencyFilter(
+      List<String> paths,
+      IdempotencyStore store,
+      ObjectMapper objectMapper,
+      int cacheSize,
+      Duration ttl,
+      Duration lease,
+      int maxBodyBytes,
+      Clock clock) {
+    this.paths = paths.stream().map(PathPatternParser.defaultInstance::parse).toList();
+    this.store = store;
+    this.cache = new ResponseCache(cacheSize);
+    this.objectMapper = objectMapper;
+    this.ttl = ttl;
+    this.lease = lease;
+    this.maxBodyBytes = maxBodyBytes;
+    this.clock = clock;
+  }
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    if (!"POST".equals(request.getMethod()) || request.getHeader(HEADER) == null) return true;
+    PathContainer path =
+        PathContainer.parsePath(
+            request.getRequestURI().substring(request.getContextPath().length()));
+    return paths.stream().noneMatch(p -> p.matches(path));
+  }
+
+  @Override
+  protected void doFilterInternal(
+      HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+      throws ServletException, IOException {
+    String idempotencyKey = request.getHeader(HEADER);
+    if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+      problem(request, response, HttpStatus.BAD_REQUEST, HEADER + " must be 1-255 characters");
+      return;
+    }
+    byte[] body = request.getInputStream().readNBytes(maxBodyBytes + 1);
+    if (body.length > maxBodyBytes) {
+      problem(
+          request,
+          response,
+          HttpStatus.PAYLOAD_TOO_LARGE,
+          "Requests with an " + HEADER + " are limited to " + maxBodyBytes + " bytes");
+      return;
+    }
+    String key = sha256(scope(request) + '\n' + idempotencyKey);
+    String fingerprint = sha256(body);
+    HttpServletRequest replayable = new CachedBodyRequest(request, body);
+
+    // a follower whose leader failed takes over, at most once
+    for (int attempt = 0; attempt < 2; attempt++) {
+      StoredResponse stored = cache.get(key, clock.instant());
+      if (stored != null) {
+        replay(request, response, stored, fingerprint);
+        return;
+      }
+      CompletableFuture<StoredResponse> flight = new CompletableFuture<>();
+      CompletableFuture<StoredResponse> leader = inFlight.putIfAbsent(key, flight);
+      if (leader != null) {
+        stored = await(leader);
+        if (stored != null) {
+          replay(request, response, stored, fingerprint);
+          return;
+        }
+        continue;
+      }
+      try {
+        lead(key, fingerprint, replayable, response, chain, flight);
+      } finally {
+        inFlight.remove(key, flight);
+        // completes followers with null if lead() never got to a response
+        flight.complete(null);
+      }
+      return;
+    }
+    inProgress(request, response);
+  }
+
+  private void lead(
+      String key,
+      String fingerprint,
+      HttpServletRequest request,
+      HttpServletResponse response,
+      FilterChain chain,
+      CompletableFuture<StoredResponse> flight)
+      throws ServletException, IOException {
+    Instant now = clock.instant();
+    IdempotencyStore.Claim claim = store.claim(key, fingerprint, now, lease, ttl);
+    if (claim.stored() != null) {
+      cache.put(key, claim.stored());
+      flight.complete(claim.stored());
+      replay(request, response, claim.stored(), fingerprint);
+      return;
+    }
+    if (!claim.acquired()) {
+      if (!claim.fingerprint().equals(fingerprint)) {
+        mismatch(request, response);
+      } else {
+        inProgress(request, response);
+      }
+      return;
+    }
+    ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+    boolean kept = false;
+    try {
+      chain.doFilter(request, wrapper);
+      if (wrapper.getStatus() < 500) {
+        StoredResponse stored =
+            new StoredResponse(
+                fingerprint,
+                wrapper.getStatus(),
+                wrapper.getContentType(),
+                wrapper.getHeader(HttpHeaders.LOCATION),
+                wrapper.getContentAsByteArray(),
+                now.plus(ttl));
+        store.complete(key, stored);
+        kept = true;
+        cache.put(key, stored);
+        flight.complete(stored);
+      }
+    } finally {
+      if (!kept) store.release(key);
+      wrapper.copyBodyToResponse();
+    }
+  }
+
+  private StoredResponse await(CompletableFuture<StoredResponse> leader) throws IOException {
+    try {
+      return leader.get(lease.toMillis(), TimeUnit.MILLISECONDS);
+    } catch (TimeoutException | ExecutionException e) {
+      return null;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while waiting for the first request", e);
+    }
+  }
+
+  private void replay(
+      HttpServletRequest request,
+      HttpServletResponse response,
+      StoredResponse stored,
+      String fingerprint)
+      throws IOException {
+    if (!stored.fingerprint().equals(fingerprint)) {
+      mismatch(request, response);
+      return;
+    }
+    response.setStatus(stored.status());
+    response.setHeader(REPLAYED, "true");
+    if (stored.contentType() != null) response.setContentType(stored.contentType());
+    if (stored.location() != null) response.setHeader(HttpHeaders.LOCATION, stored.location());
+    response.setContentLength(stored.body().length);
+    response.getOutputStream().write(stored.body());
+  }
+
+  private void inProgress(HttpServletRequest request, HttpServletResponse response)
+      throws IOException {
+    response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+    problem(
+        request,
+        response,
+        HttpStatus.CONFLICT,
+        "A request with this " + HEADER + " is still in progress");
+  }
+
+  private void mismatch(HttpServletRequest request, HttpServletResponse response)
+      throws IOException {
+    problem(
+        request,
+        response,
+        HttpStatus.UNPROCESSABLE_ENTITY,
+        HEADER + " was already used with a different request body");
+  }
+
+  private void problem(
+      HttpServletRequest request, HttpServletResponse response, HttpStatus status, String detail)
+      throws IOException {
+    // same shape as the services' ProblemDto
+    Map<String, Object> problem = new LinkedHashMap<>();
+    problem.put("type", "about:blank");
+    problem.put("title", status.getReasonPhrase());
+    problem.put("detail", detail);
+    problem.put("instance", request.getRequestURI());
+    problem.put("status", status.value());
+    problem.put("timestamp", clock.instant());
+    response.setStatus(status.value());
+    response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+    objectMapper.writeValue(response.getOutputStream(), problem);
+  }
+
+  private static String scope(HttpServletRequest request) {
+    String path = request.getRequestURI().substring(request.getContextPath().length());
+    Principal principal = request.getUserPrincipal();
+    String userId = principal != null ? principal.getName() : request.getHeader("X-User-Id");
+    return userId != null ? path + "\nuser:" + userId : path;
+  }
+
+  private static String sha256(String value) {
+    return sha256(value.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private static String sha256(byte[] value) {
+    try {
+      return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(value));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /** Lets the handler read a body the filter already consumed. */
+  private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+    private final byte[] body;
+
+    CachedBodyRequest(HttpServletRequest request, byte[] body) {
+      super(request);
+      this.body = body;
+    }
+
+    @Override
+    public ServletInputStream getInputStream() {
+      ByteArrayInputStream in = new ByteArrayInputStream(body);
+      return new ServletInputStream() {
+        @Override
+        public int read() {
+          return in.read();
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+          return in.read(b, off, len);
+        }
+
+        @Override
+        public boolean isFinished() {
+          return in.available() == 0;
+        }
+
+        @Override
+        public boolean isReady() {
+          return true;
+        }
+
+        @Override
+        public void setReadListener(ReadListener listener) {
+          // the whole body is already here: it can be read at once, without blocking
+          try {
+            if (in.available() > 0) listener.onDataAvailable();
+            listener.onAllDataRead();
+          } catch (IOException e) {
+            listener.onError(e);
+          }
+        }
+      };
+    }
+
+    @Override
+    public BufferedReader getReader() {
+      return new BufferedReader(
+          new InputStreamReader(
+              getInputStream(),
+              getCharacterEncoding() != null
+                  ? Charset.forName(getCharacterEncoding())
+                  : StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public int getContentLength() {
+      return body.length;
+    }
+
+    @Override
+    public long getContentLengthLong() {
+      return body.length;
+    }
+  }
+}
@@ -0,0 +1,124 @@
+package com.dropslot.common.idempotency;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * The {@code idempotency_keys} table, shared by every instance of a service. A key is claimed by
+ * inserting a row without a status; the claim holds for {@code lease}, after which another instance
+ * may take it over, so a crashed request does not block its key until the TTL runs out. Expired
+ * rows are deleted in the background.
+ */
+public class IdempotencyStore implements AutoCloseable {
+  private static final Logger log = LoggerFactory.getLogger(IdempotencyStore.class);
+  private static final int PURGE_BATCH = 1000;
+
+  /** Result of {@link #claim}: {@code stored} is set once the key has a response. */
+  public record Claim(boolean acquired, String fingerprint, StoredResponse stored) {}
+
+  private final JdbcTemplate jdbc;
+  private final ScheduledExecutorService purger =
+      Executors.newSingleThreadScheduledExecutor(
+          r -> {
+            Thread t = new Thread(r, "idempotency-purge");
+            t.setDaemon(true);
+            return t;
+          });
+
+  public IdempotencyStore(JdbcTemplate jdbc, Duration purgeInterval) {
+    this.jdbc = jdbc;
+    long millis = purgeInterval.toMillis();
+    purger.scheduleWithFixedDelay(this::purge, millis, millis, TimeUnit.MILLISECONDS);
+  }
+
+  public Claim claim(String key, String fingerprint, Instant now, Duration lease, Duration ttl) {
+    // takes over keys that expired or whose first request never finished
+    int inserted =
+        jdbc.update(
+            """
+            INSERT INTO idempotency_keys (key, fingerprint, locked_until, expires_at, created_at)
+            VALUES (?, ?, ?, ?, ?)
+            ON CONFLICT (key) DO UPDATE SET
+                fingerprint = EXCLUDED.fingerprint, locked_until = EXCLUDED.locked_until,
+                expires_at = EXCLUDED.expires_at, created_at = EXCLUDED.created_at,
+                status = NULL, content_type = NULL, location = NULL, body = NULL
+            WHERE idempotency_keys.expires_at <= EXCLUDED.created_at
+                OR (idempotency_keys.status IS NULL
+                    AND idempotency_keys.locked_until <= EXCLUDED.created_at)
+            """,
+            key,
+            fingerprint,
+            Timestamp.from(now.plus(lease)),
+            Timestamp.from(now.plus(ttl)),
+            Timestamp.from(now));
+    if (inserted == 1) return new Claim(true, fingerprint, null);
+    List<Claim> rows =
+        jdbc.query(
+            "SELECT fingerprint, status, content_type, location, body, expires_at"
+                + " FROM idempotency_keys WHERE key = ?",
+            (rs, i) -> {
+              String fp = rs.getString("fingerprint");
+              int status = rs.getInt("status");
+              if (rs.wasNull()) return new Claim(false, fp, null);
+              return new Claim(
+                  false,
+                  fp,
+                  new StoredResponse(
+                      fp,
+                      status,
+                      rs.getString("content_type"),
+                      rs.getString("location"),
+                      rs.getBytes("body"),
+                      rs.getTimestamp("expires_at").toInstant()));
+            },
+            key);
+    // purged in between; the caller sees it as still running and retries
+    return rows.isEmpty() ? new Claim(false, fingerprint, null) : rows.get(0);
+  }
+
+  public void complete(String key, StoredResponse response) {
+    jdbc.update(
+        "UPDATE idempotency_keys SET status = ?, content_type = ?, location = ?, body = ?,"
+            + " locked_until = NULL WHERE key = ?",
+        response.status(),
+        response.contentType(),
+        response.location(),
+        response.body(),
+        key);
+  }
+
+  /** Gives up a claim without a response, so a retry runs the request again. */
+  public void release(String key) {
+    jdbc.update("DELETE FROM idempotency_keys WHERE key = ? AND status IS NULL", key);
+  }
+
+  void purge() {
+    try {
+      int deleted;
+      do {
+        deleted =
+            jdbc.update(
+                "DELETE FROM idempotency_keys WHERE key IN (SELECT key FROM idempotency_keys"
+                    + " WHERE expires_at < ? LIMIT ?)",
+                Timestamp.from(Instant.now()),
+                PURGE_BATCH);
+      } while (deleted == PURGE_BATCH);
+    } catch (RuntimeException e) {
+      // an exception would cancel the schedule
+      log.warn("Could not purge expired idempotency keys: {}", e.getMessage());
+    }
+  }
+
+  @Override
+  public void close() {
+    purger.shutdownNow();
+  }
+}
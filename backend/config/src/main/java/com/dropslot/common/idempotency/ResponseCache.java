@@ -0,0 +1,37 @@
+package com.dropslot.common.idempotency;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/** Least-recently-used map of key to stored response, capped at {@code maxEntries}. */
+final class ResponseCache {
+  private final Map<String, StoredResponse> entries;
+
+  ResponseCache(int maxEntries) {
+    this.entries =
+        new LinkedHashMap<>(16, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<String, StoredResponse> eldest) {
+            return size() > maxEntries;
+          }
+        };
+  }
+
+  synchronized StoredResponse get(String key, Instant now) {
+    StoredResponse response = entries.get(key);
+    if (response != null && response.expired(now)) {
+      entries.remove(key);
+      return null;
+    }
+    return response;
+  }
+
+  synchronized void put(String key, StoredResponse response) {
+    entries.put(key, response);
+  }
+
+  synchronized int size() {
+    return entries.size();
+  }
+}
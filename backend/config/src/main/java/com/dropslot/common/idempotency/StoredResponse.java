@@ -0,0 +1,17 @@
+package com.dropslot.common.idempotency;
+
+import java.time.Instant;
+
+/** The outcome of the first request made with an idempotency key, replayed to its retries. */
+public record StoredResponse(
+    String fingerprint,
+    int status,
+    String contentType,
+    String location,
+    byte[] body,
+    Instant expiresAt) {
+
+  boolean expired(Instant now) {
+    return !expiresAt.isAfter(now);
+  }
+}
@@ -0,0 +1,44 @@
+package com.dropslot.common.internal;
+
+import java.util.List;
+import org.apache.catalina.connector.Connector;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Servlet services {@code @Import} this to open a second connector on {@code internal.port} and
+ * list the paths under {@code internal.paths} that only other services may call. Those paths answer
+ * 404 on {@code server.port}, the one the gateway routes to; everything else is served on both.
+ */
+@Configuration(proxyBeanMethods = false)
+public class InternalPortConfig {
+
+  @Bean
+  public Connector internalConnector(@Value("${internal.port}") int port) {
+    Connector connector = new Connector(TomcatServletWebServerFactory.DEFAULT_PROTOCOL);
+    connector.setPort(port);
+    return connector;
+  }
+
+  @Bean
+  public WebServerFactoryCustomizer<TomcatServletWebServerFactory> internalConnectorCustomizer(
+      Connector internalConnector) {
+    return factory -> factory.addAdditionalTomcatConnectors(internalConnector);
+  }
+
+  @Bean
+  public FilterRegistrationBean<InternalPortFilter> internalPortFilter(
+      Connector internalConnector, @Value("${internal.paths}") List<String> paths) {
+    FilterRegistrationBean<InternalPortFilter> reg = new FilterRegistrationBean<>();
+    reg.setFilter(new InternalPortFilter(paths, internalConnector::getLocalPort));
+    reg.addUrlPatterns("/*");
+    // ahead of security and idempotency, so a public caller learns nothing about the path
+    reg.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+    return reg;
+  }
+}
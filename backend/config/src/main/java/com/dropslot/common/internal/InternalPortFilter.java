@@ -0,0 +1,40 @@
+package com.dropslot.common.internal;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.List;
+import java.util.function.IntSupplier;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+/** Answers 404 for the configured paths unless the request came in on the internal port. */
+public class InternalPortFilter extends OncePerRequestFilter {
+  private final List<PathPattern> paths;
+  private final IntSupplier internalPort;
+
+  public InternalPortFilter(List<String> paths, IntSupplier internalPort) {
+    this.paths = paths.stream().map(PathPatternParser.defaultInstance::parse).toList();
+    this.internalPort = internalPort;
+  }
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    if (request.getLocalPort() == internalPort.getAsInt()) return true;
+    PathContainer path =
+        PathContainer.parsePath(
+            request.getRequestURI().substring(request.getContextPath().length()));
+    return paths.stream().noneMatch(p -> p.matches(path));
+  }
+
+  @Override
+  protected void doFilterInternal(
+      HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+      throws ServletException, IOException {
+    response.sendError(HttpServletResponse.SC_NOT_FOUND);
+  }
+}
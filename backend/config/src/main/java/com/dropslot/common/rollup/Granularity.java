@@ -0,0 +1,32 @@
+package com.dropslot.common.rollup;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+/** The bucket sizes rollups are kept at; buckets are in UTC. */
+public enum Granularity {
+  MINUTE("m", ChronoUnit.MINUTES),
+  HOUR("h", ChronoUnit.HOURS),
+  DAY("d", ChronoUnit.DAYS);
+
+  private final String code;
+  private final ChronoUnit unit;
+
+  Granularity(String code, ChronoUnit unit) {
+    this.code = code;
+    this.unit = unit;
+  }
+
+  /** Stored in the {@code granularity} column. */
+  String code() {
+    return code;
+  }
+
+  ChronoUnit unit() {
+    return unit;
+  }
+
+  Instant bucket(Instant at) {
+    return at.truncatedTo(unit);
+  }
+}
@@ -0,0 +1,148 @@
+package com.dropslot.common.rollup;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * Approximate distinct count in {@code 2^12} registers, about 1.6% standard error. A sketch starts
+ * sparse, listing only the registers that are set, and switches to one byte per register once a
+ * quarter of them are, so the many sketches of quiet tenants and minutes stay a few bytes each. Not
+ * thread-safe.
+ */
+public final class HyperLogLog {
+  static final int P = 12;
+  private static final int M = 1 << P;
+  private static final byte SPARSE = 1;
+  private static final byte DENSE = 2;
+  // a sparse entry is an int (index << 8 | rank), a serialized one 3 bytes
+  private static final int SPARSE_LIMIT = M / 4;
+
+  private int[] sparse = new int[4];
+  private int sparseSize;
+  private byte[] registers;
+
+  public void add(UUID value) {
+    addHash(mix(value.getMostSignificantBits() ^ mix(value.getLeastSignificantBits())));
+  }
+
+  void addHash(long hash) {
+    int index = (int) (hash >>> (64 - P));
+    int rank = Long.numberOfLeadingZeros((hash << P) | (1L << (P - 1))) + 1;
+    set(index, rank);
+  }
+
+  private void set(int index, int rank) {
+    if (registers != null) {
+      if (registers[index] < rank) registers[index] = (byte) rank;
+      return;
+    }
+    int at = find(index);
+    if (at >= 0) {
+      if ((sparse[at] & 0xff) < rank) sparse[at] = index << 8 | rank;
+      return;
+    }
+    if (sparseSize == SPARSE_LIMIT) {
+      densify();
+      registers[index] = (byte) rank;
+      return;
+    }
+    at = -at - 1;
+    if (sparseSize == sparse.length) sparse = Arrays.copyOf(sparse, sparse.length * 2);
+    System.arraycopy(sparse, at, sparse, at + 1, sparseSize - at);
+    sparse[at] = index << 8 | rank;
+    sparseSize++;
+  }
+
+  private int find(int index) {
+    int lo = 0;
+    int hi = sparseSize - 1;
+    while (lo <= hi) {
+      int mid = (lo + hi) >>> 1;
+      int at = sparse[mid] >>> 8;
+      if (at < index) lo = mid + 1;
+      else if (at > index) hi = mid - 1;
+      else return mid;
+    }
+    return -(lo + 1);
+  }
+
+  private void densify() {
+    registers = new byte[M];
+    for (int i = 0; i < sparseSize; i++) registers[sparse[i] >>> 8] = (byte) (sparse[i] & 0xff);
+    sparse = null;
+    sparseSize = 0;
+  }
+
+  public void merge(HyperLogLog other) {
+    if (other.registers != null) {
+      if (registers == null) densify();
+      for (int i = 0; i < M; i++) {
+        if (registers[i] < other.registers[i]) registers[i] = other.registers[i];
+      }
+    } else {
+      for (int i = 0; i < other.sparseSize; i++) {
+        set(other.sparse[i] >>> 8, other.sparse[i] & 0xff);
+      }
+    }
+  }
+
+  public long estimate() {
+    int zeros;
+    double sum;
+    if (registers == null) {
+      zeros = M - sparseSize;
+      sum = zeros;
+      for (int i = 0; i < sparseSize; i++) sum += Math.scalb(1.0, -(sparse[i] & 0xff));
+    } else {
+      zeros = 0;
+      sum = 0;
+      for (byte r : registers) {
+        if (r == 0) zeros++;
+        sum += Math.scalb(1.0, -r);
+      }
+    }
+    double estimate = 0.7213 / (1 + 1.079 / M) * M * M / sum;
+    // linear counting is more accurate while many registers are still empty
+    if (estimate <= 2.5 * M && zeros > 0) estimate = M * Math.log((double) M / zeros);
+    return Math.round(estimate);
+  }
+
+  public byte[] toBytes() {
+    if (registers != null) {
+      ByteBuffer out = ByteBuffer.allocate(1 + M);
+      return out.put(DENSE).put(registers).array();
+    }
+    ByteBuffer out = ByteBuffer.allocate(1 + 3 * sparseSize).put(SPARSE);
+    for (int i = 0; i < sparseSize; i++) {
+      out.putShort((short) (sparse[i] >>> 8)).put((byte) (sparse[i] & 0xff));
+    }
+    return out.array();
+  }
+
+  public static HyperLogLog fromBytes(byte[] bytes) {
+    HyperLogLog hll = new HyperLogLog();
+    if (bytes == null || bytes.length == 0) return hll;
+    ByteBuffer in = ByteBuffer.wrap(bytes);
+    byte format = in.get();
+    if (format == DENSE && in.remaining() == M) {
+      hll.densify();
+      in.get(hll.registers);
+    } else if (format == SPARSE && in.remaining() % 3 == 0) {
+      while (in.hasRemaining()) hll.set(in.getShort() & 0xffff, in.get());
+    } else {
+      throw new IllegalArgumentException("Not a sketch");
+    }
+    return hll;
+  }
+
+  /** The murmur3 finalizer, so that similar ids land in unrelated registers. */
+  private static long mix(long h) {
+    h ^= h >>> 33;
+    h *= 0xff51afd7ed558ccdL;
+    h ^= h >>> 33;
+    h *= 0xc4ceb9fe1a85ec53L;
+    h ^= h >>> 33;
+    return h;
+  }
+}
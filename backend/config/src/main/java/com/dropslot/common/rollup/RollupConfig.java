@@ -0,0 +1,37 @@
+package com.dropslot.common.rollup;
+
+import java.time.Clock;
+import java.time.Duration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * Services {@code @Import} this to get {@link Rollups} and the dashboard endpoint; their changelog
+ * has to create the {@code rollups} table.
+ */
+@Configuration(proxyBeanMethods = false)
+public class RollupConfig {
+
+  @Bean
+  public RollupStore rollupStore(
+      JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+    return new RollupStore(jdbcTemplate, transactionManager);
+  }
+
+  @Bean
+  public Rollups rollups(
+      RollupStore store,
+      @Value("${rollups.flush-interval:30s}") Duration flushInterval,
+      @Value("${rollups.minute-retention:2d}") Duration minuteRetention,
+      @Value("${rollups.hour-retention:90d}") Duration hourRetention) {
+    return new Rollups(store, Clock.systemUTC(), flushInterval, minuteRetention, hourRetention);
+  }
+
+  @Bean
+  public RollupController rollupController(RollupStore store) {
+    return new RollupController(store);
+  }
+}
@@ -0,0 +1,81 @@
+package com.dropslot.common.rollup;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Locale;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Dashboard reads of the rollups, e.g. {@code ?metric=logins&granularity=hour}. The total unique
+ * users of a range come from merging its buckets' sketches, not from adding their counts up. Counts
+ * of the current flush interval are not in yet.
+ */
+@RestController
+@RequestMapping("${rollups.api-path:/admin/rollups}")
+public class RollupController {
+  private static final int MAX_BUCKETS = 1500;
+
+  public record BucketResponse(Instant bucket, long events, long uniqueUsers) {}
+
+  public record RollupsResponse(
+      String metric,
+      String tenant,
+      String granularity,
+      long events,
+      long uniqueUsers,
+      List<BucketResponse> buckets) {}
+
+  private final RollupStore store;
+
+  public RollupController(RollupStore store) {
+    this.store = store;
+  }
+
+  @GetMapping
+  public ResponseEntity<RollupsResponse> rollups(
+      @RequestParam("metric") String metric,
+      @RequestParam(value = "tenant", defaultValue = Rollups.ALL_TENANTS) String tenant,
+      @RequestParam(value = "granularity", defaultValue = "hour") String granularity,
+      @RequestParam(value = "from", required = false)
+          @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+          Instant from,
+      @RequestParam(value = "to", required = false)
+          @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+          Instant to) {
+    Granularity g;
+    try {
+      g = Granularity.valueOf(granularity.toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException("granularity must be minute, hour or day");
+    }
+    if (to == null) to = Instant.now();
+    if (from == null) from = to.minus(Duration.ofDays(1));
+    if (!from.isBefore(to)) throw new IllegalArgumentException("from must be before to");
+    if (g.unit().between(from, to) > MAX_BUCKETS) {
+      throw new IllegalArgumentException("At most " + MAX_BUCKETS + " buckets per request");
+    }
+    HyperLogLog users = new HyperLogLog();
+    long events = 0;
+    List<RollupStore.Bucket> rows = store.query(metric, tenant, g, g.bucket(from), to);
+    for (RollupStore.Bucket row : rows) {
+      events += row.events();
+      users.merge(row.users());
+    }
+    return ResponseEntity.ok(
+        new RollupsResponse(
+            metric,
+            tenant,
+            g.name().toLowerCase(Locale.ROOT),
+            events,
+            users.estimate(),
+            rows.stream()
+                .map(b -> new BucketResponse(b.bucket(), b.events(), b.users().estimate()))
+                .toList()));
+  }
+}
@@ -0,0 +1,14 @@
+package com.dropslot.common.rollup;
+
+import java.time.Instant;
+import java.util.Comparator;
+
+/** One row of the {@code rollups} table. */
+record RollupKey(String metric, String tenant, Granularity granularity, Instant bucket) {
+  // the order rows are locked in, so that concurrent flushes cannot deadlock
+  static final Comparator<RollupKey> ORDER =
+      Comparator.comparing(RollupKey::metric)
+          .thenComparing(RollupKey::tenant)
+          .thenComparing(k -> k.granularity().code())
+          .thenComparing(RollupKey::bucket);
+}
@@ -0,0 +1,128 @@
+package com.dropslot.common.rollup;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * The {@code rollups} table: one row per metric, tenant, granularity and bucket, with the event
+ * count and a serialized {@link HyperLogLog} of the users. Postgres cannot merge sketches, so a
+ * flush locks the rows it touches, merges in Java and writes them back; rows are locked in {@link
+ * RollupKey#ORDER} so that replicas flushing at the same time cannot deadlock.
+ */
+public class RollupStore {
+  private static final int CHUNK = 500;
+  private static final byte[] EMPTY = new HyperLogLog().toBytes();
+
+  public record Bucket(Instant bucket, long events, HyperLogLog users) {}
+
+  private final JdbcTemplate jdbc;
+  private final TransactionTemplate transactionTemplate;
+
+  public RollupStore(JdbcTemplate jdbc, PlatformTransactionManager transactionManager) {
+    this.jdbc = jdbc;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+  }
+
+  void merge(Map<RollupKey, Tally> deltas) {
+    List<RollupKey> keys = new ArrayList<>(deltas.keySet());
+    keys.sort(RollupKey.ORDER);
+    transactionTemplate.executeWithoutResult(
+        status -> {
+          for (int from = 0; from < keys.size(); from += CHUNK) {
+            List<RollupKey> chunk = keys.subList(from, Math.min(keys.size(), from + CHUNK));
+            Map<RollupKey, HyperLogLog> current = lock(chunk);
+            jdbc.batchUpdate(
+                "UPDATE rollups SET events = events + ?, users = ?"
+                    + " WHERE metric = ? AND tenant = ? AND granularity = ? AND bucket = ?",
+                chunk,
+                chunk.size(),
+                (ps, key) -> {
+                  Tally delta = deltas.get(key);
+                  HyperLogLog users = current.getOrDefault(key, new HyperLogLog());
+                  users.merge(delta.users);
+                  ps.setLong(1, delta.events);
+                  ps.setBytes(2, users.toBytes());
+                  ps.setString(3, key.metric());
+                  ps.setString(4, key.tenant());
+                  ps.setString(5, key.granularity().code());
+                  ps.setTimestamp(6, Timestamp.from(key.bucket()));
+                });
+          }
+        });
+  }
+
+  /** Creates missing rows and locks all of them, in order; returns their current sketches. */
+  private Map<RollupKey, HyperLogLog> lock(List<RollupKey> keys) {
+    StringBuilder sql =
+        new StringBuilder(
+            "INSERT INTO rollups (metric, tenant, granularity, bucket, events, users) VALUES ");
+    List<Object> args = new ArrayList<>(keys.size() * 5);
+    for (int i = 0; i < keys.size(); i++) {
+      RollupKey key = keys.get(i);
+      sql.append(i == 0 ? "" : ", ").append("(?, ?, ?, ?, 0, ?)");
+      args.add(key.metric());
+      args.add(key.tenant());
+      args.add(key.granularity().code());
+      args.add(Timestamp.from(key.bucket()));
+      args.add(EMPTY);
+    }
+    // a no-op update, so that existing rows are locked and returned as well
+    sql.append(
+        " ON CONFLICT (metric, tenant, granularity, bucket) DO UPDATE SET events = rollups.events"
+            + " RETURNING metric, tenant, granularity, bucket, users");
+    Map<RollupKey, HyperLogLog> current = new HashMap<>();
+    jdbc.query(
+        sql.toString(),
+        rs -> {
+          current.put(
+              new RollupKey(
+                  rs.getString("metric"),
+                  rs.getString("tenant"),
+                  granularity(rs.getString("granularity")),
+                  rs.getTimestamp("bucket").toInstant()),
+              HyperLogLog.fromBytes(rs.getBytes("users")));
+        },
+        args.toArray());
+    return current;
+  }
+
+  public List<Bucket> query(
+      String metric, String tenant, Granularity granularity, Instant from, Instant to) {
+    return jdbc.query(
+        "SELECT bucket, events, users FROM rollups"
+            + " WHERE metric = ? AND tenant = ? AND granularity = ? AND bucket >= ? AND bucket < ?"
+            + " ORDER BY bucket",
+        (rs, i) ->
+            new Bucket(
+                rs.getTimestamp("bucket").toInstant(),
+                rs.getLong("events"),
+                HyperLogLog.fromBytes(rs.getBytes("users"))),
+        metric,
+        tenant,
+        granularity.code(),
+        Timestamp.from(from),
+        Timestamp.from(to));
+  }
+
+  /** Deletes the buckets of {@code granularity} that started before {@code before}. */
+  int purge(Granularity granularity, Instant before) {
+    return jdbc.update(
+        "DELETE FROM rollups WHERE granularity = ? AND bucket < ?",
+        granularity.code(),
+        Timestamp.from(before));
+  }
+
+  private static Granularity granularity(String code) {
+    for (Granularity g : Granularity.values()) {
+      if (g.code().equals(code)) return g;
+    }
+    throw new IllegalStateException("Unknown granularity " + code);
+  }
+}
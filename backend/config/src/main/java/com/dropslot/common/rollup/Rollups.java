@@ -0,0 +1,160 @@
+package com.dropslot.common.rollup;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Counts events such as logins per metric, tenant and minute in memory, with a {@link HyperLogLog}
+ * of the users behind them, and every {@code flushInterval} adds what it counted to the minute,
+ * hour and day rows of {@link RollupStore}. Recording is a map lookup and an increment, so it can
+ * sit on hot paths; dashboards read the rollups and never the tables the events came from. Every
+ * event also counts towards {@link #ALL_TENANTS}. A failed flush keeps its counts for the next one.
+ */
+public class Rollups implements AutoCloseable {
+  private static final Logger log = LoggerFactory.getLogger(Rollups.class);
+
+  /** The tenant under which every event is counted as well. */
+  public static final String ALL_TENANTS = "*";
+
+  private record Key(String metric, String tenant, Instant minute) {}
+
+  private final RollupStore store;
+  private final Clock clock;
+  private final Duration minuteRetention;
+  private final Duration hourRetention;
+  private final ConcurrentHashMap<Key, Tally> tallies = new ConcurrentHashMap<>();
+  private final ScheduledExecutorService flusher =
+      Executors.newSingleThreadScheduledExecutor(
+          r -> {
+            Thread t = new Thread(r, "rollup-flush");
+            t.setDaemon(true);
+            return t;
+          });
+
+  public Rollups(
+      RollupStore store,
+      Clock clock,
+      Duration flushInterval,
+      Duration minuteRetention,
+      Duration hourRetention) {
+    this.store = store;
+    this.clock = clock;
+    this.minuteRetention = minuteRetention;
+    this.hourRetention = hourRetention;
+    long millis = flushInterval.toMillis();
+    flusher.scheduleWithFixedDelay(this::flushQuietly, millis, millis, TimeUnit.MILLISECONDS);
+    flusher.scheduleWithFixedDelay(this::purge, 1, 60, TimeUnit.MINUTES);
+  }
+
+  /** Counts one event; {@code tenant} and {@code userId} may be {@code null}. */
+  public void record(String metric, String tenant, UUID userId) {
+    record(
+        metric,
+        tenant,
+        t -> {
+          t.events++;
+          if (userId != null) t.users.add(userId);
+        });
+  }
+
+  /** Counts {@code events} events at once, by {@code userIds}; for events counted elsewhere. */
+  public void record(String metric, String tenant, long events, Collection<UUID> userIds) {
+    record(
+        metric,
+        tenant,
+        t -> {
+          t.events += events;
+          userIds.forEach(t.users::add);
+        });
+  }
+
+  private void record(String metric, String tenant, Consumer<Tally> add) {
+    Instant minute = clock.instant().truncatedTo(ChronoUnit.MINUTES);
+    update(new Key(metric, ALL_TENANTS, minute), add);
+    if (tenant != null && !ALL_TENANTS.equals(tenant)) {
+      update(new Key(metric, tenant, minute), add);
+    }
+  }
+
+  private void update(Key key, Consumer<Tally> change) {
+    while (true) {
+      Tally tally = tallies.computeIfAbsent(key, k -> new Tally());
+      synchronized (tally) {
+        // taken by a flush after the lookup; go again for a fresh one
+        if (tally.closed) continue;
+        change.accept(tally);
+        return;
+      }
+    }
+  }
+
+  /** Writes everything counted so far; called on a schedule and on shutdown. */
+  synchronized void flush() {
+    Map<Key, Tally> taken = new HashMap<>();
+    for (Key key : tallies.keySet()) {
+      Tally tally = tallies.remove(key);
+      if (tally == null) continue;
+      synchronized (tally) {
+        tally.closed = true;
+      }
+      taken.put(key, tally);
+    }
+    if (taken.isEmpty()) return;
+    Map<RollupKey, Tally> deltas = new HashMap<>();
+    taken.forEach(
+        (key, tally) -> {
+          for (Granularity g : Granularity.values()) {
+            deltas
+                .computeIfAbsent(
+                    new RollupKey(key.metric(), key.tenant(), g, g.bucket(key.minute())),
+                    k -> new Tally())
+                .add(tally);
+          }
+        });
+    try {
+      store.merge(deltas);
+    } catch (RuntimeException e) {
+      taken.forEach((key, tally) -> update(key, t -> t.add(tally)));
+      throw e;
+    }
+  }
+
+  private void flushQuietly() {
+    try {
+      flush();
+    } catch (RuntimeException e) {
+      // an exception would cancel the schedule
+      log.warn("Rollup flush failed, retrying next time: {}", e.getMessage());
+    }
+  }
+
+  private void purge() {
+    try {
+      Instant now = clock.instant();
+      int minutes = store.purge(Granularity.MINUTE, now.minus(minuteRetention));
+      int hours = store.purge(Granularity.HOUR, now.minus(hourRetention));
+      log.debug("Purged old rollups minutes={} hours={}", minutes, hours);
+    } catch (RuntimeException e) {
+      log.warn("Rollup purge failed: {}", e.getMessage());
+    }
+  }
+
+  @Override
+  public void close() {
+    flusher.shutdownNow();
+    flushQuietly();
+  }
+}
@@ -0,0 +1,14 @@
+package com.dropslot.common.rollup;
+
+/** Events and unique users of one bucket; guarded by its own monitor while shared. */
+final class Tally {
+  long events;
+  final HyperLogLog users = new HyperLogLog();
+  // set once a flush has taken the tally; writers then start a new one
+  boolean closed;
+
+  void add(Tally other) {
+    events += other.events;
+    users.merge(other.users);
+  }
+}
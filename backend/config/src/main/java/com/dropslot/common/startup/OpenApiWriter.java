@@ -0,0 +1,58 @@
+package com.dropslot.common.startup;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.stream.Stream;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.web.client.RestClient;
+
+/**
+ * Writes a service's OpenAPI document at build time: starts the application without a database
+ * ({@code common-offline.yml}) on a random port, saves {@code /v3/api-docs} and exits before any
+ * ready-time work runs. The {@code fast-start} Maven profile puts the result on the classpath as
+ * {@code static/openapi.json}, so the pods can run with springdoc switched off.
+ *
+ * <p>Arguments: the application class and the output file.
+ */
+public final class OpenApiWriter {
+  private OpenApiWriter() {}
+
+  public static void main(String[] args) throws ClassNotFoundException {
+    if (args.length < 2) {
+      throw new IllegalArgumentException("usage: OpenApiWriter <application class> <output file>");
+    }
+    Class<?> application = Class.forName(args[0]);
+    Path output = Path.of(args[1]);
+    SpringApplication app = new SpringApplication(application);
+    app.addListeners(
+        (ApplicationStartedEvent event) -> {
+          var context = (WebServerApplicationContext) event.getApplicationContext();
+          String json =
+              RestClient.create()
+                  .get()
+                  .uri("http://localhost:{port}/v3/api-docs", context.getWebServer().getPort())
+                  .retrieve()
+                  .body(String.class);
+          try {
+            Files.createDirectories(output.toAbsolutePath().getParent());
+            Files.writeString(output, json);
+          } catch (IOException e) {
+            throw new UncheckedIOException(e);
+          }
+          System.exit(SpringApplication.exit(event.getApplicationContext()));
+        });
+    app.run(
+        Stream.concat(
+                Arrays.stream(args, 2, args.length),
+                Stream.of(
+                    "--spring.config.import=classpath:common-offline.yml",
+                    "--server.port=0",
+                    "--springdoc.writer-with-order-by-keys=true"))
+            .toArray(String[]::new));
+  }
+}
@@ -0,0 +1,217 @@
+package com.dropslot.common.idempotency;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+class IdempotencyFilterTest {
+  private final IdempotencyStore store = mock(IdempotencyStore.class);
+  private final IdempotencyFilter filter =
+      new IdempotencyFilter(
+          List.of("/stores", "/stores/{id}/branches"),
+          store,
+          new ObjectMapper().registerModule(new JavaTimeModule()),
+          100,
+          Duration.ofHours(1),
+          Duration.ofSeconds(5),
+          1024,
+          Clock.systemUTC());
+  private final AtomicInteger runs = new AtomicInteger();
+
+  @BeforeEach
+  void claimsAlwaysSucceed() {
+    when(store.claim(anyString(), anyString(), any(), any(), any()))
+        .thenAnswer(inv -> new IdempotencyStore.Claim(true, inv.getArgument(1), null));
+  }
+
+  private static MockHttpServletRequest post(String path, String key, String body) {
+    MockHttpServletRequest request = new MockHttpServletRequest("POST", path);
+    request.addHeader(IdempotencyFilter.HEADER, key);
+    request.addHeader("X-User-Id", "u1");
+    request.setContentType("application/json");
+    request.setContent(body.getBytes(StandardCharsets.UTF_8));
+    return request;
+  }
+
+  private FilterChain handler(int status, CountDownLatch release) {
+    return (req, res) -> {
+      runs.incrementAndGet();
+      if (release != null) {
+        try {
+          release.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+      String body = new String(req.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+      res.setContentType("application/json");
+      ((HttpServletResponse) res).setStatus(status);
+      res.getWriter().write("{\"run\":" + runs.get() + ",\"echo\":" + body + "}");
+    };
+  }
+
+  private MockHttpServletResponse send(MockHttpServletRequest request, FilterChain chain)
+      throws Exception {
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    filter.doFilter(request, response, chain);
+    return response;
+  }
+
+  @Test
+  void retryReplaysFirstResponseWithoutRunningHandler() throws Exception {
+    MockHttpServletResponse first = send(post("/stores", "k1", "{\"a\":1}"), handler(201, null));
+    MockHttpServletResponse retry = send(post("/stores", "k1", "{\"a\":1}"), handler(201, null));
+
+    assertThat(runs).hasValue(1);
+    assertThat(retry.getStatus()).isEqualTo(201);
+    assertThat(retry.getContentAsString()).isEqualTo(first.getContentAsString());
+    assertThat(retry.getHeader(IdempotencyFilter.REPLAYED)).isEqualTo("true");
+    assertThat(first.getHeader(IdempotencyFilter.REPLAYED)).isNull();
+    verify(store, times(1)).complete(anyString(), any());
+  }
+
+  @Test
+  void keyReusedWithDifferentBodyIsRejected() throws Exception {
+    send(post("/stores", "k1", "{\"a\":1}"), handler(201, null));
+    MockHttpServletResponse other = send(post("/stores", "k1", "{\"a\":2}"), handler(201, null));
+
+    assertThat(other.getStatus()).isEqualTo(422);
+    assertThat(runs).hasValue(1);
+  }
+
+  @Test
+  void keysAreScopedToCallerAndPath() throws Exception {
+    send(post("/stores", "k1", "{}"), handler(201, null));
+    MockHttpServletRequest otherUser = post("/stores", "k1", "{}");
+    otherUser.removeHeader("X-User-Id");
+    otherUser.addHeader("X-User-Id", "u2");
+    send(otherUser, handler(201, null));
+    send(post("/stores/s1/branches", "k1", "{}"), handler(201, null));
+
+    assertThat(runs).hasValue(3);
+  }
+
+  @Test
+  void retryWithARefreshedTokenIsTheSameCaller() throws Exception {
+    MockHttpServletRequest first = post("/stores", "k1", "{}");
+    first.removeHeader("X-User-Id");
+    first.addHeader("Authorization", "Bearer first-token");
+    first.setUserPrincipal(() -> "u1");
+    MockHttpServletRequest retry = post("/stores", "k1", "{}");
+    retry.removeHeader("X-User-Id");
+    retry.addHeader("Authorization", "Bearer refreshed-token");
+    retry.setUserPrincipal(() -> "u1");
+    send(first, handler(201, null));
+    MockHttpServletResponse replayed = send(retry, handler(201, null));
+
+    assertThat(runs).hasValue(1);
+    assertThat(replayed.getHeader(IdempotencyFilter.REPLAYED)).isEqualTo("true");
+  }
+
+  @Test
+  void handlersCanReadTheBodyWithAReadListener() throws Exception {
+    ByteArrayOutputStream read = new ByteArrayOutputStream();
+    AtomicBoolean allRead = new AtomicBoolean();
+    FilterChain async =
+        (req, res) -> {
+          ServletInputStream in = req.getInputStream();
+          in.setReadListener(
+              new ReadListener() {
+                @Override
+                public void onDataAvailable() throws IOException {
+                  while (in.isReady() && !in.isFinished()) read.write(in.read());
+                }
+
+                @Override
+                public void onAllDataRead() {
+                  allRead.set(true);
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                  throw new AssertionError(t);
+                }
+              });
+          ((HttpServletResponse) res).setStatus(201);
+        };
+    send(post("/stores", "k1", "{\"a\":1}"), async);
+
+    assertThat(read.toString(StandardCharsets.UTF_8)).isEqualTo("{\"a\":1}");
+    assertThat(allRead).isTrue();
+  }
+
+  @Test
+  void concurrentRetriesWaitForTheFirstRequest() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+    CompletableFuture<MockHttpServletResponse> first =
+        CompletableFuture.supplyAsync(() -> sendQuietly(post("/stores", "k1", "{}"), release));
+    while (runs.get() == 0) Thread.onSpinWait();
+    CompletableFuture<MockHttpServletResponse> second =
+        CompletableFuture.supplyAsync(() -> sendQuietly(post("/stores", "k1", "{}"), release));
+    Thread.sleep(100);
+    release.countDown();
+
+    assertThat(second.get(5, TimeUnit.SECONDS).getContentAsString())
+        .isEqualTo(first.get(5, TimeUnit.SECONDS).getContentAsString());
+    assertThat(second.get().getHeader(IdempotencyFilter.REPLAYED)).isEqualTo("true");
+    assertThat(runs).hasValue(1);
+  }
+
+  @Test
+  void serverErrorsAreNotKept() throws Exception {
+    send(post("/stores", "k1", "{}"), handler(503, null));
+    MockHttpServletResponse retry = send(post("/stores", "k1", "{}"), handler(201, null));
+
+    assertThat(retry.getStatus()).isEqualTo(201);
+    assertThat(runs).hasValue(2);
+    verify(store).release(anyString());
+  }
+
+  @Test
+  void otherRequestsPassThrough() throws Exception {
+    MockHttpServletRequest unkeyed = post("/stores", "k1", "{}");
+    unkeyed.removeHeader(IdempotencyFilter.HEADER);
+    send(unkeyed, handler(201, null));
+    send(unkeyed, handler(201, null));
+    send(post("/stores/s1", "k1", "{}"), handler(201, null));
+
+    assertThat(runs).hasValue(3);
+    verify(store, never()).claim(anyString(), anyString(), any(), any(), any());
+  }
+
+  private MockHttpServletResponse sendQuietly(
+      MockHttpServletRequest request, CountDownLatch release) {
+    try {
+      return send(request, handler(201, release));
+    } catch (Exception e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
@@ -0,0 +1,40 @@
+package com.dropslot.common.internal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+class InternalPortFilterTest {
+  private final InternalPortFilter filter =
+      new InternalPortFilter(List.of("/drops/*/slots/*/claims", "/stores/export"), () -> 8094);
+
+  private MockHttpServletResponse send(String method, String path, int port) throws Exception {
+    MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+    request.setLocalPort(port);
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    filter.doFilter(request, response, new MockFilterChain());
+    return response;
+  }
+
+  @Test
+  void internalPathsAreHiddenOnThePublicPort() throws Exception {
+    assertThat(send("POST", "/drops/1/slots/2/claims", 8084).getStatus()).isEqualTo(404);
+    assertThat(send("GET", "/stores/export", 8082).getStatus()).isEqualTo(404);
+  }
+
+  @Test
+  void internalPortServesEverything() throws Exception {
+    assertThat(send("POST", "/drops/1/slots/2/claims", 8094).getStatus()).isEqualTo(200);
+    assertThat(send("GET", "/drops/1", 8094).getStatus()).isEqualTo(200);
+  }
+
+  @Test
+  void otherPathsAreServedOnThePublicPort() throws Exception {
+    assertThat(send("GET", "/drops/1", 8084).getStatus()).isEqualTo(200);
+    assertThat(send("GET", "/drops/1/slots/2/claims/extra", 8084).getStatus()).isEqualTo(200);
+  }
+}
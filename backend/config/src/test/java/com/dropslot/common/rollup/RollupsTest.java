@@ -0,0 +1,93 @@
+package com.dropslot.common.rollup;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.verify;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+class RollupsTest {
+  private static final Instant NOW = Instant.parse("2026-03-01T10:15:30Z");
+
+  @Test
+  void sketchEstimatesStayCloseFromSparseToDenseAndSurviveARoundTrip() {
+    HyperLogLog a = new HyperLogLog();
+    HyperLogLog b = new HyperLogLog();
+    for (int i = 0; i < 100; i++) a.add(UUID.randomUUID());
+    assertThat(a.toBytes()).hasSizeLessThan(400);
+    assertThat((double) a.estimate()).isCloseTo(100, within(3.0));
+
+    for (int i = 0; i < 60_000; i++) {
+      UUID user = UUID.randomUUID();
+      a.add(user);
+      // half of them seen by both
+      if (i % 2 == 0) b.add(user);
+    }
+    a.merge(b);
+    HyperLogLog copy = HyperLogLog.fromBytes(a.toBytes());
+    assertThat(copy.toBytes()).hasSize(1 + 4096);
+    assertThat((double) copy.estimate()).isCloseTo(60_100, within(60_100 * 0.05));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void flushAddsMinutesToMinuteHourAndDayRowsAndKeepsCountsItCouldNotWrite() {
+    RollupStore store = mock(RollupStore.class);
+    Rollups rollups =
+        new Rollups(
+            store,
+            Clock.fixed(NOW, ZoneOffset.UTC),
+            Duration.ofHours(1),
+            Duration.ofDays(2),
+            Duration.ofDays(90));
+    UUID user = UUID.randomUUID();
+    rollups.record("store_views", "t1", user);
+    rollups.record("store_views", "t1", user);
+    rollups.record("store_views", "t2", null);
+    rollups.record("store_views", "t2", 2, List.of(user));
+
+    doThrow(new IllegalStateException("down")).when(store).merge(any());
+    assertThatThrownBy(rollups::flush).isInstanceOf(IllegalStateException.class);
+    rollups.record("store_views", "t1", UUID.randomUUID());
+
+    ArgumentCaptor<Map<RollupKey, Tally>> written = ArgumentCaptor.forClass(Map.class);
+    reset(store);
+    rollups.flush();
+    verify(store).merge(written.capture());
+
+    Map<String, Tally> rows = new HashMap<>();
+    written.getValue().forEach((k, t) -> rows.put(k.tenant() + "/" + k.granularity(), t));
+    // three granularities for t1, t2 and all tenants
+    assertThat(rows).hasSize(9);
+    Tally t1Day = written.getValue().get(key("t1", Granularity.DAY, "2026-03-01T00:00:00Z"));
+    assertThat(t1Day.events).isEqualTo(3);
+    assertThat(t1Day.users.estimate()).isEqualTo(2);
+    Tally allHour =
+        written.getValue().get(key(Rollups.ALL_TENANTS, Granularity.HOUR, "2026-03-01T10:00:00Z"));
+    assertThat(allHour.events).isEqualTo(6);
+    assertThat(allHour.users.estimate()).isEqualTo(2);
+    Tally t2Minute = written.getValue().get(key("t2", Granularity.MINUTE, "2026-03-01T10:15:00Z"));
+    // one anonymous event, then two counted elsewhere by one user
+    assertThat(t2Minute.events).isEqualTo(3);
+    assertThat(t2Minute.users.estimate()).isEqualTo(1);
+    rollups.close();
+  }
+
+  private static RollupKey key(String tenant, Granularity g, String bucket) {
+    return new RollupKey("store_views", tenant, g, Instant.parse(bucket));
+  }
+}
@@ -0,0 +1,14 @@
+package com.dropslot.drop;
+
+import com.dropslot.common.internal.InternalPortConfig;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Import;
+
+@SpringBootApplication
+@Import(InternalPortConfig.class)
+public class DropServiceApplication {
+  public static void main(String[] args) {
+    SpringApplication.run(DropServiceApplication.class, args);
+  }
+}
@@ -0,0 +1,87 @@
+package com.dropslot.drop.api;
+
+import com.dropslot.drop.api.dto.DropDtos;
+import com.dropslot.drop.availability.AvailabilityStream;
+import com.dropslot.drop.service.DropService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Valid;
+import java.io.IOException;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequiredArgsConstructor
+public class DropController {
+  private final DropService dropService;
+  private final AvailabilityStream availabilityStream;
+
+  @PostMapping("/drops")
+  public ResponseEntity<DropDtos.DropResponse> create(
+      @Valid @RequestBody DropDtos.CreateDropRequest req) {
+    return ResponseEntity.status(HttpStatus.CREATED).body(dropService.create(req));
+  }
+
+  @GetMapping("/drops/{id}")
+  public ResponseEntity<DropDtos.DropResponse> get(@PathVariable("id") UUID id) {
+    return ResponseEntity.ok(dropService.get(id));
+  }
+
+  @GetMapping("/branches/{branchId}/drops")
+  public ResponseEntity<List<DropDtos.DropResponse>> forBranch(
+      @PathVariable("branchId") UUID branchId) {
+    return ResponseEntity.ok(dropService.upcomingForBranch(branchId));
+  }
+
+  /** Server-sent {@code snapshot} and {@code delta} events with the drop's remaining seats. */
+  @GetMapping(value = "/drops/{id}/availability", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public void availability(
+      @PathVariable("id") UUID id, HttpServletRequest request, HttpServletResponse response)
+      throws IOException {
+    availabilityStream.subscribe(id, request, response);
+  }
+
+  /**
+   * Completes asynchronously once the claim is durable; the request thread is not held. Claims and
+   * releases are internal (see {@code internal.paths}): {@code X-User-Id} comes from
+   * reservation-service, never from a client. A caller that sends {@code X-Claim-Id} can repeat the
+   * claim without taking a second seat, or release it even if it never saw the answer.
+   */
+  @PostMapping("/drops/{id}/slots/{slotId}/claims")
+  public CompletableFuture<ResponseEntity<DropDtos.ClaimResponse>> claim(
+      @PathVariable("id") UUID id,
+      @PathVariable("slotId") UUID slotId,
+      @RequestHeader("X-User-Id") UUID userId,
+      @RequestHeader(value = "X-Claim-Id", required = false) UUID claimId) {
+    return dropService
+        .claim(id, slotId, userId, claimId)
+        .thenApply(claim -> ResponseEntity.status(HttpStatus.CREATED).body(claim));
+  }
+
+  /** Seats for several users at once, e.g. a waitlist wave; users left out got none. Internal. */
+  @PostMapping("/drops/{id}/slots/{slotId}/claims:bulk")
+  public CompletableFuture<ResponseEntity<DropDtos.BulkClaimResponse>> claimAll(
+      @PathVariable("id") UUID id,
+      @PathVariable("slotId") UUID slotId,
+      @Valid @RequestBody DropDtos.BulkClaimRequest req) {
+    return dropService
+        .claimAll(id, slotId, req.userIds())
+        .thenApply(claims -> ResponseEntity.ok(new DropDtos.BulkClaimResponse(claims)));
+  }
+
+  @DeleteMapping("/drops/{id}/slots/{slotId}/claims/{claimId}")
+  public ResponseEntity<Void> release(
+      @PathVariable("id") UUID id,
+      @PathVariable("slotId") UUID slotId,
+      @PathVariable("claimId") UUID claimId,
+      @RequestHeader("X-User-Id") UUID userId) {
+    dropService.release(id, slotId, claimId, userId);
+    return ResponseEntity.noContent().build();
+  }
+}
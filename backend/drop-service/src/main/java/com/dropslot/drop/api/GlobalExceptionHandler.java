@@ -0,0 +1,71 @@
+package com.dropslot.drop.api;
+
+import com.dropslot.drop.api.dto.ProblemDto;
+import com.dropslot.drop.capacity.ClaimsUnavailableException;
+import com.dropslot.drop.capacity.SoldOutException;
+import jakarta.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.NoSuchElementException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.context.request.async.AsyncRequestNotUsableException;
+import org.springframework.web.util.DisconnectedClientHelper;
+
+@RestControllerAdvice
+public class GlobalExceptionHandler {
+
+  private static final Logger log = LoggerFactory.getLogger(GlobalExceptionHandler.class);
+
+  @ExceptionHandler(IllegalArgumentException.class)
+  public ResponseEntity<ProblemDto> handleBadRequest(
+      IllegalArgumentException ex, HttpServletRequest req) {
+    log.info("Bad request: {}", ex.getMessage());
+    return problem(HttpStatus.BAD_REQUEST, "Bad Request", ex.getMessage(), req);
+  }
+
+  @ExceptionHandler(NoSuchElementException.class)
+  public ResponseEntity<ProblemDto> handleNotFound(
+      NoSuchElementException ex, HttpServletRequest req) {
+    return problem(HttpStatus.NOT_FOUND, "Not Found", ex.getMessage(), req);
+  }
+
+  @ExceptionHandler(SoldOutException.class)
+  public ResponseEntity<ProblemDto> handleSoldOut(SoldOutException ex, HttpServletRequest req) {
+    return problem(HttpStatus.CONFLICT, "Conflict", ex.getMessage(), req);
+  }
+
+  @ExceptionHandler(ClaimsUnavailableException.class)
+  public ResponseEntity<ProblemDto> handleUnavailable(
+      ClaimsUnavailableException ex, HttpServletRequest req) {
+    log.info("Service unavailable: {}", ex.getMessage());
+    ResponseEntity<ProblemDto> resp =
+        problem(HttpStatus.SERVICE_UNAVAILABLE, "Service Unavailable", ex.getMessage(), req);
+    return ResponseEntity.status(resp.getStatusCode())
+        .header(HttpHeaders.RETRY_AFTER, "1")
+        .body(resp.getBody());
+  }
+
+  /** A client went away mid-response; there is nobody to answer. */
+  @ExceptionHandler({AsyncRequestNotUsableException.class, IOException.class})
+  public void handleDisconnected(Exception ex) throws Exception {
+    if (!(ex instanceof AsyncRequestNotUsableException)
+        && !DisconnectedClientHelper.isClientDisconnectedException(ex)) {
+      throw ex;
+    }
+    log.debug("Client disconnected: {}", ex.getMessage());
+  }
+
+  private static ResponseEntity<ProblemDto> problem(
+      HttpStatus status, String title, String detail, HttpServletRequest req) {
+    ProblemDto p =
+        new ProblemDto(
+            "about:blank", title, detail, req.getRequestURI(), status.value(), Instant.now());
+    return ResponseEntity.status(status).body(p);
+  }
+}
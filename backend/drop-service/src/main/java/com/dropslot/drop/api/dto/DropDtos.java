@@ -0,0 +1,51 @@
+package com.dropslot.drop.api.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
+import jakarta.validation.constraints.Size;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+public class DropDtos {
+  public static record CreateSlotRequest(
+      @NotNull Instant startTime, @NotNull Instant endTime, @PositiveOrZero int capacity) {}
+
+  public static record CreateDropRequest(
+      @NotNull String storeId,
+      @NotNull String branchId,
+      @NotBlank String name,
+      @NotNull Instant startsAt,
+      @NotNull Instant endsAt,
+      @NotEmpty List<@Valid CreateSlotRequest> slots) {}
+
+  public static record SlotResponse(
+      String id, Instant startTime, Instant endTime, int capacity, int remaining) {}
+
+  public static record DropResponse(
+      String id,
+      String storeId,
+      String branchId,
+      String name,
+      Instant startsAt,
+      Instant endsAt,
+      List<SlotResponse> slots) {}
+
+  public static record BulkClaimRequest(@NotEmpty @Size(max = 1000) List<UUID> userIds) {}
+
+  public static record BulkClaimResponse(List<ClaimResponse> claims) {}
+
+  public static record ClaimResponse(
+      String id, String dropId, String slotId, String userId, Instant claimedAt) {}
+
+  public static record SlotAvailability(String id, int remaining) {}
+
+  /**
+   * Body of the availability stream's {@code snapshot} (every slot) and {@code delta} (slots that
+   * changed) events; {@code seq} is also the event id.
+   */
+  public static record AvailabilityEvent(String dropId, long seq, List<SlotAvailability> slots) {}
+}
@@ -0,0 +1,31 @@
+package com.dropslot.drop.availability;
+
+import org.apache.coyote.UpgradeProtocol;
+import org.apache.coyote.http2.Http2Protocol;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class AvailabilityConfig {
+
+  /**
+   * The gateway multiplexes availability streams over a few h2c connections; Tomcat's default of
+   * 100 concurrent streams per connection would cap them far below what one instance can serve.
+   */
+  @Bean
+  public WebServerFactoryCustomizer<TomcatServletWebServerFactory> http2StreamLimit(
+      @Value("${drop.availability.max-streams-per-connection:2000}") int maxStreams) {
+    return factory ->
+        factory.addConnectorCustomizers(
+            connector -> {
+              for (UpgradeProtocol protocol : connector.findUpgradeProtocols()) {
+                if (protocol instanceof Http2Protocol http2) {
+                  http2.setMaxConcurrentStreams(maxStreams);
+                }
+              }
+            });
+  }
+}
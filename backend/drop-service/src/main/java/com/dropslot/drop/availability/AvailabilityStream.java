@@ -0,0 +1,243 @@
+package com.dropslot.drop.availability;
+
+import com.dropslot.drop.capacity.SlotCounter;
+import com.dropslot.drop.capacity.SlotCounters;
+import com.dropslot.drop.domain.Drop;
+import com.dropslot.drop.repo.DropRepository;
+import com.dropslot.drop.repo.SlotRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+/**
+ * Server-sent slot availability, per drop. Clients get a {@code snapshot} event on connecting and
+ * then {@code delta} events. Changes are not pushed as they happen: once per {@code tick} the
+ * counters of every watched drop are read and the slots that moved go out as one delta, encoded
+ * once and handed to all of the drop's subscribers, so a sold-out rush costs each client at most
+ * one frame per tick. Quiet streams get a comment every {@code heartbeat} so proxies keep them
+ * open.
+ *
+ * <p>Writes happen on a small pool, one drain per subscriber at a time, and never block: they use
+ * the servlet's non-blocking output, and a drain that finds the connection full is parked until the
+ * container reports it writable again, so clients that stop reading cannot tie up the writers. A
+ * stream that stays full for {@code write-timeout} is closed.
+ */
+@Component
+public class AvailabilityStream implements AutoCloseable {
+  private static final Logger log = LoggerFactory.getLogger(AvailabilityStream.class);
+
+  private final DropRepository dropRepository;
+  private final SlotRepository slotRepository;
+  private final SlotCounters slotCounters;
+  private final ObjectMapper objectMapper;
+  private final int bufferFrames;
+  private final long heartbeatTicks;
+  private final long timeoutMillis;
+  private final long writeTimeoutNanos;
+  private final ConcurrentHashMap<UUID, DropChannel> channels = new ConcurrentHashMap<>();
+  private final ScheduledExecutorService ticker;
+  private final ExecutorService writers;
+  private long ticks;
+
+  public AvailabilityStream(
+      DropRepository dropRepository,
+      SlotRepository slotRepository,
+      SlotCounters slotCounters,
+      ObjectMapper objectMapper,
+      @Value("${drop.availability.tick:100ms}") Duration tick,
+      @Value("${drop.availability.buffer-frames:8}") int bufferFrames,
+      @Value("${drop.availability.heartbeat:15s}") Duration heartbeat,
+      @Value("${drop.availability.timeout:30m}") Duration timeout,
+      @Value("${drop.availability.write-timeout:10s}") Duration writeTimeout,
+      @Value("${drop.availability.writer-threads:16}") int writerThreads) {
+    this.dropRepository = dropRepository;
+    this.slotRepository = slotRepository;
+    this.slotCounters = slotCounters;
+    this.objectMapper = objectMapper;
+    this.bufferFrames = bufferFrames;
+    this.heartbeatTicks = Math.max(1, heartbeat.toMillis() / tick.toMillis());
+    this.timeoutMillis = timeout.toMillis();
+    this.writeTimeoutNanos = writeTimeout.toNanos();
+    this.ticker =
+        Executors.newSingleThreadScheduledExecutor(
+            r -> {
+              Thread t = new Thread(r, "availability-tick");
+              t.setDaemon(true);
+              return t;
+            });
+    AtomicInteger writerCount = new AtomicInteger();
+    this.writers =
+        Executors.newFixedThreadPool(
+            writerThreads,
+            r -> {
+              Thread t = new Thread(r, "availability-writer-" + writerCount.incrementAndGet());
+              t.setDaemon(true);
+              return t;
+            });
+    long tickMillis = tick.toMillis();
+    ticker.scheduleAtFixedRate(this::tick, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Starts streaming the drop's availability on {@code response}; the request continues
+   * asynchronously once this returns.
+   */
+  public void subscribe(UUID dropId, HttpServletRequest request, HttpServletResponse response)
+      throws IOException {
+    Subscriber[] added = new Subscriber[1];
+    // joins under the map's lock so the ticker cannot retire the channel in between
+    channels.compute(
+        dropId,
+        (id, channel) -> {
+          if (channel == null) channel = open(id);
+          added[0] = new Subscriber(request.startAsync(), channel, bufferFrames, System.nanoTime());
+          channel.subscribers().add(added[0]);
+          return channel;
+        });
+    Subscriber subscriber = added[0];
+    AsyncContext context = subscriber.context();
+    context.setTimeout(timeoutMillis);
+    context.addListener(
+        new AsyncListener() {
+          @Override
+          public void onComplete(AsyncEvent event) {
+            leave(subscriber);
+          }
+
+          @Override
+          public void onTimeout(AsyncEvent event) {
+            drop(subscriber);
+          }
+
+          @Override
+          public void onError(AsyncEvent event) {
+            drop(subscriber);
+          }
+
+          @Override
+          public void onStartAsync(AsyncEvent event) {}
+        });
+    response.setContentType(MediaType.TEXT_EVENT_STREAM_VALUE);
+    response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+    // the container calls this once now, which starts with the snapshot, and then each time a
+    // connection that was full can be written again
+    response
+        .getOutputStream()
+        .setWriteListener(
+            new WriteListener() {
+              @Override
+              public void onWritePossible() {
+                if (subscriber.resume()) writers.execute(() -> drain(subscriber));
+              }
+
+              @Override
+              public void onError(Throwable t) {
+                drop(subscriber);
+              }
+            });
+  }
+
+  private DropChannel open(UUID dropId) {
+    Drop drop = dropRepository.findById(dropId).orElseThrow();
+    List<SlotCounter> counters =
+        slotRepository.findByDropOrderByStartTime(drop).stream()
+            .map(slot -> slotCounters.get(slot.getId()))
+            .toList();
+    return new DropChannel(dropId, counters, objectMapper);
+  }
+
+  private void tick() {
+    try {
+      boolean heartbeat = ++ticks % heartbeatTicks == 0;
+      long now = System.nanoTime();
+      for (DropChannel channel : channels.values()) {
+        byte[] frame = channel.delta();
+        if (frame == null && heartbeat) frame = DropChannel.HEARTBEAT;
+        for (Subscriber subscriber : channel.subscribers()) {
+          if (subscriber.stalled(now, writeTimeoutNanos)) {
+            log.debug("Closing availability stream of drop {}: not read", channel.dropId());
+            drop(subscriber);
+          } else if (frame != null) {
+            publish(subscriber, frame);
+          }
+        }
+        channels.computeIfPresent(
+            channel.dropId(), (id, c) -> c.subscribers().isEmpty() ? null : c);
+      }
+    } catch (RuntimeException e) {
+      // an exception would cancel the schedule
+      log.error("Availability tick failed", e);
+    }
+  }
+
+  private void publish(Subscriber subscriber, byte[] frame) {
+    if (subscriber.offer(frame)) writers.execute(() -> drain(subscriber));
+  }
+
+  private void drain(Subscriber subscriber) {
+    try {
+      ServletOutputStream out = subscriber.context().getResponse().getOutputStream();
+      while (true) {
+        subscriber.park(System.nanoTime());
+        // not ready: the container resumes the drain through onWritePossible
+        if (!out.isReady()) return;
+        subscriber.resume();
+        // a flush is a write of its own, so it waits for its turn like one
+        if (subscriber.unflushed) {
+          subscriber.unflushed = false;
+          out.flush();
+          continue;
+        }
+        byte[] frame = subscriber.next();
+        if (frame == null) return;
+        out.write(frame);
+        subscriber.unflushed = true;
+      }
+    } catch (IOException | IllegalStateException e) {
+      // the client went away
+      drop(subscriber);
+    }
+  }
+
+  private static void leave(Subscriber subscriber) {
+    subscriber.close();
+    subscriber.channel().subscribers().remove(subscriber);
+  }
+
+  private static void drop(Subscriber subscriber) {
+    leave(subscriber);
+    try {
+      subscriber.context().complete();
+    } catch (IllegalStateException e) {
+      // already completed
+    }
+  }
+
+  @Override
+  public void close() {
+    ticker.shutdownNow();
+    channels.values().forEach(c -> c.subscribers().forEach(AvailabilityStream::drop));
+    writers.shutdown();
+  }
+}
@@ -0,0 +1,103 @@
+package com.dropslot.drop.availability;
+
+import com.dropslot.drop.api.dto.DropDtos;
+import com.dropslot.drop.capacity.SlotCounter;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayOutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Subscribers of one drop and the availability they were last sent. Deltas carry absolute remaining
+ * counts, so a client that is resynced with a snapshot can apply any later delta as is.
+ */
+final class DropChannel {
+  private record State(long seq, int[] remaining) {}
+
+  private record Cached(long seq, byte[] frame) {}
+
+  /** An SSE comment, which clients ignore. */
+  static final byte[] HEARTBEAT = ":\n\n".getBytes(StandardCharsets.UTF_8);
+
+  private final UUID dropId;
+  private final List<SlotCounter> counters;
+  private final ObjectMapper objectMapper;
+  private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+  private volatile State state;
+  private volatile Cached snapshot;
+
+  DropChannel(UUID dropId, List<SlotCounter> counters, ObjectMapper objectMapper) {
+    this.dropId = dropId;
+    this.counters = counters;
+    this.objectMapper = objectMapper;
+    this.state = new State(0, read());
+  }
+
+  UUID dropId() {
+    return dropId;
+  }
+
+  Set<Subscriber> subscribers() {
+    return subscribers;
+  }
+
+  /** The slots that changed since the last delta as one encoded event, or {@code null}. */
+  byte[] delta() {
+    State last = state;
+    int[] now = read();
+    List<DropDtos.SlotAvailability> changed = new ArrayList<>();
+    for (int i = 0; i < now.length; i++) {
+      if (now[i] != last.remaining()[i]) {
+        changed.add(new DropDtos.SlotAvailability(counters.get(i).slotId().toString(), now[i]));
+      }
+    }
+    if (changed.isEmpty()) return null;
+    State next = new State(last.seq() + 1, now);
+    state = next;
+    return frame("delta", next.seq(), changed);
+  }
+
+  /** Every slot as of the last delta, encoded once per delta however many clients need it. */
+  byte[] snapshot() {
+    State current = state;
+    Cached cached = snapshot;
+    if (cached != null && cached.seq() == current.seq()) return cached.frame();
+    List<DropDtos.SlotAvailability> slots = new ArrayList<>(counters.size());
+    for (int i = 0; i < counters.size(); i++) {
+      slots.add(
+          new DropDtos.SlotAvailability(
+              counters.get(i).slotId().toString(), current.remaining()[i]));
+    }
+    byte[] frame = frame("snapshot", current.seq(), slots);
+    snapshot = new Cached(current.seq(), frame);
+    return frame;
+  }
+
+  private int[] read() {
+    int[] remaining = new int[counters.size()];
+    for (int i = 0; i < remaining.length; i++) remaining[i] = counters.get(i).remaining();
+    return remaining;
+  }
+
+  /** One SSE event, encoded as it goes on the wire. */
+  private byte[] frame(String name, long seq, List<DropDtos.SlotAvailability> slots) {
+    ByteArrayOutputStream frame = new ByteArrayOutputStream(64 + 48 * slots.size());
+    frame.writeBytes(
+        ("id:" + seq + "\nevent:" + name + "\ndata:").getBytes(StandardCharsets.UTF_8));
+    try {
+      frame.writeBytes(
+          objectMapper.writeValueAsBytes(
+              new DropDtos.AvailabilityEvent(dropId.toString(), seq, slots)));
+    } catch (JsonProcessingException e) {
+      throw new UncheckedIOException(e);
+    }
+    frame.writeBytes(new byte[] {'\n', '\n'});
+    return frame.toByteArray();
+  }
+}
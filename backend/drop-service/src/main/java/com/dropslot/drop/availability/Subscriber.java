@@ -0,0 +1,102 @@
+package com.dropslot.drop.availability;
+
+import jakarta.servlet.AsyncContext;
+import java.util.ArrayDeque;
+
+/**
+ * One open stream. Frames wait in a small buffer while a writer is busy with the connection or the
+ * connection cannot take more; a client that lets the buffer fill up loses the buffered deltas and
+ * gets the current snapshot instead, so a slow client costs a bounded amount of memory and catches
+ * up in one frame.
+ *
+ * <p>A drain that finds the connection full is parked, not blocked: it stays the subscriber's one
+ * drain and is resumed once the connection can be written again. How long it has been parked tells
+ * whether the client stopped reading.
+ */
+final class Subscriber {
+  private final AsyncContext context;
+  private final DropChannel channel;
+  private final int capacity;
+  private final ArrayDeque<byte[]> frames;
+  // guarded by this; the first drain waits for the container to report the connection writable
+  private boolean resync = true;
+  private boolean draining = true;
+  private boolean closed;
+  private long parkedSince;
+  // whether the drain wrote since it last flushed; only the drain touches it
+  boolean unflushed;
+
+  Subscriber(AsyncContext context, DropChannel channel, int capacity, long now) {
+    this.context = context;
+    this.channel = channel;
+    this.capacity = capacity;
+    this.frames = new ArrayDeque<>(capacity);
+    this.parkedSince = now;
+  }
+
+  AsyncContext context() {
+    return context;
+  }
+
+  DropChannel channel() {
+    return channel;
+  }
+
+  /**
+   * Queues {@code frame}, or only checks for pending work if it is {@code null}. Returns whether
+   * the caller should start draining: at most one drain runs (or is parked) per subscriber.
+   */
+  synchronized boolean offer(byte[] frame) {
+    if (closed) return false;
+    if (frame != null) {
+      if (frames.size() == capacity) {
+        frames.clear();
+        resync = true;
+      } else if (!resync) {
+        frames.add(frame);
+      }
+    }
+    if (draining || (frames.isEmpty() && !resync)) return false;
+    draining = true;
+    return true;
+  }
+
+  /** The next frame to write, or {@code null} once caught up, which ends the drain. */
+  synchronized byte[] next() {
+    if (closed) {
+      draining = false;
+      return null;
+    }
+    if (resync) {
+      // everything buffered is already reflected in the snapshot
+      resync = false;
+      frames.clear();
+      return channel.snapshot();
+    }
+    byte[] frame = frames.poll();
+    if (frame == null) draining = false;
+    return frame;
+  }
+
+  /** Parks the drain until {@link #resume}; called before asking the connection if it is ready. */
+  synchronized void park(long now) {
+    parkedSince = now;
+  }
+
+  /** Unparks the drain; returns whether it was parked, in which case the caller continues it. */
+  synchronized boolean resume() {
+    if (parkedSince == 0) return false;
+    parkedSince = 0;
+    return true;
+  }
+
+  /** Whether the drain has waited for the connection for longer than {@code timeoutNanos}. */
+  synchronized boolean stalled(long now, long timeoutNanos) {
+    return parkedSince != 0 && now - parkedSince > timeoutNanos;
+  }
+
+  synchronized void close() {
+    closed = true;
+    frames.clear();
+  }
+}
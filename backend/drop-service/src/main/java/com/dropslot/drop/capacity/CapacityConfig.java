@@ -0,0 +1,36 @@
+package com.dropslot.drop.capacity;
+
+import com.dropslot.drop.domain.Slot;
+import com.dropslot.drop.repo.SlotRepository;
+import java.time.Duration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class CapacityConfig {
+
+  @Bean
+  public SlotCounters slotCounters(SlotRepository slotRepository) {
+    return new SlotCounters(id -> slotRepository.findWithDrop(id).map(CapacityConfig::counterOf));
+  }
+
+  @Bean
+  public ClaimJournal claimJournal(
+      ClaimJournal.Writer writer,
+      @Value("${drop.claims.flush-interval:5ms}") Duration flushInterval,
+      @Value("${drop.claims.batch-size:512}") int batchSize,
+      @Value("${drop.claims.max-pending:20000}") int maxPending) {
+    return new ClaimJournal(writer, flushInterval, batchSize, maxPending);
+  }
+
+  private static SlotCounter counterOf(Slot slot) {
+    return new SlotCounter(
+        slot.getId(),
+        slot.getDrop().getId(),
+        slot.getCapacityTotal(),
+        slot.getCapacityReserved(),
+        slot.getDrop().getStartsAt(),
+        slot.getDrop().getEndsAt());
+  }
+}
@@ -0,0 +1,6 @@
+package com.dropslot.drop.capacity;
+
+import java.time.Instant;
+import java.util.UUID;
+
+public record Claim(UUID id, UUID slotId, UUID dropId, UUID userId, Instant claimedAt) {}
@@ -0,0 +1,178 @@
+package com.dropslot.drop.capacity;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Write-behind journal for claims taken from {@link SlotCounter}s. Claims are appended to a
+ * lock-free queue and a single flusher thread writes them in batches, one transaction per batch, so
+ * however many requests hit a slot the database sees one short write for all of them. While a batch
+ * is being written the next one accumulates; an idle journal checks for work every {@code
+ * flushInterval}.
+ *
+ * <p>A claim's future completes only once its batch has committed, so an acknowledged claim always
+ * survives a crash and counters can be rebuilt from the database on start. Claims the database
+ * refuses complete with {@link SoldOutException}; if a write fails their seats go back to the
+ * counters and they complete with {@link ClaimsUnavailableException}.
+ *
+ * <p>A caller may choose the claim id, so that it can repeat or release a claim whose answer it
+ * never got. A repeated id takes no second seat: it completes with the claim already recorded under
+ * it, or with {@link SoldOutException} if that claim has been released.
+ */
+public final class ClaimJournal implements AutoCloseable {
+  private static final Logger log = LoggerFactory.getLogger(ClaimJournal.class);
+
+  /** Persists one batch atomically. */
+  public interface Writer {
+    Written write(List<Claim> batch);
+  }
+
+  /**
+   * What became of a batch: the slots whose claims the database refused, and the claims whose id
+   * was already taken, either by a live claim of the same user and slot ({@code repeated}, mapped
+   * to it) or by a released or foreign one ({@code voided}). Neither kind holds a seat.
+   */
+  public record Written(Set<UUID> refusedSlots, Map<UUID, Claim> repeated, Set<UUID> voided) {
+    public static Written refusing(Set<UUID> refusedSlots) {
+      return new Written(refusedSlots, Map.of(), Set.of());
+    }
+  }
+
+  private record Pending(
+      SlotCounter counter,
+      UUID userId,
+      UUID claimId,
+      Instant claimedAt,
+      CompletableFuture<Claim> result) {}
+
+  private final Writer writer;
+  private final int batchSize;
+  private final int maxPending;
+  private final long idleParkNanos;
+  private final ConcurrentLinkedQueue<Pending> queue = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger pending = new AtomicInteger();
+  private final Thread flusher;
+  private volatile boolean running = true;
+
+  public ClaimJournal(Writer writer, Duration flushInterval, int batchSize, int maxPending) {
+    this.writer = writer;
+    this.batchSize = batchSize;
+    this.maxPending = maxPending;
+    this.idleParkNanos = flushInterval.toNanos();
+    this.flusher = new Thread(this::run, "claim-journal");
+    flusher.setDaemon(true);
+    flusher.start();
+  }
+
+  public CompletableFuture<Claim> claim(SlotCounter counter, UUID userId) {
+    return claim(counter, userId, null);
+  }
+
+  /**
+   * Takes a seat from {@code counter} for {@code userId}, recorded under {@code claimId} or, if
+   * that is null, a fresh id. Never blocks: the seat is decided in memory and the returned future
+   * completes when the claim is durable.
+   */
+  public CompletableFuture<Claim> claim(SlotCounter counter, UUID userId, UUID claimId) {
+    if (!running) {
+      return CompletableFuture.failedFuture(new ClaimsUnavailableException("Shutting down"));
+    }
+    if (pending.incrementAndGet() > maxPending) {
+      pending.decrementAndGet();
+      return CompletableFuture.failedFuture(
+          new ClaimsUnavailableException("Too many claims waiting to be written"));
+    }
+    if (!counter.tryClaim()) {
+      pending.decrementAndGet();
+      return CompletableFuture.failedFuture(new SoldOutException("Slot is sold out"));
+    }
+    CompletableFuture<Claim> result = new CompletableFuture<>();
+    queue.add(new Pending(counter, userId, claimId, Instant.now(), result));
+    return result;
+  }
+
+  public int pending() {
+    return pending.get();
+  }
+
+  private void run() {
+    List<Pending> batch = new ArrayList<>(batchSize);
+    while (running || !queue.isEmpty()) {
+      Pending next;
+      while (batch.size() < batchSize && (next = queue.poll()) != null) {
+        batch.add(next);
+      }
+      if (batch.isEmpty()) {
+        LockSupport.parkNanos(idleParkNanos);
+        continue;
+      }
+      flush(batch);
+      pending.addAndGet(-batch.size());
+      batch.clear();
+    }
+  }
+
+  private void flush(List<Pending> batch) {
+    // ids callers left open are assigned here to keep SecureRandom off the claim path
+    List<Claim> claims = new ArrayList<>(batch.size());
+    for (Pending p : batch) {
+      claims.add(
+          new Claim(
+              p.claimId() != null ? p.claimId() : UUID.randomUUID(),
+              p.counter().slotId(),
+              p.counter().dropId(),
+              p.userId(),
+              p.claimedAt()));
+    }
+    Written written;
+    try {
+      written = writer.write(claims);
+    } catch (RuntimeException e) {
+      log.error("Failed to write {} claims; returning their seats", batch.size(), e);
+      for (Pending p : batch) {
+        p.counter().release();
+        p.result()
+            .completeExceptionally(
+                new ClaimsUnavailableException("Claim could not be recorded", e));
+      }
+      return;
+    }
+    Set<UUID> refused = written.refusedSlots();
+    for (int i = 0; i < batch.size(); i++) {
+      Pending p = batch.get(i);
+      Claim claim = claims.get(i);
+      if (refused.contains(p.counter().slotId())) {
+        // the database disagrees with the counter; keep the seat taken so the counter stays
+        // conservative until it is rebuilt
+        p.result().completeExceptionally(new SoldOutException("Slot is sold out"));
+      } else if (written.repeated().containsKey(claim.id())) {
+        p.counter().release();
+        p.result().complete(written.repeated().get(claim.id()));
+      } else if (written.voided().contains(claim.id())) {
+        p.counter().release();
+        p.result().completeExceptionally(new SoldOutException("Claim was already released"));
+      } else {
+        p.result().complete(claim);
+      }
+    }
+    if (!refused.isEmpty()) log.warn("Database refused claims for slots {}", refused);
+  }
+
+  /** Stops accepting work and waits for claims already taken to be written. */
+  @Override
+  public void close() throws InterruptedException {
+    running = false;
+    flusher.join();
+  }
+}
@@ -0,0 +1,12 @@
+package com.dropslot.drop.capacity;
+
+/** Claims cannot be made durable right now: the journal is full or its last write failed. */
+public class ClaimsUnavailableException extends RuntimeException {
+  public ClaimsUnavailableException(String message) {
+    super(message);
+  }
+
+  public ClaimsUnavailableException(String message, Throwable cause) {
+    super(message, cause);
+  }
+}
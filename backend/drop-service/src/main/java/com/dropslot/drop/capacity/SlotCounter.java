@@ -0,0 +1,64 @@
+package com.dropslot.drop.capacity;
+
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Remaining seats of one slot. A claim is a single atomic decrement: it succeeds only if the value
+ * it replaced was positive, so concurrent claims can never take more than {@code capacity}. A
+ * decrement that finds the slot empty is undone; while that is in flight the counter may read below
+ * zero, which only makes other claims fail, never succeed. Unlike a compare-and-set loop nothing
+ * retries, so a hot slot costs one contended instruction per claim, and once it is sold out claims
+ * are turned away with a plain read.
+ */
+public final class SlotCounter {
+  private final UUID slotId;
+  private final UUID dropId;
+  private final int capacity;
+  private final Instant opensAt;
+  private final Instant closesAt;
+  private final AtomicInteger remaining;
+
+  public SlotCounter(
+      UUID slotId, UUID dropId, int capacity, int reserved, Instant opensAt, Instant closesAt) {
+    this.slotId = slotId;
+    this.dropId = dropId;
+    this.capacity = capacity;
+    this.opensAt = opensAt;
+    this.closesAt = closesAt;
+    this.remaining = new AtomicInteger(capacity - reserved);
+  }
+
+  public boolean tryClaim() {
+    if (remaining.get() <= 0) return false;
+    if (remaining.getAndDecrement() > 0) return true;
+    remaining.getAndIncrement();
+    return false;
+  }
+
+  /** Returns a seat taken by {@link #tryClaim()}. */
+  public void release() {
+    remaining.getAndIncrement();
+  }
+
+  public int remaining() {
+    return Math.max(0, remaining.get());
+  }
+
+  public boolean isOpen(Instant at) {
+    return !at.isBefore(opensAt) && at.isBefore(closesAt);
+  }
+
+  public UUID slotId() {
+    return slotId;
+  }
+
+  public UUID dropId() {
+    return dropId;
+  }
+
+  public int capacity() {
+    return capacity;
+  }
+}
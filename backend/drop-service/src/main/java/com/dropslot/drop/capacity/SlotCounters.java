@@ -0,0 +1,35 @@
+package com.dropslot.drop.capacity;
+
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * The live {@link SlotCounter} of every slot this instance has served. A counter is built from the
+ * slot's row the first time it is needed, which is also how counters come back after a restart: the
+ * journal only acknowledges committed claims, so {@code capacity_reserved} is never behind. Only
+ * one instance may claim seats, since counters are not shared.
+ */
+public class SlotCounters {
+  private final ConcurrentHashMap<UUID, SlotCounter> counters = new ConcurrentHashMap<>();
+  private final Function<UUID, Optional<SlotCounter>> loader;
+
+  public SlotCounters(Function<UUID, Optional<SlotCounter>> loader) {
+    this.loader = loader;
+  }
+
+  public SlotCounter get(UUID slotId) {
+    SlotCounter counter = counters.get(slotId);
+    if (counter != null) return counter;
+    return counters.computeIfAbsent(
+        slotId,
+        id -> loader.apply(id).orElseThrow(() -> new NoSuchElementException("Slot not found")));
+  }
+
+  /** Remaining seats, without loading slots that have not been claimed from yet. */
+  public Optional<Integer> remaining(UUID slotId) {
+    return Optional.ofNullable(counters.get(slotId)).map(SlotCounter::remaining);
+  }
+}
@@ -0,0 +1,7 @@
+package com.dropslot.drop.capacity;
+
+public class SoldOutException extends RuntimeException {
+  public SoldOutException(String message) {
+    super(message);
+  }
+}
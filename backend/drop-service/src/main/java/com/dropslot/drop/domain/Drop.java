@@ -0,0 +1,37 @@
+package com.dropslot.drop.domain;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+import java.util.UUID;
+import lombok.*;
+import org.hibernate.annotations.UuidGenerator;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "drops")
+public class Drop {
+  @Id @GeneratedValue @UuidGenerator private UUID id;
+
+  @Column(nullable = false)
+  private UUID storeId;
+
+  /** A store-service branch; drops live in their own database, so this is not a foreign key. */
+  @Column(nullable = false)
+  private UUID branchId;
+
+  @Column(nullable = false)
+  private String name;
+
+  @Column(nullable = false)
+  private Instant startsAt;
+
+  @Column(nullable = false)
+  private Instant endsAt;
+
+  @Column(nullable = false)
+  private Instant createdAt;
+}
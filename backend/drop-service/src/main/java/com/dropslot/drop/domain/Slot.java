@@ -0,0 +1,35 @@
+package com.dropslot.drop.domain;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+import java.util.UUID;
+import lombok.*;
+import org.hibernate.annotations.UuidGenerator;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "slots")
+public class Slot {
+  @Id @GeneratedValue @UuidGenerator private UUID id;
+
+  @ManyToOne(fetch = FetchType.LAZY)
+  @JoinColumn(name = "drop_id", nullable = false)
+  private Drop drop;
+
+  @Column(nullable = false)
+  private Instant startTime;
+
+  @Column(nullable = false)
+  private Instant endTime;
+
+  @Column(nullable = false)
+  private int capacityTotal;
+
+  /** Written only by the claim journal; see {@code ClaimJournalWriter}. */
+  @Column(nullable = false, updatable = false)
+  private int capacityReserved;
+}
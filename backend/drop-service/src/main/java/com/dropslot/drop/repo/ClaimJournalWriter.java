@@ -0,0 +1,174 @@
+package com.dropslot.drop.repo;
+
+import com.dropslot.drop.capacity.Claim;
+import com.dropslot.drop.capacity.ClaimJournal;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.UUID;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Plain JDBC persistence for claims. A journal batch takes one conditional update per slot, which
+ * refuses to push {@code capacity_reserved} past {@code capacity_total}, and one multi-row insert
+ * of the claims that fit. Claims whose id is already recorded are skipped by the insert and their
+ * seats handed back in the same transaction.
+ *
+ * <p>Releasing a claim that is not recorded leaves a released row under its id, so a claim still in
+ * a journal (or retried later) can never take the seat its caller gave up on.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ClaimJournalWriter implements ClaimJournal.Writer {
+  private static final String RESERVE_SQL =
+      "UPDATE slots SET capacity_reserved = capacity_reserved + ?"
+          + " WHERE id = ? AND capacity_reserved + ? <= capacity_total";
+  private static final String INSERT_SQL =
+      "INSERT INTO slot_claims (id, slot_id, user_id, claimed_at)"
+          + " SELECT * FROM unnest(?::uuid[], ?::uuid[], ?::uuid[], ?::timestamp[])"
+          + " ON CONFLICT (id) DO NOTHING RETURNING id";
+  private static final String RECORDED_SQL =
+      "SELECT id, slot_id, user_id, claimed_at, released_at FROM slot_claims WHERE id = ANY(?)";
+  private static final String GIVE_BACK_SQL =
+      "UPDATE slots SET capacity_reserved = capacity_reserved - ? WHERE id = ?";
+  private static final String RELEASE_SQL =
+      "UPDATE slot_claims SET released_at = now()"
+          + " WHERE id = ? AND slot_id = ? AND user_id = ? AND released_at IS NULL";
+  private static final String UNRESERVE_SQL =
+      "UPDATE slots SET capacity_reserved = capacity_reserved - 1 WHERE id = ?";
+  private static final String EXISTS_SQL =
+      "SELECT count(*) FROM slot_claims WHERE id = ? AND slot_id = ? AND user_id = ?";
+  private static final String RELEASED_MARKER_SQL =
+      "INSERT INTO slot_claims (id, slot_id, user_id, claimed_at, released_at)"
+          + " VALUES (?, ?, ?, now(), now()) ON CONFLICT (id) DO NOTHING";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  @Override
+  @Transactional
+  public ClaimJournal.Written write(List<Claim> batch) {
+    Map<UUID, Integer> perSlot = new LinkedHashMap<>();
+    for (Claim c : batch) perSlot.merge(c.slotId(), 1, Integer::sum);
+    List<Map.Entry<UUID, Integer>> slots = new ArrayList<>(perSlot.entrySet());
+    int[][] updated =
+        jdbcTemplate.batchUpdate(
+            RESERVE_SQL,
+            slots,
+            slots.size(),
+            (ps, e) -> {
+              ps.setInt(1, e.getValue());
+              ps.setObject(2, e.getKey());
+              ps.setInt(3, e.getValue());
+            });
+    Set<UUID> refused = new HashSet<>();
+    for (int i = 0; i < slots.size(); i++) {
+      if (updated[0][i] == 0) refused.add(slots.get(i).getKey());
+    }
+    List<Claim> accepted =
+        refused.isEmpty()
+            ? batch
+            : batch.stream().filter(c -> !refused.contains(c.slotId())).toList();
+    if (accepted.isEmpty()) return ClaimJournal.Written.refusing(refused);
+    Set<UUID> inserted = new HashSet<>(insert(accepted));
+
+    List<Claim> taken = new ArrayList<>();
+    for (Claim c : accepted) {
+      // a second claim with the same id in one batch is taken by the first
+      if (!inserted.remove(c.id())) taken.add(c);
+    }
+    if (taken.isEmpty()) return ClaimJournal.Written.refusing(refused);
+    Map<UUID, Claim> repeated = new HashMap<>();
+    Set<UUID> voided = new HashSet<>();
+    Map<UUID, Claim> recorded = recorded(taken);
+    Map<UUID, Integer> seatsBack = new LinkedHashMap<>();
+    for (Claim c : taken) {
+      Claim r = recorded.get(c.id());
+      if (r != null && r.slotId().equals(c.slotId()) && r.userId().equals(c.userId())) {
+        repeated.put(c.id(), new Claim(r.id(), r.slotId(), c.dropId(), r.userId(), r.claimedAt()));
+      } else {
+        voided.add(c.id());
+      }
+      seatsBack.merge(c.slotId(), 1, Integer::sum);
+    }
+    seatsBack.forEach((slotId, seats) -> jdbcTemplate.update(GIVE_BACK_SQL, seats, slotId));
+    return new ClaimJournal.Written(refused, repeated, voided);
+  }
+
+  /** Inserts the claims whose id is still free and returns those ids. */
+  private List<UUID> insert(List<Claim> claims) {
+    return jdbcTemplate.query(
+        con -> {
+          PreparedStatement ps = con.prepareStatement(INSERT_SQL);
+          ps.setArray(1, con.createArrayOf("uuid", claims.stream().map(Claim::id).toArray()));
+          ps.setArray(2, con.createArrayOf("uuid", claims.stream().map(Claim::slotId).toArray()));
+          ps.setArray(3, con.createArrayOf("uuid", claims.stream().map(Claim::userId).toArray()));
+          ps.setArray(
+              4,
+              con.createArrayOf(
+                  "timestamp", claims.stream().map(c -> Timestamp.from(c.claimedAt())).toArray()));
+          return ps;
+        },
+        (rs, i) -> rs.getObject("id", UUID.class));
+  }
+
+  /** Live claims recorded under the ids of {@code claims}; released ones are left out. */
+  private Map<UUID, Claim> recorded(List<Claim> claims) {
+    Map<UUID, Claim> recorded = new HashMap<>();
+    jdbcTemplate.query(
+        con -> {
+          PreparedStatement ps = con.prepareStatement(RECORDED_SQL);
+          ps.setArray(1, con.createArrayOf("uuid", claims.stream().map(Claim::id).toArray()));
+          return ps;
+        },
+        rs -> {
+          if (rs.getTimestamp("released_at") != null) return;
+          UUID id = rs.getObject("id", UUID.class);
+          recorded.put(
+              id,
+              new Claim(
+                  id,
+                  rs.getObject("slot_id", UUID.class),
+                  null,
+                  rs.getObject("user_id", UUID.class),
+                  rs.getTimestamp("claimed_at").toInstant()));
+        });
+    return recorded;
+  }
+
+  /**
+   * Releases a claim made by {@code userId}. Returns {@code true} if this call freed a seat, {@code
+   * false} if the claim was already released or is not recorded yet (and now never will be); throws
+   * if the id belongs to another user's or slot's claim.
+   */
+  @Transactional
+  public boolean release(UUID claimId, UUID slotId, UUID userId) {
+    if (releaseRecorded(claimId, slotId, userId)) return true;
+    if (isRecorded(claimId, slotId, userId)) return false;
+    if (jdbcTemplate.update(RELEASED_MARKER_SQL, claimId, slotId, userId) == 1) return false;
+    // the claim was recorded while we looked
+    if (releaseRecorded(claimId, slotId, userId)) return true;
+    if (isRecorded(claimId, slotId, userId)) return false;
+    throw new NoSuchElementException("Claim not found");
+  }
+
+  private boolean releaseRecorded(UUID claimId, UUID slotId, UUID userId) {
+    if (jdbcTemplate.update(RELEASE_SQL, claimId, slotId, userId) == 0) return false;
+    jdbcTemplate.update(UNRESERVE_SQL, slotId);
+    return true;
+  }
+
+  private boolean isRecorded(UUID claimId, UUID slotId, UUID userId) {
+    Integer found = jdbcTemplate.queryForObject(EXISTS_SQL, Integer.class, claimId, slotId, userId);
+    return found != null && found > 0;
+  }
+}
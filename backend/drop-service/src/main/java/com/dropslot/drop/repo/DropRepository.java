@@ -0,0 +1,11 @@
+package com.dropslot.drop.repo;
+
+import com.dropslot.drop.domain.Drop;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface DropRepository extends JpaRepository<Drop, UUID> {
+  List<Drop> findByBranchIdAndEndsAtAfterOrderByStartsAt(UUID branchId, Instant after);
+}
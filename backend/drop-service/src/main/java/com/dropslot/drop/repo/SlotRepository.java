@@ -0,0 +1,17 @@
+package com.dropslot.drop.repo;
+
+import com.dropslot.drop.domain.Drop;
+import com.dropslot.drop.domain.Slot;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+public interface SlotRepository extends JpaRepository<Slot, UUID> {
+  List<Slot> findByDropOrderByStartTime(Drop drop);
+
+  @Query("select s from Slot s join fetch s.drop where s.id = :id")
+  Optional<Slot> findWithDrop(@Param("id") UUID id);
+}
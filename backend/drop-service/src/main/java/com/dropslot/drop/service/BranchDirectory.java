@@ -0,0 +1,41 @@
+package com.dropslot.drop.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import java.util.UUID;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+/** Checks branch ids against store-service; drops are only ever created for existing branches. */
+@Component
+public class BranchDirectory {
+  private final RestClient restClient;
+
+  public BranchDirectory(
+      RestClient.Builder builder, @Value("${drop.store-service-url:}") String storeServiceUrl) {
+    this.restClient = storeServiceUrl.isBlank() ? null : builder.baseUrl(storeServiceUrl).build();
+  }
+
+  public void requireBranch(UUID storeId, UUID branchId) {
+    if (restClient == null) return;
+    JsonNode store =
+        restClient
+            .get()
+            .uri("/stores/{id}", storeId)
+            .retrieve()
+            .onStatus(
+                status -> status.isSameCodeAs(HttpStatusCode.valueOf(404)),
+                (req, resp) -> {
+                  throw new IllegalArgumentException("Unknown store " + storeId);
+                })
+            .body(JsonNode.class);
+    if (store != null) {
+      for (JsonNode branch : store.path("branches")) {
+        if (branchId.toString().equals(branch.path("id").asText())) return;
+      }
+    }
+    throw new IllegalArgumentException(
+        "Branch " + branchId + " does not belong to store " + storeId);
+  }
+}
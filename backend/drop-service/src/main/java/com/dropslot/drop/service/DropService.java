@@ -0,0 +1,168 @@
+package com.dropslot.drop.service;
+
+import com.dropslot.drop.api.dto.DropDtos;
+import com.dropslot.drop.capacity.Claim;
+import com.dropslot.drop.capacity.ClaimJournal;
+import com.dropslot.drop.capacity.ClaimsUnavailableException;
+import com.dropslot.drop.capacity.SlotCounter;
+import com.dropslot.drop.capacity.SlotCounters;
+import com.dropslot.drop.domain.Drop;
+import com.dropslot.drop.domain.Slot;
+import com.dropslot.drop.repo.ClaimJournalWriter;
+import com.dropslot.drop.repo.DropRepository;
+import com.dropslot.drop.repo.SlotRepository;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+@Service
+@RequiredArgsConstructor
+public class DropService {
+  private final DropRepository dropRepository;
+  private final SlotRepository slotRepository;
+  private final SlotCounters slotCounters;
+  private final ClaimJournal claimJournal;
+  private final ClaimJournalWriter claimJournalWriter;
+  private final BranchDirectory branchDirectory;
+
+  @Transactional
+  public DropDtos.DropResponse create(DropDtos.CreateDropRequest req) {
+    UUID storeId = UUID.fromString(req.storeId());
+    UUID branchId = UUID.fromString(req.branchId());
+    if (!req.endsAt().isAfter(req.startsAt())) {
+      throw new IllegalArgumentException("endsAt must be after startsAt");
+    }
+    for (DropDtos.CreateSlotRequest s : req.slots()) {
+      if (!s.endTime().isAfter(s.startTime())) {
+        throw new IllegalArgumentException("Slot endTime must be after startTime");
+      }
+    }
+    branchDirectory.requireBranch(storeId, branchId);
+    Drop drop =
+        dropRepository.save(
+            Drop.builder()
+                .storeId(storeId)
+                .branchId(branchId)
+                .name(req.name())
+                .startsAt(req.startsAt())
+                .endsAt(req.endsAt())
+                .createdAt(Instant.now())
+                .build());
+    List<Slot> slots =
+        slotRepository.saveAll(
+            req.slots().stream()
+                .map(
+                    s ->
+                        Slot.builder()
+                            .drop(drop)
+                            .startTime(s.startTime())
+                            .endTime(s.endTime())
+                            .capacityTotal(s.capacity())
+                            .build())
+                .toList());
+    return toResponse(drop, slots);
+  }
+
+  @Transactional(readOnly = true)
+  public DropDtos.DropResponse get(UUID id) {
+    Drop drop = dropRepository.findById(id).orElseThrow();
+    return toResponse(drop, slotRepository.findByDropOrderByStartTime(drop));
+  }
+
+  @Transactional(readOnly = true)
+  public List<DropDtos.DropResponse> upcomingForBranch(UUID branchId) {
+    return dropRepository
+        .findByBranchIdAndEndsAtAfterOrderByStartsAt(branchId, Instant.now())
+        .stream()
+        .map(d -> toResponse(d, slotRepository.findByDropOrderByStartTime(d)))
+        .toList();
+  }
+
+  /** {@code claimId} may be null; callers that choose it can repeat or release the claim. */
+  public CompletableFuture<DropDtos.ClaimResponse> claim(
+      UUID dropId, UUID slotId, UUID userId, UUID claimId) {
+    SlotCounter counter = counterOf(dropId, slotId);
+    if (!counter.isOpen(Instant.now())) {
+      throw new IllegalArgumentException("Drop is not open for claims");
+    }
+    return claimJournal.claim(counter, userId, claimId).thenApply(DropService::toResponse);
+  }
+
+  /**
+   * One seat per user, in list order, for as many users as there are seats; the rest are left out
+   * of the result. The claims usually share one journal batch.
+   */
+  public CompletableFuture<List<DropDtos.ClaimResponse>> claimAll(
+      UUID dropId, UUID slotId, List<UUID> userIds) {
+    SlotCounter counter = counterOf(dropId, slotId);
+    if (!counter.isOpen(Instant.now())) {
+      throw new IllegalArgumentException("Drop is not open for claims");
+    }
+    List<CompletableFuture<Claim>> claims =
+        userIds.stream().map(userId -> claimJournal.claim(counter, userId)).toList();
+    return CompletableFuture.allOf(
+            claims.stream().map(c -> c.exceptionally(e -> null)).toArray(CompletableFuture[]::new))
+        .thenApply(
+            done -> {
+              List<DropDtos.ClaimResponse> won = new ArrayList<>();
+              RuntimeException unavailable = null;
+              for (CompletableFuture<Claim> c : claims) {
+                try {
+                  won.add(toResponse(c.join()));
+                } catch (CompletionException e) {
+                  if (e.getCause() instanceof ClaimsUnavailableException u) unavailable = u;
+                }
+              }
+              if (won.isEmpty() && unavailable != null) throw unavailable;
+              return won;
+            });
+  }
+
+  public void release(UUID dropId, UUID slotId, UUID claimId, UUID userId) {
+    SlotCounter counter = counterOf(dropId, slotId);
+    if (claimJournalWriter.release(claimId, slotId, userId)) {
+      counter.release();
+    }
+  }
+
+  private SlotCounter counterOf(UUID dropId, UUID slotId) {
+    SlotCounter counter = slotCounters.get(slotId);
+    if (!counter.dropId().equals(dropId)) throw new NoSuchElementException("Slot not found");
+    return counter;
+  }
+
+  private DropDtos.DropResponse toResponse(Drop d, List<Slot> slots) {
+    return new DropDtos.DropResponse(
+        d.getId().toString(),
+        d.getStoreId().toString(),
+        d.getBranchId().toString(),
+        d.getName(),
+        d.getStartsAt(),
+        d.getEndsAt(),
+        slots.stream().map(this::toResponse).toList());
+  }
+
+  private DropDtos.SlotResponse toResponse(Slot s) {
+    // the counter is ahead of the row by the claims still in the journal
+    int remaining =
+        slotCounters.remaining(s.getId()).orElse(s.getCapacityTotal() - s.getCapacityReserved());
+    return new DropDtos.SlotResponse(
+        s.getId().toString(), s.getStartTime(), s.getEndTime(), s.getCapacityTotal(), remaining);
+  }
+
+  private static DropDtos.ClaimResponse toResponse(Claim c) {
+    return new DropDtos.ClaimResponse(
+        c.id().toString(),
+        c.dropId().toString(),
+        c.slotId().toString(),
+        c.userId().toString(),
+        c.claimedAt());
+  }
+}
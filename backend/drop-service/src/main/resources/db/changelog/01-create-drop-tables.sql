@@ -0,0 +1,37 @@
+--liquibase formatted sql
+--changeset ckenkub:01
+CREATE TABLE IF NOT EXISTS drops (
+    id UUID PRIMARY KEY,
+    store_id UUID NOT NULL,
+    branch_id UUID NOT NULL,
+    name TEXT NOT NULL,
+    starts_at TIMESTAMP NOT NULL,
+    ends_at TIMESTAMP NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT now(),
+    CHECK (ends_at > starts_at)
+);
+
+CREATE TABLE IF NOT EXISTS slots (
+    id UUID PRIMARY KEY,
+    drop_id UUID NOT NULL REFERENCES drops(id) ON DELETE CASCADE,
+    start_time TIMESTAMP NOT NULL,
+    end_time TIMESTAMP NOT NULL,
+    capacity_total INT NOT NULL CHECK (capacity_total >= 0),
+    -- maintained by the claim journal; the check is the last line against over-booking
+    capacity_reserved INT NOT NULL DEFAULT 0,
+    CHECK (capacity_reserved BETWEEN 0 AND capacity_total)
+);
+
+CREATE TABLE IF NOT EXISTS slot_claims (
+    id UUID PRIMARY KEY,
+    slot_id UUID NOT NULL REFERENCES slots(id) ON DELETE CASCADE,
+    user_id UUID NOT NULL,
+    claimed_at TIMESTAMP NOT NULL,
+    released_at TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_drops_branch_id ON drops(branch_id, starts_at);
+CREATE INDEX IF NOT EXISTS idx_slots_drop_id ON slots(drop_id, start_time);
+CREATE INDEX IF NOT EXISTS idx_slot_claims_slot_id ON slot_claims(slot_id) WHERE released_at IS NULL;
+
+--rollback DROP TABLE IF EXISTS slot_claims; DROP TABLE IF EXISTS slots; DROP TABLE IF EXISTS drops;
@@ -0,0 +1,196 @@
+package com.dropslot.drop.availability;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.dropslot.drop.capacity.SlotCounter;
+import com.dropslot.drop.capacity.SlotCounters;
+import com.dropslot.drop.domain.Drop;
+import com.dropslot.drop.domain.Slot;
+import com.dropslot.drop.repo.DropRepository;
+import com.dropslot.drop.repo.SlotRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import org.apache.catalina.Context;
+import org.apache.catalina.Wrapper;
+import org.apache.catalina.connector.Connector;
+import org.apache.catalina.startup.Tomcat;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+
+/** Streams over a real connector, where a client that never reads fills its socket. */
+class AvailabilityStreamTest {
+  private static final int SLOTS = 1000;
+
+  private final UUID dropId = UUID.randomUUID();
+  private final List<SlotCounter> counters = new ArrayList<>();
+  private final List<Socket> sockets = new ArrayList<>();
+  private AvailabilityStream stream;
+  private Tomcat tomcat;
+  private int port;
+  private volatile boolean claiming = true;
+  private Thread claimer;
+
+  @BeforeEach
+  void setUp(@TempDir Path baseDir) throws Exception {
+    Drop drop = Drop.builder().id(dropId).build();
+    List<Slot> slots = new ArrayList<>();
+    Map<UUID, SlotCounter> byId = new HashMap<>();
+    for (int i = 0; i < SLOTS; i++) {
+      UUID slotId = UUID.randomUUID();
+      SlotCounter counter =
+          new SlotCounter(slotId, dropId, Integer.MAX_VALUE, 0, Instant.EPOCH, Instant.MAX);
+      counters.add(counter);
+      byId.put(slotId, counter);
+      slots.add(Slot.builder().id(slotId).drop(drop).build());
+    }
+    DropRepository drops = Mockito.mock(DropRepository.class);
+    Mockito.when(drops.findById(dropId)).thenReturn(Optional.of(drop));
+    SlotRepository slotRepository = Mockito.mock(SlotRepository.class);
+    Mockito.when(slotRepository.findByDropOrderByStartTime(drop)).thenReturn(slots);
+    stream =
+        new AvailabilityStream(
+            drops,
+            slotRepository,
+            new SlotCounters(id -> Optional.ofNullable(byId.get(id))),
+            new ObjectMapper(),
+            Duration.ofMillis(10),
+            8,
+            Duration.ofSeconds(15),
+            Duration.ofMinutes(5),
+            Duration.ofMillis(500),
+            2);
+
+    tomcat = new Tomcat();
+    tomcat.setBaseDir(baseDir.toString());
+    Connector connector = new Connector();
+    connector.setPort(0);
+    tomcat.setConnector(connector);
+    Context context = tomcat.addContext("", null);
+    Wrapper servlet =
+        Tomcat.addServlet(
+            context,
+            "availability",
+            new HttpServlet() {
+              @Override
+              protected void doGet(HttpServletRequest req, HttpServletResponse resp)
+                  throws IOException {
+                stream.subscribe(dropId, req, resp);
+              }
+            });
+    servlet.setAsyncSupported(true);
+    context.addServletMappingDecoded("/availability", "availability");
+    tomcat.start();
+    port = connector.getLocalPort();
+
+    // every slot moves on every tick, so each delta is as large as a snapshot
+    claimer =
+        new Thread(
+            () -> {
+              while (claiming) {
+                counters.forEach(SlotCounter::tryClaim);
+                try {
+                  Thread.sleep(5);
+                } catch (InterruptedException e) {
+                  return;
+                }
+              }
+            });
+    claimer.start();
+  }
+
+  @AfterEach
+  void tearDown() throws Exception {
+    claiming = false;
+    claimer.join();
+    for (Socket socket : sockets) socket.close();
+    stream.close();
+    tomcat.stop();
+    tomcat.destroy();
+  }
+
+  @Test
+  void clientsThatNeverReadDoNotHoldUpOthers() throws Exception {
+    // more of them than there are writer threads
+    List<Socket> stalled = new ArrayList<>();
+    for (int i = 0; i < 4; i++) stalled.add(connect(1024));
+    Thread.sleep(1500);
+
+    Socket reader = connect(0);
+    reader.setSoTimeout(2000);
+    BufferedReader lines =
+        new BufferedReader(new InputStreamReader(reader.getInputStream(), StandardCharsets.UTF_8));
+    int snapshots = 0;
+    int deltas = 0;
+    long deadline = System.nanoTime() + Duration.ofSeconds(2).toNanos();
+    while (System.nanoTime() < deadline) {
+      String line = lines.readLine();
+      if (line == null) break;
+      if (line.equals("event:snapshot")) snapshots++;
+      if (line.equals("event:delta")) deltas++;
+    }
+    assertThat(snapshots).isGreaterThanOrEqualTo(1);
+    assertThat(deltas).isGreaterThan(20);
+
+    // the stalled streams were ended: what the server had sent finishes with the last chunk
+    for (Socket socket : stalled) assertThat(responseEnds(socket)).isTrue();
+  }
+
+  private Socket connect(int receiveBuffer) throws IOException {
+    Socket socket = new Socket();
+    if (receiveBuffer > 0) socket.setReceiveBufferSize(receiveBuffer);
+    socket.connect(new InetSocketAddress("localhost", port));
+    socket
+        .getOutputStream()
+        .write(
+            "GET /availability HTTP/1.1\r\nHost: localhost\r\n\r\n"
+                .getBytes(StandardCharsets.US_ASCII));
+    sockets.add(socket);
+    return socket;
+  }
+
+  /** Reads what the server sent and tells whether it ended the (chunked) response. */
+  private static boolean responseEnds(Socket socket) throws IOException {
+    socket.setSoTimeout(2000);
+    InputStream in = socket.getInputStream();
+    byte[] buffer = new byte[64 * 1024];
+    String tail = "";
+    try {
+      long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+      int n;
+      while ((n = in.read(buffer)) != -1) {
+        // a stream that was not ended keeps sending
+        if (System.nanoTime() > deadline) return false;
+        tail =
+            tail
+                + new String(buffer, Math.max(0, n - 5), Math.min(n, 5), StandardCharsets.US_ASCII);
+        tail = tail.substring(Math.max(0, tail.length() - 5));
+      }
+      return true;
+    } catch (SocketTimeoutException e) {
+      // the connection is kept alive once the response is over
+      return tail.equals("0\r\n\r\n");
+    }
+  }
+}
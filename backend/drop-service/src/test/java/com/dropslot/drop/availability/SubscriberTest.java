@@ -0,0 +1,78 @@
+package com.dropslot.drop.availability;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.dropslot.drop.capacity.SlotCounter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+class SubscriberTest {
+  private final SlotCounter counter =
+      new SlotCounter(UUID.randomUUID(), UUID.randomUUID(), 10, 0, Instant.EPOCH, Instant.MAX);
+  private final DropChannel channel =
+      new DropChannel(counter.dropId(), List.of(counter), new ObjectMapper());
+
+  private static String text(byte[] frame) {
+    return new String(frame, StandardCharsets.UTF_8);
+  }
+
+  @Test
+  void deltaOnlyWhenSomethingChangedAndEncodedOnce() {
+    assertThat(channel.delta()).isNull();
+    counter.tryClaim();
+    byte[] delta = channel.delta();
+    assertThat(text(delta))
+        .contains("event:delta")
+        .contains("\"seq\":1")
+        .contains("\"remaining\":9");
+    assertThat(channel.delta()).isNull();
+    assertThat(channel.snapshot()).isSameAs(channel.snapshot());
+  }
+
+  @Test
+  void startsWithSnapshotThenFollowsDeltas() {
+    Subscriber subscriber = new Subscriber(null, channel, 4, 1);
+    // nothing is written until the connection is reported writable
+    assertThat(subscriber.offer(null)).isFalse();
+    assertThat(subscriber.resume()).isTrue();
+    assertThat(text(subscriber.next())).contains("event:snapshot");
+    counter.tryClaim();
+    byte[] delta = channel.delta();
+    // a drain is already running, so no second one is started
+    assertThat(subscriber.offer(delta)).isFalse();
+    assertThat(subscriber.next()).isSameAs(delta);
+    assertThat(subscriber.next()).isNull();
+    assertThat(subscriber.offer(null)).isFalse();
+  }
+
+  @Test
+  void slowClientIsResyncedWithOneSnapshotInsteadOfBufferedDeltas() {
+    Subscriber subscriber = new Subscriber(null, channel, 4, 1);
+    subscriber.resume();
+    subscriber.next();
+    for (int i = 0; i < 6; i++) {
+      counter.tryClaim();
+      subscriber.offer(channel.delta());
+    }
+    byte[] resync = subscriber.next();
+    assertThat(text(resync)).contains("event:snapshot").contains("\"seq\":6");
+    assertThat(text(resync)).contains("\"remaining\":4");
+    assertThat(subscriber.next()).isNull();
+  }
+
+  @Test
+  void parkedDrainIsStalledOnlyAfterTheTimeout() {
+    Subscriber subscriber = new Subscriber(null, channel, 4, 1);
+    subscriber.resume();
+    subscriber.next();
+    subscriber.park(100);
+    assertThat(subscriber.stalled(150, 100)).isFalse();
+    assertThat(subscriber.stalled(201, 100)).isTrue();
+    assertThat(subscriber.resume()).isTrue();
+    assertThat(subscriber.stalled(1_000, 100)).isFalse();
+  }
+}
@@ -0,0 +1,93 @@
+package com.dropslot.drop.capacity;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Claims per second against one hot slot, all threads hitting the same counter.
+ *
+ * <ul>
+ *   <li>{@code claim}: the in-memory decision alone.
+ *   <li>{@code claimSoldOut}: claims turned away once the slot is gone.
+ *   <li>{@code claimDurable}: claim through the journal and wait for its batch, with a writer that
+ *       does no I/O, so this is the ceiling the database write is added to.
+ * </ul>
+ *
+ * Not part of the test run. From {@code backend/}:
+ *
+ * <pre>
+ * mvn -pl drop-service -am test-compile dependency:build-classpath \
+ *     -Dmdep.includeScope=test -Dmdep.outputFile=target/bench.cp
+ * cd drop-service && java -cp target/test-classes:target/classes:$(cat target/bench.cp) \
+ *     com.dropslot.drop.capacity.SlotClaimBenchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class SlotClaimBenchmark {
+  private static final UUID USER = UUID.randomUUID();
+
+  private SlotCounter hot;
+  private SlotCounter soldOut;
+  private SlotCounter journaled;
+  private ClaimJournal journal;
+
+  @Setup(Level.Trial)
+  public void startJournal() {
+    journal =
+        new ClaimJournal(
+            batch -> ClaimJournal.Written.refusing(Set.of()),
+            Duration.ofNanos(50_000),
+            512,
+            1 << 20);
+  }
+
+  @Setup(Level.Iteration)
+  public void fillSlots() {
+    hot = counter(Integer.MAX_VALUE);
+    soldOut = counter(0);
+    journaled = counter(Integer.MAX_VALUE);
+  }
+
+  @TearDown(Level.Trial)
+  public void stopJournal() throws InterruptedException {
+    journal.close();
+  }
+
+  @Benchmark
+  public boolean claim() {
+    return hot.tryClaim();
+  }
+
+  @Benchmark
+  public boolean claimSoldOut() {
+    return soldOut.tryClaim();
+  }
+
+  @Benchmark
+  public Claim claimDurable() {
+    return journal.claim(journaled, USER).join();
+  }
+
+  private static SlotCounter counter(int capacity) {
+    return new SlotCounter(
+        UUID.randomUUID(), UUID.randomUUID(), capacity, 0, Instant.EPOCH, Instant.MAX);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(SlotClaimBenchmark.class.getSimpleName()).build())
+        .run();
+  }
+}
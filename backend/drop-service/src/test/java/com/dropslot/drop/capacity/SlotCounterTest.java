@@ -0,0 +1,144 @@
+package com.dropslot.drop.capacity;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class SlotCounterTest {
+  private static SlotCounter counter(int capacity, int reserved) {
+    return new SlotCounter(
+        UUID.randomUUID(),
+        UUID.randomUUID(),
+        capacity,
+        reserved,
+        Instant.EPOCH,
+        Instant.now().plusSeconds(3600));
+  }
+
+  @Test
+  void concurrentClaimsNeverExceedCapacity() throws Exception {
+    SlotCounter counter = counter(1_000, 0);
+    AtomicInteger won = new AtomicInteger();
+    int threads = 16;
+    CountDownLatch start = new CountDownLatch(1);
+    ExecutorService pool = Executors.newFixedThreadPool(threads);
+    for (int t = 0; t < threads; t++) {
+      pool.submit(
+          () -> {
+            start.await();
+            for (int i = 0; i < 10_000; i++) {
+              if (counter.tryClaim()) won.incrementAndGet();
+              // releases while others are failing must not let anyone overshoot
+              if (i % 1_000 == 0 && counter.tryClaim()) counter.release();
+            }
+            return null;
+          });
+    }
+    start.countDown();
+    pool.shutdown();
+    assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS));
+    assertEquals(1_000, won.get());
+    assertEquals(0, counter.remaining());
+    assertFalse(counter.tryClaim());
+  }
+
+  @Test
+  void releaseMakesSeatClaimableAgain() {
+    SlotCounter counter = counter(2, 1);
+    assertTrue(counter.tryClaim());
+    assertFalse(counter.tryClaim());
+    counter.release();
+    assertEquals(1, counter.remaining());
+    assertTrue(counter.tryClaim());
+  }
+
+  @Test
+  void journalCompletesClaimsOnlyAfterTheyAreWritten() throws Exception {
+    List<Claim> written = new CopyOnWriteArrayList<>();
+    CountDownLatch writing = new CountDownLatch(1);
+    ClaimJournal.Writer writer =
+        batch -> {
+          await(writing);
+          written.addAll(batch);
+          return ClaimJournal.Written.refusing(Set.of());
+        };
+    SlotCounter counter = counter(3, 0);
+    try (ClaimJournal journal = new ClaimJournal(writer, Duration.ofMillis(1), 64, 100)) {
+      List<CompletableFuture<Claim>> claims = new ArrayList<>();
+      for (int i = 0; i < 4; i++) claims.add(journal.claim(counter, UUID.randomUUID()));
+
+      ExecutionException soldOut =
+          assertThrows(ExecutionException.class, () -> claims.get(3).get());
+      assertInstanceOf(SoldOutException.class, soldOut.getCause());
+      Thread.sleep(20);
+      assertFalse(claims.get(0).isDone());
+
+      writing.countDown();
+      for (int i = 0; i < 3; i++) {
+        assertEquals(counter.slotId(), claims.get(i).get(5, TimeUnit.SECONDS).slotId());
+      }
+      assertEquals(3, written.size());
+    }
+  }
+
+  @Test
+  void failedWriteReturnsSeats() throws Exception {
+    SlotCounter counter = counter(1, 0);
+    ClaimJournal.Writer writer =
+        batch -> {
+          throw new IllegalStateException("database down");
+        };
+    try (ClaimJournal journal = new ClaimJournal(writer, Duration.ofMillis(1), 64, 100)) {
+      CompletableFuture<Claim> claim = journal.claim(counter, UUID.randomUUID());
+      ExecutionException e = assertThrows(ExecutionException.class, claim::get);
+      assertInstanceOf(ClaimsUnavailableException.class, e.getCause());
+      assertEquals(1, counter.remaining());
+    }
+  }
+
+  @Test
+  void repeatedClaimIdsTakeNoSecondSeat() throws Exception {
+    UUID user = UUID.randomUUID();
+    UUID recordedId = UUID.randomUUID();
+    UUID releasedId = UUID.randomUUID();
+    Claim recorded = new Claim(recordedId, null, null, user, Instant.EPOCH);
+    ClaimJournal.Writer writer =
+        batch ->
+            new ClaimJournal.Written(Set.of(), Map.of(recordedId, recorded), Set.of(releasedId));
+    SlotCounter counter = counter(3, 0);
+    try (ClaimJournal journal = new ClaimJournal(writer, Duration.ofMillis(1), 64, 100)) {
+      assertSame(recorded, journal.claim(counter, user, recordedId).get(5, TimeUnit.SECONDS));
+      ExecutionException e =
+          assertThrows(
+              ExecutionException.class,
+              () -> journal.claim(counter, user, releasedId).get(5, TimeUnit.SECONDS));
+      assertInstanceOf(SoldOutException.class, e.getCause());
+      UUID fresh = UUID.randomUUID();
+      assertEquals(fresh, journal.claim(counter, user, fresh).get(5, TimeUnit.SECONDS).id());
+      assertEquals(2, counter.remaining());
+    }
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,61 @@
+package com.dropslot.eventlog;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Records domain events, such as {@code user.registered}, in the service's {@link EventLog} with
+ * their fields as a JSON object. Inside a transaction the event is appended once it commits, so
+ * consumers never hear of a change that was rolled back. Publishing never fails the caller: an
+ * event that cannot be recorded is logged and dropped.
+ */
+public class DomainEvents {
+  private static final Logger log = LoggerFactory.getLogger(DomainEvents.class);
+
+  private final EventLog eventLog;
+  private final ObjectMapper objectMapper;
+
+  public DomainEvents(EventLog eventLog, ObjectMapper objectMapper) {
+    this.eventLog = eventLog;
+    this.objectMapper = objectMapper;
+  }
+
+  public void publish(String type, Map<String, ?> fields) {
+    byte[] payload;
+    try {
+      payload = objectMapper.writeValueAsBytes(fields);
+    } catch (JsonProcessingException e) {
+      log.error("Could not encode {} event", type, e);
+      return;
+    }
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+              append(type, payload);
+            }
+          });
+    } else {
+      append(type, payload);
+    }
+  }
+
+  private void append(String type, byte[] payload) {
+    try {
+      eventLog
+          .append(type, payload)
+          .whenComplete(
+              (offset, e) -> {
+                if (e != null) log.error("Could not record {} event", type, e);
+              });
+    } catch (RuntimeException e) {
+      log.error("Could not record {} event", type, e);
+    }
+  }
+}
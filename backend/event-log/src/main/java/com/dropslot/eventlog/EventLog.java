@@ -0,0 +1,389 @@
+package com.dropslot.eventlog;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An append-only log of events in local files, for consumers in the same process or on the same
+ * node. The log is a directory of fixed-size segments, each mapped into memory whole, so appending
+ * is a copy into the page cache and reading hands out views of it without copying.
+ *
+ * <p>An offset is a byte position in the log as a whole; a segment is named after the offset it
+ * starts at. Appends are made durable in groups: one thread forces whatever was written since its
+ * last pass, waiting up to {@code flushInterval} first so that more appends share the fsync, and
+ * then completes their futures. Readers only see records that have been forced, so nothing a
+ * consumer acted on can vanish in a crash. On opening, a torn record at the end of the log is
+ * dropped along with everything after it.
+ *
+ * <p>Only one process may have a directory open: {@link #open} takes an exclusive lock on a {@code
+ * .lock} file in it and fails if another holder has it, rather than letting two writers interleave.
+ *
+ * <p>Whole segments are deleted, oldest first, once all their records are older than {@code
+ * retention} or the log outgrows {@code retentionBytes}; consumers that fall behind that skip to
+ * the oldest record left.
+ */
+public final class EventLog implements AutoCloseable {
+  private static final Logger log = LoggerFactory.getLogger(EventLog.class);
+  private static final long RETENTION_CHECK_MILLIS = 60_000;
+  private static final String LOCK_FILE = ".lock";
+
+  public record Settings(
+      Path dir, int segmentBytes, Duration flushInterval, Duration retention, long retentionBytes) {
+    public Settings {
+      if (segmentBytes < 4096) throw new IllegalArgumentException("Segments must be 4 KiB or more");
+    }
+  }
+
+  private record Pending(long end, long offset, CompletableFuture<Long> future) {}
+
+  private final Settings settings;
+  private final Clock clock;
+  private final ConcurrentSkipListMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+  private final Map<String, LogConsumer> consumers = new ConcurrentHashMap<>();
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition dirty = lock.newCondition();
+  private final Condition flushedMore = lock.newCondition();
+  // guarded by lock
+  private final ArrayDeque<Pending> pending = new ArrayDeque<>();
+  private Segment active;
+  private int position;
+  private boolean closed;
+  // where the next record goes, and how much of the log is durable and readable
+  private volatile long written;
+  private volatile long flushed;
+  private final Thread flusher;
+  private FileChannel lockChannel;
+
+  private EventLog(Settings settings, Clock clock) {
+    this.settings = settings;
+    this.clock = clock;
+    this.flusher = new Thread(this::flushLoop, "event-log-flusher");
+    flusher.setDaemon(true);
+  }
+
+  public static EventLog open(Settings settings) throws IOException {
+    return open(settings, Clock.systemUTC());
+  }
+
+  static EventLog open(Settings settings, Clock clock) throws IOException {
+    EventLog eventLog = new EventLog(settings, clock);
+    eventLog.lockDir();
+    try {
+      eventLog.recover();
+    } catch (IOException | RuntimeException e) {
+      eventLog.unlockDir();
+      throw e;
+    }
+    eventLog.flusher.start();
+    return eventLog;
+  }
+
+  private void lockDir() throws IOException {
+    Files.createDirectories(settings.dir());
+    lockChannel =
+        FileChannel.open(
+            settings.dir().resolve(LOCK_FILE), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+    FileLock lock;
+    try {
+      lock = lockChannel.tryLock();
+    } catch (OverlappingFileLockException e) {
+      // held by another EventLog in this process
+      lock = null;
+    }
+    if (lock == null) {
+      lockChannel.close();
+      throw new IllegalStateException("Event log " + settings.dir() + " is open elsewhere");
+    }
+  }
+
+  /** Closing the channel releases the lock. */
+  private void unlockDir() {
+    try {
+      lockChannel.close();
+    } catch (IOException e) {
+      log.warn("Could not release the event log lock in {}", settings.dir(), e);
+    }
+  }
+
+  private void recover() throws IOException {
+    try (Stream<Path> files = Files.list(settings.dir())) {
+      for (Path file : files.filter(f -> f.toString().endsWith(".log")).toList()) {
+        Segment segment = Segment.open(file);
+        segments.put(segment.base(), segment);
+      }
+    }
+    if (segments.isEmpty()) {
+      active = Segment.create(settings.dir(), 0, settings.segmentBytes());
+      segments.put(0L, active);
+    } else {
+      // segments are forced whole before the next one is started, so only the last can be torn
+      active = segments.lastEntry().getValue();
+      int size;
+      while ((size = active.sizeAt(position)) > 0) {
+        if (!active.valid(position, size)) {
+          log.warn("Dropping torn event log tail at offset {}", active.base() + position);
+          active.truncate(position);
+          break;
+        }
+        position += size;
+      }
+      if (size == Segment.SEALED) {
+        active = Segment.create(settings.dir(), active.end(), settings.segmentBytes());
+        segments.put(active.base(), active);
+        position = 0;
+      }
+    }
+    written = active.base() + position;
+    flushed = written;
+  }
+
+  /**
+   * Appends one event and returns its offset once it is on disk. The write itself happens before
+   * this returns, so appends from one thread keep their order.
+   */
+  public CompletableFuture<Long> append(String type, byte[] payload) {
+    byte[] typeBytes = type.getBytes(StandardCharsets.UTF_8);
+    if (typeBytes.length > Short.MAX_VALUE) throw new IllegalArgumentException("Type too long");
+    int size = Segment.recordSize(typeBytes, payload);
+    if (size > settings.segmentBytes()) {
+      throw new IllegalArgumentException("Event of " + size + " bytes does not fit a segment");
+    }
+    CompletableFuture<Long> future = new CompletableFuture<>();
+    lock.lock();
+    try {
+      if (closed) throw new IllegalStateException("Event log is closed");
+      if (!active.fits(position, size)) roll();
+      long offset = active.base() + position;
+      active.write(position, clock.millis(), typeBytes, payload);
+      position += size;
+      written = offset + size;
+      pending.add(new Pending(written, offset, future));
+      dirty.signal();
+    } finally {
+      lock.unlock();
+    }
+    return future;
+  }
+
+  private void roll() {
+    active.seal(position);
+    try {
+      active.force(0, active.capacity());
+      active = Segment.create(settings.dir(), active.end(), settings.segmentBytes());
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    segments.put(active.base(), active);
+    position = 0;
+  }
+
+  /** The oldest offset still in the log. */
+  public long startOffset() {
+    return segments.firstKey();
+  }
+
+  /** The offset after the last durable record, up to which records can be read. */
+  public long endOffset() {
+    return flushed;
+  }
+
+  /**
+   * The first record at or after {@code offset}, or {@code null} if there is none yet. Offsets that
+   * retention has deleted resolve to the oldest record left.
+   */
+  public LogRecord read(long offset) {
+    long at = seek(offset);
+    if (at >= flushed) return null;
+    Map.Entry<Long, Segment> entry = segments.floorEntry(at);
+    // deleted by retention in the meantime
+    if (entry == null) return read(at);
+    Segment segment = entry.getValue();
+    int position = (int) (at - segment.base());
+    return segment.read(position, segment.sizeAt(position));
+  }
+
+  /** Where the first record at or after {@code offset} is or, if there is none yet, will be. */
+  long seek(long offset) {
+    long end = flushed;
+    while (offset < end) {
+      Map.Entry<Long, Segment> entry = segments.floorEntry(offset);
+      if (entry == null) {
+        offset = startOffset();
+        continue;
+      }
+      Segment segment = entry.getValue();
+      if (segment.sizeAt((int) (offset - segment.base())) > 0) return offset;
+      // sealed, or a tail left unwritten by a crash before the segment was rolled
+      offset = segment.end();
+    }
+    return offset;
+  }
+
+  /** Waits until a record after {@code offset} is readable; returns whether one is. */
+  public boolean awaitAfter(long offset, Duration timeout) throws InterruptedException {
+    long nanos = timeout.toNanos();
+    lock.lock();
+    try {
+      while (flushed <= offset && !closed && nanos > 0) nanos = flushedMore.awaitNanos(nanos);
+      return flushed > offset;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * The consumer called {@code name}, which starts at the oldest record the first time and at its
+   * last committed offset after that. There is one instance per name.
+   */
+  public LogConsumer consumer(String name) {
+    if (!name.matches("[A-Za-z0-9._-]+")) {
+      throw new IllegalArgumentException("Invalid consumer name: " + name);
+    }
+    return consumers.computeIfAbsent(
+        name,
+        n -> {
+          try {
+            return new LogConsumer(this, n, settings.dir().resolve("consumers"));
+          } catch (IOException e) {
+            throw new UncheckedIOException(e);
+          }
+        });
+  }
+
+  private void flushLoop() {
+    long lastRetention = clock.millis();
+    while (true) {
+      lock.lock();
+      try {
+        if (closed && written == flushed) return;
+        if (written == flushed && !closed) {
+          dirty.await(RETENTION_CHECK_MILLIS, TimeUnit.MILLISECONDS);
+        }
+      } catch (InterruptedException e) {
+        // close() interrupts a lingering flusher; it still flushes before exiting
+      } finally {
+        lock.unlock();
+      }
+      if (written != flushed) {
+        linger();
+        flush();
+      }
+      if (clock.millis() - lastRetention >= RETENTION_CHECK_MILLIS) {
+        lastRetention = clock.millis();
+        retain();
+      }
+    }
+  }
+
+  private void linger() {
+    long millis = settings.flushInterval().toMillis();
+    if (millis <= 0 || closed) return;
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      // closing; flush right away
+    }
+  }
+
+  private void flush() {
+    long from = flushed;
+    long to;
+    lock.lock();
+    try {
+      to = written;
+    } finally {
+      lock.unlock();
+    }
+    List<Pending> done = new ArrayList<>();
+    try {
+      Long first = segments.floorKey(from);
+      for (Segment s : segments.subMap(first == null ? from : first, true, to, false).values()) {
+        s.force((int) Math.max(0, from - s.base()), (int) Math.min(s.capacity(), to - s.base()));
+      }
+    } catch (RuntimeException e) {
+      log.error("Could not flush the event log up to offset {}", to, e);
+      lock.lock();
+      try {
+        while (!pending.isEmpty() && pending.peek().end() <= to) done.add(pending.poll());
+      } finally {
+        lock.unlock();
+      }
+      done.forEach(p -> p.future().completeExceptionally(e));
+      return;
+    }
+    lock.lock();
+    try {
+      flushed = to;
+      while (!pending.isEmpty() && pending.peek().end() <= to) done.add(pending.poll());
+      flushedMore.signalAll();
+    } finally {
+      lock.unlock();
+    }
+    done.forEach(p -> p.future().complete(p.offset()));
+  }
+
+  /** Deletes the oldest segments while they are past retention; never the one being written. */
+  void retain() {
+    long cutoff = clock.millis() - settings.retention().toMillis();
+    long bytes = segments.values().stream().mapToLong(Segment::capacity).sum();
+    while (segments.size() > 1) {
+      Segment oldest = segments.firstEntry().getValue();
+      Segment next = segments.higherEntry(oldest.base()).getValue();
+      // every record in a segment is older than the first one of the next
+      boolean expired = next.sizeAt(0) > 0 && next.timestampAt(0) < cutoff;
+      if (!expired && bytes <= settings.retentionBytes()) return;
+      segments.remove(oldest.base());
+      bytes -= oldest.capacity();
+      try {
+        Files.deleteIfExists(oldest.path());
+        log.info("Deleted event log segment {}", oldest.path().getFileName());
+      } catch (IOException e) {
+        log.warn("Could not delete event log segment {}", oldest.path(), e);
+      }
+    }
+  }
+
+  /** Stops accepting appends and returns once everything appended is on disk. */
+  @Override
+  public void close() {
+    lock.lock();
+    try {
+      if (closed) return;
+      closed = true;
+      dirty.signal();
+      flushedMore.signalAll();
+    } finally {
+      lock.unlock();
+    }
+    flusher.interrupt();
+    try {
+      flusher.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    consumers.values().forEach(LogConsumer::commit);
+    unlockDir();
+  }
+}
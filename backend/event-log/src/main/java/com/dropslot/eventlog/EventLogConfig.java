@@ -0,0 +1,41 @@
+package com.dropslot.eventlog;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Services {@code @Import} this to get a {@link DomainEvents} writing to a log under {@code
+ * event-log.dir}, which should be on a persistent volume.
+ */
+@Configuration(proxyBeanMethods = false)
+public class EventLogConfig {
+
+  @Bean
+  public EventLog eventLog(
+      @Value("${event-log.dir:${java.io.tmpdir}/dropslot/${spring.application.name}/events}")
+          Path dir,
+      @Value("${event-log.segment-size:64MB}") DataSize segmentSize,
+      @Value("${event-log.flush-interval:5ms}") Duration flushInterval,
+      @Value("${event-log.retention:7d}") Duration retention,
+      @Value("${event-log.retention-size:1GB}") DataSize retentionSize)
+      throws IOException {
+    return EventLog.open(
+        new EventLog.Settings(
+            dir,
+            Math.toIntExact(segmentSize.toBytes()),
+            flushInterval,
+            retention,
+            retentionSize.toBytes()));
+  }
+
+  @Bean
+  public DomainEvents domainEvents(EventLog eventLog, ObjectMapper objectMapper) {
+    return new DomainEvents(eventLog, objectMapper);
+  }
+}
@@ -0,0 +1,84 @@
+package com.dropslot.eventlog;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.function.Consumer;
+
+/**
+ * A named reader of an {@link EventLog} that remembers how far it got. Its offset lives in a small
+ * mapped file next to the segments and is only written on {@link #commit}, so after a restart the
+ * records since the last commit are delivered again.
+ */
+public final class LogConsumer {
+  private final EventLog eventLog;
+  private final String name;
+  private final MappedByteBuffer committed;
+  // guarded by this
+  private long position;
+
+  LogConsumer(EventLog eventLog, String name, Path dir) throws IOException {
+    this.eventLog = eventLog;
+    this.name = name;
+    Files.createDirectories(dir);
+    try (FileChannel channel =
+        FileChannel.open(
+            dir.resolve(name + ".offset"),
+            StandardOpenOption.CREATE,
+            StandardOpenOption.READ,
+            StandardOpenOption.WRITE)) {
+      this.committed = channel.map(FileChannel.MapMode.READ_WRITE, 0, Long.BYTES);
+    }
+    this.position = Math.max(committed.getLong(0), eventLog.startOffset());
+  }
+
+  public String name() {
+    return name;
+  }
+
+  public synchronized long position() {
+    return position;
+  }
+
+  /** Bytes of durable records this consumer has not read yet. */
+  public synchronized long lag() {
+    return Math.max(0, eventLog.endOffset() - position);
+  }
+
+  /**
+   * Hands up to {@code max} records to {@code handler} and returns how many it took. A record the
+   * handler throws on is not passed, so the next poll starts with it again.
+   */
+  public synchronized int poll(int max, Consumer<LogRecord> handler) {
+    int polled = 0;
+    LogRecord record;
+    while (polled < max && (record = eventLog.read(position)) != null) {
+      handler.accept(record);
+      position = record.nextOffset();
+      polled++;
+    }
+    // past the end of a sealed segment, so that awaiting means waiting for a new record
+    position = eventLog.seek(position);
+    return polled;
+  }
+
+  /** Waits until there is something to poll; returns whether there is. */
+  public boolean await(Duration timeout) throws InterruptedException {
+    return eventLog.awaitAfter(position(), timeout);
+  }
+
+  /** Goes back to the last committed offset, so that records polled since are polled again. */
+  public synchronized void rewind() {
+    position = eventLog.seek(Math.max(committed.getLong(0), eventLog.startOffset()));
+  }
+
+  public synchronized void commit() {
+    if (committed.getLong(0) == position) return;
+    committed.putLong(0, position);
+    committed.force();
+  }
+}
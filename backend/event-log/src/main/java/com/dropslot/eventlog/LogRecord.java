@@ -0,0 +1,10 @@
+package com.dropslot.eventlog;
+
+import java.nio.ByteBuffer;
+
+/**
+ * One entry of an {@link EventLog}. The payload is a read-only view of the mapped segment rather
+ * than a copy, so it is only meant to be read while the record is being handled.
+ */
+public record LogRecord(
+    long offset, long nextOffset, long timestamp, String type, ByteBuffer payload) {}
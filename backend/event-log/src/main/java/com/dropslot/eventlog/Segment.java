@@ -0,0 +1,160 @@
+package com.dropslot.eventlog;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/**
+ * One file of the log, preallocated and mapped whole. Records are laid out back to back:
+ *
+ * <pre>
+ * int   size       whole record, header included
+ * int   crc32c     of everything after this field
+ * long  timestamp  epoch millis
+ * short type length, then the UTF-8 type
+ * ...   payload
+ * </pre>
+ *
+ * A size of 0 is space not written yet; {@link #SEALED} means the rest of the file is unused and
+ * the log continues in the next segment, whose base offset is this one's plus its capacity.
+ */
+final class Segment {
+  static final int HEADER = 18;
+  static final int SEALED = -1;
+
+  private final Path path;
+  private final long base;
+  private final MappedByteBuffer buffer;
+
+  private Segment(Path path, long base, MappedByteBuffer buffer) {
+    this.path = path;
+    this.base = base;
+    this.buffer = buffer;
+  }
+
+  static Segment create(Path dir, long base, int capacity) throws IOException {
+    return map(dir.resolve(fileName(base)), base, capacity, true);
+  }
+
+  static Segment open(Path path) throws IOException {
+    String name = path.getFileName().toString();
+    long base = Long.parseLong(name.substring(0, name.length() - ".log".length()));
+    return map(path, base, (int) Files.size(path), false);
+  }
+
+  static String fileName(long base) {
+    return String.format("%020d.log", base);
+  }
+
+  private static Segment map(Path path, long base, int capacity, boolean create)
+      throws IOException {
+    var options =
+        create
+            ? new StandardOpenOption[] {
+              StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE
+            }
+            : new StandardOpenOption[] {StandardOpenOption.READ, StandardOpenOption.WRITE};
+    // the mapping stays valid after the channel is closed, and after the file is deleted
+    try (FileChannel channel = FileChannel.open(path, options)) {
+      return new Segment(path, base, channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity));
+    }
+  }
+
+  long base() {
+    return base;
+  }
+
+  int capacity() {
+    return buffer.capacity();
+  }
+
+  /** The base offset of the segment that follows this one. */
+  long end() {
+    return base + buffer.capacity();
+  }
+
+  Path path() {
+    return path;
+  }
+
+  static int recordSize(byte[] type, byte[] payload) {
+    return HEADER + type.length + payload.length;
+  }
+
+  boolean fits(int position, int size) {
+    return position + size <= buffer.capacity();
+  }
+
+  /** Writes a record at {@code position}, which the caller has checked it {@link #fits}. */
+  void write(int position, long timestamp, byte[] type, byte[] payload) {
+    int size = recordSize(type, payload);
+    buffer.putLong(position + 8, timestamp);
+    buffer.putShort(position + 16, (short) type.length);
+    buffer.put(position + HEADER, type);
+    buffer.put(position + HEADER + type.length, payload);
+    buffer.putInt(position + 4, checksum(position, size));
+    buffer.putInt(position, size);
+  }
+
+  /** Marks the rest of the segment unused, if there is room for the marker at all. */
+  void seal(int position) {
+    if (position + Integer.BYTES <= buffer.capacity()) buffer.putInt(position, SEALED);
+  }
+
+  /** The size of the record at {@code position}, 0 if none was written, or {@link #SEALED}. */
+  int sizeAt(int position) {
+    if (position + Integer.BYTES > buffer.capacity()) return SEALED;
+    return buffer.getInt(position);
+  }
+
+  /** Whether the record at {@code position} is whole: a crash can leave one half flushed. */
+  boolean valid(int position, int size) {
+    return size >= HEADER
+        && fits(position, size)
+        && buffer.getShort(position + 16) <= size - HEADER
+        && buffer.getInt(position + 4) == checksum(position, size);
+  }
+
+  long timestampAt(int position) {
+    return buffer.getLong(position + 8);
+  }
+
+  /** The record at {@code position}, its payload a read-only view of the mapped file. */
+  LogRecord read(int position, int size) {
+    int typeLength = buffer.getShort(position + 16);
+    byte[] type = new byte[typeLength];
+    buffer.get(position + HEADER, type);
+    int payloadAt = position + HEADER + typeLength;
+    return new LogRecord(
+        base + position,
+        base + position + size,
+        buffer.getLong(position + 8),
+        new String(type, StandardCharsets.UTF_8),
+        buffer.slice(payloadAt, position + size - payloadAt).asReadOnlyBuffer());
+  }
+
+  /** Zeroes everything from {@code position} on, dropping a torn tail left by a crash. */
+  void truncate(int position) {
+    ByteBuffer zeros = ByteBuffer.allocate(Math.min(64 * 1024, buffer.capacity()));
+    for (int at = position; at < buffer.capacity(); at += zeros.capacity()) {
+      buffer.put(at, zeros, 0, Math.min(zeros.capacity(), buffer.capacity() - at));
+    }
+    buffer.force();
+  }
+
+  void force(int from, int to) {
+    if (to > from) buffer.force(from, to - from);
+  }
+
+  private int checksum(int position, int size) {
+    CRC32C crc = new CRC32C();
+    crc.update(buffer.slice(position + 8, size - 8));
+    return (int) crc.getValue();
+  }
+}
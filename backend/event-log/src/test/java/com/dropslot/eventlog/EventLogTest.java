@@ -0,0 +1,130 @@
+package com.dropslot.eventlog;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class EventLogTest {
+  @TempDir Path dir;
+
+  private EventLog open(long retentionBytes) throws IOException {
+    return EventLog.open(
+        new EventLog.Settings(dir, 4096, Duration.ofMillis(1), Duration.ofDays(7), retentionBytes));
+  }
+
+  private static byte[] bytes(String s) {
+    return s.getBytes(StandardCharsets.UTF_8);
+  }
+
+  private static String text(ByteBuffer payload) {
+    byte[] b = new byte[payload.remaining()];
+    payload.get(b);
+    return new String(b, StandardCharsets.UTF_8);
+  }
+
+  private static List<String> drain(LogConsumer consumer) {
+    List<String> seen = new ArrayList<>();
+    consumer.poll(Integer.MAX_VALUE, r -> seen.add(r.type() + ":" + text(r.payload())));
+    return seen;
+  }
+
+  private static long segmentFiles(Path dir) throws IOException {
+    try (Stream<Path> files = Files.list(dir)) {
+      return files.filter(f -> f.toString().endsWith(".log")).count();
+    }
+  }
+
+  @Test
+  void recordsAreReadInOrderAcrossSegmentsOnceDurable() throws Exception {
+    try (EventLog log = open(Long.MAX_VALUE)) {
+      List<CompletableFuture<Long>> appended = new ArrayList<>();
+      for (int i = 0; i < 100; i++) {
+        appended.add(
+            log.append("e", bytes("{\"n\":" + i + ",\"pad\":\"" + "x".repeat(80) + "\"}")));
+      }
+      CompletableFuture.allOf(appended.toArray(CompletableFuture[]::new)).join();
+      assertThat(segmentFiles(dir)).isGreaterThan(2);
+
+      List<String> seen = drain(log.consumer("reader"));
+      assertThat(seen).hasSize(100);
+      assertThat(seen.get(0)).startsWith("e:{\"n\":0,");
+      assertThat(seen.get(99)).startsWith("e:{\"n\":99,");
+      assertThat(log.read(appended.get(42).join()))
+          .extracting(LogRecord::offset)
+          .isEqualTo(appended.get(42).join());
+      assertThat(log.consumer("reader").lag()).isZero();
+    }
+  }
+
+  @Test
+  void reopeningDropsATornTailAndConsumersResumeFromTheirCommit() throws Exception {
+    long third;
+    try (EventLog log = open(Long.MAX_VALUE)) {
+      log.append("a", bytes("1"));
+      log.append("b", bytes("2"));
+      third = log.append("c", bytes("3")).join();
+      LogConsumer consumer = log.consumer("reader");
+      assertThat(consumer.poll(1, r -> {})).isEqualTo(1);
+      consumer.commit();
+    }
+    // as if the last record's payload had not reached the disk
+    try (FileChannel file =
+        FileChannel.open(dir.resolve(Segment.fileName(0)), StandardOpenOption.WRITE)) {
+      file.write(ByteBuffer.wrap(bytes("X")), third + Segment.HEADER + 1);
+    }
+
+    try (EventLog log = open(Long.MAX_VALUE)) {
+      assertThat(log.endOffset()).isEqualTo(third);
+      assertThat(drain(log.consumer("reader"))).containsExactly("b:2");
+      log.append("d", bytes("4")).join();
+      assertThat(drain(log.consumer("reader"))).containsExactly("d:4");
+    }
+  }
+
+  @Test
+  void retentionDeletesOldSegmentsAndLaggingConsumersSkipAhead() throws Exception {
+    try (EventLog log = open(3 * 4096)) {
+      LogConsumer consumer = log.consumer("slow");
+      CompletableFuture<Long> last = null;
+      for (int i = 0; i < 200; i++) last = log.append("e", bytes("x".repeat(100)));
+      last.join();
+      long before = segmentFiles(dir);
+
+      log.retain();
+
+      assertThat(segmentFiles(dir)).isEqualTo(3).isLessThan(before);
+      assertThat(log.startOffset()).isGreaterThan(0);
+      List<LogRecord> read = new ArrayList<>();
+      consumer.poll(Integer.MAX_VALUE, read::add);
+      assertThat(read.get(0).offset()).isEqualTo(log.startOffset());
+      assertThat(read.get(read.size() - 1).offset()).isEqualTo(last.join());
+    }
+  }
+
+  @Test
+  void aDirectoryIsOpenedByOneLogAtATime() throws Exception {
+    try (EventLog log = open(Long.MAX_VALUE)) {
+      log.append("a", bytes("1")).get();
+      assertThatThrownBy(() -> open(Long.MAX_VALUE))
+          .isInstanceOf(IllegalStateException.class)
+          .hasMessageContaining("open elsewhere");
+    }
+    try (EventLog log = open(Long.MAX_VALUE)) {
+      assertThat(drain(log.consumer("late"))).containsExactly("a:1");
+    }
+  }
+}
@@ -0,0 +1,13 @@
+package com.dropslot.reservation;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@SpringBootApplication
+@EnableScheduling
+public class ReservationServiceApplication {
+  public static void main(String[] args) {
+    SpringApplication.run(ReservationServiceApplication.class, args);
+  }
+}
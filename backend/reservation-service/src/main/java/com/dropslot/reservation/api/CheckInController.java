@@ -0,0 +1,36 @@
+package com.dropslot.reservation.api;
+
+import com.dropslot.reservation.api.dto.CheckInDtos;
+import com.dropslot.reservation.checkin.CheckInService;
+import com.dropslot.reservation.security.AuthenticatedUser;
+import jakarta.validation.Valid;
+import java.util.UUID;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/reservations")
+@RequiredArgsConstructor
+public class CheckInController {
+  private final CheckInService checkInService;
+
+  @GetMapping("/{id}/check-in-token")
+  public ResponseEntity<CheckInDtos.CheckInTokenResponse> token(
+      @PathVariable("id") UUID id,
+      @RequestAttribute(AuthenticatedUser.ATTRIBUTE) AuthenticatedUser user) {
+    return ResponseEntity.ok(checkInService.issue(id, user));
+  }
+
+  @GetMapping("/check-in-keys")
+  public ResponseEntity<CheckInDtos.VerificationKeysResponse> keys() {
+    return ResponseEntity.ok(checkInService.keys());
+  }
+
+  @PostMapping("/check-ins")
+  public ResponseEntity<CheckInDtos.UploadScansResponse> upload(
+      @Valid @RequestBody CheckInDtos.UploadScansRequest req,
+      @RequestAttribute(AuthenticatedUser.ATTRIBUTE) AuthenticatedUser user) {
+    return ResponseEntity.ok(checkInService.upload(req, user));
+  }
+}
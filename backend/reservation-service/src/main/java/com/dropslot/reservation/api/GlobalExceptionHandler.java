@@ -0,0 +1,65 @@
+package com.dropslot.reservation.api;
+
+import com.dropslot.reservation.api.dto.ProblemDto;
+import com.dropslot.reservation.drop.DropServiceUnavailableException;
+import com.dropslot.reservation.service.ForbiddenException;
+import com.dropslot.reservation.service.ReservationConflictException;
+import jakarta.servlet.http.HttpServletRequest;
+import java.time.Instant;
+import java.util.NoSuchElementException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+@RestControllerAdvice
+public class GlobalExceptionHandler {
+
+  private static final Logger log = LoggerFactory.getLogger(GlobalExceptionHandler.class);
+
+  @ExceptionHandler(IllegalArgumentException.class)
+  public ResponseEntity<ProblemDto> handleBadRequest(
+      IllegalArgumentException ex, HttpServletRequest req) {
+    log.info("Bad request: {}", ex.getMessage());
+    return problem(HttpStatus.BAD_REQUEST, "Bad Request", ex.getMessage(), req);
+  }
+
+  @ExceptionHandler(NoSuchElementException.class)
+  public ResponseEntity<ProblemDto> handleNotFound(
+      NoSuchElementException ex, HttpServletRequest req) {
+    return problem(HttpStatus.NOT_FOUND, "Not Found", ex.getMessage(), req);
+  }
+
+  @ExceptionHandler(ForbiddenException.class)
+  public ResponseEntity<ProblemDto> handleForbidden(ForbiddenException ex, HttpServletRequest req) {
+    return problem(HttpStatus.FORBIDDEN, "Forbidden", ex.getMessage(), req);
+  }
+
+  @ExceptionHandler(ReservationConflictException.class)
+  public ResponseEntity<ProblemDto> handleConflict(
+      ReservationConflictException ex, HttpServletRequest req) {
+    return problem(HttpStatus.CONFLICT, "Conflict", ex.getMessage(), req);
+  }
+
+  @ExceptionHandler(DropServiceUnavailableException.class)
+  public ResponseEntity<ProblemDto> handleUnavailable(
+      DropServiceUnavailableException ex, HttpServletRequest req) {
+    log.info("Service unavailable: {}", ex.getMessage());
+    ResponseEntity<ProblemDto> resp =
+        problem(HttpStatus.SERVICE_UNAVAILABLE, "Service Unavailable", ex.getMessage(), req);
+    return ResponseEntity.status(resp.getStatusCode())
+        .header(HttpHeaders.RETRY_AFTER, "1")
+        .body(resp.getBody());
+  }
+
+  private static ResponseEntity<ProblemDto> problem(
+      HttpStatus status, String title, String detail, HttpServletRequest req) {
+    ProblemDto p =
+        new ProblemDto(
+            "about:blank", title, detail, req.getRequestURI(), status.value(), Instant.now());
+    return ResponseEntity.status(status).body(p);
+  }
+}
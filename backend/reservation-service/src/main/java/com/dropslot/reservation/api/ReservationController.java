@@ -0,0 +1,61 @@
+package com.dropslot.reservation.api;
+
+import com.dropslot.reservation.api.dto.ReservationDtos;
+import com.dropslot.reservation.security.AuthenticatedUser;
+import com.dropslot.reservation.service.ReservationService;
+import jakarta.validation.Valid;
+import java.util.List;
+import java.util.UUID;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/reservations")
+@RequiredArgsConstructor
+public class ReservationController {
+  private final ReservationService reservationService;
+
+  @PostMapping
+  public ResponseEntity<ReservationDtos.ReservationResponse> create(
+      @Valid @RequestBody ReservationDtos.CreateReservationRequest req,
+      @RequestAttribute(AuthenticatedUser.ATTRIBUTE) AuthenticatedUser user) {
+    return ResponseEntity.status(HttpStatus.CREATED)
+        .body(reservationService.create(user.id(), req));
+  }
+
+  @GetMapping
+  public ResponseEntity<List<ReservationDtos.ReservationResponse>> mine(
+      @RequestAttribute(AuthenticatedUser.ATTRIBUTE) AuthenticatedUser user) {
+    return ResponseEntity.ok(reservationService.mine(user.id()));
+  }
+
+  @GetMapping("/{id}")
+  public ResponseEntity<ReservationDtos.ReservationResponse> get(
+      @PathVariable("id") UUID id,
+      @RequestAttribute(AuthenticatedUser.ATTRIBUTE) AuthenticatedUser user) {
+    return ResponseEntity.ok(reservationService.get(id, user));
+  }
+
+  @PostMapping("/{id}/confirm")
+  public ResponseEntity<ReservationDtos.ReservationResponse> confirm(
+      @PathVariable("id") UUID id,
+      @RequestAttribute(AuthenticatedUser.ATTRIBUTE) AuthenticatedUser user) {
+    return ResponseEntity.ok(reservationService.confirm(id, user));
+  }
+
+  @PostMapping("/{id}/cancel")
+  public ResponseEntity<ReservationDtos.ReservationResponse> cancel(
+      @PathVariable("id") UUID id,
+      @RequestAttribute(AuthenticatedUser.ATTRIBUTE) AuthenticatedUser user) {
+    return ResponseEntity.ok(reservationService.cancel(id, user));
+  }
+
+  @PostMapping("/{id}/check-in")
+  public ResponseEntity<ReservationDtos.ReservationResponse> checkIn(
+      @PathVariable("id") UUID id,
+      @RequestAttribute(AuthenticatedUser.ATTRIBUTE) AuthenticatedUser user) {
+    return ResponseEntity.ok(reservationService.checkIn(id, user));
+  }
+}
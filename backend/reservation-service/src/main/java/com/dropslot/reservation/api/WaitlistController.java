@@ -0,0 +1,40 @@
+package com.dropslot.reservation.api;
+
+import com.dropslot.reservation.api.dto.WaitlistDtos;
+import com.dropslot.reservation.security.AuthenticatedUser;
+import com.dropslot.reservation.waitlist.WaitlistService;
+import jakarta.validation.Valid;
+import java.util.UUID;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/waitlist")
+@RequiredArgsConstructor
+public class WaitlistController {
+  private final WaitlistService waitlistService;
+
+  @PostMapping
+  public ResponseEntity<WaitlistDtos.WaitlistEntryResponse> join(
+      @Valid @RequestBody WaitlistDtos.JoinWaitlistRequest req,
+      @RequestAttribute(AuthenticatedUser.ATTRIBUTE) AuthenticatedUser user) {
+    return ResponseEntity.status(HttpStatus.CREATED).body(waitlistService.join(user.id(), req));
+  }
+
+  @GetMapping("/{id}")
+  public ResponseEntity<WaitlistDtos.WaitlistEntryResponse> get(
+      @PathVariable("id") UUID id,
+      @RequestAttribute(AuthenticatedUser.ATTRIBUTE) AuthenticatedUser user) {
+    return ResponseEntity.ok(waitlistService.get(id, user));
+  }
+
+  @DeleteMapping("/{id}")
+  public ResponseEntity<Void> leave(
+      @PathVariable("id") UUID id,
+      @RequestAttribute(AuthenticatedUser.ATTRIBUTE) AuthenticatedUser user) {
+    waitlistService.leave(id, user);
+    return ResponseEntity.noContent().build();
+  }
+}
@@ -0,0 +1,29 @@
+package com.dropslot.reservation.api.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import java.time.Instant;
+import java.util.List;
+
+public class CheckInDtos {
+  /** {@code token} is what the QR code encodes. */
+  public static record CheckInTokenResponse(String token, Instant expiresAt) {}
+
+  /** {@code keyId} is the hex of bytes 1-4 of a token; {@code publicKey} is base64 X.509. */
+  public static record VerificationKey(String keyId, String algorithm, String publicKey) {}
+
+  public static record VerificationKeysResponse(List<VerificationKey> keys) {}
+
+  public static record Scan(@NotBlank String token, @NotNull Instant scannedAt) {}
+
+  public static record UploadScansRequest(
+      @NotBlank String deviceId, @NotEmpty @Size(max = 1000) List<@Valid Scan> scans) {}
+
+  /** One per uploaded scan, by {@code index}; {@code reservationId} is unset for bad tokens. */
+  public static record ScanResult(int index, String reservationId, String outcome) {}
+
+  public static record UploadScansResponse(int checkedIn, List<ScanResult> results) {}
+}
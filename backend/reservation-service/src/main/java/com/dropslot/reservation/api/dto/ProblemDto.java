@@ -0,0 +1,14 @@
+package com.dropslot.reservation.api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.time.Instant;
+
+@Schema(description = "Problem JSON (RFC 7807) response")
+public record ProblemDto(
+    @Schema(example = "about:blank") String type,
+    @Schema(example = "Conflict") String title,
+    @Schema(example = "You already have a reservation for this drop") String detail,
+    @Schema(example = "/reservations") String instance,
+    @Schema(example = "409") Integer status,
+    @Schema(description = "Timestamp when the problem occurred", example = "2025-09-02T10:00:00Z")
+        Instant timestamp) {}
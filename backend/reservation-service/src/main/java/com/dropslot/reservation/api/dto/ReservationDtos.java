@@ -0,0 +1,19 @@
+package com.dropslot.reservation.api.dto;
+
+import jakarta.validation.constraints.NotNull;
+import java.time.Instant;
+
+public class ReservationDtos {
+  public static record CreateReservationRequest(@NotNull String dropId, @NotNull String slotId) {}
+
+  public static record ReservationResponse(
+      String id,
+      String dropId,
+      String slotId,
+      String state,
+      Instant createdAt,
+      Instant expiresAt,
+      Instant confirmedAt,
+      Instant cancelledAt,
+      Instant checkedInAt) {}
+}
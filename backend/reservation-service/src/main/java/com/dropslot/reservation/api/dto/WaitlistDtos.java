@@ -0,0 +1,13 @@
+package com.dropslot.reservation.api.dto;
+
+import jakarta.validation.constraints.NotNull;
+
+public class WaitlistDtos {
+  public static record JoinWaitlistRequest(@NotNull String dropId, @NotNull String slotId) {}
+
+  /**
+   * {@code position} is set while waiting and counts from 1; {@code reservationId} once promoted.
+   */
+  public static record WaitlistEntryResponse(
+      String id, String dropId, String slotId, String state, Long position, String reservationId) {}
+}
@@ -0,0 +1,11 @@
+package com.dropslot.reservation.checkin;
+
+public enum CheckInOutcome {
+  CHECKED_IN,
+  ALREADY_CHECKED_IN,
+  /** Pending, cancelled or expired. */
+  NOT_CONFIRMED,
+  NOT_FOUND,
+  /** Bad signature, unknown key, malformed, or expired when scanned. */
+  INVALID
+}
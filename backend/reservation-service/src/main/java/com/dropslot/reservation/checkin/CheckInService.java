@@ -0,0 +1,147 @@
+package com.dropslot.reservation.checkin;
+
+import com.dropslot.reservation.api.dto.CheckInDtos;
+import com.dropslot.reservation.domain.Reservation;
+import com.dropslot.reservation.domain.ReservationState;
+import com.dropslot.reservation.repo.ReservationRepository;
+import com.dropslot.reservation.repo.ReservationWriter;
+import com.dropslot.reservation.security.AuthenticatedUser;
+import com.dropslot.reservation.service.ActiveReservationGuard;
+import com.dropslot.reservation.service.ForbiddenException;
+import com.dropslot.reservation.service.ReservationConflictException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Door check-in. Guests show a signed QR code that branch devices verify offline against the
+ * published keys, so a scan never waits on the network. Devices upload their scans in batches
+ * whenever they are online; a batch is verified again here, collapsed to one scan per reservation
+ * and applied in one statement. Reservations checked in recently are remembered, so the same guest
+ * uploaded by several devices, or a retried upload, costs no database work.
+ */
+@Service
+public class CheckInService {
+  private static final Logger log = LoggerFactory.getLogger(CheckInService.class);
+
+  private final ReservationRepository reservationRepository;
+  private final ReservationWriter reservationWriter;
+  private final ActiveReservationGuard guard;
+  private final CheckInTokens tokens;
+  private final Duration tokenTtl;
+  private final Duration maxClockSkew;
+  private final Map<UUID, Boolean> recent;
+
+  public CheckInService(
+      ReservationRepository reservationRepository,
+      ReservationWriter reservationWriter,
+      ActiveReservationGuard guard,
+      CheckInTokens tokens,
+      @Value("${reservation.check-in.token-ttl:24h}") Duration tokenTtl,
+      @Value("${reservation.check-in.max-clock-skew:5m}") Duration maxClockSkew,
+      @Value("${reservation.check-in.recent:100000}") int recentCapacity) {
+    this.reservationRepository = reservationRepository;
+    this.reservationWriter = reservationWriter;
+    this.guard = guard;
+    this.tokens = tokens;
+    this.tokenTtl = tokenTtl;
+    this.maxClockSkew = maxClockSkew;
+    this.recent =
+        new LinkedHashMap<>(16, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<UUID, Boolean> eldest) {
+            return size() > recentCapacity;
+          }
+        };
+  }
+
+  public CheckInDtos.CheckInTokenResponse issue(UUID reservationId, AuthenticatedUser user) {
+    Reservation r = reservationRepository.findById(reservationId).orElseThrow();
+    if (!r.getUserId().equals(user.id())) throw new NoSuchElementException();
+    if (r.getState() != ReservationState.CONFIRMED) {
+      throw new ReservationConflictException(
+          "Reservation is " + r.getState() + "; only confirmed reservations can check in");
+    }
+    CheckInToken token = new CheckInToken(r.getId(), r.getSlotId(), Instant.now().plus(tokenTtl));
+    return new CheckInDtos.CheckInTokenResponse(tokens.sign(token), token.expiresAt());
+  }
+
+  public CheckInDtos.VerificationKeysResponse keys() {
+    return new CheckInDtos.VerificationKeysResponse(
+        tokens.verificationKeys().stream()
+            .map(
+                k ->
+                    new CheckInDtos.VerificationKey(
+                        HexFormat.of().toHexDigits(k.id()), "Ed25519", k.encoded()))
+            .toList());
+  }
+
+  public CheckInDtos.UploadScansResponse upload(
+      CheckInDtos.UploadScansRequest req, AuthenticatedUser staff) {
+    if (!staff.isStaff()) throw new ForbiddenException("Only store staff can check guests in");
+    Instant now = Instant.now();
+    List<CheckInDtos.Scan> scans = req.scans();
+    UUID[] reservationOf = new UUID[scans.size()];
+    // earliest scan per reservation
+    Map<UUID, Instant> pending = new LinkedHashMap<>();
+    Map<UUID, CheckInOutcome> outcomes = new HashMap<>();
+    for (int i = 0; i < scans.size(); i++) {
+      CheckInDtos.Scan scan = scans.get(i);
+      if (scan.scannedAt().isAfter(now.plus(maxClockSkew))) continue;
+      var token = tokens.verify(scan.token(), scan.scannedAt());
+      if (token.isEmpty()) continue;
+      UUID id = token.get().reservationId();
+      reservationOf[i] = id;
+      if (seenRecently(id)) {
+        outcomes.put(id, CheckInOutcome.ALREADY_CHECKED_IN);
+      } else {
+        pending.merge(id, scan.scannedAt(), (a, b) -> a.isBefore(b) ? a : b);
+      }
+    }
+    int checkedIn = 0;
+    for (ReservationWriter.CheckInResult r : reservationWriter.checkInAll(pending, now)) {
+      CheckInOutcome outcome;
+      if (r.applied()) {
+        checkedIn++;
+        outcome = CheckInOutcome.CHECKED_IN;
+        // same as an online check-in: the index keeps holding the drop
+        guard.release(r.dropId(), r.userId());
+      } else if (r.state() == null) {
+        outcome = CheckInOutcome.NOT_FOUND;
+      } else if (ReservationState.valueOf(r.state()) == ReservationState.CHECKED_IN) {
+        outcome = CheckInOutcome.ALREADY_CHECKED_IN;
+      } else {
+        outcome = CheckInOutcome.NOT_CONFIRMED;
+      }
+      if (r.applied() || outcome == CheckInOutcome.ALREADY_CHECKED_IN) remember(r.id());
+      outcomes.put(r.id(), outcome);
+    }
+    List<CheckInDtos.ScanResult> results = new ArrayList<>(scans.size());
+    for (int i = 0; i < scans.size(); i++) {
+      UUID id = reservationOf[i];
+      CheckInOutcome outcome = id == null ? CheckInOutcome.INVALID : outcomes.get(id);
+      results.add(new CheckInDtos.ScanResult(i, id == null ? null : id.toString(), outcome.name()));
+    }
+    log.info("Device {} uploaded {} scans, {} checked in", req.deviceId(), scans.size(), checkedIn);
+    return new CheckInDtos.UploadScansResponse(checkedIn, results);
+  }
+
+  private synchronized boolean seenRecently(UUID reservationId) {
+    return recent.get(reservationId) != null;
+  }
+
+  private synchronized void remember(UUID reservationId) {
+    recent.put(reservationId, Boolean.TRUE);
+  }
+}
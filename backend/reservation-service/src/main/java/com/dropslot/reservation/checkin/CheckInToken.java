@@ -0,0 +1,38 @@
+package com.dropslot.reservation.checkin;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * What a check-in QR code says: this reservation may enter this slot until {@code expiresAt}. The
+ * payload is 41 bytes and the signed token 105, so the QR code stays small enough to scan from a
+ * phone at arm's length.
+ *
+ * <pre>
+ * version (1) | key id (4) | reservation id (16) | slot id (16) | expires, epoch seconds (4)
+ * </pre>
+ */
+public record CheckInToken(UUID reservationId, UUID slotId, Instant expiresAt) {
+  static final byte VERSION = 1;
+  static final int PAYLOAD_BYTES = 41;
+
+  byte[] payload(int keyId) {
+    return ByteBuffer.allocate(PAYLOAD_BYTES)
+        .put(VERSION)
+        .putInt(keyId)
+        .putLong(reservationId.getMostSignificantBits())
+        .putLong(reservationId.getLeastSignificantBits())
+        .putLong(slotId.getMostSignificantBits())
+        .putLong(slotId.getLeastSignificantBits())
+        .putInt((int) expiresAt.getEpochSecond())
+        .array();
+  }
+
+  static CheckInToken read(ByteBuffer payload) {
+    UUID reservationId = new UUID(payload.getLong(), payload.getLong());
+    UUID slotId = new UUID(payload.getLong(), payload.getLong());
+    Instant expiresAt = Instant.ofEpochSecond(Integer.toUnsignedLong(payload.getInt()));
+    return new CheckInToken(reservationId, slotId, expiresAt);
+  }
+}
@@ -0,0 +1,125 @@
+package com.dropslot.reservation.checkin;
+
+import io.jsonwebtoken.io.Decoders;
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.MessageDigest;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.Signature;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Signs and verifies {@link CheckInToken}s with Ed25519. Keys are configured as base64 like {@code
+ * security.jwt.secret}, but the pair is asymmetric: branch devices get the public keys and verify
+ * scans offline, and nothing they hold can mint a token. Each token names the key that signed it,
+ * so old public keys can stay listed while a new signing key rolls out.
+ */
+@Component
+public class CheckInTokens {
+  private static final String ALGORITHM = "Ed25519";
+  private static final int SIGNATURE_BYTES = 64;
+  private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+  private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+  /** A public key as published to devices. */
+  public record VerificationKey(int id, PublicKey key) {
+    public String encoded() {
+      return Base64.getEncoder().encodeToString(key.getEncoded());
+    }
+  }
+
+  private final PrivateKey signingKey;
+  private final int signingKeyId;
+  private final Map<Integer, VerificationKey> verificationKeys = new LinkedHashMap<>();
+
+  public CheckInTokens(
+      @Value("${security.check-in.private-key}") String base64PrivateKey,
+      @Value("${security.check-in.public-key}") String base64PublicKey,
+      @Value("${security.check-in.previous-public-keys:}") List<String> previousPublicKeys) {
+    try {
+      KeyFactory keys = KeyFactory.getInstance(ALGORITHM);
+      this.signingKey =
+          keys.generatePrivate(new PKCS8EncodedKeySpec(Decoders.BASE64.decode(base64PrivateKey)));
+      PublicKey current =
+          keys.generatePublic(new X509EncodedKeySpec(Decoders.BASE64.decode(base64PublicKey)));
+      this.signingKeyId = keyId(current);
+      verificationKeys.put(signingKeyId, new VerificationKey(signingKeyId, current));
+      for (String previous : previousPublicKeys) {
+        if (previous.isBlank()) continue;
+        PublicKey key =
+            keys.generatePublic(new X509EncodedKeySpec(Decoders.BASE64.decode(previous.trim())));
+        verificationKeys.putIfAbsent(keyId(key), new VerificationKey(keyId(key), key));
+      }
+    } catch (GeneralSecurityException e) {
+      throw new IllegalStateException("Invalid check-in signing keys", e);
+    }
+  }
+
+  public List<VerificationKey> verificationKeys() {
+    return List.copyOf(verificationKeys.values());
+  }
+
+  public String sign(CheckInToken token) {
+    byte[] payload = token.payload(signingKeyId);
+    try {
+      Signature signer = Signature.getInstance(ALGORITHM);
+      signer.initSign(signingKey);
+      signer.update(payload);
+      return ENCODER.encodeToString(
+          ByteBuffer.allocate(payload.length + SIGNATURE_BYTES)
+              .put(payload)
+              .put(signer.sign())
+              .array());
+    } catch (GeneralSecurityException e) {
+      throw new IllegalStateException("Could not sign check-in token", e);
+    }
+  }
+
+  /**
+   * The token if {@code value} carries a valid signature by a known key and had not expired at
+   * {@code at}; empty for anything else, malformed input included.
+   */
+  public Optional<CheckInToken> verify(String value, Instant at) {
+    byte[] bytes;
+    try {
+      bytes = DECODER.decode(value);
+    } catch (IllegalArgumentException e) {
+      return Optional.empty();
+    }
+    if (bytes.length != CheckInToken.PAYLOAD_BYTES + SIGNATURE_BYTES
+        || bytes[0] != CheckInToken.VERSION) {
+      return Optional.empty();
+    }
+    ByteBuffer buffer = ByteBuffer.wrap(bytes, 1, CheckInToken.PAYLOAD_BYTES - 1);
+    VerificationKey key = verificationKeys.get(buffer.getInt());
+    if (key == null) return Optional.empty();
+    try {
+      Signature verifier = Signature.getInstance(ALGORITHM);
+      verifier.initVerify(key.key());
+      verifier.update(bytes, 0, CheckInToken.PAYLOAD_BYTES);
+      if (!verifier.verify(bytes, CheckInToken.PAYLOAD_BYTES, SIGNATURE_BYTES)) {
+        return Optional.empty();
+      }
+    } catch (GeneralSecurityException e) {
+      return Optional.empty();
+    }
+    CheckInToken token = CheckInToken.read(buffer);
+    return token.expiresAt().isAfter(at) ? Optional.of(token) : Optional.empty();
+  }
+
+  /** The first four bytes of the SHA-256 of the encoded public key. */
+  private static int keyId(PublicKey key) throws GeneralSecurityException {
+    return ByteBuffer.wrap(MessageDigest.getInstance("SHA-256").digest(key.getEncoded())).getInt();
+  }
+}
@@ -0,0 +1,49 @@
+package com.dropslot.reservation.domain;
+
+import jakarta.persistence.*;
+import java.time.Instant;
+import java.util.UUID;
+import lombok.*;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "reservations")
+public class Reservation {
+  /** Assigned by the service; rows are inserted by {@code ReservationWriter}. */
+  @Id private UUID id;
+
+  @Column(nullable = false)
+  private UUID dropId;
+
+  @Column(nullable = false)
+  private UUID slotId;
+
+  @Column(nullable = false)
+  private UUID userId;
+
+  @Column(nullable = false)
+  private UUID claimId;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false)
+  private ReservationState state;
+
+  @Column(nullable = false)
+  private Instant createdAt;
+
+  @Column(nullable = false)
+  private Instant expiresAt;
+
+  private Instant confirmedAt;
+
+  private Instant cancelledAt;
+
+  private Instant checkedInAt;
+
+  @Column(nullable = false)
+  private Instant updatedAt;
+}
@@ -0,0 +1,33 @@
+package com.dropslot.reservation.domain;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * PENDING → CONFIRMED → CHECKED_IN, with CANCELLED reachable before check-in and EXPIRED for holds
+ * that were never confirmed. Every state but CANCELLED and EXPIRED holds the user's one reservation
+ * for the drop.
+ */
+public enum ReservationState {
+  PENDING,
+  CONFIRMED,
+  CHECKED_IN,
+  CANCELLED,
+  EXPIRED;
+
+  public static final Set<ReservationState> ACTIVE = EnumSet.of(PENDING, CONFIRMED, CHECKED_IN);
+
+  /** States this one may be entered from. */
+  public Set<ReservationState> sources() {
+    return switch (this) {
+      case PENDING -> EnumSet.noneOf(ReservationState.class);
+      case CONFIRMED, EXPIRED -> EnumSet.of(PENDING);
+      case CHECKED_IN -> EnumSet.of(CONFIRMED);
+      case CANCELLED -> EnumSet.of(PENDING, CONFIRMED);
+    };
+  }
+
+  public boolean isActive() {
+    return ACTIVE.contains(this);
+  }
+}
@@ -0,0 +1,117 @@
+package com.dropslot.reservation.drop;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.ClientHttpRequestFactories;
+import org.springframework.boot.web.client.ClientHttpRequestFactorySettings;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClient;
+
+/** Takes and returns seats in drop-service, which owns slot capacity. */
+@Component
+public class DropClient {
+  private final RestClient restClient;
+
+  public DropClient(
+      RestClient.Builder builder,
+      @Value("${reservation.drop-service-url}") String dropServiceUrl,
+      @Value("${reservation.drop-service-timeout:3s}") Duration timeout) {
+    this.restClient =
+        builder
+            .baseUrl(dropServiceUrl)
+            .requestFactory(
+                ClientHttpRequestFactories.get(
+                    ClientHttpRequestFactorySettings.DEFAULTS
+                        .withConnectTimeout(Duration.ofMillis(500))
+                        .withReadTimeout(timeout)))
+            .defaultStatusHandler(
+                status -> status.isSameCodeAs(HttpStatus.CONFLICT),
+                (req, resp) -> {
+                  throw new SoldOutException("Slot is sold out");
+                })
+            .defaultStatusHandler(
+                status -> status.isSameCodeAs(HttpStatus.NOT_FOUND),
+                (req, resp) -> {
+                  throw new NoSuchElementException("Slot not found");
+                })
+            .defaultStatusHandler(
+                status -> status.isSameCodeAs(HttpStatus.BAD_REQUEST),
+                (req, resp) -> {
+                  throw new IllegalArgumentException("Slot cannot be reserved now");
+                })
+            .defaultStatusHandler(
+                status -> status.is5xxServerError(),
+                (req, resp) -> {
+                  throw new DropServiceUnavailableException(
+                      "drop-service answered " + resp.getStatusCode().value(), null);
+                })
+            .build();
+  }
+
+  /**
+   * Takes a seat under {@code claimId}. Repeating the call takes no second seat, and the claim can
+   * be released even when the answer was lost.
+   */
+  public void claim(UUID dropId, UUID slotId, UUID userId, UUID claimId) {
+    call(
+        () ->
+            restClient
+                .post()
+                .uri("/drops/{id}/slots/{slotId}/claims", dropId, slotId)
+                .header("X-User-Id", userId.toString())
+                .header("X-Claim-Id", claimId.toString())
+                .retrieve()
+                .toBodilessEntity());
+  }
+
+  /**
+   * Takes one seat per user, in list order, while seats last, and returns the claim id of every
+   * user who got one.
+   */
+  public Map<UUID, UUID> claimAll(UUID dropId, UUID slotId, List<UUID> userIds) {
+    JsonNode result =
+        call(
+            () ->
+                restClient
+                    .post()
+                    .uri("/drops/{id}/slots/{slotId}/claims:bulk", dropId, slotId)
+                    .body(Map.of("userIds", userIds))
+                    .retrieve()
+                    .body(JsonNode.class));
+    Map<UUID, UUID> claims = new HashMap<>();
+    for (JsonNode claim : result.path("claims")) {
+      claims.put(
+          UUID.fromString(claim.path("userId").asText()),
+          UUID.fromString(claim.path("id").asText()));
+    }
+    return claims;
+  }
+
+  public void release(UUID dropId, UUID slotId, UUID claimId, UUID userId) {
+    call(
+        () ->
+            restClient
+                .delete()
+                .uri("/drops/{id}/slots/{slotId}/claims/{claimId}", dropId, slotId, claimId)
+                .header("X-User-Id", userId.toString())
+                .retrieve()
+                .toBodilessEntity());
+  }
+
+  private static <T> T call(Supplier<T> request) {
+    try {
+      return request.get();
+    } catch (ResourceAccessException e) {
+      throw new DropServiceUnavailableException("drop-service unreachable", e);
+    }
+  }
+}
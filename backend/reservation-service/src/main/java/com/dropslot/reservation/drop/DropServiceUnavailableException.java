@@ -0,0 +1,7 @@
+package com.dropslot.reservation.drop;
+
+public class DropServiceUnavailableException extends RuntimeException {
+  public DropServiceUnavailableException(String message, Throwable cause) {
+    super(message, cause);
+  }
+}
@@ -0,0 +1,7 @@
+package com.dropslot.reservation.drop;
+
+public class SoldOutException extends RuntimeException {
+  public SoldOutException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,16 @@
+package com.dropslot.reservation.repo;
+
+import com.dropslot.reservation.domain.Reservation;
+import com.dropslot.reservation.domain.ReservationState;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface ReservationRepository extends JpaRepository<Reservation, UUID> {
+  boolean existsByDropIdAndUserIdAndStateIn(
+      UUID dropId, UUID userId, Collection<ReservationState> states);
+
+  List<Reservation> findByUserIdOrderByCreatedAtDesc(UUID userId, Pageable page);
+}
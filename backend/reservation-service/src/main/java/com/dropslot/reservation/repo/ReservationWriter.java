@@ -0,0 +1,138 @@
+package com.dropslot.reservation.repo;
+
+import com.dropslot.reservation.domain.Reservation;
+import com.dropslot.reservation.domain.ReservationState;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Conditional writes for reservations. Inserts defer to the partial unique index on (drop, user)
+ * with {@code ON CONFLICT DO NOTHING}, and transitions only update rows still in an allowed source
+ * state, so a lost race shows up as zero rows rather than as an exception.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ReservationWriter {
+  private static final String INSERT_SQL =
+      "INSERT INTO reservations"
+          + " (id, drop_id, slot_id, user_id, claim_id, state, created_at, expires_at, updated_at)"
+          + " VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)"
+          + " ON CONFLICT (drop_id, user_id)"
+          + " WHERE state IN ('PENDING', 'CONFIRMED', 'CHECKED_IN') DO NOTHING";
+  private static final String EXPIRE_SQL =
+      "UPDATE reservations SET state = 'EXPIRED', updated_at = ? WHERE id IN ("
+          + "SELECT id FROM reservations WHERE state = 'PENDING' AND expires_at <= ?"
+          + " ORDER BY expires_at LIMIT ? FOR UPDATE SKIP LOCKED)"
+          + " RETURNING id, drop_id, slot_id, user_id, claim_id";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  /** {@code false} if the user already holds a reservation for the drop. */
+  public boolean insertIfNoneActive(Reservation r) {
+    return jdbcTemplate.update(
+            INSERT_SQL,
+            r.getId(),
+            r.getDropId(),
+            r.getSlotId(),
+            r.getUserId(),
+            r.getClaimId(),
+            r.getState().name(),
+            Timestamp.from(r.getCreatedAt()),
+            Timestamp.from(r.getExpiresAt()),
+            Timestamp.from(r.getUpdatedAt()))
+        == 1;
+  }
+
+  /**
+   * Moves the reservation to {@code target} if it is in one of the target's source states; a
+   * confirmation also requires the hold not to have expired. Returns whether a row changed.
+   */
+  public boolean transition(UUID id, ReservationState target, Instant now) {
+    String stampColumn =
+        switch (target) {
+          case CONFIRMED -> ", confirmed_at = ?";
+          case CHECKED_IN -> ", checked_in_at = ?";
+          case CANCELLED -> ", cancelled_at = ?";
+          default -> "";
+        };
+    String sources =
+        String.join(", ", target.sources().stream().map(s -> "'" + s.name() + "'").toList());
+    String sql =
+        "UPDATE reservations SET state = ?, updated_at = ?"
+            + stampColumn
+            + " WHERE id = ? AND state IN ("
+            + sources
+            + ")"
+            + (target == ReservationState.CONFIRMED ? " AND expires_at > ?" : "");
+    Timestamp ts = Timestamp.from(now);
+    List<Object> args = new ArrayList<>(List.of(target.name(), ts));
+    if (!stampColumn.isEmpty()) args.add(ts);
+    args.add(id);
+    if (target == ReservationState.CONFIRMED) args.add(ts);
+    return jdbcTemplate.update(sql, args.toArray()) == 1;
+  }
+
+  /** Where {@link #checkInAll} left a reservation; {@code state} is null for unknown ids. */
+  public record CheckInResult(UUID id, UUID dropId, UUID userId, String state, boolean applied) {}
+
+  /**
+   * Checks in every CONFIRMED reservation of {@code scans} at its scan time, in one statement, and
+   * reports for each id whether it was checked in now or the state that stopped it.
+   */
+  public List<CheckInResult> checkInAll(Map<UUID, Instant> scans, Instant now) {
+    if (scans.isEmpty()) return List.of();
+    String values = String.join(", ", Collections.nCopies(scans.size(), "(?::uuid, ?::timestamp)"));
+    String sql =
+        "WITH s(id, scanned_at) AS (VALUES "
+            + values
+            + "), u AS (UPDATE reservations r SET state = 'CHECKED_IN',"
+            + " checked_in_at = s.scanned_at, updated_at = ?"
+            + " FROM s WHERE r.id = s.id AND r.state = 'CONFIRMED' RETURNING r.id)"
+            + " SELECT s.id, r.drop_id, r.user_id, r.state, u.id IS NOT NULL AS applied"
+            + " FROM s LEFT JOIN reservations r ON r.id = s.id LEFT JOIN u ON u.id = s.id";
+    List<Object> args = new ArrayList<>(scans.size() * 2 + 1);
+    scans.forEach(
+        (id, scannedAt) -> {
+          args.add(id);
+          args.add(Timestamp.from(scannedAt));
+        });
+    args.add(Timestamp.from(now));
+    return jdbcTemplate.query(
+        sql,
+        (rs, i) ->
+            new CheckInResult(
+                rs.getObject("id", UUID.class),
+                rs.getObject("drop_id", UUID.class),
+                rs.getObject("user_id", UUID.class),
+                rs.getString("state"),
+                rs.getBoolean("applied")),
+        args.toArray());
+  }
+
+  public record Expired(UUID id, UUID dropId, UUID slotId, UUID userId, UUID claimId) {}
+
+  /** Expires up to {@code limit} holds that ran out before {@code now}. */
+  public List<Expired> expireDue(Instant now, int limit) {
+    Timestamp ts = Timestamp.from(now);
+    return jdbcTemplate.query(
+        EXPIRE_SQL,
+        (rs, i) ->
+            new Expired(
+                rs.getObject("id", UUID.class),
+                rs.getObject("drop_id", UUID.class),
+                rs.getObject("slot_id", UUID.class),
+                rs.getObject("user_id", UUID.class),
+                rs.getObject("claim_id", UUID.class)),
+        ts,
+        ts,
+        limit);
+  }
+}
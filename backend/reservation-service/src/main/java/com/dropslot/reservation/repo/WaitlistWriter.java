@@ -0,0 +1,163 @@
+package com.dropslot.reservation.repo;
+
+import com.dropslot.reservation.domain.Reservation;
+import com.dropslot.reservation.waitlist.SlotWaitlist;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * The waitlist table. Rows are appended in rank order and only ever change state, so a slot's queue
+ * is rebuilt by reading its {@code WAITING} rows in position order.
+ */
+@Repository
+@RequiredArgsConstructor
+public class WaitlistWriter {
+  private static final String INSERT_SQL =
+      "INSERT INTO waitlist"
+          + " (id, drop_id, slot_id, user_id, position, state, created_at, updated_at)"
+          + " VALUES (?, ?, ?, ?, ?, 'WAITING', ?, ?)"
+          + " ON CONFLICT (slot_id, user_id) WHERE state = 'WAITING' DO NOTHING";
+  private static final String PROMOTE_SQL =
+      "UPDATE waitlist SET state = 'PROMOTED', reservation_id = ?, updated_at = ?"
+          + " WHERE id = ? AND state = 'WAITING'";
+  private static final String INSERT_RESERVATION_SQL =
+      "INSERT INTO reservations"
+          + " (id, drop_id, slot_id, user_id, claim_id, state, created_at, expires_at, updated_at)"
+          + " VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)"
+          + " ON CONFLICT (drop_id, user_id)"
+          + " WHERE state IN ('PENDING', 'CONFIRMED', 'CHECKED_IN') DO NOTHING";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  public record Row(
+      UUID id,
+      UUID dropId,
+      UUID slotId,
+      UUID userId,
+      long position,
+      String state,
+      UUID reservationId) {}
+
+  /** {@code false} if the user is already waiting for the slot. */
+  public boolean insert(SlotWaitlist.Entry e, UUID slotId, Instant now) {
+    Timestamp ts = Timestamp.from(now);
+    return jdbcTemplate.update(INSERT_SQL, e.id(), e.dropId(), slotId, e.userId(), e.rank(), ts, ts)
+        == 1;
+  }
+
+  public Optional<Row> find(UUID id) {
+    return jdbcTemplate
+        .query(
+            "SELECT id, drop_id, slot_id, user_id, position, state, reservation_id"
+                + " FROM waitlist WHERE id = ?",
+            (rs, i) ->
+                new Row(
+                    rs.getObject("id", UUID.class),
+                    rs.getObject("drop_id", UUID.class),
+                    rs.getObject("slot_id", UUID.class),
+                    rs.getObject("user_id", UUID.class),
+                    rs.getLong("position"),
+                    rs.getString("state"),
+                    rs.getObject("reservation_id", UUID.class)),
+            id)
+        .stream()
+        .findFirst();
+  }
+
+  /** Everyone still waiting for the slot, head first. */
+  public List<SlotWaitlist.Entry> waiting(UUID slotId) {
+    return jdbcTemplate.query(
+        "SELECT id, drop_id, user_id, position FROM waitlist"
+            + " WHERE slot_id = ? AND state = 'WAITING' ORDER BY position",
+        (rs, i) ->
+            new SlotWaitlist.Entry(
+                rs.getObject("id", UUID.class),
+                rs.getObject("drop_id", UUID.class),
+                rs.getObject("user_id", UUID.class),
+                rs.getLong("position")),
+        slotId);
+  }
+
+  /** The rank after the last one ever handed out for the slot. */
+  public long nextPosition(UUID slotId) {
+    Long max =
+        jdbcTemplate.queryForObject(
+            "SELECT max(position) FROM waitlist WHERE slot_id = ?", Long.class, slotId);
+    return max == null ? 1 : max + 1;
+  }
+
+  public boolean leave(UUID id, Instant now) {
+    return jdbcTemplate.update(
+            "UPDATE waitlist SET state = 'LEFT', updated_at = ? WHERE id = ? AND state = 'WAITING'",
+            Timestamp.from(now),
+            id)
+        == 1;
+  }
+
+  /**
+   * Promotes a wave in one transaction: each entry still waiting is marked promoted and gets its
+   * reservation, {@code reservations.get(i)} for {@code entries.get(i)}. Returns the reservations
+   * written; the rest belong to users who left meanwhile or already hold a reservation for the
+   * drop, and their seats are the caller's to give back.
+   */
+  @Transactional
+  public List<Reservation> promote(
+      List<SlotWaitlist.Entry> entries, List<Reservation> reservations, Instant now) {
+    Timestamp ts = Timestamp.from(now);
+    List<Object[]> marks = new ArrayList<>(entries.size());
+    for (int i = 0; i < entries.size(); i++) {
+      marks.add(new Object[] {reservations.get(i).getId(), ts, entries.get(i).id()});
+    }
+    int[] marked = jdbcTemplate.batchUpdate(PROMOTE_SQL, marks);
+    List<SlotWaitlist.Entry> promoted = new ArrayList<>();
+    List<Reservation> candidates = new ArrayList<>();
+    for (int i = 0; i < marked.length; i++) {
+      if (marked[i] == 1) {
+        promoted.add(entries.get(i));
+        candidates.add(reservations.get(i));
+      }
+    }
+    if (candidates.isEmpty()) return List.of();
+    int[] inserted =
+        jdbcTemplate.batchUpdate(
+            INSERT_RESERVATION_SQL,
+            candidates.stream()
+                .map(
+                    r ->
+                        new Object[] {
+                          r.getId(),
+                          r.getDropId(),
+                          r.getSlotId(),
+                          r.getUserId(),
+                          r.getClaimId(),
+                          r.getState().name(),
+                          Timestamp.from(r.getCreatedAt()),
+                          Timestamp.from(r.getExpiresAt()),
+                          Timestamp.from(r.getUpdatedAt())
+                        })
+                .toList());
+    List<Reservation> written = new ArrayList<>();
+    List<Object[]> alreadyBooked = new ArrayList<>();
+    for (int i = 0; i < inserted.length; i++) {
+      if (inserted[i] == 1) {
+        written.add(candidates.get(i));
+      } else {
+        alreadyBooked.add(new Object[] {ts, promoted.get(i).id()});
+      }
+    }
+    if (!alreadyBooked.isEmpty()) {
+      jdbcTemplate.batchUpdate(
+          "UPDATE waitlist SET state = 'LEFT', reservation_id = NULL, updated_at = ? WHERE id = ?",
+          alreadyBooked);
+    }
+    return written;
+  }
+}
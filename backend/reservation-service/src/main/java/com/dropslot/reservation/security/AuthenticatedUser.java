@@ -0,0 +1,13 @@
+package com.dropslot.reservation.security;
+
+import java.util.Set;
+import java.util.UUID;
+
+/** The caller, as named by the subject and roles of a user-service access token. */
+public record AuthenticatedUser(UUID id, Set<String> roles) {
+  public static final String ATTRIBUTE = "com.dropslot.reservation.user";
+
+  public boolean isStaff() {
+    return roles.contains("MANAGER") || roles.contains("ADMIN");
+  }
+}
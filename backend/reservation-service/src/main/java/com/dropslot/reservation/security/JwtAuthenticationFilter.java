@@ -0,0 +1,62 @@
+package com.dropslot.reservation.security;
+
+import com.dropslot.reservation.api.dto.ProblemDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Instant;
+import java.util.Optional;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Requires a valid bearer token on {@code /reservations/**} and {@code /waitlist/**} and exposes
+ * its user to handlers.
+ */
+@Component
+@RequiredArgsConstructor
+public class JwtAuthenticationFilter extends OncePerRequestFilter {
+
+  private final JwtVerifier jwtVerifier;
+  private final ObjectMapper objectMapper;
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    String uri = request.getRequestURI();
+    return !uri.startsWith("/reservations") && !uri.startsWith("/waitlist");
+  }
+
+  @Override
+  protected void doFilterInternal(
+      HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+      throws ServletException, IOException {
+    String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+    var user =
+        header != null && header.startsWith("Bearer ")
+            ? jwtVerifier.verify(header.substring(7))
+            : Optional.<AuthenticatedUser>empty();
+    if (user.isEmpty()) {
+      response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+      response.setHeader(HttpHeaders.WWW_AUTHENTICATE, "Bearer");
+      response.setContentType(MediaType.APPLICATION_PROBLEM_JSON_VALUE);
+      objectMapper.writeValue(
+          response.getOutputStream(),
+          new ProblemDto(
+              "about:blank",
+              "Unauthorized",
+              "A valid access token is required",
+              request.getRequestURI(),
+              HttpServletResponse.SC_UNAUTHORIZED,
+              Instant.now()));
+      return;
+    }
+    request.setAttribute(AuthenticatedUser.ATTRIBUTE, user.get());
+    filterChain.doFilter(request, response);
+  }
+}
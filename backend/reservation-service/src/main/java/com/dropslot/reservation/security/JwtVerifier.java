@@ -0,0 +1,46 @@
+package com.dropslot.reservation.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Verifies access tokens issued by user-service's {@code JwtService} (HS256 with the shared {@code
+ * security.jwt.secret}); the subject is the user id.
+ */
+@Component
+public class JwtVerifier {
+  private final JwtParser parser;
+
+  public JwtVerifier(@Value("${security.jwt.secret}") String base64Secret) {
+    this.parser =
+        Jwts.parserBuilder()
+            .setSigningKey(Keys.hmacShaKeyFor(Decoders.BASE64.decode(base64Secret)))
+            .build();
+  }
+
+  public Optional<AuthenticatedUser> verify(String token) {
+    try {
+      Claims claims = parser.parseClaimsJws(token).getBody();
+      // refresh tokens carry a jti and no roles; they are not accepted as access tokens
+      if (claims.get("jti") != null) return Optional.empty();
+      Set<String> roles =
+          claims.get("roles") instanceof Collection<?> c
+              ? c.stream().map(String::valueOf).collect(Collectors.toUnmodifiableSet())
+              : Set.of();
+      return Optional.of(new AuthenticatedUser(UUID.fromString(claims.getSubject()), roles));
+    } catch (JwtException | IllegalArgumentException e) {
+      return Optional.empty();
+    }
+  }
+}
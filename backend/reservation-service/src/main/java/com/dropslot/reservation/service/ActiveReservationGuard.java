@@ -0,0 +1,60 @@
+package com.dropslot.reservation.service;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * In-memory set of (drop, user) pairs that hold or are creating a reservation on this instance.
+ * Split into independently locked stripes so unrelated users never contend; a burst of duplicate
+ * clicks from one user is settled here, before any of them reaches drop-service or the database.
+ * The partial unique index stays the authority across instances and restarts.
+ */
+public final class ActiveReservationGuard {
+  private record Key(UUID dropId, UUID userId) {}
+
+  private final Set<Key>[] stripes;
+  private final int mask;
+
+  @SuppressWarnings("unchecked")
+  public ActiveReservationGuard(int stripes) {
+    if (Integer.bitCount(stripes) != 1) {
+      throw new IllegalArgumentException("stripes must be a power of two: " + stripes);
+    }
+    this.stripes = new Set[stripes];
+    for (int i = 0; i < stripes; i++) this.stripes[i] = new HashSet<>();
+    this.mask = stripes - 1;
+  }
+
+  /** {@code false} if the pair is already held. */
+  public boolean tryAcquire(UUID dropId, UUID userId) {
+    Key key = new Key(dropId, userId);
+    Set<Key> stripe = stripe(key);
+    synchronized (stripe) {
+      return stripe.add(key);
+    }
+  }
+
+  public void release(UUID dropId, UUID userId) {
+    Key key = new Key(dropId, userId);
+    Set<Key> stripe = stripe(key);
+    synchronized (stripe) {
+      stripe.remove(key);
+    }
+  }
+
+  public int size() {
+    int size = 0;
+    for (Set<Key> stripe : stripes) {
+      synchronized (stripe) {
+        size += stripe.size();
+      }
+    }
+    return size;
+  }
+
+  private Set<Key> stripe(Key key) {
+    int h = key.hashCode();
+    return stripes[(h ^ (h >>> 16)) & mask];
+  }
+}
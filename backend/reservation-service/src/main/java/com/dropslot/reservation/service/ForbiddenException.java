@@ -0,0 +1,7 @@
+package com.dropslot.reservation.service;
+
+public class ForbiddenException extends RuntimeException {
+  public ForbiddenException(String message) {
+    super(message);
+  }
+}
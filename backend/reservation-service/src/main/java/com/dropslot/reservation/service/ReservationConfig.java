@@ -0,0 +1,16 @@
+package com.dropslot.reservation.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class ReservationConfig {
+
+  /** Shared by direct reservations and waitlist promotions. */
+  @Bean
+  public ActiveReservationGuard activeReservationGuard(
+      @Value("${reservation.guard-stripes:64}") int stripes) {
+    return new ActiveReservationGuard(stripes);
+  }
+}
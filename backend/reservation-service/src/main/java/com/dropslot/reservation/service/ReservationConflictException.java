@@ -0,0 +1,7 @@
+package com.dropslot.reservation.service;
+
+public class ReservationConflictException extends RuntimeException {
+  public ReservationConflictException(String message) {
+    super(message);
+  }
+}
@@ -0,0 +1,252 @@
+package com.dropslot.reservation.service;
+
+import com.dropslot.reservation.api.dto.ReservationDtos;
+import com.dropslot.reservation.domain.Reservation;
+import com.dropslot.reservation.domain.ReservationState;
+import com.dropslot.reservation.drop.DropClient;
+import com.dropslot.reservation.drop.DropServiceUnavailableException;
+import com.dropslot.reservation.drop.SoldOutException;
+import com.dropslot.reservation.repo.ReservationRepository;
+import com.dropslot.reservation.repo.ReservationWriter;
+import com.dropslot.reservation.security.AuthenticatedUser;
+import com.dropslot.reservation.waitlist.WaitlistPromoter;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Reservations, one per user per drop. A request first takes the (drop, user) pair in the in-memory
+ * {@link ActiveReservationGuard}, so repeated clicks are turned away without I/O; the first one
+ * checks the database, takes a seat in drop-service and inserts with {@code ON CONFLICT DO
+ * NOTHING}. Transitions are conditional updates and repeating one is a no-op.
+ */
+@Service
+public class ReservationService {
+  private static final Logger log = LoggerFactory.getLogger(ReservationService.class);
+  private static final int EXPIRY_BATCH = 500;
+
+  private final ReservationRepository reservationRepository;
+  private final ReservationWriter reservationWriter;
+  private final DropClient dropClient;
+  private final ActiveReservationGuard guard;
+  private final WaitlistPromoter waitlistPromoter;
+  private final Duration holdTtl;
+
+  public ReservationService(
+      ReservationRepository reservationRepository,
+      ReservationWriter reservationWriter,
+      DropClient dropClient,
+      ActiveReservationGuard guard,
+      WaitlistPromoter waitlistPromoter,
+      @Value("${reservation.hold-ttl:10m}") Duration holdTtl) {
+    this.reservationRepository = reservationRepository;
+    this.reservationWriter = reservationWriter;
+    this.dropClient = dropClient;
+    this.guard = guard;
+    this.waitlistPromoter = waitlistPromoter;
+    this.holdTtl = holdTtl;
+  }
+
+  public ReservationDtos.ReservationResponse create(
+      UUID userId, ReservationDtos.CreateReservationRequest req) {
+    UUID dropId = UUID.fromString(req.dropId());
+    UUID slotId = UUID.fromString(req.slotId());
+    if (!guard.tryAcquire(dropId, userId)) throw duplicate();
+    boolean held = false;
+    try {
+      if (reservationRepository.existsByDropIdAndUserIdAndStateIn(
+          dropId, userId, ReservationState.ACTIVE)) {
+        held = true;
+        throw duplicate();
+      }
+      // chosen here so that a claim whose answer is lost can still be handed back
+      UUID claimId = UUID.randomUUID();
+      try {
+        dropClient.claim(dropId, slotId, userId, claimId);
+      } catch (SoldOutException e) {
+        throw new ReservationConflictException(e.getMessage());
+      } catch (DropServiceUnavailableException e) {
+        // drop-service may have recorded the claim before the call failed
+        if (!releaseSeat(dropId, slotId, claimId, userId)) {
+          recordLapsedHold(dropId, slotId, userId, claimId);
+        }
+        throw e;
+      }
+      Instant now = Instant.now();
+      Reservation r = pending(dropId, slotId, userId, claimId, now, now.plus(holdTtl));
+      boolean inserted;
+      try {
+        inserted = reservationWriter.insertIfNoneActive(r);
+      } catch (RuntimeException e) {
+        releaseSeat(dropId, slotId, claimId, userId);
+        throw e;
+      }
+      held = true;
+      if (!inserted) {
+        // another instance got there first
+        releaseSeat(dropId, slotId, claimId, userId);
+        throw duplicate();
+      }
+      return toResponse(r);
+    } finally {
+      if (!held) guard.release(dropId, userId);
+    }
+  }
+
+  /**
+   * Leaves a hold that has already run out, so {@link #expireHolds} keeps trying to return a seat
+   * that could not be released right away.
+   */
+  private void recordLapsedHold(UUID dropId, UUID slotId, UUID userId, UUID claimId) {
+    Instant now = Instant.now();
+    try {
+      if (!reservationWriter.insertIfNoneActive(
+          pending(dropId, slotId, userId, claimId, now, now))) {
+        log.warn("Seat {} of slot {} may be left claimed", claimId, slotId);
+      }
+    } catch (RuntimeException e) {
+      log.warn("Seat {} of slot {} may be left claimed: {}", claimId, slotId, e.getMessage());
+    }
+  }
+
+  private static Reservation pending(
+      UUID dropId, UUID slotId, UUID userId, UUID claimId, Instant now, Instant expiresAt) {
+    return Reservation.builder()
+        .id(UUID.randomUUID())
+        .dropId(dropId)
+        .slotId(slotId)
+        .userId(userId)
+        .claimId(claimId)
+        .state(ReservationState.PENDING)
+        .createdAt(now)
+        .expiresAt(expiresAt)
+        .updatedAt(now)
+        .build();
+  }
+
+  public ReservationDtos.ReservationResponse get(UUID id, AuthenticatedUser user) {
+    return toResponse(visible(id, user));
+  }
+
+  public List<ReservationDtos.ReservationResponse> mine(UUID userId) {
+    return reservationRepository
+        .findByUserIdOrderByCreatedAtDesc(userId, PageRequest.of(0, 50))
+        .stream()
+        .map(ReservationService::toResponse)
+        .toList();
+  }
+
+  public ReservationDtos.ReservationResponse confirm(UUID id, AuthenticatedUser user) {
+    return transition(owned(id, user), ReservationState.CONFIRMED);
+  }
+
+  public ReservationDtos.ReservationResponse cancel(UUID id, AuthenticatedUser user) {
+    return transition(owned(id, user), ReservationState.CANCELLED);
+  }
+
+  public ReservationDtos.ReservationResponse checkIn(UUID id, AuthenticatedUser staff) {
+    if (!staff.isStaff()) throw new ForbiddenException("Only store staff can check guests in");
+    return transition(
+        reservationRepository.findById(id).orElseThrow(), ReservationState.CHECKED_IN);
+  }
+
+  /**
+   * Expires holds that were not confirmed in time, hands their seats back and lets the waitlists
+   * have them.
+   */
+  @Scheduled(fixedDelayString = "${reservation.expiry-interval-ms:15000}")
+  public void expireHolds() {
+    List<ReservationWriter.Expired> expired;
+    do {
+      expired = reservationWriter.expireDue(Instant.now(), EXPIRY_BATCH);
+      // handed to the waitlists per slot once the batch is back, so they promote in one wave
+      Map<UUID, Integer> freed = new HashMap<>();
+      Map<UUID, UUID> dropOfSlot = new HashMap<>();
+      for (ReservationWriter.Expired e : expired) {
+        guard.release(e.dropId(), e.userId());
+        if (releaseSeat(e.dropId(), e.slotId(), e.claimId(), e.userId())) {
+          freed.merge(e.slotId(), 1, Integer::sum);
+          dropOfSlot.put(e.slotId(), e.dropId());
+        }
+      }
+      freed.forEach(
+          (slotId, seats) -> waitlistPromoter.seatsFreed(dropOfSlot.get(slotId), slotId, seats));
+      if (!expired.isEmpty()) log.info("Expired {} reservation holds", expired.size());
+    } while (expired.size() == EXPIRY_BATCH);
+  }
+
+  private ReservationDtos.ReservationResponse transition(Reservation r, ReservationState target) {
+    if (r.getState() == target) return toResponse(r);
+    if (target.sources().contains(r.getState())
+        && reservationWriter.transition(r.getId(), target, Instant.now())) {
+      Reservation updated = reservationRepository.findById(r.getId()).orElseThrow();
+      if (target == ReservationState.CANCELLED) {
+        guard.release(r.getDropId(), r.getUserId());
+        if (releaseSeat(r.getDropId(), r.getSlotId(), r.getClaimId(), r.getUserId())) {
+          waitlistPromoter.seatsFreed(r.getDropId(), r.getSlotId(), 1);
+        }
+      } else if (target == ReservationState.CHECKED_IN) {
+        // the index keeps holding the drop; the guard only needs reservations that can change
+        guard.release(r.getDropId(), r.getUserId());
+      }
+      return toResponse(updated);
+    }
+    // lost a race, or the hold ran out: settle on whatever the row says now
+    Reservation current = reservationRepository.findById(r.getId()).orElseThrow();
+    if (current.getState() == target) return toResponse(current);
+    if (target == ReservationState.CONFIRMED && current.getState() == ReservationState.PENDING) {
+      throw new ReservationConflictException("Reservation hold has expired");
+    }
+    throw new ReservationConflictException(
+        "Reservation is " + current.getState() + " and cannot become " + target);
+  }
+
+  private boolean releaseSeat(UUID dropId, UUID slotId, UUID claimId, UUID userId) {
+    try {
+      dropClient.release(dropId, slotId, claimId, userId);
+      return true;
+    } catch (RuntimeException e) {
+      log.warn("Could not return seat {} of slot {}: {}", claimId, slotId, e.getMessage());
+      return false;
+    }
+  }
+
+  private Reservation owned(UUID id, AuthenticatedUser user) {
+    Reservation r = reservationRepository.findById(id).orElseThrow();
+    if (!r.getUserId().equals(user.id())) throw new NoSuchElementException();
+    return r;
+  }
+
+  private Reservation visible(UUID id, AuthenticatedUser user) {
+    Reservation r = reservationRepository.findById(id).orElseThrow();
+    if (!r.getUserId().equals(user.id()) && !user.isStaff()) throw new NoSuchElementException();
+    return r;
+  }
+
+  private static ReservationConflictException duplicate() {
+    return new ReservationConflictException("You already have a reservation for this drop");
+  }
+
+  private static ReservationDtos.ReservationResponse toResponse(Reservation r) {
+    return new ReservationDtos.ReservationResponse(
+        r.getId().toString(),
+        r.getDropId().toString(),
+        r.getSlotId().toString(),
+        r.getState().name(),
+        r.getCreatedAt(),
+        r.getExpiresAt(),
+        r.getConfirmedAt(),
+        r.getCancelledAt(),
+        r.getCheckedInAt());
+  }
+}
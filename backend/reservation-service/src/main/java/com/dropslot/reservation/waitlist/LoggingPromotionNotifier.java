@@ -0,0 +1,23 @@
+package com.dropslot.reservation.waitlist;
+
+import com.dropslot.reservation.domain.Reservation;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+@Component
+public class LoggingPromotionNotifier implements PromotionNotifier {
+  private static final Logger log = LoggerFactory.getLogger(LoggingPromotionNotifier.class);
+
+  @Override
+  public void notifyPromoted(List<Reservation> promoted) {
+    log.info(
+        "Promoted {} users from the waitlist of slot {}",
+        promoted.size(),
+        promoted.get(0).getSlotId());
+    if (log.isDebugEnabled()) {
+      promoted.forEach(r -> log.debug("user={} reservation={}", r.getUserId(), r.getId()));
+    }
+  }
+}
@@ -0,0 +1,9 @@
+package com.dropslot.reservation.waitlist;
+
+import com.dropslot.reservation.domain.Reservation;
+import java.util.List;
+
+/** Tells users their wait is over; called once per promotion wave. */
+public interface PromotionNotifier {
+  void notifyPromoted(List<Reservation> promoted);
+}
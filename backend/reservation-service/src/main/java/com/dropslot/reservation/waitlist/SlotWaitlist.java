@@ -0,0 +1,75 @@
+package com.dropslot.reservation.waitlist;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * FIFO of the users waiting for one slot, ordered by the rank each was given on joining. Ranks only
+ * grow, so a position is the distance from the head's rank: constant time, no count. Users who
+ * leave from the middle leave a gap, which makes a position an upper bound until the head passes
+ * it.
+ */
+public final class SlotWaitlist {
+  public record Entry(UUID id, UUID dropId, UUID userId, long rank) {}
+
+  private final ConcurrentSkipListMap<Long, Entry> queue = new ConcurrentSkipListMap<>();
+  private final Map<UUID, Entry> byUser = new ConcurrentHashMap<>();
+  private final AtomicLong nextRank;
+
+  public SlotWaitlist(long nextRank) {
+    this.nextRank = new AtomicLong(nextRank);
+  }
+
+  /** A rank behind everyone who joined before; ranks are never reused. */
+  public long nextRank() {
+    return nextRank.getAndIncrement();
+  }
+
+  /** Adds an entry at its rank; {@code false} if the user is already waiting. */
+  public boolean add(Entry entry) {
+    if (byUser.putIfAbsent(entry.userId(), entry) != null) return false;
+    queue.put(entry.rank(), entry);
+    return true;
+  }
+
+  public boolean isWaiting(UUID userId) {
+    return byUser.containsKey(userId);
+  }
+
+  /** Takes the head; the user counts as waiting until {@link #done} or {@link #putBack}. */
+  public Entry poll() {
+    Map.Entry<Long, Entry> head = queue.pollFirstEntry();
+    return head == null ? null : head.getValue();
+  }
+
+  /**
+   * Returns a polled entry to its old place, ahead of everyone who joined after it, unless the user
+   * left in the meantime.
+   */
+  public void putBack(Entry entry) {
+    if (byUser.get(entry.userId()) == entry) queue.put(entry.rank(), entry);
+  }
+
+  /** Forgets a polled entry once it has been promoted. */
+  public void done(Entry entry) {
+    byUser.remove(entry.userId(), entry);
+  }
+
+  public boolean remove(UUID userId) {
+    Entry entry = byUser.remove(userId);
+    return entry != null && queue.remove(entry.rank(), entry);
+  }
+
+  /** 1-based place in the queue of a waiting entry of {@code rank}. */
+  public long position(long rank) {
+    Map.Entry<Long, Entry> head = queue.firstEntry();
+    return head == null ? 1 : Math.max(1, rank - head.getKey() + 1);
+  }
+
+  public int size() {
+    return queue.size();
+  }
+}
@@ -0,0 +1,200 @@
+package com.dropslot.reservation.waitlist;
+
+import com.dropslot.reservation.domain.Reservation;
+import com.dropslot.reservation.domain.ReservationState;
+import com.dropslot.reservation.drop.DropClient;
+import com.dropslot.reservation.repo.WaitlistWriter;
+import com.dropslot.reservation.service.ActiveReservationGuard;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hands freed seats to the head of each slot's waitlist. Freed seats are tallied per slot and one
+ * thread drains the tally, so a burst of cancellations turns into a few waves rather than one
+ * promotion each. A wave takes up to {@code max-wave} users, claims their seats from drop-service
+ * in one call, writes their reservations in one transaction and notifies them in one batch.
+ *
+ * <p>A freed seat goes back to drop-service first and the wave claims it from there, so a user
+ * reserving directly may get it first; the waitlist then gets whatever is left.
+ */
+@Component
+public class WaitlistPromoter {
+  private static final Logger log = LoggerFactory.getLogger(WaitlistPromoter.class);
+
+  private record Freed(UUID dropId, int seats) {
+    Freed plus(Freed other) {
+      return new Freed(dropId, seats + other.seats);
+    }
+  }
+
+  private final Waitlists waitlists;
+  private final WaitlistWriter waitlistWriter;
+  private final DropClient dropClient;
+  private final ActiveReservationGuard guard;
+  private final PromotionNotifier notifier;
+  private final Duration holdTtl;
+  private final int maxWave;
+  private final ConcurrentHashMap<UUID, Freed> freed = new ConcurrentHashMap<>();
+  private final AtomicBoolean scheduled = new AtomicBoolean();
+  private final ExecutorService executor =
+      Executors.newSingleThreadExecutor(
+          r -> {
+            Thread t = new Thread(r, "waitlist-promoter");
+            t.setDaemon(true);
+            return t;
+          });
+
+  public WaitlistPromoter(
+      Waitlists waitlists,
+      WaitlistWriter waitlistWriter,
+      DropClient dropClient,
+      ActiveReservationGuard guard,
+      PromotionNotifier notifier,
+      @Value("${reservation.hold-ttl:10m}") Duration holdTtl,
+      @Value("${reservation.waitlist.max-wave:200}") int maxWave) {
+    this.waitlists = waitlists;
+    this.waitlistWriter = waitlistWriter;
+    this.dropClient = dropClient;
+    this.guard = guard;
+    this.notifier = notifier;
+    this.holdTtl = holdTtl;
+    this.maxWave = maxWave;
+  }
+
+  /** Records seats handed back to drop-service; promotion happens in the background. */
+  public void seatsFreed(UUID dropId, UUID slotId, int seats) {
+    freed.merge(slotId, new Freed(dropId, seats), Freed::plus);
+    if (scheduled.compareAndSet(false, true)) executor.execute(this::drain);
+  }
+
+  private void drain() {
+    scheduled.set(false);
+    for (UUID slotId : freed.keySet()) {
+      Freed f = freed.remove(slotId);
+      if (f == null) continue;
+      try {
+        promote(f.dropId(), slotId, f.seats());
+      } catch (RuntimeException e) {
+        log.error("Waitlist promotion for slot {} failed", slotId, e);
+      }
+    }
+  }
+
+  private void promote(UUID dropId, UUID slotId, int seats) {
+    SlotWaitlist waitlist = waitlists.get(slotId);
+    // users already holding or creating a reservation; they keep their place
+    List<SlotWaitlist.Entry> busy = new ArrayList<>();
+    try {
+      while (seats > 0) {
+        List<SlotWaitlist.Entry> wave = new ArrayList<>();
+        SlotWaitlist.Entry e;
+        while (wave.size() < Math.min(seats, maxWave) && (e = waitlist.poll()) != null) {
+          if (guard.tryAcquire(dropId, e.userId())) {
+            wave.add(e);
+          } else {
+            busy.add(e);
+          }
+        }
+        if (wave.isEmpty()) return;
+        int filled = promoteWave(dropId, slotId, waitlist, wave);
+        if (filled < 0) return;
+        seats -= filled;
+      }
+    } finally {
+      busy.forEach(waitlist::putBack);
+    }
+  }
+
+  /** Returns the seats filled, or -1 once the slot has nothing left or the wave failed. */
+  private int promoteWave(
+      UUID dropId, UUID slotId, SlotWaitlist waitlist, List<SlotWaitlist.Entry> wave) {
+    Map<UUID, UUID> claims;
+    try {
+      claims =
+          dropClient.claimAll(
+              dropId, slotId, wave.stream().map(SlotWaitlist.Entry::userId).toList());
+    } catch (RuntimeException ex) {
+      log.warn("Could not claim seats for the waitlist of slot {}: {}", slotId, ex.getMessage());
+      for (SlotWaitlist.Entry e : wave) {
+        guard.release(dropId, e.userId());
+        waitlist.putBack(e);
+      }
+      return -1;
+    }
+    Instant now = Instant.now();
+    List<SlotWaitlist.Entry> seated = new ArrayList<>();
+    List<Reservation> reservations = new ArrayList<>();
+    for (SlotWaitlist.Entry e : wave) {
+      UUID claimId = claims.get(e.userId());
+      if (claimId == null) {
+        guard.release(dropId, e.userId());
+        waitlist.putBack(e);
+        continue;
+      }
+      seated.add(e);
+      reservations.add(
+          Reservation.builder()
+              .id(UUID.randomUUID())
+              .dropId(dropId)
+              .slotId(slotId)
+              .userId(e.userId())
+              .claimId(claimId)
+              .state(ReservationState.PENDING)
+              .createdAt(now)
+              .expiresAt(now.plus(holdTtl))
+              .updatedAt(now)
+              .build());
+    }
+    if (seated.isEmpty()) return -1;
+    Set<Reservation> written;
+    try {
+      written = new HashSet<>(waitlistWriter.promote(seated, reservations, now));
+    } catch (RuntimeException ex) {
+      log.error("Could not record waitlist promotions for slot {}", slotId, ex);
+      for (int i = 0; i < seated.size(); i++) {
+        SlotWaitlist.Entry e = seated.get(i);
+        releaseSeat(dropId, slotId, reservations.get(i).getClaimId(), e.userId());
+        guard.release(dropId, e.userId());
+        waitlist.putBack(e);
+      }
+      return -1;
+    }
+    List<Reservation> promoted = new ArrayList<>(written.size());
+    for (int i = 0; i < seated.size(); i++) {
+      SlotWaitlist.Entry e = seated.get(i);
+      Reservation r = reservations.get(i);
+      waitlist.done(e);
+      if (written.contains(r)) {
+        promoted.add(r);
+      } else {
+        // left the waitlist meanwhile, or already booked the drop some other way
+        guard.release(dropId, e.userId());
+        releaseSeat(dropId, slotId, r.getClaimId(), e.userId());
+      }
+    }
+    if (!promoted.isEmpty()) notifier.notifyPromoted(promoted);
+    return claims.size() < wave.size() ? -1 : promoted.size();
+  }
+
+  private void releaseSeat(UUID dropId, UUID slotId, UUID claimId, UUID userId) {
+    try {
+      dropClient.release(dropId, slotId, claimId, userId);
+    } catch (RuntimeException e) {
+      log.warn("Could not return seat {} of slot {}: {}", claimId, slotId, e.getMessage());
+    }
+  }
+}
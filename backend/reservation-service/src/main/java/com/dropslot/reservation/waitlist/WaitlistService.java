@@ -0,0 +1,85 @@
+package com.dropslot.reservation.waitlist;
+
+import com.dropslot.reservation.api.dto.WaitlistDtos;
+import com.dropslot.reservation.domain.ReservationState;
+import com.dropslot.reservation.repo.ReservationRepository;
+import com.dropslot.reservation.repo.WaitlistWriter;
+import com.dropslot.reservation.security.AuthenticatedUser;
+import com.dropslot.reservation.service.ReservationConflictException;
+import java.time.Instant;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+/**
+ * Joining and leaving a slot's waitlist. Positions come from the in-memory queue, never from
+ * counting rows.
+ */
+@Service
+@RequiredArgsConstructor
+public class WaitlistService {
+  private final Waitlists waitlists;
+  private final WaitlistWriter waitlistWriter;
+  private final ReservationRepository reservationRepository;
+
+  public WaitlistDtos.WaitlistEntryResponse join(
+      UUID userId, WaitlistDtos.JoinWaitlistRequest req) {
+    UUID dropId = UUID.fromString(req.dropId());
+    UUID slotId = UUID.fromString(req.slotId());
+    if (reservationRepository.existsByDropIdAndUserIdAndStateIn(
+        dropId, userId, ReservationState.ACTIVE)) {
+      throw new ReservationConflictException("You already have a reservation for this drop");
+    }
+    SlotWaitlist waitlist = waitlists.get(slotId);
+    if (waitlist.isWaiting(userId)) throw alreadyWaiting();
+    SlotWaitlist.Entry entry =
+        new SlotWaitlist.Entry(UUID.randomUUID(), dropId, userId, waitlist.nextRank());
+    if (!waitlistWriter.insert(entry, slotId, Instant.now()) || !waitlist.add(entry)) {
+      throw alreadyWaiting();
+    }
+    return new WaitlistDtos.WaitlistEntryResponse(
+        entry.id().toString(),
+        dropId.toString(),
+        slotId.toString(),
+        "WAITING",
+        waitlist.position(entry.rank()),
+        null);
+  }
+
+  public WaitlistDtos.WaitlistEntryResponse get(UUID id, AuthenticatedUser user) {
+    return toResponse(owned(id, user));
+  }
+
+  public void leave(UUID id, AuthenticatedUser user) {
+    WaitlistWriter.Row row = owned(id, user);
+    if (row.state().equals("PROMOTED")) {
+      throw new ReservationConflictException(
+          "Already promoted; cancel the reservation to give up the seat");
+    }
+    if (waitlistWriter.leave(id, Instant.now())) {
+      waitlists.get(row.slotId()).remove(row.userId());
+    }
+  }
+
+  private WaitlistWriter.Row owned(UUID id, AuthenticatedUser user) {
+    WaitlistWriter.Row row = waitlistWriter.find(id).orElseThrow();
+    if (!row.userId().equals(user.id())) throw new NoSuchElementException();
+    return row;
+  }
+
+  private WaitlistDtos.WaitlistEntryResponse toResponse(WaitlistWriter.Row row) {
+    boolean waiting = row.state().equals("WAITING");
+    return new WaitlistDtos.WaitlistEntryResponse(
+        row.id().toString(),
+        row.dropId().toString(),
+        row.slotId().toString(),
+        row.state(),
+        waiting ? waitlists.get(row.slotId()).position(row.position()) : null,
+        row.reservationId() == null ? null : row.reservationId().toString());
+  }
+
+  private static ReservationConflictException alreadyWaiting() {
+    return new ReservationConflictException("You are already waiting for this slot");
+  }
+}
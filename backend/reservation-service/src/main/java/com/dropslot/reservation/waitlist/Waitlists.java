@@ -0,0 +1,31 @@
+package com.dropslot.reservation.waitlist;
+
+import com.dropslot.reservation.repo.WaitlistWriter;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * The {@link SlotWaitlist} of every slot this instance has seen. A queue is rebuilt from its {@code
+ * WAITING} rows the first time it is needed, so queues come back in order after a restart. Only one
+ * instance may run waitlists, since queues are not shared.
+ */
+@Component
+@RequiredArgsConstructor
+public class Waitlists {
+  private final ConcurrentHashMap<UUID, SlotWaitlist> bySlot = new ConcurrentHashMap<>();
+  private final WaitlistWriter waitlistWriter;
+
+  public SlotWaitlist get(UUID slotId) {
+    SlotWaitlist waitlist = bySlot.get(slotId);
+    if (waitlist != null) return waitlist;
+    return bySlot.computeIfAbsent(slotId, this::load);
+  }
+
+  private SlotWaitlist load(UUID slotId) {
+    SlotWaitlist waitlist = new SlotWaitlist(waitlistWriter.nextPosition(slotId));
+    waitlistWriter.waiting(slotId).forEach(waitlist::add);
+    return waitlist;
+  }
+}
@@ -0,0 +1,28 @@
+--liquibase formatted sql
+--changeset ckenkub:01
+CREATE TABLE IF NOT EXISTS reservations (
+    id UUID PRIMARY KEY,
+    drop_id UUID NOT NULL,
+    slot_id UUID NOT NULL,
+    user_id UUID NOT NULL,
+    -- the seat taken in drop-service
+    claim_id UUID NOT NULL,
+    state TEXT NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    expires_at TIMESTAMP NOT NULL,
+    confirmed_at TIMESTAMP,
+    cancelled_at TIMESTAMP,
+    checked_in_at TIMESTAMP,
+    updated_at TIMESTAMP NOT NULL,
+    CHECK (state IN ('PENDING', 'CONFIRMED', 'CHECKED_IN', 'CANCELLED', 'EXPIRED'))
+);
+
+-- one reservation per user per drop until it is cancelled or expires
+CREATE UNIQUE INDEX IF NOT EXISTS ux_reservations_user_drop_active
+    ON reservations(drop_id, user_id) WHERE state IN ('PENDING', 'CONFIRMED', 'CHECKED_IN');
+
+CREATE INDEX IF NOT EXISTS idx_reservations_user_id ON reservations(user_id, created_at);
+CREATE INDEX IF NOT EXISTS idx_reservations_pending_expiry
+    ON reservations(expires_at) WHERE state = 'PENDING';
+
+--rollback DROP TABLE IF EXISTS reservations;
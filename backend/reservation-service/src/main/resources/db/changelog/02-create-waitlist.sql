@@ -0,0 +1,21 @@
+--liquibase formatted sql
+--changeset ckenkub:02
+CREATE TABLE IF NOT EXISTS waitlist (
+    id UUID PRIMARY KEY,
+    drop_id UUID NOT NULL,
+    slot_id UUID NOT NULL,
+    user_id UUID NOT NULL,
+    -- rank in the slot's queue, handed out in join order and never reused
+    position BIGINT NOT NULL,
+    state TEXT NOT NULL,
+    reservation_id UUID,
+    created_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP NOT NULL,
+    CHECK (state IN ('WAITING', 'PROMOTED', 'LEFT'))
+);
+
+CREATE UNIQUE INDEX IF NOT EXISTS ux_waitlist_slot_user_waiting
+    ON waitlist(slot_id, user_id) WHERE state = 'WAITING';
+CREATE INDEX IF NOT EXISTS idx_waitlist_slot_position ON waitlist(slot_id, position);
+
+--rollback DROP TABLE IF EXISTS waitlist;
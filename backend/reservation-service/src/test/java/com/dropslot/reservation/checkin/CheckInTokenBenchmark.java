@@ -0,0 +1,64 @@
+package com.dropslot.reservation.checkin;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Check-in tokens per second, per thread; a door device verifies on one core.
+ *
+ * <ul>
+ *   <li>{@code verify}: what a device does for every scan, and the server again per uploaded scan.
+ *   <li>{@code signToken}: issuing a QR code.
+ * </ul>
+ *
+ * Not part of the test run. From {@code backend/}:
+ *
+ * <pre>
+ * mvn -pl reservation-service -am test-compile dependency:build-classpath \
+ *     -Dmdep.includeScope=test -Dmdep.outputFile=target/bench.cp
+ * cd reservation-service && java -cp target/test-classes:target/classes:$(cat target/bench.cp) \
+ *     com.dropslot.reservation.checkin.CheckInTokenBenchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CheckInTokenBenchmark {
+  private CheckInTokens tokens;
+  private CheckInToken token;
+  private String signed;
+  private Instant now;
+
+  @Setup
+  public void setUp() throws Exception {
+    tokens = CheckInTokensTest.tokens(CheckInTokensTest.keyPair());
+    now = Instant.now();
+    token = new CheckInToken(UUID.randomUUID(), UUID.randomUUID(), now.plus(Duration.ofHours(1)));
+    signed = tokens.sign(token);
+  }
+
+  @Benchmark
+  public Optional<CheckInToken> verify() {
+    return tokens.verify(signed, now);
+  }
+
+  @Benchmark
+  public String signToken() {
+    return tokens.sign(token);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(CheckInTokenBenchmark.class.getSimpleName()).build())
+        .run();
+  }
+}
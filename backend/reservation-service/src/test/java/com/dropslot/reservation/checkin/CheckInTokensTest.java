@@ -0,0 +1,65 @@
+package com.dropslot.reservation.checkin;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+class CheckInTokensTest {
+  private static final Instant NOW = Instant.parse("2026-05-01T10:00:00Z");
+
+  static CheckInTokens tokens(KeyPair current, KeyPair... previous) {
+    Base64.Encoder b64 = Base64.getEncoder();
+    return new CheckInTokens(
+        b64.encodeToString(current.getPrivate().getEncoded()),
+        b64.encodeToString(current.getPublic().getEncoded()),
+        List.of(previous).stream()
+            .map(k -> b64.encodeToString(k.getPublic().getEncoded()))
+            .toList());
+  }
+
+  static KeyPair keyPair() throws Exception {
+    return KeyPairGenerator.getInstance("Ed25519").generateKeyPair();
+  }
+
+  private final CheckInToken token =
+      new CheckInToken(UUID.randomUUID(), UUID.randomUUID(), NOW.plus(Duration.ofHours(1)));
+
+  @Test
+  void signedTokenIsCompactAndVerifies() throws Exception {
+    CheckInTokens tokens = tokens(keyPair());
+    String signed = tokens.sign(token);
+
+    assertThat(signed).hasSize(140);
+    assertThat(tokens.verify(signed, NOW)).contains(token);
+  }
+
+  @Test
+  void rejectsTamperedExpiredAndMalformedTokens() throws Exception {
+    CheckInTokens tokens = tokens(keyPair());
+    byte[] bytes = Base64.getUrlDecoder().decode(tokens.sign(token));
+    bytes[10] ^= 1;
+    String tampered = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+    assertThat(tokens.verify(tampered, NOW)).isEmpty();
+    assertThat(tokens.verify(tokens.sign(token), token.expiresAt())).isEmpty();
+    assertThat(tokens.verify("not a token", NOW)).isEmpty();
+    assertThat(tokens.verify("", NOW)).isEmpty();
+  }
+
+  @Test
+  void previousKeysStillVerifyDuringRotation() throws Exception {
+    KeyPair old = keyPair();
+    String signedWithOld = tokens(old).sign(token);
+
+    assertThat(tokens(keyPair(), old).verify(signedWithOld, NOW)).contains(token);
+    assertThat(tokens(keyPair()).verify(signedWithOld, NOW)).isEmpty();
+    assertThat(tokens(keyPair(), old).verificationKeys()).hasSize(2);
+  }
+}
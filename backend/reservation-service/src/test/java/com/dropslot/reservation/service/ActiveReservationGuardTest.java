@@ -0,0 +1,56 @@
+package com.dropslot.reservation.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class ActiveReservationGuardTest {
+
+  @Test
+  void duplicateClickStormLetsExactlyOneThrough() throws Exception {
+    ActiveReservationGuard guard = new ActiveReservationGuard(16);
+    UUID drop = UUID.randomUUID();
+    UUID user = UUID.randomUUID();
+    AtomicInteger admitted = new AtomicInteger();
+    CountDownLatch start = new CountDownLatch(1);
+    ExecutorService pool = Executors.newFixedThreadPool(8);
+    for (int i = 0; i < 1_000; i++) {
+      pool.submit(
+          () -> {
+            start.await();
+            if (guard.tryAcquire(drop, user)) admitted.incrementAndGet();
+            return null;
+          });
+    }
+    start.countDown();
+    pool.shutdown();
+    assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+    assertEquals(1, admitted.get());
+  }
+
+  @Test
+  void pairsAreIndependentAndReleasable() {
+    ActiveReservationGuard guard = new ActiveReservationGuard(4);
+    UUID drop = UUID.randomUUID();
+    UUID user = UUID.randomUUID();
+    assertTrue(guard.tryAcquire(drop, user));
+    assertTrue(guard.tryAcquire(UUID.randomUUID(), user));
+    assertTrue(guard.tryAcquire(drop, UUID.randomUUID()));
+    assertFalse(guard.tryAcquire(drop, user));
+    assertEquals(3, guard.size());
+
+    guard.release(drop, user);
+    assertTrue(guard.tryAcquire(drop, user));
+  }
+
+  @Test
+  void stripesMustBeAPowerOfTwo() {
+    assertThrows(IllegalArgumentException.class, () -> new ActiveReservationGuard(12));
+  }
+}
@@ -0,0 +1,62 @@
+package com.dropslot.reservation.waitlist;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+class SlotWaitlistTest {
+  private static final UUID DROP = UUID.randomUUID();
+
+  private static SlotWaitlist.Entry join(SlotWaitlist waitlist) {
+    SlotWaitlist.Entry e =
+        new SlotWaitlist.Entry(UUID.randomUUID(), DROP, UUID.randomUUID(), waitlist.nextRank());
+    assertThat(waitlist.add(e)).isTrue();
+    return e;
+  }
+
+  @Test
+  void promotesInJoinOrderAndPositionsFollowTheHead() {
+    SlotWaitlist waitlist = new SlotWaitlist(1);
+    SlotWaitlist.Entry first = join(waitlist);
+    SlotWaitlist.Entry second = join(waitlist);
+    SlotWaitlist.Entry third = join(waitlist);
+    assertThat(waitlist.position(third.rank())).isEqualTo(3);
+
+    assertThat(waitlist.poll()).isEqualTo(first);
+    waitlist.done(first);
+    assertThat(waitlist.position(second.rank())).isEqualTo(1);
+    assertThat(waitlist.position(third.rank())).isEqualTo(2);
+    assertThat(waitlist.isWaiting(first.userId())).isFalse();
+  }
+
+  @Test
+  void putBackRestoresPlaceAheadOfLaterJoiners() {
+    SlotWaitlist waitlist = new SlotWaitlist(1);
+    SlotWaitlist.Entry first = join(waitlist);
+    SlotWaitlist.Entry second = join(waitlist);
+    SlotWaitlist.Entry polled = waitlist.poll();
+    join(waitlist);
+
+    waitlist.putBack(polled);
+
+    assertThat(waitlist.poll()).isEqualTo(first);
+    assertThat(waitlist.poll()).isEqualTo(second);
+  }
+
+  @Test
+  void leavingUsersAreNotPutBackAndCannotJoinTwice() {
+    SlotWaitlist waitlist = new SlotWaitlist(7);
+    SlotWaitlist.Entry e = join(waitlist);
+    assertThat(e.rank()).isEqualTo(7);
+    assertThat(waitlist.add(new SlotWaitlist.Entry(UUID.randomUUID(), DROP, e.userId(), 99)))
+        .isFalse();
+
+    SlotWaitlist.Entry polled = waitlist.poll();
+    assertThat(waitlist.remove(e.userId())).isFalse();
+    waitlist.putBack(polled);
+
+    assertThat(waitlist.size()).isZero();
+    assertThat(waitlist.isWaiting(e.userId())).isFalse();
+  }
+}
@@ -0,0 +1,46 @@
+#!/usr/bin/env bash
+set -euo pipefail
+# Build the fast-start Jib image of a service with an AppCDS archive in /app/cds/app.jsa.
+# The archive is only valid for the JVM that wrote it and the exact jars it saw, so it is trained
+# inside a first build of the image, from its own classpath, and the image is then rebuilt from the
+# same jars with the archive added.
+# Needs Docker; no database, the training run starts the service with common-offline.yml.
+# Usage:
+#   ./scripts/jib-cds.sh                                -> user-service and store-service
+#   ./scripts/jib-cds.sh store-service                  -> only the listed modules
+# Optional: GOAL=jib:build to push the final image instead of loading it into the local daemon,
+# TAG=custom-tag for the final tag (default: fast-start).
+
+REPO_ROOT=$(cd "$(dirname "${BASH_SOURCE[0]}")/../.." && pwd)
+cd "$REPO_ROOT/backend"
+
+GOAL=${GOAL:-jib:dockerBuild}
+TAG=${TAG:-fast-start}
+MODULES=("$@")
+if [ "${#MODULES[@]}" -eq 0 ]; then
+  MODULES=(user-service store-service)
+fi
+
+for mod in "${MODULES[@]}"; do
+  cds="$PWD/$mod/target/cds"
+
+  echo "===== $mod: building the training image ====="
+  rm -rf "$cds"
+  # installed, so that the Jib-only runs below resolve the sibling modules
+  mvn -B -q -Pfast-start -DskipTests -pl "$mod" -am install
+  mvn -B -q -Pfast-start -pl "$mod" jib:dockerBuild -Djib.to.image="dropslot/$mod:cds-train"
+
+  echo "===== $mod: training the archive ====="
+  # spring.context.exit=onRefresh stops once the context is refreshed, before anything is served
+  docker run --rm -v "$cds:/app/cds" --entrypoint sh "dropslot/$mod:cds-train" -c \
+    'exec java -XX:ArchiveClassesAtExit=/app/cds/app.jsa -Dspring.context.exit=onRefresh \
+       -cp @/app/jib-classpath-file "$(cat /app/jib-main-class-file)" \
+       --spring.profiles.active=fast-start --spring.config.import=classpath:common-offline.yml'
+  test -s "$cds/app.jsa"
+
+  echo "===== $mod: building the image with the archive ====="
+  # no package here: the archive records the jars' sizes and timestamps
+  mvn -B -q -Pfast-start -pl "$mod" "$GOAL" -Djib.to.image="dropslot/$mod:$TAG"
+  docker rmi "dropslot/$mod:cds-train" >/dev/null
+  echo "Built dropslot/$mod:$TAG with $(du -h "$cds/app.jsa" | cut -f1) CDS archive"
+done
@@ -0,0 +1,85 @@
+#!/usr/bin/env bash
+set -euo pipefail
+# Compare time-to-ready and resident memory of the JVM (Jib) and native images of a service.
+# Needs Docker and a GraalVM JDK 21 as JAVA_HOME (for the native build).
+# Usage:
+#   ./scripts/native-compare.sh                         -> user-service and store-service
+#   ./scripts/native-compare.sh store-service           -> only the listed modules
+# Optional: RUNS=5 to average over more starts (default 3), SKIP_BUILD=1 to reuse built images.
+
+REPO_ROOT=$(cd "$(dirname "${BASH_SOURCE[0]}")/../.." && pwd)
+cd "$REPO_ROOT/backend"
+
+RUNS=${RUNS:-3}
+MODULES=("$@")
+if [ "${#MODULES[@]}" -eq 0 ]; then
+  MODULES=(user-service store-service)
+fi
+
+port_of() {
+  case "$1" in
+    user-service) echo 8081 ;;
+    store-service) echo 8082 ;;
+    *) echo "unknown module $1" >&2; exit 1 ;;
+  esac
+}
+
+db_env_of() {
+  case "$1" in
+    user-service) echo "jdbc:postgresql://localhost:5433/user_db user" ;;
+    store-service) echo "jdbc:postgresql://localhost:5434/store_db store" ;;
+  esac
+}
+
+build() {
+  local mod=$1
+  echo "===== Building $mod: JVM image ====="
+  mvn -B -q -DskipTests -pl "$mod" -am package jib:dockerBuild \
+    -Djib.to.image="dropslot/$mod:compare-jvm"
+  echo "===== Building $mod: native image ====="
+  mvn -B -q -Pnative -DskipTests -pl "$mod" -am package jib:dockerBuild \
+    -Djib.to.image="dropslot/$mod:compare-native"
+}
+
+# prints "<ms to ready> <rss MiB>"
+measure() {
+  local mod=$1 image=$2 port url user
+  port=$(port_of "$mod")
+  read -r url user <<<"$(db_env_of "$mod")"
+  local start end cid
+  start=$(date +%s%N)
+  cid=$(docker run -d --rm --network host \
+    -e SPRING_PROFILES_ACTIVE=docker \
+    -e COMMON_DB_URL="$url" -e COMMON_DB_USER="$user" -e COMMON_DB_PASS=password \
+    "$image")
+  until curl -sf "http://localhost:$port/actuator/health/readiness" >/dev/null 2>&1; do
+    if ! docker ps -q --no-trunc | grep -q "$cid"; then
+      echo "container for $image exited before becoming ready" >&2
+      exit 1
+    fi
+    sleep 0.05
+  done
+  end=$(date +%s%N)
+  # let the post-start work (caches, relays) settle before reading memory
+  sleep 5
+  local rss
+  rss=$(docker stats --no-stream --format '{{.MemUsage}}' "$cid" | awk '{print $1}')
+  docker stop "$cid" >/dev/null
+  echo "$(((end - start) / 1000000)) $rss"
+}
+
+echo "Starting postgres containers..."
+docker-compose up -d postgres-user postgres-store >/dev/null
+
+printf '\n%-14s %-7s %-10s %s\n' module image ready_ms rss
+for mod in "${MODULES[@]}"; do
+  if [ -z "${SKIP_BUILD:-}" ]; then
+    build "$mod" >&2
+  fi
+  for kind in jvm native; do
+    for run in $(seq 1 "$RUNS"); do
+      read -r ms rss <<<"$(measure "$mod" "dropslot/$mod:compare-$kind")"
+      printf '%-14s %-7s %-10s %s\n' "$mod" "$kind" "$ms" "$rss"
+    done
+  done
+done
@@ -1,11 +1,27 @@
 package com.dropslot.store;
 
+import com.dropslot.common.idempotency.IdempotencyConfig;
+import com.dropslot.common.internal.InternalPortConfig;
+import com.dropslot.common.rollup.RollupConfig;
+import com.dropslot.eventlog.EventLogConfig;
+import com.dropslot.store.config.StoreMigrations;
+import com.dropslot.store.config.StoreServiceRuntimeHints;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.ImportRuntimeHints;
 
 @SpringBootApplication
+@Import({
+  IdempotencyConfig.class,
+  RollupConfig.class,
+  EventLogConfig.class,
+  InternalPortConfig.class
+})
+@ImportRuntimeHints(StoreServiceRuntimeHints.class)
 public class StoreServiceApplication {
   public static void main(String[] args) {
+    StoreMigrations.runIfRequested(args);
     SpringApplication.run(StoreServiceApplication.class, args);
   }
 }
@@ -0,0 +1,42 @@
+package com.dropslot.store.api;
+
+import com.dropslot.store.shard.ShardTopology;
+import com.dropslot.store.shard.TenantDirectory;
+import com.dropslot.store.shard.TenantMover;
+import java.util.Map;
+import java.util.Set;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/admin/shards")
+@RequiredArgsConstructor
+public class ShardAdminController {
+  private final ShardTopology topology;
+  private final TenantDirectory tenantDirectory;
+  private final TenantMover tenantMover;
+
+  public record ShardsResponse(
+      String directoryShard, Set<String> shards, Map<String, TenantDirectory.Placement> pinned) {}
+
+  @GetMapping
+  public ResponseEntity<ShardsResponse> shards() {
+    return ResponseEntity.ok(
+        new ShardsResponse(topology.directoryShard(), topology.shards(), tenantDirectory.pinned()));
+  }
+
+  @GetMapping("/tenants/{tenantKey}")
+  public ResponseEntity<Map<String, String>> placement(
+      @PathVariable("tenantKey") String tenantKey) {
+    return ResponseEntity.ok(
+        Map.of("tenantKey", tenantKey, "shard", tenantDirectory.shardFor(tenantKey)));
+  }
+
+  @PostMapping("/tenants/{tenantKey}/move")
+  public ResponseEntity<TenantMover.MoveResult> move(
+      @PathVariable("tenantKey") String tenantKey, @RequestParam("target") String target)
+      throws InterruptedException {
+    return ResponseEntity.ok(tenantMover.move(tenantKey, target));
+  }
+}
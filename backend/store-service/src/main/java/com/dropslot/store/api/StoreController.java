@@ -1,41 +1,191 @@
 package com.dropslot.store.api;
 
+import com.dropslot.common.rollup.Rollups;
 import com.dropslot.store.api.dto.StoreDtos;
+import com.dropslot.store.bulk.BranchBulkImporter;
+import com.dropslot.store.bulk.BranchRowReader;
+import com.dropslot.store.export.StoreExporter;
+import com.dropslot.store.repo.StoreRepository;
+import com.dropslot.store.search.StoreSearchIndex;
 import com.dropslot.store.service.StoreService;
+import com.dropslot.store.shard.ShardRouter;
 import jakarta.validation.Valid;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.List;
 import java.util.UUID;
+import java.util.function.Supplier;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/stores")
 @RequiredArgsConstructor
 public class StoreController {
+  /**
+   * Tenant of a store response, which the gateway's {@code ViewCount} filter counts the view under
+   * and strips.
+   */
+  public static final String TENANT_HEADER = "X-Tenant-Key";
+
   private final StoreService storeService;
+  private final BranchBulkImporter branchBulkImporter;
+  private final ShardRouter shardRouter;
+  private final StoreSearchIndex storeSearchIndex;
+  private final StoreExporter storeExporter;
+  private final Rollups rollups;
+
+  @Value("${store.http.cache-control:no-cache}")
+  private String cacheControl;
 
   @PostMapping
   public ResponseEntity<StoreDtos.StoreResponse> create(
       @Valid @RequestBody StoreDtos.CreateStoreRequest req,
       @RequestHeader(value = "X-User-Id", required = false) String userId) {
     UUID creator = userId != null ? UUID.fromString(userId) : null;
-    return ResponseEntity.ok(storeService.create(req, creator));
+    return ResponseEntity.ok(
+        shardRouter.writeTenant(req.tenantKey(), () -> storeService.create(req, creator)));
+  }
+
+  /** Typeahead over store and branch names, slugs and addresses; never touches the database. */
+  @GetMapping("/search")
+  public ResponseEntity<List<StoreDtos.SearchHit>> search(
+      @RequestParam("q") String q, @RequestParam(value = "limit", defaultValue = "10") int limit) {
+    if (limit < 1 || limit > 20) throw new IllegalArgumentException("limit must be 1-20");
+    return ResponseEntity.ok(storeSearchIndex.search(q, limit));
+  }
+
+  /**
+   * The caller's stores and branches as NDJSON, for user-service's data export. Internal (see
+   * {@code internal.paths}): {@code X-User-Id} comes from user-service, which also throttles
+   * exports, never from a client.
+   */
+  @GetMapping(value = "/export", produces = "application/x-ndjson")
+  public ResponseEntity<StreamingResponseBody> export(@RequestHeader("X-User-Id") UUID userId) {
+    return ResponseEntity.ok()
+        .contentType(BranchBulkImporter.NDJSON)
+        .body(out -> storeExporter.export(userId, out));
   }
 
   @GetMapping("/{id}")
-  public ResponseEntity<StoreDtos.StoreDetailResponse> get(@PathVariable("id") UUID id) {
-    return ResponseEntity.ok(storeService.get(id));
+  public ResponseEntity<StoreDtos.StoreDetailResponse> get(
+      @PathVariable("id") UUID id, WebRequest request) {
+    return shardRouter.readStore(
+        id, () -> conditionalGet(storeService.version(id), request, () -> storeService.get(id)));
+  }
+
+  @GetMapping("/by-slug/{slug}")
+  public ResponseEntity<StoreDtos.StoreDetailResponse> getBySlug(
+      @PathVariable("slug") String slug, WebRequest request) {
+    return shardRouter.readSlug(
+        slug,
+        () -> {
+          var version = storeService.versionBySlug(slug);
+          return conditionalGet(version, request, () -> storeService.get(version.getId()));
+        });
+  }
+
+  /**
+   * Store views, counted by the gateway around its response cache so the views it answers itself
+   * count too; anonymous ones add to the views but not the users. Internal (see {@code
+   * internal.paths}).
+   */
+  @PostMapping("/views")
+  public ResponseEntity<Void> views(@RequestBody List<StoreDtos.ViewCount> counts) {
+    for (StoreDtos.ViewCount count : counts) {
+      if (count.key() == null || count.views() < 1) {
+        throw new IllegalArgumentException("Each view count needs a key and views > 0");
+      }
+      List<UUID> users = count.users() != null ? count.users() : List.of();
+      rollups.record("store_views", count.key(), count.views(), users);
+    }
+    return ResponseEntity.noContent().build();
   }
 
   @PutMapping("/{id}")
   public ResponseEntity<StoreDtos.StoreResponse> update(
       @PathVariable("id") UUID id, @Valid @RequestBody StoreDtos.CreateStoreRequest req) {
-    return ResponseEntity.ok(storeService.update(id, req));
+    return ResponseEntity.ok(shardRouter.writeStore(id, () -> storeService.update(id, req)));
   }
 
   @PostMapping("/{id}/branches")
   public ResponseEntity<StoreDtos.BranchResponse> addBranch(
       @PathVariable("id") UUID id, @Valid @RequestBody StoreDtos.CreateBranchRequest req) {
-    return ResponseEntity.ok(storeService.addBranch(id, req));
+    return ResponseEntity.ok(shardRouter.writeStore(id, () -> storeService.addBranch(id, req)));
+  }
+
+  @PostMapping(
+      value = "/{id}/branches:bulk",
+      consumes = {"application/x-ndjson", "text/csv"})
+  public ResponseEntity<StoreDtos.BulkImportResponse> addBranches(
+      @PathVariable("id") UUID id,
+      @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+      @RequestParam(value = "atomic", defaultValue = "false") boolean atomic,
+      InputStream body)
+      throws IOException {
+    StoreDtos.BulkImportResponse resp;
+    try (BranchRowReader reader = branchBulkImporter.open(contentType, body)) {
+      resp =
+          shardRouter.writeStore(
+              id,
+              () -> {
+                try {
+                  return branchBulkImporter.importBranches(id, reader, atomic);
+                } catch (IOException e) {
+                  throw new UncheckedIOException(e);
+                }
+              });
+    }
+    HttpStatus status =
+        atomic && resp.rejected() > 0 ? HttpStatus.UNPROCESSABLE_ENTITY : HttpStatus.OK;
+    return ResponseEntity.status(status).body(resp);
+  }
+
+  /**
+   * Answers {@code If-None-Match} from the store version alone, so an unchanged store costs one
+   * indexed lookup and no body.
+   */
+  private ResponseEntity<StoreDtos.StoreDetailResponse> conditionalGet(
+      StoreRepository.StoreVersionView version,
+      WebRequest request,
+      Supplier<StoreDtos.StoreDetailResponse> body) {
+    Instant updatedAt = version.getUpdatedAt();
+    long micros = updatedAt.getEpochSecond() * 1_000_000 + updatedAt.getNano() / 1_000;
+    String etag = "\"" + Long.toHexString(micros) + "\"";
+    HttpHeaders headers = cacheHeaders();
+    headers.set(TENANT_HEADER, version.getTenantKey());
+    if (request.checkNotModified(etag)) {
+      // checkNotModified has already written the ETag header
+      return ResponseEntity.status(HttpStatus.NOT_MODIFIED).headers(headers).build();
+    }
+    return ResponseEntity.ok().eTag(etag).headers(headers).body(body.get());
+  }
+
+  private HttpHeaders cacheHeaders() {
+    HttpHeaders headers = new HttpHeaders();
+    if (cacheControl != null && !cacheControl.isBlank()) {
+      headers.set(HttpHeaders.CACHE_CONTROL, cacheControl);
+    }
+    return headers;
+  }
+
+  @GetMapping("/{id}/branches/open")
+  public ResponseEntity<List<StoreDtos.BranchResponse>> openBranches(
+      @PathVariable("id") UUID id,
+      @RequestParam(value = "at", required = false)
+          @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+          Instant at) {
+    Instant when = at != null ? at : Instant.now();
+    return ResponseEntity.ok(shardRouter.readStore(id, () -> storeService.openBranches(id, when)));
   }
 }
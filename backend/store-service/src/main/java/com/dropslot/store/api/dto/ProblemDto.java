@@ -0,0 +1,14 @@
+package com.dropslot.store.api.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import java.time.Instant;
+
+@Schema(description = "Problem JSON (RFC 7807) response")
+public record ProblemDto(
+    @Schema(example = "about:blank") String type,
+    @Schema(example = "Bad Request") String title,
+    @Schema(example = "Invalid time for monday, expected HH:mm: 9am") String detail,
+    @Schema(example = "/stores/{id}/branches") String instance,
+    @Schema(example = "400") Integer status,
+    @Schema(description = "Timestamp when the problem occurred", example = "2025-09-02T10:00:00Z")
+        Instant timestamp) {}
@@ -1,7 +1,10 @@
 package com.dropslot.store.api.dto;
 
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import com.fasterxml.jackson.databind.JsonNode;
 import jakarta.validation.constraints.NotBlank;
 import java.util.List;
+import java.util.UUID;
 
 public class StoreDtos {
   public static record CreateStoreRequest(
@@ -11,10 +14,36 @@ public class StoreDtos {
       String id, String name, String slug, String tenantKey, String logoUrl) {}
 
   public static record CreateBranchRequest(
-      @NotBlank String name, String address, Double lat, Double lng, String phone) {}
+      @NotBlank String name,
+      String address,
+      Double lat,
+      Double lng,
+      String phone,
+      JsonNode openingHours) {}
 
   public static record BranchResponse(
-      String id, String name, String address, Double lat, Double lng, String phone) {}
+      String id,
+      String name,
+      String address,
+      Double lat,
+      Double lng,
+      String phone,
+      @JsonRawValue String openingHours) {}
 
   public static record StoreDetailResponse(StoreResponse store, List<BranchResponse> branches) {}
+
+  /** {@code type} is STORE or BRANCH; {@code detail} is the store's slug or branch's address. */
+  public static record SearchHit(
+      String type, String id, String storeId, String name, String detail) {}
+
+  public static record BulkRowResult(long line, String status, String id, String error) {}
+
+  /**
+   * Views the gateway counted under {@code key}, the {@code X-Tenant-Key} of the responses; {@code
+   * users} are the signed-in viewers among them.
+   */
+  public static record ViewCount(String key, long views, List<UUID> users) {}
+
+  public static record BulkImportResponse(
+      int created, int rejected, boolean committed, List<BulkRowResult> rows) {}
 }
@@ -0,0 +1,266 @@
+package com.dropslot.store.bulk;
+
+import com.dropslot.store.api.dto.StoreDtos;
+import com.dropslot.store.domain.Branch;
+import com.dropslot.store.outbox.Outbox;
+import com.dropslot.store.repo.BranchBatchWriter;
+import com.dropslot.store.repo.StoreRepository;
+import com.dropslot.store.schedule.BranchScheduleCache;
+import com.dropslot.store.schedule.OpeningHours;
+import com.dropslot.store.search.StoreSearchIndex;
+import com.dropslot.store.service.StoreService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Streams a bulk branch upload into the database. Rows are parsed and validated one at a time and
+ * written in JDBC batches of {@code store.bulk-import.chunk-size}. In atomic mode the whole upload
+ * runs in one transaction and any rejected row rolls everything back; otherwise each chunk commits
+ * on its own and only the failing rows are reported.
+ */
+@Service
+public class BranchBulkImporter {
+  public static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+  public static final MediaType CSV = MediaType.parseMediaType("text/csv");
+
+  static final String CREATED = "CREATED";
+  static final String INVALID = "INVALID";
+  static final String FAILED = "FAILED";
+  static final String ROLLED_BACK = "ROLLED_BACK";
+
+  private static final Logger log = LoggerFactory.getLogger(BranchBulkImporter.class);
+
+  private final StoreRepository storeRepository;
+  private final BranchBatchWriter batchWriter;
+  private final BranchScheduleCache branchScheduleCache;
+  private final StoreSearchIndex storeSearchIndex;
+  private final Outbox outbox;
+  private final ObjectMapper objectMapper;
+  private final TransactionTemplate transactionTemplate;
+  private final int chunkSize;
+
+  public BranchBulkImporter(
+      StoreRepository storeRepository,
+      BranchBatchWriter batchWriter,
+      BranchScheduleCache branchScheduleCache,
+      StoreSearchIndex storeSearchIndex,
+      Outbox outbox,
+      ObjectMapper objectMapper,
+      PlatformTransactionManager transactionManager,
+      @Value("${store.bulk-import.chunk-size:500}") int chunkSize) {
+    this.storeRepository = storeRepository;
+    this.batchWriter = batchWriter;
+    this.branchScheduleCache = branchScheduleCache;
+    this.storeSearchIndex = storeSearchIndex;
+    this.outbox = outbox;
+    this.objectMapper = objectMapper;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.chunkSize = chunkSize;
+  }
+
+  public BranchRowReader open(MediaType contentType, InputStream body) throws IOException {
+    BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+    if (contentType != null && NDJSON.isCompatibleWith(contentType)) {
+      return new NdjsonBranchReader(reader, objectMapper);
+    }
+    if (contentType != null && CSV.isCompatibleWith(contentType)) {
+      return new CsvBranchReader(reader, objectMapper);
+    }
+    throw new IllegalArgumentException("Unsupported bulk import content type: " + contentType);
+  }
+
+  public StoreDtos.BulkImportResponse importBranches(
+      UUID storeId, BranchRowReader reader, boolean atomic) throws IOException {
+    String tenantKey =
+        storeRepository
+            .findVersionById(storeId)
+            .orElseThrow(() -> new NoSuchElementException("Store not found"))
+            .getTenantKey();
+    Run run = new Run(storeId, tenantKey, atomic);
+    if (atomic) {
+      IOException[] failure = new IOException[1];
+      transactionTemplate.executeWithoutResult(
+          status -> {
+            try {
+              run.drain(reader);
+            } catch (IOException e) {
+              failure[0] = e;
+            }
+            if (failure[0] != null || run.rejected > 0) {
+              status.setRollbackOnly();
+            }
+          });
+      if (failure[0] != null) throw failure[0];
+      if (run.rejected > 0) run.rollBack();
+    } else {
+      run.drain(reader);
+    }
+    run.publishSchedules(run.written);
+    log.info(
+        "Bulk branch import storeId={} atomic={} created={} rejected={}",
+        storeId,
+        atomic,
+        run.created,
+        run.rejected);
+    return new StoreDtos.BulkImportResponse(
+        run.created, run.rejected, run.created > 0, run.results);
+  }
+
+  private String validate(StoreDtos.CreateBranchRequest req) {
+    if (req.name() == null || req.name().isBlank()) return "name: must not be blank";
+    if (req.lat() != null && (req.lat() < -90 || req.lat() > 90)) return "lat: out of range";
+    if (req.lng() != null && (req.lng() < -180 || req.lng() > 180)) return "lng: out of range";
+    return null;
+  }
+
+  /** Mutable state of one import; not shared between requests. */
+  private final class Run {
+    private final UUID storeId;
+    private final String tenantKey;
+    private final boolean atomic;
+    private final List<StoreDtos.BulkRowResult> results = new ArrayList<>();
+    private final List<Branch> pending = new ArrayList<>();
+    private final List<Integer> pendingRows = new ArrayList<>();
+    // only used in atomic mode, where schedules are published after the single commit
+    private final List<Branch> written = new ArrayList<>();
+    private int created;
+    private int rejected;
+
+    Run(UUID storeId, String tenantKey, boolean atomic) {
+      this.storeId = storeId;
+      this.tenantKey = tenantKey;
+      this.atomic = atomic;
+    }
+
+    void drain(BranchRowReader reader) throws IOException {
+      BranchRowReader.Row row;
+      long line = 0;
+      while (true) {
+        try {
+          row = reader.next();
+        } catch (IllegalArgumentException e) {
+          // unreadable from here on; earlier chunks may have committed, so report them all
+          accept(BranchRowReader.Row.error(line + 1, e.getMessage()));
+          break;
+        }
+        if (row == null) break;
+        line = row.line();
+        accept(row);
+        if (pending.size() >= chunkSize) flush();
+      }
+      flush();
+    }
+
+    private void accept(BranchRowReader.Row row) {
+      String error = row.error() != null ? row.error() : validate(row.request());
+      String openingHours = null;
+      if (error == null) {
+        try {
+          openingHours = OpeningHours.normalize(row.request().openingHours());
+        } catch (IllegalArgumentException e) {
+          error = e.getMessage();
+        }
+      }
+      if (error != null) {
+        rejected++;
+        results.add(new StoreDtos.BulkRowResult(row.line(), INVALID, null, error));
+        return;
+      }
+      if (atomic && rejected > 0) {
+        // the transaction will be rolled back; keep validating but stop writing
+        results.add(new StoreDtos.BulkRowResult(row.line(), ROLLED_BACK, null, null));
+        return;
+      }
+      var req = row.request();
+      Branch b =
+          Branch.builder()
+              .id(UUID.randomUUID())
+              .name(req.name())
+              .address(req.address())
+              .lat(req.lat())
+              .lng(req.lng())
+              .phone(req.phone())
+              .openingHours(openingHours)
+              .build();
+      pending.add(b);
+      pendingRows.add(results.size());
+      results.add(new StoreDtos.BulkRowResult(row.line(), CREATED, b.getId().toString(), null));
+    }
+
+    private void flush() {
+      if (pending.isEmpty()) return;
+      if (atomic) {
+        write();
+        commitPending();
+        return;
+      }
+      try {
+        transactionTemplate.executeWithoutResult(status -> write());
+        commitPending();
+      } catch (DataAccessException e) {
+        log.warn("Bulk branch chunk failed storeId={}: {}", storeId, e.getMessage());
+        String message = e.getMostSpecificCause().getMessage();
+        for (int i : pendingRows) {
+          var r = results.get(i);
+          results.set(i, new StoreDtos.BulkRowResult(r.line(), FAILED, null, message));
+        }
+        rejected += pending.size();
+        pending.clear();
+        pendingRows.clear();
+      }
+    }
+
+    private void write() {
+      batchWriter.insert(storeId, pending);
+      outbox.addAll(
+          pending.stream().map(b -> StoreService.branchCreated(b, storeId, tenantKey)).toList());
+      // new branches change the store representation, so advance its version (ETag)
+      storeRepository.touch(storeId, StoreService.now());
+    }
+
+    private void commitPending() {
+      created += pending.size();
+      if (atomic) {
+        written.addAll(pending);
+      } else {
+        publishSchedules(pending);
+      }
+      pending.clear();
+      pendingRows.clear();
+    }
+
+    void rollBack() {
+      for (int i = 0; i < results.size(); i++) {
+        var r = results.get(i);
+        if (CREATED.equals(r.status())) {
+          results.set(i, new StoreDtos.BulkRowResult(r.line(), ROLLED_BACK, null, null));
+        }
+      }
+      created = 0;
+      written.clear();
+    }
+
+    void publishSchedules(List<Branch> branches) {
+      for (Branch b : branches) {
+        branchScheduleCache.put(b.getId(), OpeningHours.compile(b.getOpeningHours()));
+        storeSearchIndex.indexBranch(b.getId(), storeId, b.getName(), b.getAddress());
+      }
+    }
+  }
+}
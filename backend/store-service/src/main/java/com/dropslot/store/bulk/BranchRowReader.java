@@ -0,0 +1,23 @@
+package com.dropslot.store.bulk;
+
+import com.dropslot.store.api.dto.StoreDtos;
+import java.io.Closeable;
+import java.io.IOException;
+
+/** Incremental reader over a bulk branch upload; rows are parsed one at a time. */
+public interface BranchRowReader extends Closeable {
+
+  /** Returns the next row, or {@code null} once the input is exhausted. */
+  Row next() throws IOException;
+
+  /** A parsed row; exactly one of {@code request} and {@code error} is set. */
+  record Row(long line, StoreDtos.CreateBranchRequest request, String error) {
+    static Row ok(long line, StoreDtos.CreateBranchRequest request) {
+      return new Row(line, request, null);
+    }
+
+    static Row error(long line, String error) {
+      return new Row(line, null, error);
+    }
+  }
+}
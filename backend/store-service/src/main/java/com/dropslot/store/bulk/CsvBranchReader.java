@@ -0,0 +1,168 @@
+package com.dropslot.store.bulk;
+
+import com.dropslot.store.api.dto.StoreDtos;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * RFC 4180 CSV with a header row naming the columns: {@code name, address, lat, lng, phone,
+ * opening_hours}. Only {@code name} is required; quoted fields may contain commas and newlines,
+ * which the {@code opening_hours} JSON usually does.
+ */
+public class CsvBranchReader implements BranchRowReader {
+  private static final List<String> COLUMNS =
+      List.of("name", "address", "lat", "lng", "phone", "opening_hours");
+
+  private final Reader reader;
+  private final ObjectMapper objectMapper;
+  private final int[] columnIndex = new int[COLUMNS.size()];
+  private long line = 1;
+  private int pushback = -1;
+
+  public CsvBranchReader(Reader reader, ObjectMapper objectMapper) throws IOException {
+    this.reader = reader;
+    this.objectMapper = objectMapper;
+    readHeader();
+  }
+
+  private void readHeader() throws IOException {
+    List<String> header = readRecord();
+    if (header == null) {
+      throw new IllegalArgumentException("CSV input is empty");
+    }
+    Arrays.fill(columnIndex, -1);
+    for (int i = 0; i < header.size(); i++) {
+      String name = header.get(i).trim().toLowerCase(Locale.ROOT);
+      int column = COLUMNS.indexOf("openinghours".equals(name) ? "opening_hours" : name);
+      if (column < 0) {
+        throw new IllegalArgumentException("Unknown CSV column: " + header.get(i));
+      }
+      columnIndex[column] = i;
+    }
+    if (columnIndex[0] < 0) {
+      throw new IllegalArgumentException("CSV header must include a name column");
+    }
+  }
+
+  @Override
+  public Row next() throws IOException {
+    List<String> fields;
+    long start;
+    do {
+      start = line;
+      try {
+        fields = readRecord();
+      } catch (IllegalArgumentException e) {
+        // the open quote ran to the end of the input, so this is also the last row
+        return Row.error(start, e.getMessage());
+      }
+      if (fields == null) return null;
+    } while (fields.size() == 1 && fields.get(0).isEmpty());
+    try {
+      return Row.ok(
+          start,
+          new StoreDtos.CreateBranchRequest(
+              field(fields, 0),
+              field(fields, 1),
+              number(fields, 2),
+              number(fields, 3),
+              field(fields, 4),
+              json(fields, 5)));
+    } catch (IllegalArgumentException e) {
+      return Row.error(start, e.getMessage());
+    }
+  }
+
+  private String field(List<String> fields, int column) {
+    int i = columnIndex[column];
+    if (i < 0 || i >= fields.size()) return null;
+    String value = fields.get(i);
+    return value.isEmpty() ? null : value;
+  }
+
+  private Double number(List<String> fields, int column) {
+    String value = field(fields, column);
+    if (value == null) return null;
+    try {
+      return Double.valueOf(value.trim());
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Invalid " + COLUMNS.get(column) + ": " + value);
+    }
+  }
+
+  private JsonNode json(List<String> fields, int column) {
+    String value = field(fields, column);
+    if (value == null) return null;
+    try {
+      return objectMapper.readTree(value);
+    } catch (JsonProcessingException e) {
+      throw new IllegalArgumentException("Opening hours must be valid JSON");
+    }
+  }
+
+  /** Reads one record, or returns {@code null} at end of input. */
+  private List<String> readRecord() throws IOException {
+    int c = read();
+    if (c < 0) return null;
+    List<String> fields = new ArrayList<>();
+    StringBuilder field = new StringBuilder();
+    boolean quoted = false;
+    while (true) {
+      if (quoted) {
+        if (c < 0) {
+          throw new IllegalArgumentException("Unterminated quoted CSV field");
+        }
+        if (c == '"') {
+          int peek = read();
+          if (peek == '"') {
+            field.append('"');
+          } else {
+            quoted = false;
+            c = peek;
+            continue;
+          }
+        } else {
+          if (c == '\n') line++;
+          field.append((char) c);
+        }
+      } else if (c == '"' && field.isEmpty()) {
+        quoted = true;
+      } else if (c == ',') {
+        fields.add(field.toString());
+        field.setLength(0);
+      } else if (c == '\r' || c == '\n' || c < 0) {
+        if (c == '\r') {
+          int peek = read();
+          if (peek != '\n') pushback = peek;
+        }
+        if (c >= 0) line++;
+        fields.add(field.toString());
+        return fields;
+      } else {
+        field.append((char) c);
+      }
+      c = read();
+    }
+  }
+
+  private int read() throws IOException {
+    if (pushback != -1) {
+      int c = pushback;
+      pushback = -1;
+      return c;
+    }
+    return reader.read();
+  }
+
+  @Override
+  public void close() throws IOException {
+    reader.close();
+  }
+}
@@ -0,0 +1,39 @@
+package com.dropslot.store.bulk;
+
+import com.dropslot.store.api.dto.StoreDtos;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.BufferedReader;
+import java.io.IOException;
+
+/** One JSON {@link StoreDtos.CreateBranchRequest} per line; blank lines are ignored. */
+public class NdjsonBranchReader implements BranchRowReader {
+  private final BufferedReader reader;
+  private final ObjectMapper objectMapper;
+  private long line;
+
+  public NdjsonBranchReader(BufferedReader reader, ObjectMapper objectMapper) {
+    this.reader = reader;
+    this.objectMapper = objectMapper;
+  }
+
+  @Override
+  public Row next() throws IOException {
+    String text;
+    while ((text = reader.readLine()) != null) {
+      line++;
+      if (text.isBlank()) continue;
+      try {
+        return Row.ok(line, objectMapper.readValue(text, StoreDtos.CreateBranchRequest.class));
+      } catch (JsonProcessingException e) {
+        return Row.error(line, "Malformed JSON: " + e.getOriginalMessage());
+      }
+    }
+    return null;
+  }
+
+  @Override
+  public void close() throws IOException {
+    reader.close();
+  }
+}
@@ -0,0 +1,103 @@
+package com.dropslot.store.config;
+
+import com.dropslot.store.shard.ShardProperties;
+import com.dropslot.store.shard.ShardRoutingDataSource;
+import com.dropslot.store.shard.ShardTopology;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import javax.sql.DataSource;
+import liquibase.integration.spring.SpringLiquibase;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties(ShardProperties.class)
+public class ShardingConfig {
+
+  @Bean
+  @ConditionalOnProperty(name = "store.sharding.enabled", havingValue = "true")
+  public ShardTopology shardTopology(
+      ShardProperties props, ObjectProvider<MeterRegistry> meterRegistry) {
+    if (props.shards().isEmpty()) {
+      throw new IllegalStateException("store.sharding.enabled=true but no shards are configured");
+    }
+    Map<String, DataSource> pools = new LinkedHashMap<>();
+    props
+        .shards()
+        .forEach(
+            (name, shard) -> {
+              HikariConfig cfg = new HikariConfig();
+              cfg.setPoolName("store-shard-" + name);
+              cfg.setJdbcUrl(shard.url());
+              cfg.setUsername(shard.username());
+              cfg.setPassword(shard.password());
+              cfg.setMaximumPoolSize(shard.maxPoolSize());
+              cfg.addDataSourceProperty("reWriteBatchedInserts", "true");
+              // absent in the MigrationRunner context, which has no actuator
+              meterRegistry.ifAvailable(
+                  registry ->
+                      cfg.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+              pools.put(name, new HikariDataSource(cfg));
+            });
+    return new ShardTopology(props.directoryShard(), pools, props.virtualNodes(), true);
+  }
+
+  @Bean
+  @Primary
+  @ConditionalOnProperty(name = "store.sharding.enabled", havingValue = "true")
+  public DataSource dataSource(ShardTopology topology) {
+    ShardRoutingDataSource routing = new ShardRoutingDataSource();
+    Map<Object, Object> targets = new HashMap<>();
+    topology.shards().forEach(shard -> targets.put(shard, topology.dataSource(shard)));
+    routing.setTargetDataSources(targets);
+    routing.setDefaultTargetDataSource(topology.dataSource(topology.directoryShard()));
+    routing.setLenientFallback(false);
+    routing.afterPropertiesSet();
+    return routing;
+  }
+
+  /** Spring Boot migrates the directory shard through the routing datasource; do the rest. */
+  @Bean
+  @ConditionalOnProperty(name = "store.sharding.enabled", havingValue = "true")
+  public InitializingBean shardMigrations(
+      ShardTopology topology,
+      ResourceLoader resourceLoader,
+      @Value("${spring.liquibase.change-log}") String changeLog,
+      @Value("${spring.liquibase.enabled:true}") boolean enabled) {
+    return () -> {
+      // fast-start pods leave this to StoreMigrations, like the directory shard
+      if (!enabled) return;
+      for (String shard : topology.shards()) {
+        if (shard.equals(topology.directoryShard())) continue;
+        SpringLiquibase liquibase = new SpringLiquibase();
+        liquibase.setResourceLoader(resourceLoader);
+        liquibase.setDataSource(topology.dataSource(shard));
+        liquibase.setChangeLog(changeLog);
+        liquibase.afterPropertiesSet();
+      }
+    };
+  }
+
+  @Bean
+  @ConditionalOnProperty(
+      name = "store.sharding.enabled",
+      havingValue = "false",
+      matchIfMissing = true)
+  public ShardTopology singleShardTopology(DataSource dataSource) {
+    return ShardTopology.single(dataSource);
+  }
+}
@@ -0,0 +1,20 @@
+package com.dropslot.store.config;
+
+import com.dropslot.common.startup.MigrationRunner;
+
+/**
+ * {@link MigrationRunner} for store-service: with sharding on, Liquibase migrates the directory
+ * shard and {@link ShardingConfig} the others, so the sharding configuration comes along.
+ */
+public final class StoreMigrations {
+  private StoreMigrations() {}
+
+  public static void main(String[] args) {
+    MigrationRunner.run(args, ShardingConfig.class);
+  }
+
+  /** {@link MigrationRunner#runIfRequested} with the sharding configuration. */
+  public static void runIfRequested(String[] args) {
+    MigrationRunner.runIfRequested(args, ShardingConfig.class);
+  }
+}
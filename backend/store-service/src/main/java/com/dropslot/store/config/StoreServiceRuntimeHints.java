@@ -0,0 +1,39 @@
+package com.dropslot.store.config;
+
+import com.dropslot.store.api.dto.StoreDtos;
+import com.dropslot.store.domain.Branch;
+import com.dropslot.store.domain.Store;
+import com.dropslot.store.outbox.OutboxMessage;
+import java.util.List;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+/**
+ * Reachability metadata for the native image that AOT processing cannot work out from the bean
+ * definitions. The lazy {@code Branch.store} association additionally relies on the build-time
+ * Hibernate enhancement in the {@code native} profile, since proxies cannot be generated at
+ * runtime.
+ */
+public class StoreServiceRuntimeHints implements RuntimeHintsRegistrar {
+
+  @Override
+  public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+    // Hibernate goes through the Lombok-generated no-args constructors and sets fields directly
+    for (Class<?> entity : List.of(Store.class, Branch.class)) {
+      hints
+          .reflection()
+          .registerType(
+              entity,
+              MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+              MemberCategory.DECLARED_FIELDS,
+              MemberCategory.INVOKE_DECLARED_METHODS);
+    }
+
+    // webhook bodies and NDJSON import lines meet Jackson outside any controller signature
+    new BindingReflectionHintsRegistrar()
+        .registerReflectionHints(
+            hints.reflection(), OutboxMessage.class, StoreDtos.CreateBranchRequest.class);
+  }
+}
@@ -3,7 +3,9 @@ package com.dropslot.store.domain;
 import jakarta.persistence.*;
 import java.util.UUID;
 import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.annotations.UuidGenerator;
+import org.hibernate.type.SqlTypes;
 
 @Getter
 @Setter
@@ -30,6 +32,7 @@ public class Branch {
 
   private String phone;
 
-  @Column(columnDefinition = "json")
+  @JdbcTypeCode(SqlTypes.JSON)
+  @Column(columnDefinition = "jsonb")
   private String openingHours;
 }
@@ -0,0 +1,114 @@
+package com.dropslot.store.export;
+
+import com.dropslot.store.shard.ShardRouter;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.UUID;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Writes the stores a user created, and their branches, as NDJSON. Rows are read through a cursor
+ * on every shard and written as they arrive, so memory use does not depend on how many there are.
+ */
+@Component
+public class StoreExporter {
+  private static final int FETCH_SIZE = 500;
+
+  private final JdbcTemplate cursor;
+  private final TransactionTemplate readOnly;
+  private final ShardRouter shardRouter;
+  private final ObjectMapper objectMapper;
+
+  public StoreExporter(
+      JdbcTemplate jdbcTemplate,
+      PlatformTransactionManager transactionManager,
+      ShardRouter shardRouter,
+      ObjectMapper objectMapper) {
+    this.cursor = new JdbcTemplate(jdbcTemplate.getDataSource());
+    cursor.setFetchSize(FETCH_SIZE);
+    this.readOnly = new TransactionTemplate(transactionManager);
+    readOnly.setReadOnly(true);
+    this.shardRouter = shardRouter;
+    this.objectMapper = objectMapper;
+  }
+
+  public void export(UUID userId, OutputStream out) throws IOException {
+    try (JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+      json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+      json.setPrettyPrinter(new MinimalPrettyPrinter(""));
+      // Postgres only streams with a cursor inside a transaction
+      shardRouter.forEachShard(shard -> readOnly.executeWithoutResult(s -> write(json, userId)));
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+  }
+
+  private void write(JsonGenerator json, UUID userId) {
+    cursor.query(
+        "SELECT id, name, slug, tenant_key, logo_url, created_at, updated_at FROM stores"
+            + " WHERE created_by = ?",
+        line(
+            json,
+            rs -> {
+              json.writeStringField("type", "store");
+              json.writeStringField("id", rs.getString("id"));
+              json.writeStringField("name", rs.getString("name"));
+              json.writeStringField("slug", rs.getString("slug"));
+              json.writeStringField("tenantKey", rs.getString("tenant_key"));
+              json.writeStringField("logoUrl", rs.getString("logo_url"));
+              json.writeStringField("createdAt", instant(rs.getTimestamp("created_at")));
+              json.writeStringField("updatedAt", instant(rs.getTimestamp("updated_at")));
+            }),
+        userId);
+    cursor.query(
+        "SELECT b.id, b.store_id, b.name, b.address, b.lat, b.lng, b.phone, b.opening_hours"
+            + " FROM branches b JOIN stores s ON s.id = b.store_id WHERE s.created_by = ?",
+        line(
+            json,
+            rs -> {
+              json.writeStringField("type", "branch");
+              json.writeStringField("id", rs.getString("id"));
+              json.writeStringField("storeId", rs.getString("store_id"));
+              json.writeStringField("name", rs.getString("name"));
+              json.writeStringField("address", rs.getString("address"));
+              json.writeObjectField("lat", rs.getObject("lat"));
+              json.writeObjectField("lng", rs.getObject("lng"));
+              json.writeStringField("phone", rs.getString("phone"));
+              json.writeStringField("openingHours", rs.getString("opening_hours"));
+            }),
+        userId);
+  }
+
+  private interface Fields {
+    void write(ResultSet rs) throws SQLException, IOException;
+  }
+
+  private static RowCallbackHandler line(JsonGenerator json, Fields fields) {
+    return rs -> {
+      try {
+        json.writeStartObject();
+        fields.write(rs);
+        json.writeEndObject();
+        json.writeRaw('\n');
+      } catch (IOException e) {
+        // the client went away; stop reading
+        throw new UncheckedIOException(e);
+      }
+    };
+  }
+
+  private static String instant(Timestamp ts) {
+    return ts == null ? null : ts.toInstant().toString();
+  }
+}
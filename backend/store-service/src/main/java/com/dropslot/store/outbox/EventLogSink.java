@@ -0,0 +1,34 @@
+package com.dropslot.store.outbox;
+
+import com.dropslot.eventlog.EventLog;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import org.springframework.stereotype.Component;
+
+/**
+ * Appends messages to the service's local {@link EventLog} file and waits until they are synced.
+ */
+@Component
+public class EventLogSink implements OutboxSink {
+  private final EventLog eventLog;
+
+  public EventLogSink(EventLog eventLog) {
+    this.eventLog = eventLog;
+  }
+
+  @Override
+  public String name() {
+    return "event-log";
+  }
+
+  @Override
+  public void deliver(List<OutboxMessage> batch) {
+    CompletableFuture<?>[] appended = new CompletableFuture<?>[batch.size()];
+    for (int i = 0; i < batch.size(); i++) {
+      OutboxMessage m = batch.get(i);
+      appended[i] = eventLog.append(m.type(), m.payload().getBytes(StandardCharsets.UTF_8));
+    }
+    CompletableFuture.allOf(appended).join();
+  }
+}
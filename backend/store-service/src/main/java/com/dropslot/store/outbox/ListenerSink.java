@@ -0,0 +1,28 @@
+package com.dropslot.store.outbox;
+
+import java.util.List;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes each message as an application event for {@code @EventListener}s in this service. Only
+ * one replica receives a given message, so listeners suit work to do once, not per-replica caches.
+ */
+@Component
+public class ListenerSink implements OutboxSink {
+  private final ApplicationEventPublisher publisher;
+
+  public ListenerSink(ApplicationEventPublisher publisher) {
+    this.publisher = publisher;
+  }
+
+  @Override
+  public String name() {
+    return "listener";
+  }
+
+  @Override
+  public void deliver(List<OutboxMessage> batch) {
+    batch.forEach(publisher::publishEvent);
+  }
+}
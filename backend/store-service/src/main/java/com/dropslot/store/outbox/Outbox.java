@@ -0,0 +1,75 @@
+package com.dropslot.store.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Announces changes by writing them to the outbox in the transaction that makes them, so an event
+ * exists exactly when its change committed. {@link OutboxRelay} then delivers it to every sink
+ * named in {@code outbox.sinks}.
+ */
+@Component
+public class Outbox {
+  private final OutboxStore store;
+  private final ObjectMapper objectMapper;
+  private final List<OutboxSink> sinks;
+
+  public Outbox(
+      OutboxStore store,
+      ObjectMapper objectMapper,
+      List<OutboxSink> available,
+      @Value("${outbox.sinks:event-log}") List<String> enabled) {
+    this.store = store;
+    this.objectMapper = objectMapper;
+    Map<String, OutboxSink> byName =
+        available.stream().collect(Collectors.toMap(OutboxSink::name, Function.identity()));
+    this.sinks = new ArrayList<>();
+    for (String name : enabled) {
+      if (name.isBlank()) continue;
+      OutboxSink sink = byName.get(name.trim());
+      if (sink == null) {
+        throw new IllegalStateException("Unknown or unconfigured outbox sink: " + name);
+      }
+      sinks.add(sink);
+    }
+  }
+
+  List<OutboxSink> sinks() {
+    return sinks;
+  }
+
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void add(OutboxEvent event) {
+    addAll(List.of(event));
+  }
+
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void addAll(List<OutboxEvent> events) {
+    if (events.isEmpty() || sinks.isEmpty()) return;
+    List<OutboxStore.Row> rows = new ArrayList<>(events.size() * sinks.size());
+    for (OutboxEvent event : events) {
+      String payload;
+      try {
+        payload = objectMapper.writeValueAsString(event.fields());
+      } catch (JsonProcessingException e) {
+        throw new IllegalArgumentException("Cannot encode " + event.type() + " event", e);
+      }
+      for (OutboxSink sink : sinks) {
+        rows.add(
+            new OutboxStore.Row(
+                sink.name(), event.type(), event.aggregateId(), event.tenantKey(), payload));
+      }
+    }
+    store.insert(rows, Instant.now());
+  }
+}
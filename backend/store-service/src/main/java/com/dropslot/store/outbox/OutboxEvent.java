@@ -0,0 +1,7 @@
+package com.dropslot.store.outbox;
+
+import java.util.Map;
+import java.util.UUID;
+
+/** A change to announce, e.g. {@code store.created}; {@code fields} become its JSON payload. */
+public record OutboxEvent(String type, UUID aggregateId, String tenantKey, Map<String, ?> fields) {}
@@ -0,0 +1,14 @@
+package com.dropslot.store.outbox;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import java.time.Instant;
+import java.util.UUID;
+
+/** An {@link OutboxEvent} as stored and handed to a sink; {@code payload} is a JSON object. */
+public record OutboxMessage(
+    long id,
+    String type,
+    UUID aggregateId,
+    String tenantKey,
+    @JsonRawValue String payload,
+    Instant createdAt) {}
@@ -0,0 +1,205 @@
+package com.dropslot.store.outbox;
+
+import com.dropslot.store.shard.ShardRouter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Delivers outbox rows to their sinks. Every sink has its own thread, which on each shard claims up
+ * to {@code batch-size} of the sink's oldest rows, hands them to the sink and marks them delivered
+ * in the same transaction; while batches come back full it goes again straight away, so bulk
+ * imports drain at batch speed, otherwise it waits {@code poll-interval}. A failed batch stays
+ * undelivered and the sink is retried after {@code retry-interval}. Delivered rows are deleted once
+ * older than {@code retention}. Lag per sink is published as {@code outbox.lag.events} and {@code
+ * outbox.lag.seconds}.
+ */
+@Component
+public class OutboxRelay implements AutoCloseable {
+  private static final Logger log = LoggerFactory.getLogger(OutboxRelay.class);
+  private static final int COMPACT_CHUNK = 10_000;
+
+  private final Outbox outbox;
+  private final OutboxStore store;
+  private final ShardRouter shardRouter;
+  private final TransactionTemplate transactionTemplate;
+  private final MeterRegistry meterRegistry;
+  private final int batchSize;
+  private final long pollMillis;
+  private final long retryMillis;
+  private final Duration retention;
+  private final Map<String, AtomicLong> pending = new ConcurrentHashMap<>();
+  private final Map<String, AtomicLong> lagSeconds = new ConcurrentHashMap<>();
+  private final List<Thread> relays = new ArrayList<>();
+  private final ScheduledExecutorService maintenance =
+      Executors.newSingleThreadScheduledExecutor(
+          r -> {
+            Thread t = new Thread(r, "outbox-maintenance");
+            t.setDaemon(true);
+            return t;
+          });
+  private volatile boolean running;
+
+  public OutboxRelay(
+      Outbox outbox,
+      OutboxStore store,
+      ShardRouter shardRouter,
+      PlatformTransactionManager transactionManager,
+      MeterRegistry meterRegistry,
+      @Value("${outbox.batch-size:500}") int batchSize,
+      @Value("${outbox.poll-interval:200ms}") Duration pollInterval,
+      @Value("${outbox.retry-interval:5s}") Duration retryInterval,
+      @Value("${outbox.retention:1h}") Duration retention) {
+    this.outbox = outbox;
+    this.store = store;
+    this.shardRouter = shardRouter;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.meterRegistry = meterRegistry;
+    this.batchSize = batchSize;
+    this.pollMillis = pollInterval.toMillis();
+    this.retryMillis = retryInterval.toMillis();
+    this.retention = retention;
+    for (OutboxSink sink : outbox.sinks()) {
+      AtomicLong events = pending.computeIfAbsent(sink.name(), s -> new AtomicLong());
+      AtomicLong seconds = lagSeconds.computeIfAbsent(sink.name(), s -> new AtomicLong());
+      Gauge.builder("outbox.lag.events", events, AtomicLong::get)
+          .description("Undelivered outbox rows per sink")
+          .tag("sink", sink.name())
+          .register(meterRegistry);
+      Gauge.builder("outbox.lag.seconds", seconds, AtomicLong::get)
+          .description("Age of the oldest undelivered outbox row per sink")
+          .tag("sink", sink.name())
+          .register(meterRegistry);
+    }
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public synchronized void start() {
+    if (running) return;
+    running = true;
+    for (OutboxSink sink : outbox.sinks()) {
+      Thread t = new Thread(() -> relay(sink), "outbox-relay-" + sink.name());
+      t.setDaemon(true);
+      t.start();
+      relays.add(t);
+    }
+    maintenance.scheduleWithFixedDelay(this::measure, 0, 15, TimeUnit.SECONDS);
+    maintenance.scheduleWithFixedDelay(this::compact, 1, 1, TimeUnit.MINUTES);
+  }
+
+  private void relay(OutboxSink sink) {
+    Counter failures = meterRegistry.counter("outbox.failures", "sink", sink.name());
+    while (running) {
+      long pause;
+      try {
+        // a full batch means there is likely more waiting
+        pause = relayOnce(sink) < batchSize ? pollMillis : 0;
+      } catch (RuntimeException e) {
+        failures.increment();
+        log.warn("Outbox delivery to sink={} failed, retrying: {}", sink.name(), e.getMessage());
+        pause = retryMillis;
+      }
+      if (pause == 0) continue;
+      try {
+        Thread.sleep(pause);
+      } catch (InterruptedException e) {
+        return;
+      }
+    }
+  }
+
+  /** Delivers one batch of the sink from every shard; returns the size of the largest. */
+  int relayOnce(OutboxSink sink) {
+    Counter delivered = meterRegistry.counter("outbox.delivered", "sink", sink.name());
+    int[] largest = {0};
+    shardRouter.forEachShard(
+        shard -> {
+          Integer n =
+              transactionTemplate.execute(
+                  status -> {
+                    List<OutboxMessage> batch = store.claim(sink.name(), batchSize);
+                    if (batch.isEmpty()) return 0;
+                    try {
+                      sink.deliver(batch);
+                    } catch (Exception e) {
+                      throw new IllegalStateException(e.getMessage(), e);
+                    }
+                    store.markDelivered(batch, Instant.now());
+                    return batch.size();
+                  });
+          delivered.increment(n);
+          largest[0] = Math.max(largest[0], n);
+        });
+    return largest[0];
+  }
+
+  private void measure() {
+    try {
+      Instant now = Instant.now();
+      for (OutboxSink sink : outbox.sinks()) {
+        long[] events = {0};
+        Instant[] oldest = {null};
+        shardRouter.forEachShard(
+            shard -> {
+              OutboxStore.Lag lag = store.lag(sink.name());
+              events[0] += lag.pending();
+              if (lag.oldest() != null && (oldest[0] == null || lag.oldest().isBefore(oldest[0]))) {
+                oldest[0] = lag.oldest();
+              }
+            });
+        pending.get(sink.name()).set(events[0]);
+        lagSeconds
+            .get(sink.name())
+            .set(oldest[0] == null ? 0 : Duration.between(oldest[0], now).toSeconds());
+      }
+    } catch (RuntimeException e) {
+      // an exception would cancel the schedule
+      log.warn("Outbox lag measurement failed: {}", e.getMessage());
+    }
+  }
+
+  private void compact() {
+    try {
+      Instant before = Instant.now().minus(retention);
+      long[] deleted = {0};
+      shardRouter.forEachShard(
+          shard -> {
+            int n;
+            // in chunks, so no statement holds many row locks for long
+            do {
+              n = store.compact(before, COMPACT_CHUNK);
+              deleted[0] += n;
+            } while (n == COMPACT_CHUNK && running);
+          });
+      if (deleted[0] > 0) log.debug("Compacted {} delivered outbox rows", deleted[0]);
+    } catch (RuntimeException e) {
+      log.warn("Outbox compaction failed: {}", e.getMessage());
+    }
+  }
+
+  @Override
+  public synchronized void close() throws InterruptedException {
+    running = false;
+    maintenance.shutdownNow();
+    for (Thread t : relays) t.interrupt();
+    for (Thread t : relays) t.join(5000);
+  }
+}
@@ -0,0 +1,14 @@
+package com.dropslot.store.outbox;
+
+import java.util.List;
+
+/**
+ * A destination of outbox messages, enabled by listing its name in {@code outbox.sinks}. Each sink
+ * has its own rows and relay, so a slow or failing sink never holds the others back. Delivery is at
+ * least once: a batch the sink throws on, or that could not be marked delivered, comes again.
+ */
+public interface OutboxSink {
+  String name();
+
+  void deliver(List<OutboxMessage> batch) throws Exception;
+}
@@ -0,0 +1,99 @@
+package com.dropslot.store.outbox;
+
+import java.sql.Array;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * The {@code outbox} table of the current shard: one row per event and sink. Rows are only ever
+ * inserted by writers and claimed with {@code SKIP LOCKED} by relays, so neither waits on the
+ * other, and relays on several replicas share the backlog.
+ */
+@Component
+public class OutboxStore {
+  private final JdbcTemplate jdbc;
+
+  public OutboxStore(JdbcTemplate jdbc) {
+    this.jdbc = jdbc;
+  }
+
+  record Row(String sink, String type, UUID aggregateId, String tenantKey, String payload) {}
+
+  void insert(List<Row> rows, Instant at) {
+    // pgjdbc rewrites the batch into multi-row INSERTs
+    jdbc.batchUpdate(
+        "INSERT INTO outbox (sink, type, aggregate_id, tenant_key, payload, created_at)"
+            + " VALUES (?, ?, ?, ?, ?::jsonb, ?)",
+        rows,
+        rows.size(),
+        (ps, r) -> {
+          ps.setString(1, r.sink());
+          ps.setString(2, r.type());
+          ps.setObject(3, r.aggregateId());
+          ps.setString(4, r.tenantKey());
+          ps.setString(5, r.payload());
+          ps.setTimestamp(6, Timestamp.from(at));
+        });
+  }
+
+  /**
+   * Locks the oldest undelivered rows of the sink that no other relay holds; needs a transaction.
+   */
+  List<OutboxMessage> claim(String sink, int limit) {
+    return jdbc.query(
+        "SELECT id, type, aggregate_id, tenant_key, payload, created_at FROM outbox"
+            + " WHERE sink = ? AND delivered_at IS NULL ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED",
+        (rs, i) ->
+            new OutboxMessage(
+                rs.getLong("id"),
+                rs.getString("type"),
+                rs.getObject("aggregate_id", UUID.class),
+                rs.getString("tenant_key"),
+                rs.getString("payload"),
+                rs.getTimestamp("created_at").toInstant()),
+        sink,
+        limit);
+  }
+
+  void markDelivered(List<OutboxMessage> batch, Instant at) {
+    Object[] ids = batch.stream().map(OutboxMessage::id).toArray();
+    jdbc.update(
+        con -> {
+          Array array = con.createArrayOf("bigint", ids);
+          var ps = con.prepareStatement("UPDATE outbox SET delivered_at = ? WHERE id = ANY(?)");
+          ps.setTimestamp(1, Timestamp.from(at));
+          ps.setArray(2, array);
+          return ps;
+        });
+  }
+
+  /** Deletes up to {@code limit} rows delivered before {@code before}; returns how many. */
+  int compact(Instant before, int limit) {
+    return jdbc.update(
+        "DELETE FROM outbox WHERE id IN (SELECT id FROM outbox"
+            + " WHERE delivered_at < ? LIMIT ?)",
+        Timestamp.from(before),
+        limit);
+  }
+
+  /** Undelivered rows of the sink and the creation time of the oldest, if any. */
+  Lag lag(String sink) {
+    List<Lag> lag = new ArrayList<>(1);
+    jdbc.query(
+        "SELECT count(*) AS pending, min(created_at) AS oldest FROM outbox"
+            + " WHERE sink = ? AND delivered_at IS NULL",
+        rs -> {
+          Timestamp oldest = rs.getTimestamp("oldest");
+          lag.add(new Lag(rs.getLong("pending"), oldest == null ? null : oldest.toInstant()));
+        },
+        sink);
+    return lag.get(0);
+  }
+
+  record Lag(long pending, Instant oldest) {}
+}
@@ -0,0 +1,50 @@
+package com.dropslot.store.outbox;
+
+import java.time.Duration;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.client.ClientHttpRequestFactories;
+import org.springframework.boot.web.client.ClientHttpRequestFactorySettings;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+/**
+ * POSTs each batch as a JSON array to {@code outbox.webhook.url}; any non-2xx answer retries it.
+ */
+@Component
+@ConditionalOnProperty("outbox.webhook.url")
+public class WebhookSink implements OutboxSink {
+  private final RestClient restClient;
+
+  public WebhookSink(
+      RestClient.Builder builder,
+      @Value("${outbox.webhook.url}") String url,
+      @Value("${outbox.webhook.timeout:10s}") Duration timeout) {
+    this.restClient =
+        builder
+            .baseUrl(url)
+            .requestFactory(
+                ClientHttpRequestFactories.get(
+                    ClientHttpRequestFactorySettings.DEFAULTS
+                        .withConnectTimeout(Duration.ofSeconds(1))
+                        .withReadTimeout(timeout)))
+            .build();
+  }
+
+  @Override
+  public String name() {
+    return "webhook";
+  }
+
+  @Override
+  public void deliver(List<OutboxMessage> batch) {
+    restClient
+        .post()
+        .contentType(MediaType.APPLICATION_JSON)
+        .body(batch)
+        .retrieve()
+        .toBodilessEntity();
+  }
+}
@@ -0,0 +1,40 @@
+package com.dropslot.store.repo;
+
+import com.dropslot.store.domain.Branch;
+import java.sql.Types;
+import java.util.List;
+import java.util.UUID;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Plain JDBC batch insert for branches with pre-generated ids, bypassing the persistence context so
+ * large imports do not pay per-entity flush and dirty-checking costs.
+ */
+@Repository
+@RequiredArgsConstructor
+public class BranchBatchWriter {
+  private static final String INSERT_SQL =
+      "INSERT INTO branches (id, store_id, name, address, lat, lng, phone, opening_hours)"
+          + " VALUES (?, ?, ?, ?, ?, ?, ?, ?::jsonb)";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  public void insert(UUID storeId, List<Branch> branches) {
+    jdbcTemplate.batchUpdate(
+        INSERT_SQL,
+        branches,
+        branches.size(),
+        (ps, b) -> {
+          ps.setObject(1, b.getId());
+          ps.setObject(2, storeId);
+          ps.setString(3, b.getName());
+          ps.setString(4, b.getAddress());
+          ps.setObject(5, b.getLat(), Types.DOUBLE);
+          ps.setObject(6, b.getLng(), Types.DOUBLE);
+          ps.setString(7, b.getPhone());
+          ps.setString(8, b.getOpeningHours());
+        });
+  }
+}
@@ -4,8 +4,34 @@ import com.dropslot.store.domain.Branch;
 import com.dropslot.store.domain.Store;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 public interface BranchRepository extends JpaRepository<Branch, UUID> {
   List<Branch> findByStore(Store store);
+
+  @Query("select b.id as id, b.openingHours as openingHours from Branch b")
+  Stream<BranchHoursView> streamOpeningHours();
+
+  @Query(
+      "select b.id as id, b.store.id as storeId, b.name as name, b.address as address"
+          + " from Branch b")
+  Stream<BranchSearchView> streamSearchFields();
+
+  interface BranchHoursView {
+    UUID getId();
+
+    String getOpeningHours();
+  }
+
+  interface BranchSearchView {
+    UUID getId();
+
+    UUID getStoreId();
+
+    String getName();
+
+    String getAddress();
+  }
 }
@@ -1,12 +1,51 @@
 package com.dropslot.store.repo;
 
 import com.dropslot.store.domain.Store;
+import java.time.Instant;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface StoreRepository extends JpaRepository<Store, UUID> {
   Optional<Store> findBySlug(String slug);
 
   boolean existsBySlug(String slug);
+
+  @Query(
+      "select s.id as id, s.updatedAt as updatedAt, s.tenantKey as tenantKey from Store s"
+          + " where s.id = :id")
+  Optional<StoreVersionView> findVersionById(@Param("id") UUID id);
+
+  @Query(
+      "select s.id as id, s.updatedAt as updatedAt, s.tenantKey as tenantKey from Store s"
+          + " where s.slug = :slug")
+  Optional<StoreVersionView> findVersionBySlug(@Param("slug") String slug);
+
+  /** Bumps the store version after changes that do not go through the entity, e.g. branches. */
+  @Modifying
+  @Query("update Store s set s.updatedAt = :at where s.id = :id")
+  int touch(@Param("id") UUID id, @Param("at") Instant at);
+
+  @Query("select s.id as id, s.name as name, s.slug as slug from Store s")
+  Stream<StoreSearchView> streamSearchFields();
+
+  interface StoreVersionView {
+    UUID getId();
+
+    Instant getUpdatedAt();
+
+    String getTenantKey();
+  }
+
+  interface StoreSearchView {
+    UUID getId();
+
+    String getName();
+
+    String getSlug();
+  }
 }
@@ -0,0 +1,88 @@
+package com.dropslot.store.schedule;
+
+import com.dropslot.store.domain.Branch;
+import com.dropslot.store.repo.BranchRepository;
+import com.dropslot.store.shard.ShardRouter;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * In-memory map of branch id to compiled {@link OpeningSchedule}. Warmed from the database at
+ * startup and updated whenever a branch is written, so "open at" filters never parse JSON.
+ */
+@Component
+@RequiredArgsConstructor
+public class BranchScheduleCache {
+  private static final Logger log = LoggerFactory.getLogger(BranchScheduleCache.class);
+
+  private final BranchRepository branchRepository;
+  private final ShardRouter shardRouter;
+  private final PlatformTransactionManager transactionManager;
+  private final Map<UUID, Optional<OpeningSchedule>> schedules = new ConcurrentHashMap<>();
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void warm() {
+    AtomicInteger loaded = new AtomicInteger();
+    TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+    readOnly.setReadOnly(true);
+    shardRouter.forEachShard(shard -> readOnly.executeWithoutResult(status -> load(loaded)));
+    log.info("Compiled opening hours for {} branches", loaded.get());
+  }
+
+  private void load(AtomicInteger loaded) {
+    try (Stream<BranchRepository.BranchHoursView> rows = branchRepository.streamOpeningHours()) {
+      rows.forEach(
+          row -> {
+            try {
+              schedules.put(
+                  row.getId(), Optional.ofNullable(OpeningHours.compile(row.getOpeningHours())));
+              loaded.incrementAndGet();
+            } catch (IllegalArgumentException e) {
+              log.warn(
+                  "Skipping invalid opening hours for branch id={}: {}",
+                  row.getId(),
+                  e.getMessage());
+            }
+          });
+    }
+  }
+
+  public void put(UUID branchId, OpeningSchedule schedule) {
+    schedules.put(branchId, Optional.ofNullable(schedule));
+  }
+
+  /** Branches without opening hours are never reported as open. */
+  public boolean isOpenAt(Branch branch, Instant at) {
+    OpeningSchedule schedule =
+        schedules.computeIfAbsent(branch.getId(), id -> compile(branch)).orElse(null);
+    return schedule != null && schedule.isOpenAt(at);
+  }
+
+  public List<Branch> filterOpenAt(Collection<Branch> branches, Instant at) {
+    return branches.stream().filter(b -> isOpenAt(b, at)).toList();
+  }
+
+  private static Optional<OpeningSchedule> compile(Branch branch) {
+    try {
+      return Optional.ofNullable(OpeningHours.compile(branch.getOpeningHours()));
+    } catch (IllegalArgumentException e) {
+      log.warn("Invalid opening hours for branch id={}: {}", branch.getId(), e.getMessage());
+      return Optional.empty();
+    }
+  }
+}
@@ -0,0 +1,196 @@
+package com.dropslot.store.schedule;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Validates and compiles the {@code branches.opening_hours} JSON document.
+ *
+ * <p>Expected shape (all keys optional):
+ *
+ * <pre>
+ * {
+ *   "timezone": "Asia/Bangkok",
+ *   "monday": [{"open": "09:00", "close": "18:00"}],
+ *   "saturday": [{"open": "22:00", "close": "02:00"}],
+ *   "exceptions": {"2025-12-25": [], "2025-12-31": [{"open": "09:00", "close": "14:00"}]}
+ * }
+ * </pre>
+ *
+ * Weekly ranges whose close is not after their open run past midnight into the next day. Exception
+ * dates replace the weekly ranges for that date and must close on the same day ({@code "24:00"} is
+ * allowed). Any other key or a malformed value is rejected with {@link IllegalArgumentException}.
+ */
+public final class OpeningHours {
+  private static final ObjectMapper MAPPER = new ObjectMapper();
+  private static final String[] DAYS = {
+    "monday", "tuesday", "wednesday", "thursday", "friday", "saturday", "sunday"
+  };
+
+  private OpeningHours() {}
+
+  /** Returns {@code null} when the branch has no opening hours (null, blank or {@code {}}). */
+  public static OpeningSchedule compile(String json) {
+    if (json == null || json.isBlank()) return null;
+    try {
+      return compile(MAPPER.readTree(json));
+    } catch (JsonProcessingException e) {
+      throw new IllegalArgumentException("Opening hours must be valid JSON");
+    }
+  }
+
+  public static OpeningSchedule compile(JsonNode root) {
+    if (root == null || root.isNull()) return null;
+    if (!root.isObject()) {
+      throw new IllegalArgumentException("Opening hours must be a JSON object");
+    }
+    if (root.isEmpty()) return null;
+
+    ZoneId zone = ZoneOffset.UTC;
+    List<int[]> weekly = new ArrayList<>();
+    Map<LocalDate, int[]> exceptions = new HashMap<>();
+
+    Iterator<Map.Entry<String, JsonNode>> fields = root.fields();
+    while (fields.hasNext()) {
+      Map.Entry<String, JsonNode> field = fields.next();
+      String key = field.getKey();
+      JsonNode value = field.getValue();
+      if ("timezone".equals(key)) {
+        zone = parseZone(value);
+      } else if ("exceptions".equals(key)) {
+        parseExceptions(value, exceptions);
+      } else {
+        int day = dayIndex(key);
+        for (int[] range : parseRanges(key, value)) {
+          addWeekly(weekly, day * OpeningSchedule.MINUTES_PER_DAY, range[0], range[1]);
+        }
+      }
+    }
+    return new OpeningSchedule(zone, merge(weekly), exceptions);
+  }
+
+  /** Validates {@code json} and returns it in canonical (compact) form, or {@code null}. */
+  public static String normalize(JsonNode json) {
+    if (json == null || json.isNull()) return null;
+    compile(json);
+    return json.toString();
+  }
+
+  private static ZoneId parseZone(JsonNode value) {
+    if (!value.isTextual()) {
+      throw new IllegalArgumentException("Opening hours timezone must be a string");
+    }
+    try {
+      return ZoneId.of(value.asText());
+    } catch (DateTimeException e) {
+      throw new IllegalArgumentException("Unknown opening hours timezone: " + value.asText());
+    }
+  }
+
+  private static int dayIndex(String key) {
+    for (int i = 0; i < DAYS.length; i++) {
+      if (DAYS[i].equals(key)) return i;
+    }
+    throw new IllegalArgumentException("Unknown opening hours key: " + key);
+  }
+
+  private static void parseExceptions(JsonNode value, Map<LocalDate, int[]> exceptions) {
+    if (!value.isObject()) {
+      throw new IllegalArgumentException("Opening hours exceptions must be an object");
+    }
+    Iterator<Map.Entry<String, JsonNode>> dates = value.fields();
+    while (dates.hasNext()) {
+      Map.Entry<String, JsonNode> entry = dates.next();
+      LocalDate date;
+      try {
+        date = LocalDate.parse(entry.getKey());
+      } catch (DateTimeParseException e) {
+        throw new IllegalArgumentException("Invalid exception date: " + entry.getKey());
+      }
+      List<int[]> ranges = new ArrayList<>();
+      for (int[] range : parseRanges(entry.getKey(), entry.getValue())) {
+        if (range[1] <= range[0]) {
+          throw new IllegalArgumentException(
+              "Exception ranges must close on the same day: " + entry.getKey());
+        }
+        ranges.add(range);
+      }
+      exceptions.put(date, merge(ranges));
+    }
+  }
+
+  private static List<int[]> parseRanges(String key, JsonNode value) {
+    if (!value.isArray()) {
+      throw new IllegalArgumentException("Opening hours for " + key + " must be an array");
+    }
+    List<int[]> ranges = new ArrayList<>(value.size());
+    for (JsonNode range : value) {
+      if (!range.isObject() || range.size() != 2) {
+        throw new IllegalArgumentException(
+            "Opening hours range for " + key + " must have exactly open and close");
+      }
+      int open = parseTime(key, range.get("open"));
+      int close = parseTime(key, range.get("close"));
+      if (open == OpeningSchedule.MINUTES_PER_DAY || open == close) {
+        throw new IllegalArgumentException("Empty opening hours range for " + key);
+      }
+      ranges.add(new int[] {open, close});
+    }
+    return ranges;
+  }
+
+  private static int parseTime(String key, JsonNode value) {
+    String text = value != null && value.isTextual() ? value.asText() : "";
+    if (text.length() == 5 && text.charAt(2) == ':') {
+      try {
+        int hour = Integer.parseInt(text, 0, 2, 10);
+        int minute = Integer.parseInt(text, 3, 5, 10);
+        if (hour == 24 && minute == 0) return OpeningSchedule.MINUTES_PER_DAY;
+        if (hour >= 0 && hour < 24 && minute >= 0 && minute < 60) return hour * 60 + minute;
+      } catch (NumberFormatException ignored) {
+        // fall through to the error below
+      }
+    }
+    throw new IllegalArgumentException("Invalid time for " + key + ", expected HH:mm: " + text);
+  }
+
+  /** Adds a weekly range, splitting it when it runs past Sunday midnight. */
+  private static void addWeekly(List<int[]> weekly, int dayStart, int open, int close) {
+    int start = dayStart + open;
+    int end = dayStart + (close > open ? close : close + OpeningSchedule.MINUTES_PER_DAY);
+    if (end <= OpeningSchedule.MINUTES_PER_WEEK) {
+      weekly.add(new int[] {start, end});
+    } else {
+      weekly.add(new int[] {start, OpeningSchedule.MINUTES_PER_WEEK});
+      weekly.add(new int[] {0, end - OpeningSchedule.MINUTES_PER_WEEK});
+    }
+  }
+
+  /** Sorts and coalesces ranges into the flattened {@code [start, end, ...]} form. */
+  private static int[] merge(List<int[]> ranges) {
+    ranges.sort((a, b) -> Integer.compare(a[0], b[0]));
+    int[] out = new int[ranges.size() * 2];
+    int n = 0;
+    for (int[] r : ranges) {
+      if (n > 0 && r[0] <= out[n - 1]) {
+        out[n - 1] = Math.max(out[n - 1], r[1]);
+      } else {
+        out[n++] = r[0];
+        out[n++] = r[1];
+      }
+    }
+    return Arrays.copyOf(out, n);
+  }
+}
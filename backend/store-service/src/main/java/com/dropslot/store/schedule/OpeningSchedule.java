@@ -0,0 +1,75 @@
+package com.dropslot.store.schedule;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Compiled, immutable form of a branch's opening hours.
+ *
+ * <p>The weekly schedule is a sorted array of half-open {@code [start, end)} minute-of-week
+ * intervals (Monday 00:00 = 0) so an "open at" check is a single binary search. Exception dates
+ * replace the weekly schedule for that local date with their own minute-of-day intervals.
+ */
+public final class OpeningSchedule {
+  static final int MINUTES_PER_DAY = 24 * 60;
+  static final int MINUTES_PER_WEEK = 7 * MINUTES_PER_DAY;
+
+  private final ZoneId zone;
+  private final int[] weekly;
+  private final Map<LocalDate, int[]> exceptions;
+
+  OpeningSchedule(ZoneId zone, int[] weekly, Map<LocalDate, int[]> exceptions) {
+    this.zone = zone;
+    this.weekly = weekly;
+    this.exceptions = Map.copyOf(exceptions);
+  }
+
+  public ZoneId getZone() {
+    return zone;
+  }
+
+  public boolean isOpenAt(Instant at) {
+    ZonedDateTime local = at.atZone(zone);
+    int minuteOfDay = local.getHour() * 60 + local.getMinute();
+    int[] override = exceptions.get(local.toLocalDate());
+    if (override != null) {
+      return contains(override, minuteOfDay);
+    }
+    int minuteOfWeek = (local.getDayOfWeek().getValue() - 1) * MINUTES_PER_DAY + minuteOfDay;
+    return contains(weekly, minuteOfWeek);
+  }
+
+  /** {@code intervals} holds flattened, sorted, non-overlapping {@code [start, end)} pairs. */
+  private static boolean contains(int[] intervals, int minute) {
+    int lo = 0;
+    int hi = intervals.length / 2 - 1;
+    while (lo <= hi) {
+      int mid = (lo + hi) >>> 1;
+      int start = intervals[mid * 2];
+      int end = intervals[mid * 2 + 1];
+      if (minute < start) {
+        hi = mid - 1;
+      } else if (minute >= end) {
+        lo = mid + 1;
+      } else {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public String toString() {
+    return "OpeningSchedule{zone="
+        + zone
+        + ", weekly="
+        + Arrays.toString(weekly)
+        + ", exceptions="
+        + exceptions.keySet()
+        + '}';
+  }
+}
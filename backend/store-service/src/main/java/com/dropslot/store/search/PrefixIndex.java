@@ -0,0 +1,256 @@
+package com.dropslot.store.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Predicate;
+
+/**
+ * Radix trie from normalized word to the documents containing it. Edges carry whole runs of
+ * characters, children sit in sorted arrays, and every node keeps its subtree's best {@code
+ * topSize} documents, so answering a prefix is a walk down the prefix plus a copy of one small
+ * array, however many words share it. Inserts and removals fix the ranked lists along the one path
+ * they touch. Not thread-safe; {@link StoreSearchIndex} guards it.
+ */
+final class PrefixIndex {
+  record Posting(SearchDoc doc, int weight) {}
+
+  /** Higher weight first, then shorter names, so exact-ish matches come before long ones. */
+  static final Comparator<Posting> RANK =
+      Comparator.comparingInt(Posting::weight)
+          .reversed()
+          .thenComparingInt(p -> p.doc().name().length())
+          .thenComparing(p -> p.doc().name());
+
+  private static final char[] NO_CHARS = new char[0];
+  private static final Node[] NO_NODES = new Node[0];
+  private static final Posting[] NO_POSTINGS = new Posting[0];
+
+  private static final class Node {
+    char[] label;
+    // first character of each child's label, sorted, parallel to children
+    char[] keys = NO_CHARS;
+    Node[] children = NO_NODES;
+    Posting[] postings = NO_POSTINGS;
+    Posting[] top = NO_POSTINGS;
+    int size;
+
+    Node(char[] label) {
+      this.label = label;
+    }
+  }
+
+  private final int topSize;
+  private final Node root = new Node(NO_CHARS);
+
+  PrefixIndex(int topSize) {
+    this.topSize = topSize;
+  }
+
+  void add(String term, Posting posting) {
+    List<Node> path = new ArrayList<>();
+    Node node = root;
+    path.add(node);
+    int i = 0;
+    while (i < term.length()) {
+      int idx = Arrays.binarySearch(node.keys, term.charAt(i));
+      if (idx < 0) {
+        Node leaf = new Node(term.substring(i).toCharArray());
+        insertChild(node, -idx - 1, leaf);
+        node = leaf;
+        path.add(node);
+        break;
+      }
+      Node child = node.children[idx];
+      int common = commonPrefix(child.label, term, i);
+      if (common < child.label.length) {
+        child = split(node, idx, common);
+      }
+      node = child;
+      path.add(node);
+      i += common;
+    }
+    node.postings = append(node.postings, posting);
+    for (Node n : path) {
+      n.size++;
+      n.top = offer(n.top, posting);
+    }
+  }
+
+  void remove(String term, UUID docId) {
+    List<Node> path = new ArrayList<>();
+    Node node = root;
+    path.add(node);
+    int i = 0;
+    while (i < term.length()) {
+      int idx = Arrays.binarySearch(node.keys, term.charAt(i));
+      if (idx < 0) return;
+      Node child = node.children[idx];
+      if (commonPrefix(child.label, term, i) < child.label.length) return;
+      node = child;
+      path.add(node);
+      i += child.label.length;
+    }
+    int before = node.postings.length;
+    node.postings =
+        Arrays.stream(node.postings)
+            .filter(p -> !p.doc().id().equals(docId))
+            .toArray(Posting[]::new);
+    int removed = before - node.postings.length;
+    if (removed == 0) return;
+    for (int k = path.size() - 1; k >= 0; k--) {
+      Node n = path.get(k);
+      n.size -= removed;
+      if (k > 0 && n.size == 0) {
+        removeChild(path.get(k - 1), n);
+        continue;
+      }
+      if (contains(n.top, docId)) n.top = recompute(n);
+    }
+  }
+
+  /** The best {@code limit} documents with a word starting with {@code prefix}. */
+  List<Posting> top(String prefix, int limit) {
+    Node node = find(prefix);
+    if (node == null) return List.of();
+    return Arrays.asList(node.top).subList(0, Math.min(limit, node.top.length));
+  }
+
+  /** Number of postings under {@code prefix}; 0 if none. */
+  int count(String prefix) {
+    Node node = find(prefix);
+    return node == null ? 0 : node.size;
+  }
+
+  /**
+   * Documents under {@code prefix} that pass {@code filter}: those among its ranked best, then
+   * others from a walk of its subtree until {@code wanted} have been found or {@code budget}
+   * postings looked at. Best posting per document; not ranked.
+   */
+  Map<UUID, Posting> scan(String prefix, Predicate<SearchDoc> filter, int wanted, int budget) {
+    Map<UUID, Posting> out = new HashMap<>();
+    Node node = find(prefix);
+    if (node == null) return out;
+    for (Posting p : node.top) if (filter.test(p.doc())) out.put(p.doc().id(), p);
+    if (out.size() < wanted) collect(node, filter, out, wanted, new int[] {budget});
+    return out;
+  }
+
+  private Node find(String prefix) {
+    Node node = root;
+    int i = 0;
+    while (i < prefix.length()) {
+      int idx = Arrays.binarySearch(node.keys, prefix.charAt(i));
+      if (idx < 0) return null;
+      Node child = node.children[idx];
+      int common = commonPrefix(child.label, prefix, i);
+      // the prefix may end inside an edge
+      if (common < child.label.length && i + common < prefix.length()) return null;
+      node = child;
+      i += common;
+    }
+    return node;
+  }
+
+  private static void collect(
+      Node node, Predicate<SearchDoc> filter, Map<UUID, Posting> out, int wanted, int[] budget) {
+    for (Posting p : node.postings) {
+      if (out.size() >= wanted || budget[0]-- <= 0) return;
+      if (filter.test(p.doc())) out.merge(p.doc().id(), p, PrefixIndex::better);
+    }
+    for (Node child : node.children) {
+      if (out.size() >= wanted || budget[0] <= 0) return;
+      collect(child, filter, out, wanted, budget);
+    }
+  }
+
+  private static Posting better(Posting a, Posting b) {
+    return RANK.compare(a, b) <= 0 ? a : b;
+  }
+
+  private Posting[] offer(Posting[] top, Posting p) {
+    for (int i = 0; i < top.length; i++) {
+      if (top[i].doc().id().equals(p.doc().id())) {
+        if (RANK.compare(p, top[i]) >= 0) return top;
+        Posting[] copy = top.clone();
+        copy[i] = p;
+        Arrays.sort(copy, RANK);
+        return copy;
+      }
+    }
+    if (top.length == topSize && RANK.compare(p, top[top.length - 1]) >= 0) return top;
+    Posting[] copy = Arrays.copyOf(top, Math.min(top.length + 1, topSize));
+    copy[copy.length - 1] = p;
+    Arrays.sort(copy, RANK);
+    return copy;
+  }
+
+  /** A node's best documents are the best of its own postings and its children's best. */
+  private Posting[] recompute(Node n) {
+    Map<UUID, Posting> best = new HashMap<>();
+    for (Posting p : n.postings) best.merge(p.doc().id(), p, PrefixIndex::better);
+    for (Node child : n.children) {
+      for (Posting p : child.top) best.merge(p.doc().id(), p, PrefixIndex::better);
+    }
+    return best.values().stream().sorted(RANK).limit(topSize).toArray(Posting[]::new);
+  }
+
+  private static boolean contains(Posting[] top, UUID docId) {
+    for (Posting p : top) if (p.doc().id().equals(docId)) return true;
+    return false;
+  }
+
+  private static Node split(Node parent, int idx, int at) {
+    Node child = parent.children[idx];
+    Node mid = new Node(Arrays.copyOf(child.label, at));
+    child.label = Arrays.copyOfRange(child.label, at, child.label.length);
+    mid.keys = new char[] {child.label[0]};
+    mid.children = new Node[] {child};
+    mid.size = child.size;
+    mid.top = child.top;
+    parent.children[idx] = mid;
+    return mid;
+  }
+
+  private static void insertChild(Node parent, int at, Node child) {
+    char[] keys = new char[parent.keys.length + 1];
+    Node[] children = new Node[parent.children.length + 1];
+    System.arraycopy(parent.keys, 0, keys, 0, at);
+    System.arraycopy(parent.children, 0, children, 0, at);
+    keys[at] = child.label[0];
+    children[at] = child;
+    System.arraycopy(parent.keys, at, keys, at + 1, parent.keys.length - at);
+    System.arraycopy(parent.children, at, children, at + 1, parent.children.length - at);
+    parent.keys = keys;
+    parent.children = children;
+  }
+
+  private static void removeChild(Node parent, Node child) {
+    int at = Arrays.binarySearch(parent.keys, child.label[0]);
+    char[] keys = new char[parent.keys.length - 1];
+    Node[] children = new Node[parent.children.length - 1];
+    System.arraycopy(parent.keys, 0, keys, 0, at);
+    System.arraycopy(parent.children, 0, children, 0, at);
+    System.arraycopy(parent.keys, at + 1, keys, at, keys.length - at);
+    System.arraycopy(parent.children, at + 1, children, at, children.length - at);
+    parent.keys = keys;
+    parent.children = children;
+  }
+
+  private static int commonPrefix(char[] label, String term, int from) {
+    int n = Math.min(label.length, term.length() - from);
+    int i = 0;
+    while (i < n && label[i] == term.charAt(from + i)) i++;
+    return i;
+  }
+
+  private static Posting[] append(Posting[] postings, Posting p) {
+    Posting[] copy = Arrays.copyOf(postings, postings.length + 1);
+    copy[postings.length] = p;
+    return copy;
+  }
+}
@@ -0,0 +1,29 @@
+package com.dropslot.store.search;
+
+import java.util.UUID;
+
+/**
+ * A store or branch as the autocomplete index sees it. {@code detail} is the slug of a store and
+ * the address of a branch; {@code terms} are the normalized words of both fields.
+ */
+record SearchDoc(Kind kind, UUID id, UUID storeId, String name, String detail, String[] terms) {
+  enum Kind {
+    STORE,
+    BRANCH
+  }
+
+  /** Whether every query term is a prefix of one of this document's words. */
+  boolean matchesAll(String[] queryTerms) {
+    for (String q : queryTerms) {
+      boolean found = false;
+      for (String t : terms) {
+        if (t.startsWith(q)) {
+          found = true;
+          break;
+        }
+      }
+      if (!found) return false;
+    }
+    return true;
+  }
+}
@@ -0,0 +1,233 @@
+package com.dropslot.store.search;
+
+import com.dropslot.store.api.dto.StoreDtos;
+import com.dropslot.store.repo.BranchRepository;
+import com.dropslot.store.repo.StoreRepository;
+import com.dropslot.store.shard.ShardRouter;
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Typeahead over store names and slugs and branch names and addresses, answered from memory. Every
+ * word of those fields goes into a {@link PrefixIndex}; the last word of a query is matched as a
+ * prefix and any earlier words must prefix some word of the same result. Store names rank above
+ * slugs, branch names and addresses, and first words above later ones.
+ *
+ * <p>Built at startup by streaming every shard and kept current by the write paths, which publish
+ * once their transaction commits.
+ */
+@Component
+public class StoreSearchIndex {
+  private static final Logger log = LoggerFactory.getLogger(StoreSearchIndex.class);
+  private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+  private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+  private static final int STORE_NAME_FIRST = 40;
+  private static final int STORE_NAME = 30;
+  private static final int SLUG = 25;
+  private static final int BRANCH_NAME_FIRST = 20;
+  private static final int BRANCH_NAME = 15;
+  private static final int ADDRESS = 5;
+
+  private final StoreRepository storeRepository;
+  private final BranchRepository branchRepository;
+  private final ShardRouter shardRouter;
+  private final PlatformTransactionManager transactionManager;
+  private final int scanLimit;
+  private final PrefixIndex index;
+  private final Map<UUID, SearchDoc> docs = new HashMap<>();
+  private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+  public StoreSearchIndex(
+      StoreRepository storeRepository,
+      BranchRepository branchRepository,
+      ShardRouter shardRouter,
+      PlatformTransactionManager transactionManager,
+      @Value("${store.search.results-per-prefix:20}") int resultsPerPrefix,
+      @Value("${store.search.scan-limit:2048}") int scanLimit) {
+    this.storeRepository = storeRepository;
+    this.branchRepository = branchRepository;
+    this.shardRouter = shardRouter;
+    this.transactionManager = transactionManager;
+    this.scanLimit = scanLimit;
+    this.index = new PrefixIndex(resultsPerPrefix);
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void warm() {
+    AtomicInteger loaded = new AtomicInteger();
+    TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+    readOnly.setReadOnly(true);
+    shardRouter.forEachShard(
+        shard ->
+            readOnly.executeWithoutResult(
+                status -> {
+                  try (Stream<StoreRepository.StoreSearchView> rows =
+                      storeRepository.streamSearchFields()) {
+                    rows.forEach(
+                        s -> {
+                          // writes made since startup are newer than the scan
+                          if (put(store(s.getId(), s.getName(), s.getSlug()), false)) {
+                            loaded.incrementAndGet();
+                          }
+                        });
+                  }
+                  try (Stream<BranchRepository.BranchSearchView> rows =
+                      branchRepository.streamSearchFields()) {
+                    rows.forEach(
+                        b -> {
+                          SearchDoc doc =
+                              branch(b.getId(), b.getStoreId(), b.getName(), b.getAddress());
+                          if (put(doc, false)) loaded.incrementAndGet();
+                        });
+                  }
+                }));
+    log.info("Indexed {} stores and branches for search", loaded.get());
+  }
+
+  public void indexStore(UUID id, String name, String slug) {
+    afterCommit(() -> put(store(id, name, slug), true));
+  }
+
+  public void indexBranch(UUID id, UUID storeId, String name, String address) {
+    afterCommit(() -> put(branch(id, storeId, name, address), true));
+  }
+
+  public List<StoreDtos.SearchHit> search(String query, int limit) {
+    String[] terms = normalize(query);
+    if (terms.length == 0) return List.of();
+    List<PrefixIndex.Posting> hits;
+    lock.readLock().lock();
+    try {
+      hits = terms.length == 1 ? List.copyOf(index.top(terms[0], limit)) : searchAll(terms, limit);
+    } finally {
+      lock.readLock().unlock();
+    }
+    return hits.stream()
+        .map(
+            p -> {
+              SearchDoc d = p.doc();
+              return new StoreDtos.SearchHit(
+                  d.kind().name(), d.id().toString(), d.storeId().toString(), d.name(), d.detail());
+            })
+        .toList();
+  }
+
+  /**
+   * Starts from the query word with the fewest matches: its ranked best first, then a walk of its
+   * other matches that stops at {@code limit} results or after {@code scanLimit} postings, so a
+   * query of common words stays cheap at the price of some lower-ranked results.
+   */
+  private List<PrefixIndex.Posting> searchAll(String[] terms, int limit) {
+    String rarest = null;
+    int fewest = Integer.MAX_VALUE;
+    for (String t : terms) {
+      int count = index.count(t);
+      if (count == 0) return List.of();
+      if (count < fewest) {
+        fewest = count;
+        rarest = t;
+      }
+    }
+    return index.scan(rarest, d -> d.matchesAll(terms), limit, scanLimit).values().stream()
+        .sorted(PrefixIndex.RANK)
+        .limit(limit)
+        .toList();
+  }
+
+  private boolean put(SearchDoc doc, boolean replace) {
+    lock.writeLock().lock();
+    try {
+      SearchDoc old = docs.get(doc.id());
+      if (old != null) {
+        if (!replace) return false;
+        for (String term : new LinkedHashSet<>(Arrays.asList(old.terms()))) {
+          index.remove(term, old.id());
+        }
+      }
+      docs.put(doc.id(), doc);
+      for (Map.Entry<String, Integer> e : weights(doc).entrySet()) {
+        index.add(e.getKey(), new PrefixIndex.Posting(doc, e.getValue()));
+      }
+      return true;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /** Each distinct word of the document with the best weight it appears with. */
+  private static Map<String, Integer> weights(SearchDoc doc) {
+    Map<String, Integer> weights = new HashMap<>();
+    boolean store = doc.kind() == SearchDoc.Kind.STORE;
+    String[] name = normalize(doc.name());
+    for (int i = 0; i < name.length; i++) {
+      int w =
+          store
+              ? (i == 0 ? STORE_NAME_FIRST : STORE_NAME)
+              : (i == 0 ? BRANCH_NAME_FIRST : BRANCH_NAME);
+      weights.merge(name[i], w, Math::max);
+    }
+    for (String t : normalize(doc.detail())) weights.merge(t, store ? SLUG : ADDRESS, Math::max);
+    return weights;
+  }
+
+  private static SearchDoc store(UUID id, String name, String slug) {
+    return new SearchDoc(SearchDoc.Kind.STORE, id, id, name, slug, terms(name, slug));
+  }
+
+  private static SearchDoc branch(UUID id, UUID storeId, String name, String address) {
+    return new SearchDoc(SearchDoc.Kind.BRANCH, id, storeId, name, address, terms(name, address));
+  }
+
+  private static String[] terms(String a, String b) {
+    Set<String> terms = new LinkedHashSet<>(Arrays.asList(normalize(a)));
+    terms.addAll(Arrays.asList(normalize(b)));
+    return terms.toArray(String[]::new);
+  }
+
+  /** Lower-cased words without accents, so "Café Zürich" is found by "cafe zur". */
+  static String[] normalize(String text) {
+    if (text == null || text.isBlank()) return new String[0];
+    String folded =
+        MARKS
+            .matcher(Normalizer.normalize(text, Normalizer.Form.NFD))
+            .replaceAll("")
+            .toLowerCase(Locale.ROOT);
+    return Arrays.stream(SEPARATORS.split(folded)).filter(t -> !t.isEmpty()).toArray(String[]::new);
+  }
+
+  private static void afterCommit(Runnable publish) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+              publish.run();
+            }
+          });
+    } else {
+      publish.run();
+    }
+  }
+}
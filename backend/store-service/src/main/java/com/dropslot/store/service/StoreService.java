@@ -3,10 +3,18 @@ package com.dropslot.store.service;
 import com.dropslot.store.api.dto.StoreDtos;
 import com.dropslot.store.domain.Branch;
 import com.dropslot.store.domain.Store;
+import com.dropslot.store.outbox.Outbox;
+import com.dropslot.store.outbox.OutboxEvent;
 import com.dropslot.store.repo.BranchRepository;
 import com.dropslot.store.repo.StoreRepository;
+import com.dropslot.store.schedule.BranchScheduleCache;
+import com.dropslot.store.schedule.OpeningHours;
+import com.dropslot.store.search.StoreSearchIndex;
+import com.dropslot.store.shard.ShardRouter;
 import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
@@ -17,10 +25,14 @@ import org.springframework.transaction.annotation.Transactional;
 public class StoreService {
   private final StoreRepository storeRepository;
   private final BranchRepository branchRepository;
+  private final BranchScheduleCache branchScheduleCache;
+  private final ShardRouter shardRouter;
+  private final StoreSearchIndex storeSearchIndex;
+  private final Outbox outbox;
 
   @Transactional
   public StoreDtos.StoreResponse create(StoreDtos.CreateStoreRequest req, UUID creatorId) {
-    if (storeRepository.existsBySlug(req.slug())) {
+    if (storeRepository.existsBySlug(req.slug()) || shardRouter.slugExistsOnAnyShard(req.slug())) {
       throw new IllegalArgumentException("Slug already exists");
     }
     Store store =
@@ -30,10 +42,22 @@ public class StoreService {
             .tenantKey(req.tenantKey())
             .logoUrl(req.logoUrl())
             .createdBy(creatorId)
-            .createdAt(Instant.now())
-            .updatedAt(Instant.now())
+            .createdAt(now())
+            .updatedAt(now())
             .build();
     store = storeRepository.save(store);
+    shardRouter.remember(store.getId(), store.getTenantKey());
+    storeSearchIndex.indexStore(store.getId(), store.getName(), store.getSlug());
+    outbox.add(
+        new OutboxEvent(
+            "store.created",
+            store.getId(),
+            store.getTenantKey(),
+            Map.of(
+                "storeId", store.getId(),
+                "tenantKey", store.getTenantKey(),
+                "name", store.getName(),
+                "slug", store.getSlug())));
     return toResponse(store);
   }
 
@@ -45,18 +69,45 @@ public class StoreService {
         toResponse(store), branches.stream().map(this::toResponse).toList());
   }
 
+  /** The store's {@code updated_at}, which also advances when its branches change. */
+  @Transactional(readOnly = true)
+  public StoreRepository.StoreVersionView version(UUID id) {
+    return storeRepository.findVersionById(id).orElseThrow();
+  }
+
+  @Transactional(readOnly = true)
+  public StoreRepository.StoreVersionView versionBySlug(String slug) {
+    return storeRepository.findVersionBySlug(slug).orElseThrow();
+  }
+
+  @Transactional(readOnly = true)
+  public List<StoreDtos.BranchResponse> openBranches(UUID storeId, Instant at) {
+    Store store = storeRepository.findById(storeId).orElseThrow();
+    return branchScheduleCache.filterOpenAt(branchRepository.findByStore(store), at).stream()
+        .map(this::toResponse)
+        .toList();
+  }
+
   @Transactional
   public StoreDtos.StoreResponse update(UUID id, StoreDtos.CreateStoreRequest req) {
     Store store = storeRepository.findById(id).orElseThrow();
     store.setName(req.name());
     store.setLogoUrl(req.logoUrl());
-    store.setUpdatedAt(Instant.now());
+    store.setUpdatedAt(now());
     store = storeRepository.save(store);
+    storeSearchIndex.indexStore(store.getId(), store.getName(), store.getSlug());
+    outbox.add(
+        new OutboxEvent(
+            "store.updated",
+            store.getId(),
+            store.getTenantKey(),
+            Map.of("storeId", store.getId(), "name", store.getName())));
     return toResponse(store);
   }
 
   @Transactional
   public StoreDtos.BranchResponse addBranch(UUID storeId, StoreDtos.CreateBranchRequest req) {
+    String openingHours = OpeningHours.normalize(req.openingHours());
     Store store = storeRepository.findById(storeId).orElseThrow();
     Branch b =
         Branch.builder()
@@ -66,11 +117,29 @@ public class StoreService {
             .lat(req.lat())
             .lng(req.lng())
             .phone(req.phone())
+            .openingHours(openingHours)
             .build();
     b = branchRepository.save(b);
+    store.setUpdatedAt(now());
+    branchScheduleCache.put(b.getId(), OpeningHours.compile(openingHours));
+    storeSearchIndex.indexBranch(b.getId(), storeId, b.getName(), b.getAddress());
+    outbox.add(branchCreated(b, storeId, store.getTenantKey()));
     return toResponse(b);
   }
 
+  public static OutboxEvent branchCreated(Branch b, UUID storeId, String tenantKey) {
+    return new OutboxEvent(
+        "branch.created",
+        b.getId(),
+        tenantKey,
+        Map.of("branchId", b.getId(), "storeId", storeId, "name", b.getName()));
+  }
+
+  /** Truncated to the database's microsecond precision so ETags survive a reload. */
+  public static Instant now() {
+    return Instant.now().truncatedTo(ChronoUnit.MICROS);
+  }
+
   private StoreDtos.StoreResponse toResponse(Store s) {
     return new StoreDtos.StoreResponse(
         s.getId() != null ? s.getId().toString() : null,
@@ -87,6 +156,7 @@ public class StoreService {
         b.getAddress(),
         b.getLat(),
         b.getLng(),
-        b.getPhone());
+        b.getPhone(),
+        b.getOpeningHours());
   }
 }
@@ -0,0 +1,45 @@
+package com.dropslot.store.shard;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Consistent hash ring with virtual nodes, so adding a shard only remaps roughly {@code 1/n} of the
+ * tenants instead of reshuffling all of them.
+ */
+public final class ConsistentHashRing {
+  private final TreeMap<Long, String> ring = new TreeMap<>();
+
+  public ConsistentHashRing(Collection<String> shards, int virtualNodes) {
+    if (shards.isEmpty()) {
+      throw new IllegalArgumentException("At least one shard is required");
+    }
+    for (String shard : shards) {
+      for (int i = 0; i < virtualNodes; i++) {
+        ring.put(hash(shard + "#" + i), shard);
+      }
+    }
+  }
+
+  public String shardFor(String key) {
+    Map.Entry<Long, String> entry = ring.ceilingEntry(hash(key));
+    return entry != null ? entry.getValue() : ring.firstEntry().getValue();
+  }
+
+  /** FNV-1a over UTF-8 bytes followed by the murmur3 64-bit finalizer for better avalanche. */
+  static long hash(String key) {
+    long h = 0xcbf29ce484222325L;
+    for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+      h ^= b;
+      h *= 0x100000001b3L;
+    }
+    h ^= h >>> 33;
+    h *= 0xff51afd7ed558ccdL;
+    h ^= h >>> 33;
+    h *= 0xc4ceb9fe1a85ec53L;
+    h ^= h >>> 33;
+    return h;
+  }
+}
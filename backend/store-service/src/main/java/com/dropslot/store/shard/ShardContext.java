@@ -0,0 +1,31 @@
+package com.dropslot.store.shard;
+
+import java.util.function.Supplier;
+
+/** Thread-bound shard selection read by {@link ShardRoutingDataSource}. */
+public final class ShardContext {
+  public static final String DEFAULT = "default";
+
+  private static final ThreadLocal<String> CURRENT = new ThreadLocal<>();
+
+  private ShardContext() {}
+
+  public static String current() {
+    return CURRENT.get();
+  }
+
+  /** Runs {@code work} with {@code shard} selected, restoring the previous selection after. */
+  public static <T> T call(String shard, Supplier<T> work) {
+    String previous = CURRENT.get();
+    CURRENT.set(shard);
+    try {
+      return work.get();
+    } finally {
+      if (previous != null) {
+        CURRENT.set(previous);
+      } else {
+        CURRENT.remove();
+      }
+    }
+  }
+}
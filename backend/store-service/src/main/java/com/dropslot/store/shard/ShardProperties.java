@@ -0,0 +1,31 @@
+package com.dropslot.store.shard;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * {@code store.sharding.*}: when disabled the service runs against the single {@code
+ * spring.datasource}; when enabled each entry in {@code shards} gets its own connection pool.
+ */
+@ConfigurationProperties("store.sharding")
+public record ShardProperties(
+    boolean enabled,
+    String directoryShard,
+    int virtualNodes,
+    long directoryRefreshMs,
+    Map<String, Shard> shards) {
+
+  public ShardProperties {
+    if (directoryShard == null || directoryShard.isBlank()) directoryShard = ShardContext.DEFAULT;
+    if (virtualNodes <= 0) virtualNodes = 128;
+    if (directoryRefreshMs <= 0) directoryRefreshMs = 5000;
+    shards = shards != null ? new LinkedHashMap<>(shards) : new LinkedHashMap<>();
+  }
+
+  public record Shard(String url, String username, String password, int maxPoolSize) {
+    public Shard {
+      if (maxPoolSize <= 0) maxPoolSize = 10;
+    }
+  }
+}
@@ -0,0 +1,132 @@
+package com.dropslot.store.shard;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import org.springframework.stereotype.Component;
+
+/**
+ * Selects the shard for a unit of work before any transaction starts, so JPA repositories and JDBC
+ * writers transparently run against the tenant's database. A store's tenant never changes, so store
+ * id to tenant lookups are cached after the first (scatter) query.
+ */
+@Component
+public class ShardRouter {
+  private final ShardTopology topology;
+  private final TenantDirectory directory;
+  private final MeterRegistry meterRegistry;
+  private final Map<UUID, String> tenantByStore = new ConcurrentHashMap<>();
+  private final Map<String, String> tenantBySlug = new ConcurrentHashMap<>();
+  private final Map<String, Counter> routed = new ConcurrentHashMap<>();
+
+  public ShardRouter(
+      ShardTopology topology, TenantDirectory directory, MeterRegistry meterRegistry) {
+    this.topology = topology;
+    this.directory = directory;
+    this.meterRegistry = meterRegistry;
+  }
+
+  public <T> T readTenant(String tenantKey, Supplier<T> work) {
+    requireTenant(tenantKey);
+    return directory.route(() -> run(directory.shardFor(tenantKey), work));
+  }
+
+  public <T> T writeTenant(String tenantKey, Supplier<T> work) {
+    requireTenant(tenantKey);
+    return directory.route(
+        () -> {
+          directory.checkWritable(tenantKey);
+          return run(directory.shardFor(tenantKey), work);
+        });
+  }
+
+  public <T> T readStore(UUID storeId, Supplier<T> work) {
+    if (!topology.isSharded()) return run(ShardContext.DEFAULT, work);
+    return readTenant(tenantOf(storeId), work);
+  }
+
+  public <T> T writeStore(UUID storeId, Supplier<T> work) {
+    if (!topology.isSharded()) return run(ShardContext.DEFAULT, work);
+    return writeTenant(tenantOf(storeId), work);
+  }
+
+  public <T> T readSlug(String slug, Supplier<T> work) {
+    if (!topology.isSharded()) return run(ShardContext.DEFAULT, work);
+    return readTenant(tenantOfSlug(slug), work);
+  }
+
+  /** Runs {@code work} once per shard, e.g. for startup scans. */
+  public void forEachShard(Consumer<String> work) {
+    for (String shard : topology.shards()) {
+      run(
+          shard,
+          () -> {
+            work.accept(shard);
+            return null;
+          });
+    }
+  }
+
+  /** Remembers the tenant of a store that was just created on this node. */
+  public void remember(UUID storeId, String tenantKey) {
+    if (topology.isSharded()) tenantByStore.put(storeId, tenantKey);
+  }
+
+  /** Slugs are global; the per-database unique index only covers one shard. */
+  public boolean slugExistsOnAnyShard(String slug) {
+    if (!topology.isSharded()) return false;
+    for (String shard : topology.shards()) {
+      Boolean found =
+          topology
+              .jdbc(shard)
+              .queryForObject(
+                  "SELECT EXISTS (SELECT 1 FROM stores WHERE slug = ?)", Boolean.class, slug);
+      if (Boolean.TRUE.equals(found)) return true;
+    }
+    return false;
+  }
+
+  private static void requireTenant(String tenantKey) {
+    if (tenantKey == null || tenantKey.isBlank()) {
+      throw new IllegalArgumentException("tenantKey: must not be blank");
+    }
+  }
+
+  private String tenantOf(UUID storeId) {
+    return tenantByStore.computeIfAbsent(
+        storeId, id -> scatterTenant("SELECT tenant_key FROM stores WHERE id = ?", id));
+  }
+
+  // slugs cannot be changed through the API, so the mapping never goes stale
+  private String tenantOfSlug(String slug) {
+    return tenantBySlug.computeIfAbsent(
+        slug, s -> scatterTenant("SELECT tenant_key FROM stores WHERE slug = ?", s));
+  }
+
+  private String scatterTenant(String sql, Object key) {
+    for (String shard : topology.shards()) {
+      List<String> tenants = topology.jdbc(shard).queryForList(sql, String.class, key);
+      if (!tenants.isEmpty()) return tenants.get(0);
+    }
+    throw new NoSuchElementException("Store not found");
+  }
+
+  private <T> T run(String shard, Supplier<T> work) {
+    routed
+        .computeIfAbsent(
+            shard,
+            s ->
+                Counter.builder("store.shard.requests")
+                    .description("Units of work routed to each store shard")
+                    .tag("shard", s)
+                    .register(meterRegistry))
+        .increment();
+    return ShardContext.call(shard, work);
+  }
+}
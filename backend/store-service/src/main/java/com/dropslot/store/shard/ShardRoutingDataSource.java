@@ -0,0 +1,15 @@
+package com.dropslot.store.shard;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+/**
+ * Routes connections to the shard selected in {@link ShardContext}; connections requested outside a
+ * shard context go to the directory shard.
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource {
+
+  @Override
+  protected Object determineCurrentLookupKey() {
+    return ShardContext.current();
+  }
+}
@@ -0,0 +1,74 @@
+package com.dropslot.store.shard;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import javax.sql.DataSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/** The configured shards, their pools and the hash ring that places tenants on them. */
+public class ShardTopology implements AutoCloseable {
+  private final String directoryShard;
+  private final Map<String, DataSource> dataSources;
+  private final Map<String, JdbcTemplate> jdbcTemplates = new LinkedHashMap<>();
+  private final ConsistentHashRing ring;
+  private final boolean ownsPools;
+
+  public ShardTopology(
+      String directoryShard,
+      Map<String, DataSource> dataSources,
+      int virtualNodes,
+      boolean ownsPools) {
+    if (!dataSources.containsKey(directoryShard)) {
+      throw new IllegalArgumentException("Directory shard is not configured: " + directoryShard);
+    }
+    this.directoryShard = directoryShard;
+    this.dataSources = Collections.unmodifiableMap(new LinkedHashMap<>(dataSources));
+    this.dataSources.forEach((name, ds) -> jdbcTemplates.put(name, new JdbcTemplate(ds)));
+    this.ring = new ConsistentHashRing(dataSources.keySet(), virtualNodes);
+    this.ownsPools = ownsPools;
+  }
+
+  /** Unsharded deployment: everything lives on the application's own datasource. */
+  public static ShardTopology single(DataSource dataSource) {
+    return new ShardTopology(
+        ShardContext.DEFAULT, Map.of(ShardContext.DEFAULT, dataSource), 1, false);
+  }
+
+  public boolean isSharded() {
+    return dataSources.size() > 1;
+  }
+
+  public String directoryShard() {
+    return directoryShard;
+  }
+
+  public Set<String> shards() {
+    return dataSources.keySet();
+  }
+
+  public String ringShardFor(String tenantKey) {
+    return ring.shardFor(tenantKey);
+  }
+
+  public DataSource dataSource(String shard) {
+    DataSource ds = dataSources.get(shard);
+    if (ds == null) throw new IllegalArgumentException("Unknown shard: " + shard);
+    return ds;
+  }
+
+  public JdbcTemplate jdbc(String shard) {
+    JdbcTemplate jdbc = jdbcTemplates.get(shard);
+    if (jdbc == null) throw new IllegalArgumentException("Unknown shard: " + shard);
+    return jdbc;
+  }
+
+  @Override
+  public void close() throws Exception {
+    if (!ownsPools) return;
+    for (DataSource ds : dataSources.values()) {
+      if (ds instanceof AutoCloseable closeable) closeable.close();
+    }
+  }
+}
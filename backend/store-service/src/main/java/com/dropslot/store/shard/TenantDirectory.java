@@ -0,0 +1,179 @@
+package com.dropslot.store.shard;
+
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Tenant to shard placement. Tenants land on the shard chosen by the hash ring unless the {@code
+ * tenant_shards} table on the directory shard pins them elsewhere (after a move). Pinned entries
+ * are cached and refreshed every {@code store.sharding.directory-refresh-ms}.
+ *
+ * <p>Every pin raises the directory version. Each replica records in {@code directory_replicas} the
+ * version it routes by, once the work it routed with an older one has finished, so {@link
+ * #awaitReplicas} tells a mover when no replica can still act on a superseded placement.
+ */
+@Component
+@RequiredArgsConstructor
+public class TenantDirectory {
+  public static final String ACTIVE = "ACTIVE";
+  public static final String MOVING = "MOVING";
+
+  private static final Logger log = LoggerFactory.getLogger(TenantDirectory.class);
+
+  private final ShardTopology topology;
+  private final WorkEpochs epochs = new WorkEpochs();
+  // {version, epoch} loaded by refresh and not yet acknowledged, oldest first
+  private final Deque<long[]> unacknowledged = new ArrayDeque<>();
+  private final String replicaId = UUID.randomUUID().toString();
+  private volatile Map<String, Placement> pinned = Map.of();
+  private long acknowledged;
+
+  @Value("${store.sharding.directory-refresh-ms:5000}")
+  private long directoryRefreshMs;
+
+  public record Placement(String shard, String state) {}
+
+  public String shardFor(String tenantKey) {
+    Placement p = pinned.get(tenantKey);
+    return p != null ? p.shard() : topology.ringShardFor(tenantKey);
+  }
+
+  /** Rejects writes while the tenant's rows are being copied to another shard. */
+  public void checkWritable(String tenantKey) {
+    Placement p = pinned.get(tenantKey);
+    if (p != null && MOVING.equals(p.state())) {
+      throw new TenantUnavailableException("Tenant is being moved between shards, retry shortly");
+    }
+  }
+
+  /**
+   * Runs work that routes by the directory; replicas only acknowledge a version once it is done.
+   */
+  public <T> T route(Supplier<T> work) {
+    long epoch = epochs.enter();
+    try {
+      return work.get();
+    } finally {
+      epochs.exit(epoch);
+    }
+  }
+
+  public Map<String, Placement> pinned() {
+    return pinned;
+  }
+
+  /** Pins the tenant and returns the directory version of the pin. */
+  public long pin(String tenantKey, String shard, String state) {
+    JdbcTemplate jdbc = topology.jdbc(topology.directoryShard());
+    Long version =
+        new TransactionTemplate(
+                new DataSourceTransactionManager(topology.dataSource(topology.directoryShard())))
+            .execute(
+                status -> {
+                  // serialised, so a replica that loaded version n has every pin up to n
+                  jdbc.query("SELECT pg_advisory_xact_lock(hashtext('tenant_shards'))", rs -> {});
+                  return jdbc.queryForObject(
+                      "INSERT INTO tenant_shards (tenant_key, shard, state, version, updated_at)"
+                          + " VALUES (?, ?, ?, (SELECT coalesce(max(version), 0) + 1 FROM"
+                          + " tenant_shards), now()) ON CONFLICT (tenant_key) DO UPDATE SET shard ="
+                          + " EXCLUDED.shard, state = EXCLUDED.state, version = EXCLUDED.version,"
+                          + " updated_at = now() RETURNING version",
+                      Long.class,
+                      tenantKey,
+                      shard,
+                      state);
+                });
+    Map<String, Placement> next = new ConcurrentHashMap<>(pinned);
+    next.put(tenantKey, new Placement(shard, state));
+    pinned = Map.copyOf(next);
+    return version;
+  }
+
+  /**
+   * Waits until every live replica has acknowledged {@code version}. Replicas that missed three
+   * refreshes in a row are taken to be gone.
+   */
+  public void awaitReplicas(long version, Duration timeout) throws InterruptedException {
+    JdbcTemplate jdbc = topology.jdbc(topology.directoryShard());
+    long deadline = System.nanoTime() + timeout.toNanos();
+    while (true) {
+      Integer behind =
+          jdbc.queryForObject(
+              "SELECT count(*) FROM directory_replicas WHERE seen_version < ?"
+                  + " AND heartbeat_at > now() - make_interval(secs => ?)",
+              Integer.class,
+              version,
+              3 * directoryRefreshMs / 1000.0);
+      if (behind == null || behind == 0) return;
+      if (System.nanoTime() > deadline) {
+        throw new TenantUnavailableException(
+            behind + " replicas have not acknowledged tenant directory version " + version);
+      }
+      Thread.sleep(Math.max(50, directoryRefreshMs / 10));
+    }
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  @Scheduled(
+      fixedDelayString = "${store.sharding.directory-refresh-ms:5000}",
+      initialDelayString = "${store.sharding.directory-refresh-ms:5000}")
+  public synchronized void refresh() {
+    if (!topology.isSharded()) return;
+    JdbcTemplate jdbc = topology.jdbc(topology.directoryShard());
+    Map<String, Placement> next = new HashMap<>();
+    long[] version = {0};
+    jdbc.query(
+        "SELECT tenant_key, shard, state, version FROM tenant_shards",
+        rs -> {
+          next.put(
+              rs.getString("tenant_key"),
+              new Placement(rs.getString("shard"), rs.getString("state")));
+          version[0] = Math.max(version[0], rs.getLong("version"));
+        });
+    if (!next.equals(pinned)) {
+      log.info("Tenant directory refreshed, {} pinned tenants", next.size());
+    }
+    pinned = Map.copyOf(next);
+
+    long newest = unacknowledged.isEmpty() ? acknowledged : unacknowledged.peekLast()[0];
+    if (version[0] > newest) {
+      // work that entered before this point may still act on the previous placement
+      unacknowledged.addLast(new long[] {version[0], epochs.advance()});
+    }
+    while (!unacknowledged.isEmpty() && epochs.drained(unacknowledged.peekFirst()[1])) {
+      acknowledged = unacknowledged.removeFirst()[0];
+    }
+    jdbc.update(
+        "INSERT INTO directory_replicas (replica_id, seen_version, heartbeat_at)"
+            + " VALUES (?, ?, now()) ON CONFLICT (replica_id) DO UPDATE"
+            + " SET seen_version = EXCLUDED.seen_version, heartbeat_at = now()",
+        replicaId,
+        acknowledged);
+  }
+
+  @PreDestroy
+  void leave() {
+    if (!topology.isSharded()) return;
+    topology
+        .jdbc(topology.directoryShard())
+        .update("DELETE FROM directory_replicas WHERE replica_id = ?", replicaId);
+  }
+}
@@ -0,0 +1,159 @@
+package com.dropslot.store.shard;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Moves one tenant's stores and branches to another shard while the service keeps running.
+ *
+ * <ol>
+ *   <li>Bulk copy while the tenant stays writable on the source.
+ *   <li>Pin the tenant as {@code MOVING}; writes are rejected with 503. Wait until every replica
+ *       has acknowledged the pin, i.e. routes by it and has finished the writes it admitted before.
+ *   <li>Re-copy (idempotent upserts) to catch writes made during the first pass.
+ *   <li>Pin the tenant {@code ACTIVE} on the target, wait until every replica has acknowledged that
+ *       too, and delete the source rows.
+ * </ol>
+ *
+ * Reads keep being served from the source until replicas pick up the final pin, so the tenant is
+ * only write-locked while replicas acknowledge the fence and during the second copy. A move that
+ * times out before the final pin goes back to {@code ACTIVE} on the source; one that times out
+ * after it keeps the source rows, which are no longer routed to.
+ */
+@Component
+@RequiredArgsConstructor
+public class TenantMover {
+  private static final Logger log = LoggerFactory.getLogger(TenantMover.class);
+
+  private static final String UPSERT_STORE =
+      "INSERT INTO stores (id, name, slug, tenant_key, logo_url, created_by, created_at,"
+          + " updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?) ON CONFLICT (id) DO UPDATE SET name ="
+          + " EXCLUDED.name, slug = EXCLUDED.slug, logo_url = EXCLUDED.logo_url, updated_at ="
+          + " EXCLUDED.updated_at";
+  private static final String UPSERT_BRANCH =
+      "INSERT INTO branches (id, store_id, name, address, lat, lng, phone, opening_hours) VALUES"
+          + " (?, ?, ?, ?, ?, ?, ?, ?::jsonb) ON CONFLICT (id) DO UPDATE SET name = EXCLUDED.name,"
+          + " address = EXCLUDED.address, lat = EXCLUDED.lat, lng = EXCLUDED.lng, phone ="
+          + " EXCLUDED.phone, opening_hours = EXCLUDED.opening_hours";
+
+  private final ShardTopology topology;
+  private final TenantDirectory directory;
+
+  @Value("${store.sharding.move-fence-timeout:2m}")
+  private Duration fenceTimeout;
+
+  public record MoveResult(
+      String tenantKey, String from, String to, int stores, int branches, boolean sourceDeleted) {}
+
+  public synchronized MoveResult move(String tenantKey, String target) throws InterruptedException {
+    if (!topology.shards().contains(target)) {
+      throw new IllegalArgumentException("Unknown shard: " + target);
+    }
+    String source = directory.shardFor(tenantKey);
+    if (source.equals(target)) {
+      throw new IllegalArgumentException("Tenant " + tenantKey + " is already on " + target);
+    }
+    log.info("Moving tenant={} from shard={} to shard={}", tenantKey, source, target);
+    copy(tenantKey, source, target);
+
+    long fence = directory.pin(tenantKey, source, TenantDirectory.MOVING);
+    int[] counts;
+    long placed;
+    try {
+      directory.awaitReplicas(fence, fenceTimeout);
+      counts = copy(tenantKey, source, target);
+      placed = directory.pin(tenantKey, target, TenantDirectory.ACTIVE);
+    } catch (RuntimeException | InterruptedException e) {
+      directory.pin(tenantKey, source, TenantDirectory.ACTIVE);
+      throw e;
+    }
+    log.info(
+        "Moved tenant={} stores={} branches={} to shard={}",
+        tenantKey,
+        counts[0],
+        counts[1],
+        target);
+
+    // a replica that has not seen the new placement would find nothing on the source
+    boolean deleted = false;
+    try {
+      directory.awaitReplicas(placed, fenceTimeout);
+      delete(tenantKey, source);
+      deleted = true;
+    } catch (TenantUnavailableException e) {
+      log.warn("Kept the rows of tenant={} on shard={}: {}", tenantKey, source, e.getMessage());
+    }
+    return new MoveResult(tenantKey, source, target, counts[0], counts[1], deleted);
+  }
+
+  private int[] copy(String tenantKey, String source, String target) {
+    JdbcTemplate from = topology.jdbc(source);
+    List<Map<String, Object>> stores =
+        from.queryForList("SELECT * FROM stores WHERE tenant_key = ?", tenantKey);
+    List<Map<String, Object>> branches =
+        from.queryForList(
+            "SELECT b.id, b.store_id, b.name, b.address, b.lat, b.lng, b.phone,"
+                + " b.opening_hours::text AS opening_hours FROM branches b"
+                + " JOIN stores s ON s.id = b.store_id WHERE s.tenant_key = ?",
+            tenantKey);
+    JdbcTemplate to = topology.jdbc(target);
+    inTransaction(
+        target,
+        () -> {
+          to.batchUpdate(
+              UPSERT_STORE,
+              stores.stream()
+                  .map(
+                      s ->
+                          new Object[] {
+                            s.get("id"),
+                            s.get("name"),
+                            s.get("slug"),
+                            s.get("tenant_key"),
+                            s.get("logo_url"),
+                            s.get("created_by"),
+                            s.get("created_at"),
+                            s.get("updated_at")
+                          })
+                  .toList());
+          to.batchUpdate(
+              UPSERT_BRANCH,
+              branches.stream()
+                  .map(
+                      b ->
+                          new Object[] {
+                            b.get("id"),
+                            b.get("store_id"),
+                            b.get("name"),
+                            b.get("address"),
+                            b.get("lat"),
+                            b.get("lng"),
+                            b.get("phone"),
+                            b.get("opening_hours")
+                          })
+                  .toList());
+        });
+    return new int[] {stores.size(), branches.size()};
+  }
+
+  private void delete(String tenantKey, String source) {
+    // branches go with their stores (ON DELETE CASCADE)
+    int removed =
+        topology.jdbc(source).update("DELETE FROM stores WHERE tenant_key = ?", tenantKey);
+    log.info("Removed {} stores of tenant={} from shard={}", removed, tenantKey, source);
+  }
+
+  private void inTransaction(String shard, Runnable work) {
+    new TransactionTemplate(new DataSourceTransactionManager(topology.dataSource(shard)))
+        .executeWithoutResult(status -> work.run());
+  }
+}
@@ -0,0 +1,8 @@
+package com.dropslot.store.shard;
+
+/** The tenant's data is temporarily not writable, e.g. while it is moved to another shard. */
+public class TenantUnavailableException extends RuntimeException {
+  public TenantUnavailableException(String message) {
+    super(message);
+  }
+}
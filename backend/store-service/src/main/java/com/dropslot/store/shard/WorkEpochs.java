@@ -0,0 +1,37 @@
+package com.dropslot.store.shard;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts running units of work per epoch. Work enters the current epoch and {@link #advance()}
+ * closes it; once {@link #drained(long)} holds, nothing that entered a closed epoch is still
+ * running.
+ */
+final class WorkEpochs {
+  private final AtomicLong current = new AtomicLong();
+  private final ConcurrentHashMap<Long, Integer> running = new ConcurrentHashMap<>();
+
+  long enter() {
+    while (true) {
+      long epoch = current.get();
+      running.merge(epoch, 1, Integer::sum);
+      // counted before the epoch closed, so a later drained() sees it
+      if (current.get() == epoch) return epoch;
+      exit(epoch);
+    }
+  }
+
+  void exit(long epoch) {
+    running.computeIfPresent(epoch, (e, n) -> n == 1 ? null : n - 1);
+  }
+
+  /** Closes the current epoch and returns it. */
+  long advance() {
+    return current.getAndIncrement();
+  }
+
+  boolean drained(long upTo) {
+    return running.keySet().stream().noneMatch(epoch -> epoch <= upTo);
+  }
+}
@@ -0,0 +1,7 @@
+--liquibase formatted sql
+--changeset ckenkub:04
+ALTER TABLE branches ALTER COLUMN opening_hours TYPE JSONB USING opening_hours::jsonb;
+ALTER TABLE branches ADD CONSTRAINT chk_branches_opening_hours_object
+    CHECK (opening_hours IS NULL OR jsonb_typeof(opening_hours) = 'object');
+
+--rollback ALTER TABLE branches DROP CONSTRAINT IF EXISTS chk_branches_opening_hours_object; ALTER TABLE branches ALTER COLUMN opening_hours TYPE JSON USING opening_hours::json;
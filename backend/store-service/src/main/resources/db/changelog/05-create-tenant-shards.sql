@@ -0,0 +1,11 @@
+--liquibase formatted sql
+--changeset ckenkub:05
+-- Tenant placement overrides; only read on the directory shard
+CREATE TABLE IF NOT EXISTS tenant_shards (
+    tenant_key TEXT PRIMARY KEY,
+    shard TEXT NOT NULL,
+    state TEXT NOT NULL DEFAULT 'ACTIVE',
+    updated_at TIMESTAMP NOT NULL DEFAULT now()
+);
+
+--rollback DROP TABLE IF EXISTS tenant_shards;
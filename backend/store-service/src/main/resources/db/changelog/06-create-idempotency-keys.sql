@@ -0,0 +1,18 @@
+--liquibase formatted sql
+--changeset ckenkub:06
+-- Responses to POSTs made with an Idempotency-Key; status is NULL while the first request runs.
+-- Created on every shard but only used on the directory shard
+CREATE TABLE IF NOT EXISTS idempotency_keys (
+    key TEXT PRIMARY KEY,
+    fingerprint TEXT NOT NULL,
+    status INT,
+    content_type TEXT,
+    location TEXT,
+    body BYTEA,
+    locked_until TIMESTAMP,
+    created_at TIMESTAMP NOT NULL,
+    expires_at TIMESTAMP NOT NULL
+);
+CREATE INDEX IF NOT EXISTS idx_idempotency_keys_expires_at ON idempotency_keys(expires_at);
+
+--rollback DROP TABLE IF EXISTS idempotency_keys;
@@ -0,0 +1,16 @@
+--liquibase formatted sql
+--changeset ckenkub:07
+-- Pre-aggregated counts for dashboards: granularity is m, h or d, users a HyperLogLog sketch
+-- Created on every shard but only used on the directory shard
+CREATE TABLE IF NOT EXISTS rollups (
+    metric TEXT NOT NULL,
+    tenant TEXT NOT NULL,
+    granularity CHAR(1) NOT NULL,
+    bucket TIMESTAMP NOT NULL,
+    events BIGINT NOT NULL,
+    users BYTEA NOT NULL,
+    PRIMARY KEY (metric, tenant, granularity, bucket)
+);
+CREATE INDEX IF NOT EXISTS idx_rollups_granularity_bucket ON rollups(granularity, bucket);
+
+--rollback DROP TABLE IF EXISTS rollups;
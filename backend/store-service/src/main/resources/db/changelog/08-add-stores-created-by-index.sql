@@ -0,0 +1,6 @@
+--liquibase formatted sql
+--changeset ckenkub:08
+-- Data exports look up a user's stores by creator
+CREATE INDEX IF NOT EXISTS idx_stores_created_by ON stores(created_by);
+
+--rollback DROP INDEX IF EXISTS idx_stores_created_by;
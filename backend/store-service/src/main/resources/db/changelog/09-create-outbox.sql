@@ -0,0 +1,18 @@
+--liquibase formatted sql
+--changeset ckenkub:09
+-- Transactional outbox: one row per event and sink, delivered by OutboxRelay and compacted later
+CREATE TABLE IF NOT EXISTS outbox (
+    id BIGSERIAL PRIMARY KEY,
+    sink TEXT NOT NULL,
+    type TEXT NOT NULL,
+    aggregate_id UUID,
+    tenant_key TEXT,
+    payload JSONB NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    delivered_at TIMESTAMP
+);
+-- relays claim the oldest pending rows of a sink; the compactor finds old delivered ones
+CREATE INDEX IF NOT EXISTS idx_outbox_pending ON outbox(sink, id) WHERE delivered_at IS NULL;
+CREATE INDEX IF NOT EXISTS idx_outbox_delivered_at ON outbox(delivered_at) WHERE delivered_at IS NOT NULL;
+
+--rollback DROP TABLE IF EXISTS outbox;
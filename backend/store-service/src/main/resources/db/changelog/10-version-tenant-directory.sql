@@ -0,0 +1,13 @@
+--liquibase formatted sql
+--changeset ckenkub:10
+-- Every pin raises the directory version; each replica records the version it routes by, so a
+-- tenant move can wait until all of them have seen its pins. Only used on the directory shard.
+ALTER TABLE tenant_shards ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+CREATE TABLE IF NOT EXISTS directory_replicas (
+    replica_id TEXT PRIMARY KEY,
+    seen_version BIGINT NOT NULL,
+    heartbeat_at TIMESTAMP NOT NULL
+);
+
+--rollback DROP TABLE IF EXISTS directory_replicas;
+--rollback ALTER TABLE tenant_shards DROP COLUMN IF EXISTS version;
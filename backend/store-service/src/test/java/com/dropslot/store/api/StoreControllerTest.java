@@ -0,0 +1,202 @@
+package com.dropslot.store.api;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import com.dropslot.common.internal.InternalPortFilter;
+import com.dropslot.common.rollup.Rollups;
+import com.dropslot.store.api.dto.StoreDtos;
+import com.dropslot.store.export.StoreExporter;
+import com.dropslot.store.repo.StoreRepository;
+import com.dropslot.store.service.StoreService;
+import com.dropslot.store.shard.ShardRouter;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.config.YamlPropertiesFactoryBean;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.util.StringUtils;
+
+class StoreControllerTest {
+  private static final int INTERNAL_PORT = 8092;
+  private final UUID storeId = UUID.randomUUID();
+  private final AtomicReference<Instant> updatedAt =
+      new AtomicReference<>(Instant.parse("2024-05-01T10:00:00.123456Z"));
+  private final StoreService storeService = Mockito.mock(StoreService.class);
+  private final Rollups rollups = Mockito.mock(Rollups.class);
+  private MockMvc mvc;
+
+  @BeforeEach
+  @SuppressWarnings("unchecked")
+  void setUp() {
+    ShardRouter shardRouter = Mockito.mock(ShardRouter.class);
+    Mockito.when(shardRouter.readStore(any(), any()))
+        .thenAnswer(inv -> inv.getArgument(1, Supplier.class).get());
+    Mockito.when(shardRouter.readSlug(any(), any()))
+        .thenAnswer(inv -> inv.getArgument(1, Supplier.class).get());
+    Mockito.when(shardRouter.writeStore(any(), any()))
+        .thenAnswer(inv -> inv.getArgument(1, Supplier.class).get());
+
+    StoreRepository.StoreVersionView version = Mockito.mock(StoreRepository.StoreVersionView.class);
+    Mockito.when(version.getId()).thenReturn(storeId);
+    Mockito.when(version.getTenantKey()).thenReturn("acme");
+    Mockito.when(version.getUpdatedAt()).thenAnswer(inv -> updatedAt.get());
+    Mockito.when(storeService.version(storeId)).thenReturn(version);
+    Mockito.when(storeService.versionBySlug("acme-central")).thenReturn(version);
+    Mockito.when(storeService.get(storeId))
+        .thenReturn(
+            new StoreDtos.StoreDetailResponse(
+                new StoreDtos.StoreResponse(
+                    storeId.toString(), "Central", "acme-central", "acme", null),
+                List.of()));
+    // adding a branch touches the store, like StoreRepository.touch after a bulk import
+    Mockito.when(storeService.addBranch(Mockito.eq(storeId), any()))
+        .thenAnswer(
+            inv -> {
+              updatedAt.updateAndGet(t -> t.plusMillis(1));
+              return new StoreDtos.BranchResponse(
+                  UUID.randomUUID().toString(), "North", null, null, null, null, null);
+            });
+
+    StoreController controller =
+        new StoreController(
+            storeService, null, shardRouter, null, Mockito.mock(StoreExporter.class), rollups);
+    ReflectionTestUtils.setField(controller, "cacheControl", "no-cache");
+    mvc =
+        MockMvcBuilders.standaloneSetup(controller)
+            .addFilters(new InternalPortFilter(internalPaths(), () -> INTERNAL_PORT))
+            .build();
+  }
+
+  /** {@code internal.paths} as the service is configured. */
+  private static List<String> internalPaths() {
+    YamlPropertiesFactoryBean yaml = new YamlPropertiesFactoryBean();
+    yaml.setResources(new ClassPathResource("application.yml"));
+    return List.of(
+        StringUtils.commaDelimitedListToStringArray(
+            yaml.getObject().getProperty("internal.paths")));
+  }
+
+  @Test
+  void exportIsOnlyServedOnTheInternalPort() throws Exception {
+    mvc.perform(get("/stores/export").header("X-User-Id", UUID.randomUUID().toString()))
+        .andExpect(status().isNotFound());
+    mvc.perform(
+            get("/stores/export")
+                .header("X-User-Id", UUID.randomUUID().toString())
+                .with(
+                    req -> {
+                      req.setLocalPort(INTERNAL_PORT);
+                      return req;
+                    }))
+        .andExpect(status().isOk())
+        .andExpect(request().asyncStarted());
+  }
+
+  @Test
+  void viewCountsAreOnlyTakenOnTheInternalPort() throws Exception {
+    UUID viewer = UUID.randomUUID();
+    String counts = "[{\"key\":\"acme\",\"views\":3,\"users\":[\"" + viewer + "\"]}]";
+    mvc.perform(post("/stores/views").contentType(MediaType.APPLICATION_JSON).content(counts))
+        .andExpect(status().isNotFound());
+    Mockito.verifyNoInteractions(rollups);
+
+    mvc.perform(
+            post("/stores/views")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(counts)
+                .with(
+                    req -> {
+                      req.setLocalPort(INTERNAL_PORT);
+                      return req;
+                    }))
+        .andExpect(status().isNoContent());
+    Mockito.verify(rollups).record("store_views", "acme", 3, List.of(viewer));
+  }
+
+  @Test
+  void storeResponsesNameTheirTenantForTheGateway() throws Exception {
+    String etag = etagOf("/stores/{id}", storeId);
+    mvc.perform(get("/stores/{id}", storeId))
+        .andExpect(header().string(StoreController.TENANT_HEADER, "acme"));
+    mvc.perform(get("/stores/by-slug/acme-central").header(HttpHeaders.IF_NONE_MATCH, etag))
+        .andExpect(status().isNotModified())
+        .andExpect(header().string(StoreController.TENANT_HEADER, "acme"));
+    // the handlers no longer count: the gateway reports every view, cache hits included
+    Mockito.verifyNoInteractions(rollups);
+  }
+
+  @Test
+  void getCarriesAStrongETag() throws Exception {
+    String etag =
+        mvc.perform(get("/stores/{id}", storeId))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"))
+            .andExpect(jsonPath("$.store.slug").value("acme-central"))
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.ETAG);
+    assertNotNull(etag);
+    assertTrue(etag.matches("\"[0-9a-f]+\""), etag);
+  }
+
+  @Test
+  void matchingIfNoneMatchIsNotModifiedWithoutLoadingTheStore() throws Exception {
+    String etag = etagOf("/stores/{id}", storeId);
+    Mockito.clearInvocations(storeService);
+
+    mvc.perform(get("/stores/{id}", storeId).header(HttpHeaders.IF_NONE_MATCH, etag))
+        .andExpect(status().isNotModified())
+        .andExpect(header().string(HttpHeaders.ETAG, etag))
+        .andExpect(content().string(""));
+    Mockito.verify(storeService, Mockito.never()).get(any());
+  }
+
+  @Test
+  void bySlugSharesTheETagOfTheStore() throws Exception {
+    String etag = etagOf("/stores/{id}", storeId);
+    assertEquals(etag, etagOf("/stores/by-slug/{slug}", "acme-central"));
+    mvc.perform(get("/stores/by-slug/acme-central").header(HttpHeaders.IF_NONE_MATCH, etag))
+        .andExpect(status().isNotModified());
+  }
+
+  @Test
+  void touchingTheStoreChangesTheETag() throws Exception {
+    String before = etagOf("/stores/{id}", storeId);
+    mvc.perform(
+            post("/stores/{id}/branches", storeId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"name\":\"North\"}"))
+        .andExpect(status().isOk());
+
+    String after =
+        mvc.perform(get("/stores/{id}", storeId).header(HttpHeaders.IF_NONE_MATCH, before))
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.ETAG);
+    assertNotNull(after);
+    assertNotEquals(before, after);
+  }
+
+  private String etagOf(String uri, Object variable) throws Exception {
+    return mvc.perform(get(uri, variable))
+        .andExpect(status().isOk())
+        .andReturn()
+        .getResponse()
+        .getHeader(HttpHeaders.ETAG);
+  }
+}
@@ -0,0 +1,64 @@
+package com.dropslot.store.bulk;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.StringReader;
+import org.junit.jupiter.api.Test;
+
+class CsvBranchReaderTest {
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  @Test
+  void readsQuotedFieldsAndTracksLines() throws Exception {
+    String csv =
+        "name,address,lat,lng,opening_hours\r\n"
+            + "Central,\"1 Main St, Floor 2\",13.7,100.5,\"{\"\"monday\"\":"
+            + " [{\"\"open\"\": \"\"09:00\"\", \"\"close\"\": \"\"18:00\"\"}]}\"\r\n"
+            + "\n"
+            + "\"Multi\nLine\",,,,\n"
+            + "Broken,,north,,\n";
+    try (CsvBranchReader reader = new CsvBranchReader(new StringReader(csv), objectMapper)) {
+      BranchRowReader.Row first = reader.next();
+      assertEquals(2, first.line());
+      assertEquals("Central", first.request().name());
+      assertEquals("1 Main St, Floor 2", first.request().address());
+      assertEquals(13.7, first.request().lat());
+      assertNull(first.request().phone());
+      assertEquals(
+          "09:00", first.request().openingHours().get("monday").get(0).get("open").asText());
+
+      BranchRowReader.Row second = reader.next();
+      assertEquals(4, second.line());
+      assertEquals("Multi\nLine", second.request().name());
+      assertNull(second.request().address());
+
+      BranchRowReader.Row third = reader.next();
+      assertEquals(6, third.line());
+      assertNull(third.request());
+      assertTrue(third.error().contains("lat"));
+
+      assertNull(reader.next());
+    }
+  }
+
+  @Test
+  void unterminatedQuoteIsTheLastRowAndAnError() throws Exception {
+    String csv = "name,address\nFirst,here\nSecond,\"no closing quote\nThird,there\n";
+    try (CsvBranchReader reader = new CsvBranchReader(new StringReader(csv), objectMapper)) {
+      assertEquals("First", reader.next().request().name());
+      BranchRowReader.Row broken = reader.next();
+      assertEquals(3, broken.line());
+      assertNull(broken.request());
+      assertTrue(broken.error().contains("Unterminated"));
+      assertNull(reader.next());
+    }
+  }
+
+  @Test
+  void rejectsUnknownColumns() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> new CsvBranchReader(new StringReader("name,colour\nA,red\n"), objectMapper));
+  }
+}
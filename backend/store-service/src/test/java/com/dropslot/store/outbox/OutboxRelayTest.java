@@ -0,0 +1,129 @@
+package com.dropslot.store.outbox;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.dropslot.store.shard.ShardRouter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.PlatformTransactionManager;
+
+class OutboxRelayTest {
+  private final OutboxStore store = mock(OutboxStore.class);
+  private final ShardRouter shardRouter = mock(ShardRouter.class);
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+  private static class RecordingSink implements OutboxSink {
+    final String name;
+    final List<OutboxMessage> delivered = new ArrayList<>();
+    boolean failing;
+
+    RecordingSink(String name) {
+      this.name = name;
+    }
+
+    @Override
+    public String name() {
+      return name;
+    }
+
+    @Override
+    public void deliver(List<OutboxMessage> batch) {
+      if (failing) throw new IllegalStateException("sink down");
+      delivered.addAll(batch);
+    }
+  }
+
+  private Outbox outbox(List<OutboxSink> available, String... enabled) {
+    return new Outbox(store, new ObjectMapper(), available, List.of(enabled));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void writesOneRowPerEventAndEnabledSink() {
+    RecordingSink log = new RecordingSink("event-log");
+    RecordingSink listener = new RecordingSink("listener");
+    assertThatThrownBy(() -> outbox(List.of(log), "event-log", "webhook"))
+        .isInstanceOf(IllegalStateException.class)
+        .hasMessageContaining("webhook");
+
+    Outbox outbox = outbox(List.of(log, listener), "event-log", " listener");
+    UUID store1 = UUID.randomUUID();
+    outbox.addAll(
+        List.of(
+            new OutboxEvent("store.created", store1, "t1", Map.of("storeId", store1)),
+            new OutboxEvent("store.updated", store1, "t1", Map.of("name", "Cafe"))));
+
+    ArgumentCaptor<List<OutboxStore.Row>> rows = ArgumentCaptor.forClass(List.class);
+    verify(store).insert(rows.capture(), any());
+    assertThat(rows.getValue())
+        .extracting(OutboxStore.Row::sink, OutboxStore.Row::type)
+        .containsExactly(
+            tuple("event-log", "store.created"),
+            tuple("listener", "store.created"),
+            tuple("event-log", "store.updated"),
+            tuple("listener", "store.updated"));
+    assertThat(rows.getValue().get(3).payload()).isEqualTo("{\"name\":\"Cafe\"}");
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void marksABatchDeliveredOnlyOnceTheSinkTookIt() {
+    RecordingSink sink = new RecordingSink("event-log");
+    doAnswer(
+            inv -> {
+              Consumer<String> work = inv.getArgument(0);
+              work.accept("a");
+              work.accept("b");
+              return null;
+            })
+        .when(shardRouter)
+        .forEachShard(any());
+    List<OutboxMessage> batch = List.of(message(1), message(2), message(3));
+    when(store.claim("event-log", 3)).thenReturn(batch, List.of());
+    OutboxRelay relay =
+        new OutboxRelay(
+            outbox(List.of(sink), "event-log"),
+            store,
+            shardRouter,
+            mock(PlatformTransactionManager.class),
+            registry,
+            3,
+            Duration.ofMillis(200),
+            Duration.ofSeconds(5),
+            Duration.ofHours(1));
+
+    // a full batch from one shard and nothing from the other
+    assertThat(relay.relayOnce(sink)).isEqualTo(3);
+    assertThat(sink.delivered).isEqualTo(batch);
+    verify(store).markDelivered(any(), any());
+    assertThat(registry.counter("outbox.delivered", "sink", "event-log").count()).isEqualTo(3);
+
+    sink.failing = true;
+    when(store.claim("event-log", 3)).thenReturn(batch);
+    assertThatThrownBy(() -> relay.relayOnce(sink)).hasMessageContaining("sink down");
+    // still only the first batch
+    verify(store).markDelivered(anyList(), any());
+  }
+
+  private static OutboxMessage message(long id) {
+    return new OutboxMessage(
+        id, "branch.created", UUID.randomUUID(), "t1", "{}", Instant.parse("2026-03-01T10:00:00Z"));
+  }
+}
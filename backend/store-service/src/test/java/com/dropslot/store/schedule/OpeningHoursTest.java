@@ -0,0 +1,77 @@
+package com.dropslot.store.schedule;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Instant;
+import org.junit.jupiter.api.Test;
+
+class OpeningHoursTest {
+
+  private static final String WEEKLY =
+      """
+      {
+        "timezone": "Asia/Bangkok",
+        "monday": [{"open": "09:00", "close": "12:00"}, {"open": "13:00", "close": "18:00"}],
+        "sunday": [{"open": "22:00", "close": "02:00"}],
+        "exceptions": {"2025-09-08": [{"open": "10:00", "close": "11:00"}]}
+      }
+      """;
+
+  @Test
+  void weeklyRangesAreEvaluatedInBranchTimezone() {
+    OpeningSchedule s = OpeningHours.compile(WEEKLY);
+    // Monday 2025-09-01 10:00 Bangkok = 03:00 UTC
+    assertTrue(s.isOpenAt(Instant.parse("2025-09-01T03:00:00Z")));
+    // 12:30 Bangkok lunch break
+    assertFalse(s.isOpenAt(Instant.parse("2025-09-01T05:30:00Z")));
+    // 18:00 Bangkok is the exclusive close
+    assertFalse(s.isOpenAt(Instant.parse("2025-09-01T11:00:00Z")));
+    // Tuesday has no hours
+    assertFalse(s.isOpenAt(Instant.parse("2025-09-02T03:00:00Z")));
+  }
+
+  @Test
+  void overnightRangeWrapsAroundTheWeek() {
+    OpeningSchedule s = OpeningHours.compile(WEEKLY);
+    // Sunday 2025-09-07 23:00 Bangkok
+    assertTrue(s.isOpenAt(Instant.parse("2025-09-07T16:00:00Z")));
+    // Monday 2025-09-01 01:00 Bangkok, spilled over from Sunday
+    assertTrue(s.isOpenAt(Instant.parse("2025-08-31T18:00:00Z")));
+    // Monday 02:00 Bangkok is closed
+    assertFalse(s.isOpenAt(Instant.parse("2025-08-31T19:00:00Z")));
+  }
+
+  @Test
+  void exceptionDateReplacesWeeklyHours() {
+    OpeningSchedule s = OpeningHours.compile(WEEKLY);
+    // Monday 2025-09-08 09:30 Bangkok would normally be open
+    assertFalse(s.isOpenAt(Instant.parse("2025-09-08T02:30:00Z")));
+    assertTrue(s.isOpenAt(Instant.parse("2025-09-08T03:30:00Z")));
+  }
+
+  @Test
+  void emptyDocumentHasNoSchedule() {
+    assertNull(OpeningHours.compile("{}"));
+    assertNull(OpeningHours.compile((String) null));
+  }
+
+  @Test
+  void invalidSchedulesAreRejected() {
+    assertThrows(IllegalArgumentException.class, () -> OpeningHours.compile("[]"));
+    assertThrows(IllegalArgumentException.class, () -> OpeningHours.compile("{\"funday\": []}"));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> OpeningHours.compile("{\"monday\": [{\"open\": \"9am\", \"close\": \"18:00\"}]}"));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> OpeningHours.compile("{\"monday\": [{\"open\": \"09:00\", \"close\": \"09:00\"}]}"));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> OpeningHours.compile("{\"timezone\": \"Mars/Base\"}"));
+    assertThrows(
+        IllegalArgumentException.class,
+        () ->
+            OpeningHours.compile(
+                "{\"exceptions\": {\"2025-01-01\": [{\"open\": \"22:00\", \"close\": \"02:00\"}]}}"));
+  }
+}
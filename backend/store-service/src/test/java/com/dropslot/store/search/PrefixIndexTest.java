@@ -0,0 +1,69 @@
+package com.dropslot.store.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+class PrefixIndexTest {
+  private final PrefixIndex index = new PrefixIndex(3);
+
+  private static SearchDoc doc(String name) {
+    UUID id = UUID.randomUUID();
+    return new SearchDoc(SearchDoc.Kind.STORE, id, id, name, null, new String[] {name});
+  }
+
+  private List<String> top(String prefix) {
+    return index.top(prefix, 10).stream().map(p -> p.doc().name()).toList();
+  }
+
+  @Test
+  void ranksByWeightThenShorterNameAcrossSplitEdges() {
+    SearchDoc berlin = doc("berlin");
+    SearchDoc bern = doc("bern");
+    SearchDoc bergen = doc("bergen");
+    SearchDoc bonn = doc("bonn");
+    index.add("berlin", new PrefixIndex.Posting(berlin, 10));
+    index.add("bern", new PrefixIndex.Posting(bern, 10));
+    index.add("bergen", new PrefixIndex.Posting(bergen, 30));
+    index.add("bonn", new PrefixIndex.Posting(bonn, 5));
+
+    assertThat(top("b")).containsExactly("bergen", "bern", "berlin");
+    assertThat(top("ber")).containsExactly("bergen", "bern", "berlin");
+    assertThat(top("berl")).containsExactly("berlin");
+    assertThat(top("bo")).containsExactly("bonn");
+    assertThat(top("x")).isEmpty();
+    assertThat(top("berlins")).isEmpty();
+    assertThat(index.count("be")).isEqualTo(3);
+  }
+
+  @Test
+  void removingRefillsRankedListsFromTheSubtree() {
+    SearchDoc a = doc("aa");
+    SearchDoc b = doc("ab");
+    SearchDoc c = doc("ac");
+    SearchDoc d = doc("ad");
+    index.add("aa", new PrefixIndex.Posting(a, 4));
+    index.add("ab", new PrefixIndex.Posting(b, 3));
+    index.add("ac", new PrefixIndex.Posting(c, 2));
+    index.add("ad", new PrefixIndex.Posting(d, 1));
+    assertThat(top("a")).containsExactly("aa", "ab", "ac");
+
+    index.remove("aa", a.id());
+
+    assertThat(top("a")).containsExactly("ab", "ac", "ad");
+    assertThat(top("aa")).isEmpty();
+    assertThat(index.count("a")).isEqualTo(3);
+  }
+
+  @Test
+  void documentIsListedOncePerPrefixWithItsBestWeight() {
+    SearchDoc doc = doc("market");
+    index.add("market", new PrefixIndex.Posting(doc, 5));
+    index.add("mall", new PrefixIndex.Posting(doc, 20));
+
+    assertThat(index.top("m", 10)).singleElement().extracting(p -> p.weight()).isEqualTo(20);
+    assertThat(index.scan("m", d -> true, 10, 10)).hasSize(1);
+  }
+}
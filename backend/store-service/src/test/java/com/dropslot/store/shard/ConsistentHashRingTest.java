@@ -0,0 +1,41 @@
+package com.dropslot.store.shard;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class ConsistentHashRingTest {
+
+  @Test
+  void placementIsStableAndSpread() {
+    ConsistentHashRing ring = new ConsistentHashRing(List.of("a", "b", "c"), 128);
+    Map<String, Integer> counts = new HashMap<>();
+    for (int i = 0; i < 3000; i++) {
+      String shard = ring.shardFor("tenant-" + i);
+      assertEquals(shard, ring.shardFor("tenant-" + i));
+      counts.merge(shard, 1, Integer::sum);
+    }
+    assertEquals(3, counts.size());
+    counts.values().forEach(n -> assertTrue(n > 700 && n < 1300, "unbalanced: " + counts));
+  }
+
+  @Test
+  void addingAShardOnlyMovesTenantsToIt() {
+    ConsistentHashRing before = new ConsistentHashRing(List.of("a", "b", "c"), 128);
+    ConsistentHashRing after = new ConsistentHashRing(List.of("a", "b", "c", "d"), 128);
+    int moved = 0;
+    for (int i = 0; i < 4000; i++) {
+      String key = "tenant-" + i;
+      String was = before.shardFor(key);
+      String now = after.shardFor(key);
+      if (!was.equals(now)) {
+        assertEquals("d", now);
+        moved++;
+      }
+    }
+    assertTrue(moved > 600 && moved < 1400, "moved " + moved);
+  }
+}
@@ -0,0 +1,27 @@
+package com.dropslot.store.shard;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class WorkEpochsTest {
+
+  @Test
+  void closedEpochDrainsWhenItsWorkExits() {
+    WorkEpochs epochs = new WorkEpochs();
+    long first = epochs.enter();
+    long closed = epochs.advance();
+    assertEquals(first, closed);
+    assertFalse(epochs.drained(closed));
+
+    // work entering after the epoch closed does not hold it up
+    long later = epochs.enter();
+    assertTrue(later > closed);
+    epochs.exit(first);
+    assertTrue(epochs.drained(closed));
+    assertFalse(epochs.drained(epochs.advance()));
+
+    epochs.exit(later);
+    assertTrue(epochs.drained(later));
+  }
+}
@@ -1,11 +1,21 @@
 package com.dropslot.user;
 
+import com.dropslot.common.idempotency.IdempotencyConfig;
+import com.dropslot.common.rollup.RollupConfig;
+import com.dropslot.common.startup.MigrationRunner;
+import com.dropslot.eventlog.EventLogConfig;
+import com.dropslot.user.config.UserServiceRuntimeHints;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.annotation.ImportRuntimeHints;
 
 @SpringBootApplication
+@Import({IdempotencyConfig.class, RollupConfig.class, EventLogConfig.class})
+@ImportRuntimeHints(UserServiceRuntimeHints.class)
 public class UserServiceApplication {
   public static void main(String[] args) {
+    MigrationRunner.runIfRequested(args);
     SpringApplication.run(UserServiceApplication.class, args);
   }
 }
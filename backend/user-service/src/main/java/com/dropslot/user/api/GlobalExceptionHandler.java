@@ -1,11 +1,13 @@
 package com.dropslot.user.api;
 
 import com.dropslot.user.api.dto.ProblemDto;
+import com.dropslot.user.export.ExportRateLimitedException;
 import jakarta.servlet.http.HttpServletRequest;
 import java.time.Instant;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
@@ -35,6 +37,22 @@ public class GlobalExceptionHandler {
     return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(p);
   }
 
+  @ExceptionHandler(ExportRateLimitedException.class)
+  public ResponseEntity<ProblemDto> handleRateLimited(
+      ExportRateLimitedException ex, HttpServletRequest req) {
+    ProblemDto p =
+        new ProblemDto(
+            "about:blank",
+            "Too Many Requests",
+            ex.getMessage(),
+            req.getRequestURI(),
+            HttpStatus.TOO_MANY_REQUESTS.value(),
+            Instant.now());
+    return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+        .header(HttpHeaders.RETRY_AFTER, Long.toString(Math.max(1, ex.getRetryAfter().toSeconds())))
+        .body(p);
+  }
+
   @ExceptionHandler(AuthenticationException.class)
   public ResponseEntity<ProblemDto> handleAuth(AuthenticationException ex, HttpServletRequest req) {
     ProblemDto p =
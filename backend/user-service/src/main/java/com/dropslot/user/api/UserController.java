@@ -1,7 +1,11 @@
 package com.dropslot.user.api;
 
 import com.dropslot.user.api.dto.UserProfileDto;
+import com.dropslot.user.audit.AuditTrail;
+import com.dropslot.user.audit.AuditType;
 import com.dropslot.user.domain.User;
+import com.dropslot.user.export.DataExporter;
+import com.dropslot.user.export.ExportThrottle;
 import com.dropslot.user.repo.UserRepository;
 import com.dropslot.user.service.AuthService;
 import com.dropslot.user.util.LogUtils;
@@ -14,9 +18,12 @@ import java.util.UUID;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RestController
 @RequestMapping("/users")
@@ -25,6 +32,9 @@ import org.springframework.web.bind.annotation.*;
 public class UserController {
   private final UserRepository userRepository;
   private final AuthService authService;
+  private final DataExporter dataExporter;
+  private final ExportThrottle exportThrottle;
+  private final AuditTrail auditTrail;
   private static final Logger log = LoggerFactory.getLogger(UserController.class);
 
   @GetMapping("/me")
@@ -72,4 +82,30 @@ public class UserController {
       LogUtils.removeUserContext();
     }
   }
+
+  @GetMapping(value = "/me/export", produces = "application/x-ndjson")
+  @Operation(summary = "Download everything stored about the current user as NDJSON")
+  @ApiResponse(
+      responseCode = "429",
+      description = "Exported recently, or too many exports running",
+      content =
+          @Content(schema = @Schema(implementation = com.dropslot.user.api.dto.ProblemDto.class)))
+  public ResponseEntity<StreamingResponseBody> export(Authentication authentication) {
+    UUID userId = UUID.fromString(authentication.getName());
+    ExportThrottle.Permit permit = exportThrottle.acquire(userId);
+    log.info("Data export started userId={}", userId);
+    auditTrail.record(AuditType.DATA_EXPORTED, userId, null, null);
+    return ResponseEntity.ok()
+        .contentType(MediaType.parseMediaType("application/x-ndjson"))
+        .header(
+            HttpHeaders.CONTENT_DISPOSITION,
+            "attachment; filename=\"dropslot-export-" + userId + ".ndjson\"")
+        .body(
+            out -> {
+              try (permit) {
+                dataExporter.export(userId, out, permit);
+                log.info("Data export finished userId={} lines={}", userId, permit.rows());
+              }
+            });
+  }
 }
@@ -0,0 +1,18 @@
+package com.dropslot.user.audit;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * One row of the audit trail. The id is assigned when the event happens, so an event written twice
+ * after a retry or a replay from the spill is still stored once. {@code subject} is the masked
+ * email the request named; {@code userId} is only known once it matched an account.
+ */
+public record AuditEvent(
+    UUID id,
+    Instant occurredAt,
+    AuditType type,
+    UUID userId,
+    String subject,
+    String detail,
+    String requestId) {}
@@ -0,0 +1,246 @@
+package com.dropslot.user.audit;
+
+import com.dropslot.eventlog.EventLog;
+import com.dropslot.eventlog.LogConsumer;
+import com.dropslot.eventlog.LogRecord;
+import com.dropslot.user.repo.AuditEventWriter;
+import com.dropslot.user.util.LogUtils;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * The audit trail of auth events. Recording only puts the event on a bounded queue; one writer
+ * thread stores them with a multi-row INSERT per {@code batch-size} events or per {@code
+ * flush-interval}, whichever comes first. Events that do not fit on the queue, or whose batch the
+ * database rejected, are appended to a local spill log and written once the database accepts
+ * inserts again. Events that could not even be spilled are counted in {@code audit.events.lost}.
+ */
+@Component
+public class AuditTrail implements AutoCloseable {
+  private static final Logger log = LoggerFactory.getLogger(AuditTrail.class);
+  private static final String SPILL_TYPE = "audit";
+
+  private final AuditEventWriter writer;
+  private final ObjectMapper objectMapper;
+  private final BlockingQueue<AuditEvent> queue;
+  private final EventLog spill;
+  private final LogConsumer spilled;
+  private final int batchSize;
+  private final long flushNanos;
+  private final long retryNanos;
+  private final Counter written;
+  private final Counter spilledCount;
+  private final Counter lost;
+  private final Thread thread;
+  private volatile boolean running = true;
+  // writer thread only
+  private long retryAt;
+
+  @Autowired
+  public AuditTrail(
+      AuditEventWriter writer,
+      ObjectMapper objectMapper,
+      MeterRegistry registry,
+      @Value("${audit.queue-capacity:10000}") int capacity,
+      @Value("${audit.batch-size:500}") int batchSize,
+      @Value("${audit.flush-interval:200ms}") Duration flushInterval,
+      @Value("${audit.retry-interval:5s}") Duration retryInterval,
+      @Value("${audit.spill-dir:${java.io.tmpdir}/dropslot/${spring.application.name}/audit-spill}")
+          Path spillDir)
+      throws IOException {
+    this(
+        writer,
+        objectMapper,
+        registry,
+        capacity,
+        batchSize,
+        flushInterval,
+        retryInterval,
+        EventLog.open(
+            new EventLog.Settings(
+                spillDir, 16 << 20, Duration.ofMillis(5), Duration.ofDays(30), 1L << 30)));
+  }
+
+  AuditTrail(
+      AuditEventWriter writer,
+      ObjectMapper objectMapper,
+      MeterRegistry registry,
+      int capacity,
+      int batchSize,
+      Duration flushInterval,
+      Duration retryInterval,
+      EventLog spill) {
+    this.writer = writer;
+    this.objectMapper = objectMapper;
+    this.queue = new ArrayBlockingQueue<>(capacity);
+    this.spill = spill;
+    this.spilled = spill.consumer("audit-writer");
+    this.batchSize = batchSize;
+    this.flushNanos = flushInterval.toNanos();
+    this.retryNanos = retryInterval.toNanos();
+    this.written = registry.counter("audit.events.written");
+    this.spilledCount = registry.counter("audit.events.spilled");
+    this.lost = registry.counter("audit.events.lost");
+    Gauge.builder("audit.queue.size", queue, BlockingQueue::size).register(registry);
+    Gauge.builder("audit.spill.lag.bytes", spilled, LogConsumer::lag).register(registry);
+    this.retryAt = System.nanoTime();
+    this.thread = new Thread(this::run, "audit-writer");
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  /** Records an event; {@code userId}, {@code email} and {@code detail} may be {@code null}. */
+  public void record(AuditType type, UUID userId, String email, String detail) {
+    AuditEvent event =
+        new AuditEvent(
+            UUID.randomUUID(),
+            Instant.now(),
+            type,
+            userId,
+            LogUtils.maskEmail(email),
+            detail,
+            MDC.get("requestId"));
+    if (!queue.offer(event)) spill(List.of(event));
+  }
+
+  private void run() {
+    List<AuditEvent> batch = new ArrayList<>(batchSize);
+    while (running || !queue.isEmpty()) {
+      try {
+        AuditEvent first = queue.poll(flushNanos, TimeUnit.NANOSECONDS);
+        if (first != null) {
+          batch.add(first);
+          fill(batch);
+          write(batch);
+          batch.clear();
+        }
+        // spilled events wait until the queue has caught up
+        if (queue.size() < batchSize && spilled.lag() > 0) replay();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      } catch (RuntimeException e) {
+        log.error("Audit writer failed", e);
+        spill(batch);
+        batch.clear();
+      }
+    }
+  }
+
+  /** Adds to the batch until it is full or {@code flush-interval} after its first event. */
+  private void fill(List<AuditEvent> batch) throws InterruptedException {
+    long deadline = System.nanoTime() + flushNanos;
+    while (batch.size() < batchSize) {
+      queue.drainTo(batch, batchSize - batch.size());
+      long left = deadline - System.nanoTime();
+      if (batch.size() >= batchSize || left <= 0) return;
+      AuditEvent next = queue.poll(left, TimeUnit.NANOSECONDS);
+      if (next == null) return;
+      batch.add(next);
+    }
+  }
+
+  private void write(List<AuditEvent> batch) {
+    // while the database is failing, go straight to the spill rather than wait on each batch
+    if (System.nanoTime() - retryAt < 0) {
+      spill(batch);
+      return;
+    }
+    try {
+      writer.insert(batch);
+      written.increment(batch.size());
+    } catch (RuntimeException e) {
+      failed(e);
+      spill(batch);
+    }
+  }
+
+  private void replay() {
+    if (System.nanoTime() - retryAt < 0) return;
+    List<AuditEvent> events = new ArrayList<>();
+    spilled.poll(batchSize, r -> decode(r, events));
+    if (events.isEmpty()) {
+      // nothing readable; move past it
+      spilled.commit();
+      return;
+    }
+    try {
+      writer.insert(events);
+      spilled.commit();
+      written.increment(events.size());
+    } catch (RuntimeException e) {
+      spilled.rewind();
+      failed(e);
+    }
+  }
+
+  private void decode(LogRecord record, List<AuditEvent> into) {
+    try {
+      into.add(
+          objectMapper.readValue(
+              new ByteBufferBackedInputStream(record.payload()), AuditEvent.class));
+    } catch (IOException | RuntimeException e) {
+      log.error("Dropping unreadable spilled audit event at offset={}", record.offset(), e);
+      lost.increment();
+    }
+  }
+
+  private void failed(RuntimeException e) {
+    retryAt = System.nanoTime() + retryNanos;
+    log.warn("Audit insert failed, spilling until retry: {}", e.getMessage());
+  }
+
+  private void spill(List<AuditEvent> events) {
+    for (AuditEvent event : events) {
+      try {
+        spill
+            .append(SPILL_TYPE, objectMapper.writeValueAsBytes(event))
+            .whenComplete(
+                (offset, e) -> {
+                  if (e != null) {
+                    log.error("Audit event {} lost, spill failed", event.id(), e);
+                    lost.increment();
+                  }
+                });
+        spilledCount.increment();
+      } catch (IOException | RuntimeException e) {
+        log.error("Audit event {} lost, spill failed", event.id(), e);
+        lost.increment();
+      }
+    }
+  }
+
+  /** Writes or spills what is queued, waiting for the writer up to a few seconds. */
+  @Override
+  public void close() {
+    running = false;
+    try {
+      thread.join(5000);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    List<AuditEvent> left = new ArrayList<>();
+    queue.drainTo(left);
+    spill(left);
+    spill.close();
+  }
+}
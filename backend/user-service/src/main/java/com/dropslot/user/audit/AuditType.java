@@ -0,0 +1,17 @@
+package com.dropslot.user.audit;
+
+/** What an {@link AuditEvent} records; stored by name in {@code audit_events.type}. */
+public enum AuditType {
+  REGISTERED,
+  LOGIN_SUCCEEDED,
+  LOGIN_FAILED,
+  VERIFICATION_SENT,
+  EMAIL_VERIFIED,
+  VERIFICATION_FAILED,
+  PASSWORD_RESET_REQUESTED,
+  PASSWORD_RESET,
+  PASSWORD_RESET_FAILED,
+  TOKEN_ROTATED,
+  TOKEN_REJECTED,
+  DATA_EXPORTED
+}
@@ -45,8 +45,14 @@ public class SecurityConfig {
             authz ->
                 authz
                     .requestMatchers(
-                        "/auth/**", "/actuator/**", "/v3/api-docs/**", "/swagger-ui/**")
+                        "/auth/**",
+                        "/actuator/**",
+                        "/v3/api-docs/**",
+                        "/swagger-ui/**",
+                        "/openapi.json")
                     .permitAll()
+                    .requestMatchers("/admin/**")
+                    .hasAnyRole("ADMIN", "MANAGER")
                     .anyRequest()
                     .authenticated())
         .sessionManagement(
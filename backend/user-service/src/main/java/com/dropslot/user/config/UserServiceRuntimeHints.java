@@ -0,0 +1,75 @@
+package com.dropslot.user.config;
+
+import co.elastic.logging.AdditionalField;
+import co.elastic.logging.logback.EcsEncoder;
+import com.dropslot.user.api.dto.UserProfileDto;
+import com.dropslot.user.audit.AuditEvent;
+import com.dropslot.user.domain.RefreshToken;
+import com.dropslot.user.domain.Role;
+import com.dropslot.user.domain.User;
+import com.dropslot.user.domain.VerificationToken;
+import java.util.List;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+
+/**
+ * Reachability metadata for the native image that AOT processing cannot work out from the bean
+ * definitions: jjwt and the ECS encoder create their classes by name, and a few types only ever
+ * meet Jackson through the ObjectMapper or an untyped {@code ResponseEntity<?>}.
+ */
+public class UserServiceRuntimeHints implements RuntimeHintsRegistrar {
+  // jjwt-impl and jjwt-jackson are runtime-only dependencies, hence names rather than classes
+  static final List<String> JJWT_TYPES =
+      List.of(
+          "io.jsonwebtoken.impl.DefaultJwtBuilder",
+          "io.jsonwebtoken.impl.DefaultJwtParserBuilder",
+          "io.jsonwebtoken.impl.DefaultJwtParser",
+          "io.jsonwebtoken.impl.DefaultClaims",
+          "io.jsonwebtoken.impl.DefaultHeader",
+          "io.jsonwebtoken.impl.DefaultJwsHeader",
+          "io.jsonwebtoken.impl.compression.DeflateCompressionCodec",
+          "io.jsonwebtoken.impl.compression.GzipCompressionCodec",
+          "io.jsonwebtoken.jackson.io.JacksonSerializer",
+          "io.jsonwebtoken.jackson.io.JacksonDeserializer");
+
+  @Override
+  public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+    // Jwts instantiates the implementation reflectively and finds the codecs and the JSON
+    // (de)serializer through ServiceLoader
+    for (String type : JJWT_TYPES) {
+      hints
+          .reflection()
+          .registerType(TypeReference.of(type), MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS);
+    }
+    hints.resources().registerPattern("META-INF/services/io.jsonwebtoken.*");
+
+    // Joran builds the encoder from logback-spring.xml and calls its setters by name
+    for (Class<?> type : List.of(EcsEncoder.class, AdditionalField.class)) {
+      hints
+          .reflection()
+          .registerType(
+              type,
+              MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS,
+              MemberCategory.INVOKE_PUBLIC_METHODS);
+    }
+
+    // Hibernate goes through the Lombok-generated no-args constructors and sets fields directly
+    for (Class<?> entity :
+        List.of(User.class, Role.class, RefreshToken.class, VerificationToken.class)) {
+      hints
+          .reflection()
+          .registerType(
+              entity,
+              MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+              MemberCategory.DECLARED_FIELDS,
+              MemberCategory.INVOKE_DECLARED_METHODS);
+    }
+
+    // the audit spill is written with the ObjectMapper; register returns ResponseEntity<?>
+    new BindingReflectionHintsRegistrar()
+        .registerReflectionHints(hints.reflection(), AuditEvent.class, UserProfileDto.class);
+  }
+}
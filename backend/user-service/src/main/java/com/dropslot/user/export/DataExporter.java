@@ -0,0 +1,174 @@
+package com.dropslot.user.export;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.UUID;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Writes everything held about a user as NDJSON, one {@code type}d object per line: the profile,
+ * roles, sessions (refresh tokens, without the tokens), verification requests, the audit trail and
+ * finally the stores and branches held by store-service. Rows go from a JDBC cursor straight to the
+ * response, so memory use does not grow with the history.
+ */
+@Component
+public class DataExporter {
+  private static final Logger log = LoggerFactory.getLogger(DataExporter.class);
+  private static final int FETCH_SIZE = 500;
+
+  private final JdbcTemplate cursor;
+  private final TransactionTemplate readOnly;
+  private final StoreExportClient storeExportClient;
+  private final ObjectMapper objectMapper;
+
+  public DataExporter(
+      JdbcTemplate jdbcTemplate,
+      PlatformTransactionManager transactionManager,
+      StoreExportClient storeExportClient,
+      ObjectMapper objectMapper) {
+    this.cursor = new JdbcTemplate(jdbcTemplate.getDataSource());
+    cursor.setFetchSize(FETCH_SIZE);
+    this.readOnly = new TransactionTemplate(transactionManager);
+    readOnly.setReadOnly(true);
+    this.storeExportClient = storeExportClient;
+    this.objectMapper = objectMapper;
+  }
+
+  public void export(UUID userId, OutputStream out, ExportThrottle.Permit permit)
+      throws IOException {
+    JsonGenerator json = objectMapper.getFactory().createGenerator(out);
+    json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    json.setPrettyPrinter(new MinimalPrettyPrinter(""));
+    try {
+      // Postgres only streams with a cursor inside a transaction
+      readOnly.executeWithoutResult(s -> writeAccount(json, userId, permit));
+      json.flush();
+      try {
+        storeExportClient.copyStores(userId, out, permit::row);
+      } catch (RuntimeException e) {
+        // the account part has been sent already; say what is missing rather than fail silently
+        log.warn("Export of stores failed: {}", e.getMessage());
+        json.writeStartObject();
+        json.writeStringField("type", "error");
+        json.writeStringField("section", "stores");
+        json.writeStringField("message", "Stores could not be exported, please try again later");
+        json.writeEndObject();
+        json.writeRaw('\n');
+      }
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    } finally {
+      json.close();
+    }
+  }
+
+  private void writeAccount(JsonGenerator json, UUID userId, ExportThrottle.Permit permit) {
+    cursor.query(
+        "SELECT id, email, name, status, email_verified_at, created_at, updated_at FROM users"
+            + " WHERE id = ?",
+        line(
+            json,
+            permit,
+            rs -> {
+              json.writeStringField("type", "profile");
+              json.writeStringField("id", rs.getString("id"));
+              json.writeStringField("email", rs.getString("email"));
+              json.writeStringField("name", rs.getString("name"));
+              json.writeStringField("status", rs.getString("status"));
+              json.writeStringField("emailVerifiedAt", instant(rs, "email_verified_at"));
+              json.writeStringField("createdAt", instant(rs, "created_at"));
+              json.writeStringField("updatedAt", instant(rs, "updated_at"));
+            }),
+        userId);
+    cursor.query(
+        "SELECT r.code, r.name FROM roles r JOIN user_roles ur ON ur.role_id = r.id"
+            + " WHERE ur.user_id = ?",
+        line(
+            json,
+            permit,
+            rs -> {
+              json.writeStringField("type", "role");
+              json.writeStringField("code", rs.getString("code"));
+              json.writeStringField("name", rs.getString("name"));
+            }),
+        userId);
+    cursor.query(
+        "SELECT issued_at, expires_at, revoked FROM refresh_tokens WHERE user_id = ?"
+            + " ORDER BY issued_at",
+        line(
+            json,
+            permit,
+            rs -> {
+              json.writeStringField("type", "session");
+              json.writeStringField("issuedAt", instant(rs, "issued_at"));
+              json.writeStringField("expiresAt", instant(rs, "expires_at"));
+              json.writeBooleanField("revoked", rs.getBoolean("revoked"));
+            }),
+        userId);
+    cursor.query(
+        "SELECT v.type, v.created_at, v.expires_at FROM verification_tokens v"
+            + " JOIN users u ON v.email = lower(u.email) WHERE u.id = ? ORDER BY v.created_at",
+        line(
+            json,
+            permit,
+            rs -> {
+              json.writeStringField("type", "verification");
+              json.writeStringField("purpose", rs.getString("type"));
+              json.writeStringField("createdAt", instant(rs, "created_at"));
+              json.writeStringField("expiresAt", instant(rs, "expires_at"));
+            }),
+        userId);
+    cursor.query(
+        "SELECT occurred_at, type, detail, request_id FROM audit_events WHERE user_id = ?"
+            + " ORDER BY occurred_at",
+        line(
+            json,
+            permit,
+            rs -> {
+              json.writeStringField("type", "audit");
+              json.writeStringField("event", rs.getString("type"));
+              json.writeStringField("occurredAt", instant(rs, "occurred_at"));
+              json.writeStringField("detail", rs.getString("detail"));
+              json.writeStringField("requestId", rs.getString("request_id"));
+            }),
+        userId);
+  }
+
+  private interface Fields {
+    void write(ResultSet rs) throws SQLException, IOException;
+  }
+
+  private static RowCallbackHandler line(
+      JsonGenerator json, ExportThrottle.Permit permit, Fields fields) {
+    return rs -> {
+      try {
+        json.writeStartObject();
+        fields.write(rs);
+        json.writeEndObject();
+        json.writeRaw('\n');
+      } catch (IOException e) {
+        // the client went away; stop reading
+        throw new UncheckedIOException(e);
+      }
+      permit.row();
+    };
+  }
+
+  private static String instant(ResultSet rs, String column) throws SQLException {
+    Timestamp ts = rs.getTimestamp(column);
+    return ts == null ? null : ts.toInstant().toString();
+  }
+}
@@ -0,0 +1,17 @@
+package com.dropslot.user.export;
+
+import java.time.Duration;
+
+/** An export was refused because the user exported recently or too many are running. */
+public class ExportRateLimitedException extends RuntimeException {
+  private final Duration retryAfter;
+
+  public ExportRateLimitedException(String message, Duration retryAfter) {
+    super(message);
+    this.retryAfter = retryAfter;
+  }
+
+  public Duration getRetryAfter() {
+    return retryAfter;
+  }
+}
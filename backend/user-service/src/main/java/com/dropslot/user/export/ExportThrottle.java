@@ -0,0 +1,94 @@
+package com.dropslot.user.export;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongConsumer;
+import java.util.function.LongSupplier;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps data exports from competing with regular traffic: at most {@code max-concurrent} run at a
+ * time, each user may start one per {@code cooldown}, and a running export writes at most {@code
+ * rows-per-second} lines, so it holds one connection for a while rather than loading the database.
+ */
+@Component
+public class ExportThrottle {
+  private final Semaphore running;
+  private final long cooldownNanos;
+  private final long nanosPerRow;
+  private final LongSupplier clock;
+  private final LongConsumer sleeper;
+  private final Map<UUID, Long> lastStarted = new ConcurrentHashMap<>();
+
+  @Autowired
+  public ExportThrottle(
+      @Value("${export.max-concurrent:2}") int maxConcurrent,
+      @Value("${export.cooldown:10m}") Duration cooldown,
+      @Value("${export.rows-per-second:2000}") int rowsPerSecond) {
+    this(maxConcurrent, cooldown, rowsPerSecond, System::nanoTime, LockSupport::parkNanos);
+  }
+
+  ExportThrottle(
+      int maxConcurrent,
+      Duration cooldown,
+      int rowsPerSecond,
+      LongSupplier clock,
+      LongConsumer sleeper) {
+    this.running = new Semaphore(maxConcurrent);
+    this.cooldownNanos = cooldown.toNanos();
+    this.nanosPerRow = 1_000_000_000L / rowsPerSecond;
+    this.clock = clock;
+    this.sleeper = sleeper;
+  }
+
+  /** Starts an export for the user; the permit must be closed when it ends. */
+  public Permit acquire(UUID userId) {
+    long now = clock.getAsLong();
+    lastStarted.values().removeIf(started -> now - started >= cooldownNanos);
+    Long previous = lastStarted.putIfAbsent(userId, now);
+    if (previous != null) {
+      throw new ExportRateLimitedException(
+          "An export was started recently", Duration.ofNanos(cooldownNanos - (now - previous)));
+    }
+    if (!running.tryAcquire()) {
+      lastStarted.remove(userId, now);
+      throw new ExportRateLimitedException("Too many exports running", Duration.ofSeconds(30));
+    }
+    return new Permit(now);
+  }
+
+  public final class Permit implements AutoCloseable {
+    private final long started;
+    private long rows;
+    private boolean closed;
+
+    private Permit(long started) {
+      this.started = started;
+    }
+
+    /** Counts a written line, pausing while the export is ahead of its rate. */
+    public void row() {
+      rows++;
+      long ahead = started + rows * nanosPerRow - clock.getAsLong();
+      // sleeping for less than this costs more than it saves
+      if (ahead > 1_000_000) sleeper.accept(ahead);
+    }
+
+    public long rows() {
+      return rows;
+    }
+
+    @Override
+    public void close() {
+      if (closed) return;
+      closed = true;
+      running.release();
+    }
+  }
+}
@@ -0,0 +1,69 @@
+package com.dropslot.user.export;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.UUID;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.client.ClientHttpRequestFactories;
+import org.springframework.boot.web.client.ClientHttpRequestFactorySettings;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+/** Streams a user's stores and branches from store-service, which owns them. */
+@Component
+public class StoreExportClient {
+  private final RestClient restClient;
+
+  public StoreExportClient(
+      RestClient.Builder builder,
+      @Value("${export.store-service-url}") String storeServiceUrl,
+      @Value("${export.store-service-timeout:30s}") Duration timeout) {
+    this.restClient =
+        builder
+            .baseUrl(storeServiceUrl)
+            .requestFactory(
+                ClientHttpRequestFactories.get(
+                    ClientHttpRequestFactorySettings.DEFAULTS
+                        .withConnectTimeout(Duration.ofMillis(500))
+                        .withReadTimeout(timeout)))
+            .build();
+  }
+
+  /**
+   * Copies the NDJSON lines of the user's stores to {@code out} as they arrive, calling {@code
+   * onLine} after each. Only whole lines are copied, so a broken upstream response never leaves a
+   * partial line behind.
+   */
+  public void copyStores(UUID userId, OutputStream out, Runnable onLine) {
+    restClient
+        .get()
+        .uri("/stores/export")
+        .header("X-User-Id", userId.toString())
+        .exchange(
+            (request, response) -> {
+              if (!response.getStatusCode().is2xxSuccessful()) {
+                throw new IllegalStateException(
+                    "store-service answered " + response.getStatusCode().value());
+              }
+              ByteArrayOutputStream line = new ByteArrayOutputStream(512);
+              byte[] buf = new byte[8192];
+              try (InputStream in = response.getBody()) {
+                for (int n; (n = in.read(buf)) > 0; ) {
+                  int from = 0;
+                  for (int i = 0; i < n; i++) {
+                    if (buf[i] != '\n') continue;
+                    line.write(buf, from, i + 1 - from);
+                    line.writeTo(out);
+                    line.reset();
+                    from = i + 1;
+                    onLine.run();
+                  }
+                  line.write(buf, from, n - from);
+                }
+              }
+              return null;
+            });
+  }
+}
@@ -0,0 +1,38 @@
+package com.dropslot.user.repo;
+
+import com.dropslot.user.audit.AuditEvent;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+/** Writes audit events with one multi-row INSERT per batch; events already stored are skipped. */
+@Repository
+@RequiredArgsConstructor
+public class AuditEventWriter {
+  private final JdbcTemplate jdbc;
+
+  public void insert(List<AuditEvent> events) {
+    if (events.isEmpty()) return;
+    StringBuilder sql =
+        new StringBuilder(
+            "INSERT INTO audit_events"
+                + " (id, occurred_at, type, user_id, subject, detail, request_id) VALUES ");
+    List<Object> args = new ArrayList<>(events.size() * 7);
+    for (int i = 0; i < events.size(); i++) {
+      AuditEvent e = events.get(i);
+      sql.append(i == 0 ? "" : ", ").append("(?, ?, ?, ?, ?, ?, ?)");
+      args.add(e.id());
+      args.add(Timestamp.from(e.occurredAt()));
+      args.add(e.type().name());
+      args.add(e.userId());
+      args.add(e.subject());
+      args.add(e.detail());
+      args.add(e.requestId());
+    }
+    sql.append(" ON CONFLICT (id) DO NOTHING");
+    jdbc.update(sql.toString(), args.toArray());
+  }
+}
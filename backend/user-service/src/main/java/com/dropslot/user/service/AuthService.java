@@ -1,7 +1,11 @@
 package com.dropslot.user.service;
 
+import com.dropslot.common.rollup.Rollups;
+import com.dropslot.eventlog.DomainEvents;
 import com.dropslot.user.api.dto.AuthDtos;
 import com.dropslot.user.api.dto.UserProfileDto;
+import com.dropslot.user.audit.AuditTrail;
+import com.dropslot.user.audit.AuditType;
 import com.dropslot.user.domain.RefreshToken;
 import com.dropslot.user.domain.Role;
 import com.dropslot.user.domain.User;
@@ -36,6 +40,9 @@ public class AuthService {
   private final RefreshTokenRepository refreshTokenRepository;
   private final VerificationTokenRepository verificationTokenRepository;
   private final Mailer mailer;
+  private final DomainEvents domainEvents;
+  private final Rollups rollups;
+  private final AuditTrail auditTrail;
 
   @Transactional
   public UserProfileDto register(AuthDtos.RegisterRequest request) {
@@ -63,6 +70,9 @@ public class AuthService {
     user.getRoles().add(customerRole);
     userRepository.save(user);
     log.info("User registered id={} email={}", user.getId(), LogUtils.maskEmail(user.getEmail()));
+    domainEvents.publish("user.registered", Map.of("userId", user.getId()));
+    rollups.record("registrations", null, user.getId());
+    auditTrail.record(AuditType.REGISTERED, user.getId(), user.getEmail(), null);
     return toProfile(user);
   }
 
@@ -71,12 +81,19 @@ public class AuthService {
     User user =
         userRepository
             .findByEmail(request.email())
-            .orElseThrow(() -> new IllegalArgumentException("Invalid credentials"));
+            .orElseThrow(
+                () -> {
+                  auditTrail.record(
+                      AuditType.LOGIN_FAILED, null, request.email(), "unknown account");
+                  return new IllegalArgumentException("Invalid credentials");
+                });
     log.debug("Loaded user id={} for login", user.getId());
     if (!passwordEncoder.matches(request.password(), user.getPasswordHash())) {
+      auditTrail.record(AuditType.LOGIN_FAILED, user.getId(), request.email(), "bad password");
       throw new IllegalArgumentException("Invalid credentials");
     }
     if (!"ACTIVE".equals(user.getStatus())) {
+      auditTrail.record(AuditType.LOGIN_FAILED, user.getId(), request.email(), "not active");
       throw new IllegalArgumentException(
           "Account not active. Please verify your email before logging in.");
     }
@@ -96,6 +113,9 @@ public class AuthService {
             .revoked(false)
             .build();
     refreshTokenRepository.save(tokenEntity);
+    domainEvents.publish("user.logged_in", Map.of("userId", user.getId()));
+    rollups.record("logins", null, user.getId());
+    auditTrail.record(AuditType.LOGIN_SUCCEEDED, user.getId(), request.email(), null);
     LogUtils.putUserContext(user.getId().toString());
     try {
       log.info("Login successful jti={}", jti);
@@ -131,6 +151,7 @@ public class AuthService {
     verificationTokenRepository.deleteByEmailAndType(email.toLowerCase(), "VERIFY");
     verificationTokenRepository.save(vt);
     mailer.send(email, "Verify your account", "Your verification code: " + token);
+    auditTrail.record(AuditType.VERIFICATION_SENT, null, email, null);
     log.info("Verification token created and emailed to={}", LogUtils.maskEmail(email));
   }
 
@@ -140,16 +161,19 @@ public class AuthService {
     var opt = verificationTokenRepository.findByEmailAndType(email.toLowerCase(), "VERIFY");
     if (opt.isEmpty()) {
       log.info("Verification failed (no token) for email={}", LogUtils.maskEmail(email));
+      auditTrail.record(AuditType.VERIFICATION_FAILED, null, email, "no code");
       throw new IllegalArgumentException("Invalid verification code");
     }
     var vt = opt.get();
     if (vt.getExpiresAt() != null && vt.getExpiresAt().isBefore(Instant.now())) {
       // cleanup expired token
       verificationTokenRepository.deleteByEmailAndType(email.toLowerCase(), "VERIFY");
+      auditTrail.record(AuditType.VERIFICATION_FAILED, null, email, "expired");
       throw new IllegalArgumentException("Verification code expired");
     }
     if (!vt.getToken().equals(code)) {
       log.info("Verification failed (invalid code) for email={}", LogUtils.maskEmail(email));
+      auditTrail.record(AuditType.VERIFICATION_FAILED, null, email, "invalid code");
       throw new IllegalArgumentException("Invalid verification code");
     }
     userRepository
@@ -158,6 +182,8 @@ public class AuthService {
             u -> {
               u.setStatus("ACTIVE");
               userRepository.save(u);
+              domainEvents.publish("user.verified", Map.of("userId", u.getId()));
+              auditTrail.record(AuditType.EMAIL_VERIFIED, u.getId(), email, null);
             });
     verificationTokenRepository.deleteByEmailAndType(email.toLowerCase(), "VERIFY");
     log.info("Email verified and account activated for email={}", LogUtils.maskEmail(email));
@@ -179,6 +205,7 @@ public class AuthService {
     verificationTokenRepository.deleteByEmailAndType(email.toLowerCase(), "RESET");
     verificationTokenRepository.save(vt);
     mailer.send(email, "Password reset", "Your password reset token: " + token);
+    auditTrail.record(AuditType.PASSWORD_RESET_REQUESTED, null, email, null);
     log.info("Password reset token created and emailed to={}", LogUtils.maskEmail(email));
   }
 
@@ -188,15 +215,18 @@ public class AuthService {
     var opt = verificationTokenRepository.findByEmailAndType(email.toLowerCase(), "RESET");
     if (opt.isEmpty()) {
       log.info("Password reset failed (no token) for email={}", LogUtils.maskEmail(email));
+      auditTrail.record(AuditType.PASSWORD_RESET_FAILED, null, email, "no token");
       throw new IllegalArgumentException("Invalid password reset token");
     }
     var vt = opt.get();
     if (vt.getExpiresAt() != null && vt.getExpiresAt().isBefore(Instant.now())) {
       verificationTokenRepository.deleteByEmailAndType(email.toLowerCase(), "RESET");
+      auditTrail.record(AuditType.PASSWORD_RESET_FAILED, null, email, "expired");
       throw new IllegalArgumentException("Password reset token expired");
     }
     if (!vt.getToken().equals(token)) {
       log.info("Password reset failed (invalid token) for email={}", LogUtils.maskEmail(email));
+      auditTrail.record(AuditType.PASSWORD_RESET_FAILED, null, email, "invalid token");
       throw new IllegalArgumentException("Invalid password reset token");
     }
     userRepository
@@ -205,6 +235,7 @@ public class AuthService {
             u -> {
               u.setPasswordHash(passwordEncoder.encode(newPassword));
               userRepository.save(u);
+              auditTrail.record(AuditType.PASSWORD_RESET, u.getId(), email, null);
             });
     verificationTokenRepository.deleteByEmailAndType(email.toLowerCase(), "RESET");
     log.info("Password has been reset for email={}", LogUtils.maskEmail(email));
@@ -214,18 +245,30 @@ public class AuthService {
   public AuthDtos.TokenResponse refreshAccessToken(String refreshToken) {
     if (!jwtService.isTokenValid(refreshToken)) {
       log.info("Refresh token invalid or malformed");
+      auditTrail.record(AuditType.TOKEN_REJECTED, null, null, "invalid");
       throw new IllegalArgumentException("Invalid refresh token");
     }
     String jti = jwtService.extractJti(refreshToken);
-    if (jti == null) throw new IllegalArgumentException("Invalid refresh token (missing jti)");
+    if (jti == null) {
+      auditTrail.record(AuditType.TOKEN_REJECTED, null, null, "missing jti");
+      throw new IllegalArgumentException("Invalid refresh token (missing jti)");
+    }
 
     var stored =
         refreshTokenRepository
             .findByJti(jti)
             .orElseThrow(
-                () -> new IllegalArgumentException("Refresh token not found or already used"));
+                () -> {
+                  auditTrail.record(AuditType.TOKEN_REJECTED, null, null, "unknown jti");
+                  return new IllegalArgumentException("Refresh token not found or already used");
+                });
     if (stored.isRevoked() || stored.getExpiresAt().isBefore(Instant.now())) {
       log.info("Refresh token revoked/expired jti={}", jti);
+      auditTrail.record(
+          AuditType.TOKEN_REJECTED,
+          stored.getUserId(),
+          null,
+          stored.isRevoked() ? "revoked" : "expired");
       throw new IllegalArgumentException("Refresh token expired or revoked");
     }
 
@@ -256,6 +299,8 @@ public class AuthService {
             .revoked(false)
             .build();
     refreshTokenRepository.save(newEntity);
+    rollups.record("refreshes", null, user.getId());
+    auditTrail.record(AuditType.TOKEN_ROTATED, user.getId(), null, null);
     LogUtils.putUserContext(user.getId().toString());
     try {
       log.info("Refresh token rotated newJti={}", newJti);
@@ -0,0 +1,16 @@
+--liquibase formatted sql
+--changeset ckenkub:08
+-- Audit trail of auth events, written in batches by AuditTrail; subject is the masked email
+CREATE TABLE IF NOT EXISTS audit_events (
+    id UUID PRIMARY KEY,
+    occurred_at TIMESTAMP NOT NULL,
+    type VARCHAR(40) NOT NULL,
+    user_id UUID,
+    subject VARCHAR(255),
+    detail VARCHAR(255),
+    request_id VARCHAR(64)
+);
+CREATE INDEX IF NOT EXISTS idx_audit_events_occurred_at ON audit_events(occurred_at);
+CREATE INDEX IF NOT EXISTS idx_audit_events_user_id ON audit_events(user_id, occurred_at);
+
+--rollback DROP TABLE IF EXISTS audit_events;
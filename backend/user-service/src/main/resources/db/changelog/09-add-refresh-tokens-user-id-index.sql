@@ -0,0 +1,6 @@
+--liquibase formatted sql
+--changeset ckenkub:09
+-- Data exports list a user's sessions
+CREATE INDEX IF NOT EXISTS idx_refresh_tokens_user_id ON refresh_tokens(user_id);
+
+--rollback DROP INDEX IF EXISTS idx_refresh_tokens_user_id;
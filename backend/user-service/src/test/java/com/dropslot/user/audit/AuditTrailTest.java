@@ -0,0 +1,103 @@
+package com.dropslot.user.audit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+import com.dropslot.eventlog.EventLog;
+import com.dropslot.user.repo.AuditEventWriter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.awaitility.Awaitility;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+class AuditTrailTest {
+  @TempDir Path dir;
+
+  private final AuditEventWriter writer = mock(AuditEventWriter.class);
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+  private AuditTrail trail(int capacity, int batchSize, Duration flushInterval) throws Exception {
+    EventLog spill =
+        EventLog.open(
+            new EventLog.Settings(
+                dir, 4096, Duration.ofMillis(1), Duration.ofDays(1), Long.MAX_VALUE));
+    return new AuditTrail(
+        writer,
+        new ObjectMapper().findAndRegisterModules(),
+        registry,
+        capacity,
+        batchSize,
+        flushInterval,
+        Duration.ofMillis(100),
+        spill);
+  }
+
+  @Test
+  void writesFullBatchesAndTheRestAfterTheFlushInterval() throws Exception {
+    List<Integer> batches = new CopyOnWriteArrayList<>();
+    doAnswer(inv -> batches.add(inv.<List<AuditEvent>>getArgument(0).size()))
+        .when(writer)
+        .insert(anyList());
+    try (AuditTrail trail = trail(100, 10, Duration.ofMillis(300))) {
+      for (int i = 0; i < 25; i++) {
+        trail.record(AuditType.LOGIN_SUCCEEDED, UUID.randomUUID(), "ann@example.com", null);
+      }
+      Awaitility.await().atMost(Duration.ofSeconds(5)).until(() -> batches.size() == 3);
+    }
+    assertThat(batches).containsExactly(10, 10, 5);
+    assertThat(registry.counter("audit.events.written").count()).isEqualTo(25);
+  }
+
+  @Test
+  void overflowAndFailedBatchesAreSpilledAndWrittenOnceTheDatabaseIsBack() throws Exception {
+    CountDownLatch stalled = new CountDownLatch(1);
+    AtomicInteger calls = new AtomicInteger();
+    Map<UUID, AuditEvent> stored = new ConcurrentHashMap<>();
+    doAnswer(
+            inv -> {
+              if (calls.getAndIncrement() == 0) {
+                stalled.await();
+                throw new DataAccessResourceFailureException("down");
+              }
+              inv.<List<AuditEvent>>getArgument(0).forEach(e -> stored.put(e.id(), e));
+              return null;
+            })
+        .when(writer)
+        .insert(anyList());
+    try (AuditTrail trail = trail(2, 10, Duration.ofMillis(10))) {
+      trail.record(AuditType.LOGIN_FAILED, null, "ann@example.com", "bad password");
+      Awaitility.await().atMost(Duration.ofSeconds(5)).until(() -> calls.get() == 1);
+      // two fit on the queue while the writer is stuck, the rest go to the spill
+      for (int i = 0; i < 6; i++) {
+        trail.record(AuditType.TOKEN_ROTATED, UUID.randomUUID(), null, null);
+      }
+      assertThat(registry.counter("audit.events.spilled").count()).isEqualTo(4);
+      stalled.countDown();
+
+      Awaitility.await().atMost(Duration.ofSeconds(5)).until(() -> stored.size() == 7);
+    }
+    assertThat(stored.values())
+        .filteredOn(e -> e.type() == AuditType.LOGIN_FAILED)
+        .singleElement()
+        .satisfies(
+            e -> {
+              assertThat(e.subject()).isEqualTo("a***@example.com");
+              assertThat(e.detail()).isEqualTo("bad password");
+            });
+    assertThat(registry.counter("audit.events.lost").count()).isZero();
+    assertThat(registry.get("audit.spill.lag.bytes").gauge().value()).isZero();
+  }
+}
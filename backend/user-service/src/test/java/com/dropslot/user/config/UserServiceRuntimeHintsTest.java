@@ -0,0 +1,68 @@
+package com.dropslot.user.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import co.elastic.logging.logback.EcsEncoder;
+import com.dropslot.user.audit.AuditEvent;
+import com.dropslot.user.domain.User;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+class UserServiceRuntimeHintsTest {
+  private final RuntimeHints hints = new RuntimeHints();
+
+  UserServiceRuntimeHintsTest() {
+    new UserServiceRuntimeHints().registerHints(hints, getClass().getClassLoader());
+  }
+
+  @Test
+  void coversEveryJjwtServiceImplementationOnTheClasspath() throws IOException {
+    for (String service :
+        List.of(
+            "io.jsonwebtoken.io.Serializer",
+            "io.jsonwebtoken.io.Deserializer",
+            "io.jsonwebtoken.CompressionCodec")) {
+      String resource = "META-INF/services/" + service;
+      assertThat(RuntimeHintsPredicates.resource().forResource(resource)).accepts(hints);
+      for (URL url : Collections.list(getClass().getClassLoader().getResources(resource))) {
+        try (InputStream in = url.openStream()) {
+          // an upgrade that adds an implementation should fail here rather than in the image
+          new String(in.readAllBytes(), StandardCharsets.UTF_8)
+              .lines()
+              .map(String::strip)
+              .filter(line -> !line.isEmpty() && !line.startsWith("#"))
+              .forEach(impl -> assertThat(UserServiceRuntimeHints.JJWT_TYPES).contains(impl));
+        }
+      }
+    }
+  }
+
+  @Test
+  void namesOnlyClassesThatExist() throws ClassNotFoundException {
+    for (String type : UserServiceRuntimeHints.JJWT_TYPES) {
+      Class.forName(type);
+      assertThat(
+              RuntimeHintsPredicates.reflection()
+                  .onType(TypeReference.of(type))
+                  .withMemberCategory(MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS))
+          .accepts(hints);
+    }
+    assertThat(RuntimeHintsPredicates.reflection().onType(EcsEncoder.class)).accepts(hints);
+    assertThat(
+            RuntimeHintsPredicates.reflection()
+                .onType(User.class)
+                .withMemberCategory(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS))
+        .accepts(hints);
+    assertThat(RuntimeHintsPredicates.reflection().onMethod(AuditEvent.class, "subject"))
+        .accepts(hints);
+  }
+}
@@ -0,0 +1,64 @@
+package com.dropslot.user.export;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class ExportThrottleTest {
+  private final AtomicLong now = new AtomicLong(1_000_000_000L);
+  private final AtomicLong slept = new AtomicLong();
+
+  private ExportThrottle throttle(int maxConcurrent, int rowsPerSecond) {
+    return new ExportThrottle(
+        maxConcurrent,
+        Duration.ofMinutes(10),
+        rowsPerSecond,
+        now::get,
+        nanos -> {
+          slept.addAndGet(nanos);
+          now.addAndGet(nanos);
+        });
+  }
+
+  @Test
+  void limitsExportsPerUserAndAtATime() {
+    ExportThrottle throttle = throttle(1, 1000);
+    UUID ann = UUID.randomUUID();
+    UUID bob = UUID.randomUUID();
+
+    ExportThrottle.Permit first = throttle.acquire(ann);
+    assertThatThrownBy(() -> throttle.acquire(bob))
+        .isInstanceOf(ExportRateLimitedException.class)
+        .hasMessageContaining("Too many");
+    first.close();
+    first.close();
+
+    now.addAndGet(Duration.ofMinutes(4).toNanos());
+    assertThatThrownBy(() -> throttle.acquire(ann))
+        .isInstanceOfSatisfying(
+            ExportRateLimitedException.class,
+            e -> assertThat(e.getRetryAfter()).isEqualTo(Duration.ofMinutes(6)));
+    // bob was turned away for capacity only, so he may try again straight away
+    throttle.acquire(bob).close();
+
+    now.addAndGet(Duration.ofMinutes(6).toNanos());
+    throttle.acquire(ann).close();
+  }
+
+  @Test
+  void pacesLinesToTheConfiguredRate() {
+    ExportThrottle throttle = throttle(2, 1000);
+    try (ExportThrottle.Permit permit = throttle.acquire(UUID.randomUUID())) {
+      // a millisecond's worth is not worth a sleep
+      permit.row();
+      assertThat(slept.get()).isZero();
+      for (int i = 0; i < 2999; i++) permit.row();
+      assertThat(permit.rows()).isEqualTo(3000);
+    }
+    assertThat(Duration.ofNanos(slept.get())).isEqualTo(Duration.ofSeconds(3));
+  }
+}
@@ -3,7 +3,11 @@ package com.dropslot.user.service;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
+import com.dropslot.common.rollup.Rollups;
+import com.dropslot.eventlog.DomainEvents;
 import com.dropslot.user.api.dto.AuthDtos;
+import com.dropslot.user.audit.AuditTrail;
+import com.dropslot.user.audit.AuditType;
 import com.dropslot.user.domain.RefreshToken;
 import com.dropslot.user.domain.Role;
 import com.dropslot.user.domain.User;
@@ -30,6 +34,9 @@ class AuthServiceTest {
   private RefreshTokenRepository refreshTokenRepository;
   private VerificationTokenRepository verificationTokenRepository;
   private Mailer mailer;
+  private DomainEvents domainEvents;
+  private Rollups rollups;
+  private AuditTrail auditTrail;
   private AuthService authService;
 
   @BeforeEach
@@ -41,6 +48,9 @@ class AuthServiceTest {
     refreshTokenRepository = mock(RefreshTokenRepository.class);
     verificationTokenRepository = mock(VerificationTokenRepository.class);
     mailer = mock(Mailer.class);
+    domainEvents = mock(DomainEvents.class);
+    rollups = mock(Rollups.class);
+    auditTrail = mock(AuditTrail.class);
     authService =
         new AuthService(
             userRepository,
@@ -49,7 +59,10 @@ class AuthServiceTest {
             jwtService,
             refreshTokenRepository,
             verificationTokenRepository,
-            mailer);
+            mailer,
+            domainEvents,
+            rollups,
+            auditTrail);
   }
 
   @Test
@@ -112,6 +125,8 @@ class AuthServiceTest {
     RefreshToken second = saved.get(1);
     assertFalse(second.isRevoked());
     assertNotNull(second.getJti());
+    verify(rollups).record("refreshes", null, UUID.fromString(userId));
+    verify(auditTrail).record(AuditType.TOKEN_ROTATED, UUID.fromString(userId), null, null);
   }
 
   @Test
@@ -139,6 +154,7 @@ class AuthServiceTest {
     assertTrue(
         ex.getMessage().toLowerCase().contains("expired")
             || ex.getMessage().toLowerCase().contains("revoked"));
+    verify(auditTrail).record(AuditType.TOKEN_REJECTED, stored.getUserId(), null, "revoked");
   }
 
   @Test
@@ -160,6 +176,7 @@ class AuthServiceTest {
     authService.verifyEmail(email, code);
 
     verify(userRepository).save(any(User.class));
+    verify(domainEvents).publish("user.verified", java.util.Map.of("userId", user.getId()));
     verify(verificationTokenRepository).deleteByEmailAndType(email.toLowerCase(), "VERIFY");
   }
 